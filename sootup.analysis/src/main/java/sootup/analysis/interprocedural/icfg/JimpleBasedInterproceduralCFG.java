@@ -31,18 +31,21 @@ import heros.ThreadSafe;
 import heros.solver.IDESolver;
 import java.util.*;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.callgraph.CallGraph;
 import sootup.callgraph.CallGraphAlgorithm;
+import sootup.callgraph.CallSite;
 import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.views.View;
 import sootup.java.core.views.JavaView;
@@ -72,15 +75,25 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
         @Override
         public Collection<SootMethod> load(Stmt stmt) {
           ArrayList<SootMethod> res = new ArrayList<>();
-          MethodSignature methodSignature = stmt.getInvokeExpr().getMethodSignature();
-          Optional<? extends SootMethod> smOpt = view.getMethod(methodSignature);
-          if (smOpt.isPresent()) {
-            SootMethod sm = smOpt.get();
-            if (sm.hasBody()) {
-              res.add(sm);
-            } else {
-              logger.error(
-                  "Method {} is referenced but has no body!", sm.getSignature(), new Exception());
+          // with the containing method, call graphs built on demand can resolve its calls
+          Body body = isReachable(stmt) ? getBodyOf(stmt) : null;
+          Set<MethodSignature> callees =
+              body == null
+                  ? cg.calleesOf(stmt)
+                  : cg.calleesOf(new CallSite(body.getMethodSignature(), stmt));
+          if (callees.isEmpty() && body != null) {
+            callees = calleesWithoutCallSite(body.getMethodSignature(), stmt);
+          }
+          for (MethodSignature methodSignature : callees) {
+            Optional<? extends SootMethod> smOpt = view.getMethod(methodSignature);
+            if (smOpt.isPresent()) {
+              SootMethod sm = smOpt.get();
+              if (sm.hasBody()) {
+                res.add(sm);
+              } else if (!sm.isAbstract()) {
+                logger.error(
+                    "Method {} is referenced but has no body!", sm.getSignature(), new Exception());
+              }
             }
           }
           res.trimToSize();
@@ -99,39 +112,37 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
           ArrayList<Stmt> res = new ArrayList<>();
           // only retain callers that are explicit call sites or
           // Thread.start()
-          Set<MethodSignature> callsToMethod = cg.callsTo(method.getSignature());
-          for (MethodSignature methodSignature : callsToMethod) {
-            Stmt stmt = filterEdgeAndGetCallerStmt(methodSignature);
-            if (stmt != null) {
-              res.add(stmt);
+          Set<MethodSignature> callersWithCallSite = new HashSet<>();
+          for (CallSite callSite : cg.callersOf(method.getSignature())) {
+            callersWithCallSite.add(callSite.getSourceMethod());
+            if (isRetainedCall(callSite.getInvokeExpr())) {
+              res.add(callSite.getStmt());
             }
           }
-          res.trimToSize();
-          return res;
-        }
-
-        /**
-         * returns SootMethod if accepted, null otherwise
-         *
-         * @param methodSignature
-         */
-        @Nullable
-        private Stmt filterEdgeAndGetCallerStmt(@Nonnull MethodSignature methodSignature) {
-          Set<Pair<MethodSignature, CalleeMethodSignature>> callEdges =
-              CGEdgeUtil.getCallEdges(view, cg);
-          for (Pair<MethodSignature, CalleeMethodSignature> callEdge : callEdges) {
-            CalleeMethodSignature callee = callEdge.getValue();
-            if (callee.getMethodSignature().equals(methodSignature)) {
-              CGEdgeUtil.CallGraphEdgeType edgeType = callee.getEdgeType();
-              if (edgeType.isExplicit()
-                  || edgeType.isFake()
-                  || edgeType.isClinit()
-                  || (includeReflectiveCalls && edgeType.isReflection())) {
-                return callee.getSourceStmt();
+          // calls that were added without their call site are only known per method
+          if (cg.containsMethod(method.getSignature())) {
+            MethodSubSignature subSignature = method.getSignature().getSubSignature();
+            for (MethodSignature caller : cg.callsTo(method.getSignature())) {
+              if (callersWithCallSite.contains(caller)) {
+                continue;
+              }
+              Optional<? extends SootMethod> callerOpt = view.getMethod(caller);
+              if (callerOpt.isPresent() && callerOpt.get().hasBody()) {
+                for (Stmt stmt : callerOpt.get().getBody().getStmtGraph().nodes()) {
+                  if (stmt.containsInvokeExpr()
+                      && stmt.getInvokeExpr()
+                          .getMethodSignature()
+                          .getSubSignature()
+                          .equals(subSignature)
+                      && isRetainedCall(stmt.getInvokeExpr())) {
+                    res.add(stmt);
+                  }
+                }
               }
             }
           }
-          return null;
+          res.trimToSize();
+          return res;
         }
       };
 
@@ -165,6 +176,36 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
     }
   }
 
+  /**
+   * Returns the callees of calls from <code>caller</code> that were added to the call graph without
+   * their call site, i.e. the callees with the sub-signature of the invoke expression in <code>
+   * stmt</code>.
+   */
+  @Nonnull
+  private Set<MethodSignature> calleesWithoutCallSite(
+      @Nonnull MethodSignature caller, @Nonnull Stmt stmt) {
+    if (!cg.containsMethod(caller)) {
+      return Collections.emptySet();
+    }
+    MethodSubSignature subSignature = stmt.getInvokeExpr().getMethodSignature().getSubSignature();
+    Set<MethodSignature> callees = new LinkedHashSet<>();
+    for (MethodSignature callee : cg.callsFrom(caller)) {
+      if (callee.getSubSignature().equals(subSignature)) {
+        callees.add(callee);
+      }
+    }
+    return callees;
+  }
+
+  /** Returns true for explicit calls, calls to Thread.start() and enabled reflective calls. */
+  private boolean isRetainedCall(@Nonnull AbstractInvokeExpr invokeExpr) {
+    CGEdgeUtil.CallGraphEdgeType edgeType = CGEdgeUtil.findCallGraphEdgeType(invokeExpr);
+    return edgeType.isExplicit()
+        || edgeType.isFake()
+        || edgeType.isClinit()
+        || (includeReflectiveCalls && edgeType.isReflection());
+  }
+
   @Override
   public Collection<SootMethod> getCalleesOfCallAt(@Nonnull Stmt u) {
     return stmtToCallees.getUnchecked(u);
@@ -22,13 +22,18 @@ package sootup.callgraph;
  * #L%
  */
 
+import com.google.common.base.Preconditions;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Method;
 import sootup.core.model.SootClass;
@@ -60,6 +65,25 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     this.typeHierarchy = typeHierarchy;
   }
 
+  /** the number of threads resolving the calls of the methods in the work list */
+  private int parallelism = 1;
+
+  /**
+   * Sets the number of threads used to resolve calls during the call graph construction. With more
+   * than one thread, the work list is processed in rounds whose methods are resolved in parallel
+   * and then added to the call graph in a fixed order, so the result is the same for every run.
+   *
+   * @param parallelism the number of threads, 1 processes the work list sequentially.
+   */
+  public void setParallelism(int parallelism) {
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive: " + parallelism);
+    this.parallelism = parallelism;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
   /**
    * This method starts the construction of the call graph algorithm. It initializes the needed
    * objects for the call graph generation and calls processWorkList method.
@@ -72,7 +96,7 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   @Nonnull
   final CallGraph constructCompleteCallGraph(
       View<? extends SootClass<?>> view, List<MethodSignature> entryPoints) {
-    MutableCallGraph cg = new GraphBasedCallGraph();
+    MutableCallGraph cg = new CompactCallGraph();
 
     Deque<MethodSignature> workList = new ArrayDeque<>(entryPoints);
     Set<MethodSignature> processed = new HashSet<>();
@@ -98,29 +122,109 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
       Deque<MethodSignature> workList,
       Set<MethodSignature> processed,
       MutableCallGraph cg) {
+    if (parallelism > 1) {
+      processWorkListInParallel(view, workList, processed, cg);
+      return;
+    }
+
     while (!workList.isEmpty()) {
       MethodSignature currentMethodSignature = workList.pop();
       if (processed.contains(currentMethodSignature)) continue;
 
-      if (!cg.containsMethod(currentMethodSignature)) cg.addMethod(currentMethodSignature);
+      addCallsFromMethod(
+          view,
+          currentMethodSignature,
+          resolveAllCallsFromSourceMethod(view, currentMethodSignature),
+          workList,
+          processed,
+          cg);
+    }
+  }
 
-      Stream<MethodSignature> invocationTargets =
-          resolveAllCallsFromSourceMethod(view, currentMethodSignature);
+  /**
+   * Processes the <code>workList</code> in barrier rounds. All methods in the current <code>
+   * workList</code> that are not <code>processed</code> yet form a round. Their calls are resolved
+   * by one task per method, and after all tasks of the round finished, they are added to <code>cg
+   * </code> in the order of the round. The methods discovered in a round form the next one, hence
+   * the constructed call graph does not depend on the scheduling of the threads.
+   */
+  private void processWorkListInParallel(
+      View<? extends SootClass<?>> view,
+      Deque<MethodSignature> workList,
+      Set<MethodSignature> processed,
+      MutableCallGraph cg) {
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      while (!workList.isEmpty()) {
+        Set<MethodSignature> round = new LinkedHashSet<>();
+        while (!workList.isEmpty()) {
+          MethodSignature methodSignature = workList.pop();
+          if (!processed.contains(methodSignature)) round.add(methodSignature);
+        }
+        List<MethodSignature> methods = new ArrayList<>(round);
 
-      invocationTargets.forEach(
-          t -> {
-            if (!cg.containsMethod(t)) cg.addMethod(t);
-            if (!cg.containsCall(currentMethodSignature, t)) {
-              cg.addCall(currentMethodSignature, t);
-              workList.push(t);
-            }
-          });
-      processed.add(currentMethodSignature);
-
-      postProcessingMethod(view, currentMethodSignature, workList, cg);
+        List<Callable<Map<CallSite, List<MethodSignature>>>> tasks = new ArrayList<>();
+        for (MethodSignature method : methods) {
+          tasks.add(() -> resolveAllCallsFromSourceMethod(view, method));
+        }
+        // invokeAll returns after all tasks are done, in the order of the tasks
+        List<Future<Map<CallSite, List<MethodSignature>>>> invocationTargets =
+            executor.invokeAll(tasks);
+
+        for (int i = 0; i < methods.size(); i++) {
+          addCallsFromMethod(
+              view, methods.get(i), getResult(invocationTargets.get(i)), workList, processed, cg);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while resolving calls", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Nonnull
+  private static <T> T getResult(@Nonnull Future<T> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
     }
   }
 
+  /**
+   * Adds <code>sourceMethod</code> and the calls from its call sites to their <code>
+   * invocationTargets</code> to <code>cg</code>. Targets of new calls are pushed to the <code>
+   * workList</code>. Afterwards, <code>sourceMethod</code> is marked as processed and
+   * postProcessingMethod is called.
+   */
+  private void addCallsFromMethod(
+      View<? extends SootClass<?>> view,
+      MethodSignature sourceMethod,
+      Map<CallSite, List<MethodSignature>> invocationTargets,
+      Deque<MethodSignature> workList,
+      Set<MethodSignature> processed,
+      MutableCallGraph cg) {
+    if (!cg.containsMethod(sourceMethod)) cg.addMethod(sourceMethod);
+
+    invocationTargets.forEach(
+        (callSite, targets) -> {
+          for (MethodSignature t : targets) {
+            if (!cg.containsMethod(t)) cg.addMethod(t);
+            boolean newCall = !cg.containsCall(sourceMethod, t);
+            cg.addCall(callSite, t);
+            if (newCall) workList.push(t);
+          }
+        });
+    processed.add(sourceMethod);
+
+    postProcessingMethod(view, sourceMethod, workList, cg);
+  }
+
   /**
    * This method resolves all calls from a given source method. resolveCall is called for each
    * invoke statement in the body of the source method that is implemented in the corresponding call
@@ -129,24 +233,29 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    * @param view it contains all classes.
    * @param sourceMethod this signature is used to access the statements contained method body of
    *     the specified method
-   * @return a stream containing all resolved callable method signatures by the given source method
+   * @return a map from each call site in the given source method to its resolved callable method
+   *     signatures, in the order of the statements
    */
   @Nonnull
-  Stream<MethodSignature> resolveAllCallsFromSourceMethod(
+  Map<CallSite, List<MethodSignature>> resolveAllCallsFromSourceMethod(
       View<? extends SootClass<?>> view, MethodSignature sourceMethod) {
     SootMethod currentMethodCandidate =
         view.getClass(sourceMethod.getDeclClassType())
             .flatMap(c -> c.getMethod(sourceMethod.getSubSignature()))
             .orElse(null);
-    if (currentMethodCandidate == null) return Stream.empty();
+    if (currentMethodCandidate == null || !currentMethodCandidate.hasBody()) {
+      return Collections.emptyMap();
+    }
 
-    if (currentMethodCandidate.hasBody()) {
-      return currentMethodCandidate.getBody().getStmtGraph().nodes().stream()
-          .filter(Stmt::containsInvokeExpr)
-          .flatMap(s -> resolveCall(currentMethodCandidate, s.getInvokeExpr()));
-    } else {
-      return Stream.empty();
+    Map<CallSite, List<MethodSignature>> invocationTargets = new LinkedHashMap<>();
+    for (Stmt stmt : currentMethodCandidate.getBody().getStmtGraph().nodes()) {
+      if (stmt.containsInvokeExpr()) {
+        CallSite callSite = new CallSite(sourceMethod, stmt);
+        invocationTargets.put(
+            callSite, resolveCall(currentMethodCandidate, callSite).collect(Collectors.toList()));
+      }
     }
+    return invocationTargets;
   }
 
   /**
@@ -164,7 +273,7 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     if (optSc.isPresent()) {
       SootClass<?> sc = optSc.get();
 
-      List<ClassType> superClasses = typeHierarchy.superClassesOf(sc.getType());
+      List<ClassType> superClasses = new ArrayList<>(typeHierarchy.superClassesOf(sc.getType()));
       Set<ClassType> interfaces = typeHierarchy.implementedInterfacesOf(sc.getType());
       superClasses.addAll(interfaces);
 
@@ -247,8 +356,9 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
               MethodSignature overridingMethodSig =
                   clazz.getMethod(overriddenMethodSig.getSubSignature()).get().getSignature();
 
-              for (MethodSignature callingMethodSig : updated.callsTo(overriddenMethodSig)) {
-                updated.addCall(callingMethodSig, overridingMethodSig);
+              // copy the call sites, as the view on them grows while adding calls
+              for (CallSite callSite : new ArrayList<>(updated.callersOf(overriddenMethodSig))) {
+                updated.addCall(callSite, overridingMethodSig);
               }
             });
 
@@ -305,14 +415,15 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   }
 
   /**
-   * This methods resolves the possible targets of a given invoke expression. The results are
-   * dependable of the applied call graph algorithm. therefore, it is abstract.
+   * This methods resolves the possible targets of a given call site. The results are dependable of
+   * the applied call graph algorithm. therefore, it is abstract. If the parallelism is greater than
+   * one, this method is called concurrently for different methods.
    *
-   * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param method the method object that contains the given call site in the body.
+   * @param callSite it contains the call which is resolved.
    * @return a stream of all reachable method signatures defined by the applied call graph
    *     algorithm.
    */
   @Nonnull
-  abstract Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr);
+  abstract Stream<MethodSignature> resolveCall(SootMethod method, CallSite callSite);
 }
@@ -23,7 +23,9 @@ package sootup.callgraph;
  */
 
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 
 /** The interface of all implemented call graph data structures */
@@ -59,6 +61,63 @@ public interface CallGraph {
   @Nonnull
   Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod);
 
+  /**
+   * This method returns all method signatures that are called at a given call site. Only calls that
+   * were added together with their {@link CallSite} are considered.
+   *
+   * @param callSite the statement containing the invoke expression
+   * @return a set of method signatures that are reached by the call site in the call graph
+   */
+  @Nonnull
+  Set<MethodSignature> calleesOf(@Nonnull Stmt callSite);
+
+  /**
+   * This method returns all method signatures that are called at a given call site. In contrast to
+   * {@link #calleesOf(Stmt)}, the call graph knows the method containing the call site, so call
+   * graphs that are built on demand can resolve the calls of this method first.
+   *
+   * @param callSite the call site containing the invoke expression
+   * @return a set of method signatures that are reached by the call site in the call graph
+   */
+  @Nonnull
+  default Set<MethodSignature> calleesOf(@Nonnull CallSite callSite) {
+    return calleesOf(callSite.getStmt());
+  }
+
+  /**
+   * This method returns all call sites that call a given method signature. Only calls that were
+   * added together with their {@link CallSite} are considered.
+   *
+   * @param targetMethod the method signature of the requested node in the call graph
+   * @return a set of call sites that reach the targetMethod in the call graph
+   */
+  @Nonnull
+  Set<CallSite> callersOf(@Nonnull MethodSignature targetMethod);
+
+  /**
+   * This method passes every method signature that is called by a given method signature to the
+   * action, without collecting them in a set first.
+   *
+   * @param sourceMethod the method signature of the requested node in the call graph
+   * @param action the action that is performed for each target of an outgoing edge
+   */
+  default void forEachCallFrom(
+      @Nonnull MethodSignature sourceMethod, @Nonnull Consumer<MethodSignature> action) {
+    callsFrom(sourceMethod).forEach(action);
+  }
+
+  /**
+   * This method passes every method signature that calls a given method signature to the action,
+   * without collecting them in a set first.
+   *
+   * @param targetMethod the method signature of the requested node in the call graph
+   * @param action the action that is performed for each source of an incoming edge
+   */
+  default void forEachCallTo(
+      @Nonnull MethodSignature targetMethod, @Nonnull Consumer<MethodSignature> action) {
+    callsTo(targetMethod).forEach(action);
+  }
+
   /**
    * This method checks if a given method signature is a node in the call graph.
    *
@@ -0,0 +1,124 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2019-2020 Christian Brüggemann, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * A call site is a statement containing an invoke expression together with the method whose body
+ * contains the statement. Call graph edges that are added for a call site can be queried by {@link
+ * CallGraph#calleesOf(Stmt)} and {@link CallGraph#callersOf(MethodSignature)}.
+ */
+public final class CallSite {
+
+  /** The kind of the invoke expression that is contained in the statement of a call site. */
+  public enum InvokeKind {
+    VIRTUAL,
+    INTERFACE,
+    SPECIAL,
+    STATIC,
+    DYNAMIC;
+
+    @Nonnull
+    public static InvokeKind of(@Nonnull AbstractInvokeExpr invokeExpr) {
+      if (invokeExpr instanceof JVirtualInvokeExpr) {
+        return VIRTUAL;
+      } else if (invokeExpr instanceof JInterfaceInvokeExpr) {
+        return INTERFACE;
+      } else if (invokeExpr instanceof JSpecialInvokeExpr) {
+        return SPECIAL;
+      } else if (invokeExpr instanceof JStaticInvokeExpr) {
+        return STATIC;
+      } else if (invokeExpr instanceof JDynamicInvokeExpr) {
+        return DYNAMIC;
+      }
+      throw new IllegalArgumentException("No such invokeExpr: " + invokeExpr);
+    }
+  }
+
+  @Nonnull private final MethodSignature sourceMethod;
+  @Nonnull private final Stmt stmt;
+
+  /**
+   * @param sourceMethod the method whose body contains <code>stmt</code>
+   * @param stmt the statement that contains the invoke expression
+   */
+  public CallSite(@Nonnull MethodSignature sourceMethod, @Nonnull Stmt stmt) {
+    if (!stmt.containsInvokeExpr()) {
+      throw new IllegalArgumentException(stmt + " does not contain an invoke expression");
+    }
+    this.sourceMethod = sourceMethod;
+    this.stmt = stmt;
+  }
+
+  @Nonnull
+  public MethodSignature getSourceMethod() {
+    return sourceMethod;
+  }
+
+  @Nonnull
+  public Stmt getStmt() {
+    return stmt;
+  }
+
+  @Nonnull
+  public AbstractInvokeExpr getInvokeExpr() {
+    return stmt.getInvokeExpr();
+  }
+
+  @Nonnull
+  public InvokeKind getInvokeKind() {
+    return InvokeKind.of(stmt.getInvokeExpr());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CallSite)) {
+      return false;
+    }
+    CallSite callSite = (CallSite) o;
+    // statements are compared by identity, as equal statements may occur at different places
+    return stmt == callSite.stmt && sourceMethod.equals(callSite.sourceMethod);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * sourceMethod.hashCode() + System.identityHashCode(stmt);
+  }
+
+  @Override
+  public String toString() {
+    return sourceMethod + ": " + stmt;
+  }
+}
@@ -71,14 +71,15 @@ public class ClassHierarchyAnalysisAlgorithm extends AbstractCallGraphAlgorithm
    * subclass of the class is considered as target if it contains an implementation of the methods
    * called in the invoke expression.
    *
-   * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param method the method object that contains the given call site in the body.
+   * @param callSite it contains the call which is resolved.
    * @return a stream containing all reachable method signatures after applying the CHA call graph
    *     algorithm
    */
   @Override
   @Nonnull
-  protected Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr) {
+  protected Stream<MethodSignature> resolveCall(SootMethod method, CallSite callSite) {
+    AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
     MethodSignature targetMethodSignature = invokeExpr.getMethodSignature();
     if ((invokeExpr instanceof JDynamicInvokeExpr)) {
       return Stream.empty();
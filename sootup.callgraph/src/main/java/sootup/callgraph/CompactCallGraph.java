@@ -0,0 +1,527 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 2019-2020 Christian Brüggemann, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Preconditions;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+
+/**
+ * This class implements a mutable call graph that numbers its methods and call sites densely and
+ * stores the calls of each method and call site in growable int arrays. In contrast to {@link
+ * GraphBasedCallGraph}, no objects are created per call, and the sets returned by the queries are
+ * views on these arrays instead of copies.
+ */
+public final class CompactCallGraph implements MutableCallGraph {
+
+  private static final int[] NO_CALLS = new int[0];
+
+  private static final Comparator<MethodSignature> SIGNATURE_ORDER =
+      Comparator.comparing((MethodSignature o) -> o.getDeclClassType().toString())
+          .thenComparing(SootClassMemberSignature::getName)
+          .thenComparing(o -> o.getParameterTypes().toString());
+
+  @Nonnull private final Map<MethodSignature, Integer> signatureToIdx;
+  @Nonnull private MethodSignature[] methods;
+  @Nonnull private int[][] callees;
+  @Nonnull private int[] calleeCounts;
+  @Nonnull private int[][] callers;
+  @Nonnull private int[] callerCounts;
+  /** the call sites calling a method, indexed like the methods */
+  @Nonnull private int[][] callSitesTo;
+
+  @Nonnull private int[] callSitesToCounts;
+  @Nonnull private final LongHashSet calls;
+
+  @Nonnull private final Map<Stmt, Integer> stmtToCallSiteIdx;
+  @Nonnull private CallSite[] callSites;
+  @Nonnull private int[][] callSiteCallees;
+  @Nonnull private int[] callSiteCalleeCounts;
+  @Nonnull private final LongHashSet callSiteCalls;
+
+  /** The constructor of the compact call graph. It creates an empty call graph. */
+  public CompactCallGraph() {
+    signatureToIdx = new HashMap<>();
+    methods = new MethodSignature[16];
+    callees = new int[16][];
+    calleeCounts = new int[16];
+    callers = new int[16][];
+    callerCounts = new int[16];
+    callSitesTo = new int[16][];
+    callSitesToCounts = new int[16];
+    calls = new LongHashSet();
+    stmtToCallSiteIdx = new HashMap<>();
+    callSites = new CallSite[16];
+    callSiteCallees = new int[16][];
+    callSiteCalleeCounts = new int[16];
+    callSiteCalls = new LongHashSet();
+  }
+
+  private CompactCallGraph(@Nonnull CompactCallGraph other) {
+    int methodCount = other.signatureToIdx.size();
+    signatureToIdx = new HashMap<>(other.signatureToIdx);
+    methods = Arrays.copyOf(other.methods, Math.max(methodCount, 16));
+    callees = copyOf(other.callees, other.calleeCounts, methodCount, methods.length);
+    calleeCounts = Arrays.copyOf(other.calleeCounts, methods.length);
+    callers = copyOf(other.callers, other.callerCounts, methodCount, methods.length);
+    callerCounts = Arrays.copyOf(other.callerCounts, methods.length);
+    callSitesTo = copyOf(other.callSitesTo, other.callSitesToCounts, methodCount, methods.length);
+    callSitesToCounts = Arrays.copyOf(other.callSitesToCounts, methods.length);
+    calls = new LongHashSet(other.calls);
+
+    int callSiteCount = other.stmtToCallSiteIdx.size();
+    stmtToCallSiteIdx = new HashMap<>(other.stmtToCallSiteIdx);
+    callSites = Arrays.copyOf(other.callSites, Math.max(callSiteCount, 16));
+    callSiteCallees =
+        copyOf(other.callSiteCallees, other.callSiteCalleeCounts, callSiteCount, callSites.length);
+    callSiteCalleeCounts = Arrays.copyOf(other.callSiteCalleeCounts, callSites.length);
+    callSiteCalls = new LongHashSet(other.callSiteCalls);
+  }
+
+  @Override
+  public void addMethod(@Nonnull MethodSignature calledMethod) {
+    if (signatureToIdx.containsKey(calledMethod)) {
+      return;
+    }
+    int idx = signatureToIdx.size();
+    if (idx == methods.length) {
+      int capacity = idx * 2;
+      methods = Arrays.copyOf(methods, capacity);
+      callees = Arrays.copyOf(callees, capacity);
+      calleeCounts = Arrays.copyOf(calleeCounts, capacity);
+      callers = Arrays.copyOf(callers, capacity);
+      callerCounts = Arrays.copyOf(callerCounts, capacity);
+      callSitesTo = Arrays.copyOf(callSitesTo, capacity);
+      callSitesToCounts = Arrays.copyOf(callSitesToCounts, capacity);
+    }
+    signatureToIdx.put(calledMethod, idx);
+    methods[idx] = calledMethod;
+    callees[idx] = NO_CALLS;
+    callers[idx] = NO_CALLS;
+    callSitesTo[idx] = NO_CALLS;
+  }
+
+  @Override
+  public void addCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    addCall(idxOf(sourceMethod), idxOf(targetMethod));
+  }
+
+  @Override
+  public void addCall(@Nonnull CallSite callSite, @Nonnull MethodSignature targetMethod) {
+    int target = idxOf(targetMethod);
+    addCall(idxOf(callSite.getSourceMethod()), target);
+
+    int site = callSiteIdxOf(callSite);
+    if (callSiteCalls.add(callKey(site, target))) {
+      callSiteCallees[site] = append(callSiteCallees[site], callSiteCalleeCounts[site]++, target);
+      callSitesTo[target] = append(callSitesTo[target], callSitesToCounts[target]++, site);
+    }
+  }
+
+  private void addCall(int source, int target) {
+    if (calls.add(callKey(source, target))) {
+      callees[source] = append(callees[source], calleeCounts[source]++, target);
+      callers[target] = append(callers[target], callerCounts[target]++, source);
+    }
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> getMethodSignatures() {
+    return Collections.unmodifiableSet(signatureToIdx.keySet());
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+    int source = idxOf(sourceMethod);
+    return new AdjacencyView<MethodSignature>() {
+      @Override
+      int[] adjacent() {
+        return callees[source];
+      }
+
+      @Override
+      public int size() {
+        return calleeCounts[source];
+      }
+
+      @Override
+      MethodSignature get(int idx) {
+        return methods[idx];
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        Integer target = signatureToIdx.get(o);
+        return target != null && calls.contains(callKey(source, target));
+      }
+    };
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+    int target = idxOf(targetMethod);
+    return new AdjacencyView<MethodSignature>() {
+      @Override
+      int[] adjacent() {
+        return callers[target];
+      }
+
+      @Override
+      public int size() {
+        return callerCounts[target];
+      }
+
+      @Override
+      MethodSignature get(int idx) {
+        return methods[idx];
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        Integer source = signatureToIdx.get(o);
+        return source != null && calls.contains(callKey(source, target));
+      }
+    };
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> calleesOf(@Nonnull Stmt callSite) {
+    Integer siteIdx = stmtToCallSiteIdx.get(callSite);
+    if (siteIdx == null) {
+      return Collections.emptySet();
+    }
+    int site = siteIdx;
+    return new AdjacencyView<MethodSignature>() {
+      @Override
+      int[] adjacent() {
+        return callSiteCallees[site];
+      }
+
+      @Override
+      public int size() {
+        return callSiteCalleeCounts[site];
+      }
+
+      @Override
+      MethodSignature get(int idx) {
+        return methods[idx];
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        Integer target = signatureToIdx.get(o);
+        return target != null && callSiteCalls.contains(callKey(site, target));
+      }
+    };
+  }
+
+  @Nonnull
+  @Override
+  public Set<CallSite> callersOf(@Nonnull MethodSignature targetMethod) {
+    int target = idxOf(targetMethod);
+    return new AdjacencyView<CallSite>() {
+      @Override
+      int[] adjacent() {
+        return callSitesTo[target];
+      }
+
+      @Override
+      public int size() {
+        return callSitesToCounts[target];
+      }
+
+      @Override
+      CallSite get(int idx) {
+        return callSites[idx];
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        if (!(o instanceof CallSite)) {
+          return false;
+        }
+        Integer site = stmtToCallSiteIdx.get(((CallSite) o).getStmt());
+        return site != null
+            && callSites[site].equals(o)
+            && callSiteCalls.contains(callKey(site, target));
+      }
+    };
+  }
+
+  @Override
+  public void forEachCallFrom(
+      @Nonnull MethodSignature sourceMethod, @Nonnull Consumer<MethodSignature> action) {
+    int source = idxOf(sourceMethod);
+    int[] targets = callees[source];
+    for (int i = 0, n = calleeCounts[source]; i < n; i++) {
+      action.accept(methods[targets[i]]);
+    }
+  }
+
+  @Override
+  public void forEachCallTo(
+      @Nonnull MethodSignature targetMethod, @Nonnull Consumer<MethodSignature> action) {
+    int target = idxOf(targetMethod);
+    int[] sources = callers[target];
+    for (int i = 0, n = callerCounts[target]; i < n; i++) {
+      action.accept(methods[sources[i]]);
+    }
+  }
+
+  @Override
+  public boolean containsMethod(@Nonnull MethodSignature method) {
+    return signatureToIdx.containsKey(method);
+  }
+
+  @Override
+  public boolean containsCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    Integer source = signatureToIdx.get(sourceMethod);
+    Integer target = signatureToIdx.get(targetMethod);
+    if (source == null || target == null) {
+      return false;
+    }
+    return calls.contains(callKey(source, target));
+  }
+
+  @Override
+  public int callCount() {
+    return calls.size();
+  }
+
+  @Nonnull
+  @Override
+  public MutableCallGraph copy() {
+    return new CompactCallGraph(this);
+  }
+
+  /**
+   * it returns the index of the given method signature in the call graph.
+   *
+   * @param method the method signature searched in the call graph
+   * @return the index of the requested method signature.
+   */
+  private int idxOf(@Nonnull MethodSignature method) {
+    Integer idx = signatureToIdx.get(method);
+    Preconditions.checkNotNull(idx, "Node for " + method + " has not been added yet");
+    return idx;
+  }
+
+  /** it returns the index of the given call site and adds the call site if it is new. */
+  private int callSiteIdxOf(@Nonnull CallSite callSite) {
+    Integer idx = stmtToCallSiteIdx.get(callSite.getStmt());
+    if (idx != null) {
+      return idx;
+    }
+    int site = stmtToCallSiteIdx.size();
+    if (site == callSites.length) {
+      int capacity = site * 2;
+      callSites = Arrays.copyOf(callSites, capacity);
+      callSiteCallees = Arrays.copyOf(callSiteCallees, capacity);
+      callSiteCalleeCounts = Arrays.copyOf(callSiteCalleeCounts, capacity);
+    }
+    stmtToCallSiteIdx.put(callSite.getStmt(), site);
+    callSites[site] = callSite;
+    callSiteCallees[site] = NO_CALLS;
+    return site;
+  }
+
+  @Nonnull
+  private static int[] append(@Nonnull int[] array, int count, int value) {
+    if (count == array.length) {
+      array = Arrays.copyOf(array, Math.max(4, count * 2));
+    }
+    array[count] = value;
+    return array;
+  }
+
+  @Nonnull
+  private static int[][] copyOf(@Nonnull int[][] arrays, @Nonnull int[] counts, int n, int length) {
+    int[][] copy = new int[length][];
+    for (int i = 0; i < n; i++) {
+      copy[i] = Arrays.copyOf(arrays[i], counts[i]);
+    }
+    return copy;
+  }
+
+  private static long callKey(int source, int target) {
+    // the source is shifted by one, so no call is encoded as 0
+    return ((source + 1L) << 32) | target;
+  }
+
+  /**
+   * This internal class is a view on the int array of a method or call site. Its iterators see the
+   * calls that were added before they have been created.
+   */
+  private abstract static class AdjacencyView<T> extends AbstractSet<T> {
+
+    abstract int[] adjacent();
+
+    abstract T get(int idx);
+
+    @Nonnull
+    @Override
+    public Iterator<T> iterator() {
+      int[] adjacent = adjacent();
+      int count = size();
+      return new Iterator<T>() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < count;
+        }
+
+        @Override
+        public T next() {
+          if (next >= count) {
+            throw new NoSuchElementException();
+          }
+          return get(adjacent[next++]);
+        }
+      };
+    }
+  }
+
+  /**
+   * This internal class is a hash set of calls encoded by {@link #callKey(int, int)}. It uses open
+   * addressing with linear probing, 0 marks a free slot.
+   */
+  private static final class LongHashSet {
+    @Nonnull private long[] keys;
+    private int size;
+
+    LongHashSet() {
+      keys = new long[32];
+    }
+
+    LongHashSet(@Nonnull LongHashSet other) {
+      keys = other.keys.clone();
+      size = other.size;
+    }
+
+    int size() {
+      return size;
+    }
+
+    boolean contains(long key) {
+      int mask = keys.length - 1;
+      for (int slot = slotOf(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+        if (keys[slot] == key) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    boolean add(long key) {
+      int mask = keys.length - 1;
+      int slot = slotOf(key, mask);
+      for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+        if (keys[slot] == key) {
+          return false;
+        }
+      }
+      keys[slot] = key;
+      // keep the load factor below 2/3 to keep the probe sequences short
+      if (++size * 3 > keys.length * 2) {
+        long[] oldKeys = keys;
+        keys = new long[oldKeys.length * 2];
+        int newMask = keys.length - 1;
+        for (long oldKey : oldKeys) {
+          if (oldKey != 0) {
+            int newSlot = slotOf(oldKey, newMask);
+            while (keys[newSlot] != 0) {
+              newSlot = (newSlot + 1) & newMask;
+            }
+            keys[newSlot] = oldKey;
+          }
+        }
+      }
+      return true;
+    }
+
+    private static int slotOf(long key, int mask) {
+      long hash = key * 0x9E3779B97F4A7C15L;
+      return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (signatureToIdx.isEmpty()) {
+      sb.append(" is empty");
+    } else {
+      sb.append(":\n");
+      for (MethodSignature method : signatureToIdx.keySet()) {
+        sb.append(method.toString()).append(":\n");
+        forEachCallFrom(method, m -> sb.append("\tto ").append(m).append("\n"));
+        forEachCallTo(method, m -> sb.append("\tfrom   ").append(m).append("\n"));
+        sb.append("\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toStringSorted() {
+    StringBuilder stringBuilder = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (signatureToIdx.isEmpty()) {
+      stringBuilder.append(" is empty");
+    } else {
+      stringBuilder.append(":\n");
+      signatureToIdx.keySet().stream()
+          .sorted(SIGNATURE_ORDER)
+          .forEach(
+              method -> {
+                stringBuilder.append(method).append(":\n");
+                callsFrom(method).stream()
+                    .sorted(SIGNATURE_ORDER)
+                    .forEach(m -> stringBuilder.append("\tto ").append(m).append("\n"));
+                callsTo(method).stream()
+                    .sorted(SIGNATURE_ORDER)
+                    .forEach(m -> stringBuilder.append("\tfrom ").append(m).append("\n"));
+                stringBuilder.append("\n");
+              });
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -23,13 +23,16 @@ package sootup.callgraph;
  */
 
 import com.google.common.base.Preconditions;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.jgrapht.graph.DefaultDirectedGraph;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.signatures.SootClassMemberSignature;
 import sootup.java.core.types.JavaClassType;
@@ -56,21 +59,29 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
   @Nonnull private final Map<MethodSignature, Vertex> signatureToVertex;
   // TODO: [ms] typeToVertices is not used in a useful way, yet?
   @Nonnull private final Map<JavaClassType, Set<Vertex>> typeToVertices;
+  @Nonnull private final Map<Stmt, Set<MethodSignature>> stmtToCallees;
+  @Nonnull private final Map<MethodSignature, Set<CallSite>> callSitesTo;
 
   /** The constructor of the graph based call graph. it initializes the call graph object. */
   GraphBasedCallGraph() {
     graph = new DefaultDirectedGraph<>(null, null, false);
     signatureToVertex = new HashMap<>();
     typeToVertices = new HashMap<>();
+    stmtToCallees = new HashMap<>();
+    callSitesTo = new HashMap<>();
   }
 
   private GraphBasedCallGraph(
       @Nonnull DefaultDirectedGraph<Vertex, Edge> graph,
       @Nonnull Map<MethodSignature, Vertex> signatureToVertex,
-      @Nonnull Map<JavaClassType, Set<Vertex>> typeToVertices) {
+      @Nonnull Map<JavaClassType, Set<Vertex>> typeToVertices,
+      @Nonnull Map<Stmt, Set<MethodSignature>> stmtToCallees,
+      @Nonnull Map<MethodSignature, Set<CallSite>> callSitesTo) {
     this.graph = graph;
     this.signatureToVertex = signatureToVertex;
     this.typeToVertices = typeToVertices;
+    this.stmtToCallees = stmtToCallees;
+    this.callSitesTo = callSitesTo;
   }
 
   @Override
@@ -86,6 +97,15 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
     graph.addEdge(vertexOf(sourceMethod), vertexOf(targetMethod), new Edge());
   }
 
+  @Override
+  public void addCall(@Nonnull CallSite callSite, @Nonnull MethodSignature targetMethod) {
+    if (!containsCall(callSite.getSourceMethod(), targetMethod)) {
+      addCall(callSite.getSourceMethod(), targetMethod);
+    }
+    stmtToCallees.computeIfAbsent(callSite.getStmt(), stmt -> new HashSet<>()).add(targetMethod);
+    callSitesTo.computeIfAbsent(targetMethod, method -> new HashSet<>()).add(callSite);
+  }
+
   @Nonnull
   @Override
   public Set<MethodSignature> getMethodSignatures() {
@@ -110,6 +130,20 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
         .collect(Collectors.toSet());
   }
 
+  @Nonnull
+  @Override
+  public Set<MethodSignature> calleesOf(@Nonnull Stmt callSite) {
+    return Collections.unmodifiableSet(
+        stmtToCallees.getOrDefault(callSite, Collections.emptySet()));
+  }
+
+  @Nonnull
+  @Override
+  public Set<CallSite> callersOf(@Nonnull MethodSignature targetMethod) {
+    return Collections.unmodifiableSet(
+        callSitesTo.getOrDefault(targetMethod, Collections.emptySet()));
+  }
+
   @Override
   public boolean containsMethod(@Nonnull MethodSignature method) {
     return signatureToVertex.containsKey(method);
@@ -136,7 +170,16 @@ public final class GraphBasedCallGraph implements MutableCallGraph {
     return new GraphBasedCallGraph(
         (DefaultDirectedGraph<Vertex, Edge>) graph.clone(),
         new HashMap<>(signatureToVertex),
-        new HashMap<>(typeToVertices));
+        new HashMap<>(typeToVertices),
+        copyOf(stmtToCallees),
+        copyOf(callSitesTo));
+  }
+
+  @Nonnull
+  private static <K, V> Map<K, Set<V>> copyOf(@Nonnull Map<K, Set<V>> map) {
+    Map<K, Set<V>> copy = new HashMap<>(map.size());
+    map.forEach((key, values) -> copy.put(key, new HashSet<>(values)));
+    return copy;
   }
 
   /**
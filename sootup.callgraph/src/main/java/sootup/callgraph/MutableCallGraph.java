@@ -45,4 +45,13 @@ public interface MutableCallGraph extends CallGraph {
    * @param targetMethod this paramter defines the target node of the edge in the call graph.
    */
   void addCall(@Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod);
+
+  /**
+   * This method enables to add calls that are edges in the call graph together with the call site
+   * they originate from. The source node of the edge is the method containing the call site.
+   *
+   * @param callSite this parameter defines the statement and the source node of the edge.
+   * @param targetMethod this paramter defines the target node of the edge in the call graph.
+   */
+  void addCall(@Nonnull CallSite callSite, @Nonnull MethodSignature targetMethod);
 }
@@ -23,13 +23,34 @@ package sootup.callgraph;
  */
 
 import com.google.common.annotations.Beta;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.views.View;
 
+/**
+ * This class implements a demand-driven variant of the Class Hierarchy Analysis call graph
+ * algorithm. Instead of resolving every method reachable from the entry points, the returned call
+ * graph resolves the calls of a method the first time they are requested and caches them. Hence,
+ * querying a few methods does not require the resolution of the whole program.
+ *
+ * <p>Queries about incoming edges, i.e. {@link CallGraph#callsTo(MethodSignature)} and {@link
+ * CallGraph#callersOf(MethodSignature)}, only consider the methods whose calls have been resolved
+ * so far. The returned call graph can be queried concurrently; its queries return snapshots.
+ */
 @Beta
 public class OnDemandClassHierarchyAnalysisAlgorithm extends ClassHierarchyAnalysisAlgorithm {
 
@@ -40,8 +61,205 @@ public class OnDemandClassHierarchyAnalysisAlgorithm extends ClassHierarchyAnaly
 
   @Nonnull
   @Override
-  // FIXME: [ms] nonnull returns null
+  public CallGraph initialize() {
+    return initialize(Collections.singletonList(findMainMethod()));
+  }
+
+  @Nonnull
+  @Override
   public CallGraph initialize(@Nonnull List<MethodSignature> entryPoints) {
-    return null;
+    OnDemandCallGraph cg = new OnDemandCallGraph();
+    entryPoints.forEach(cg.resolvedGraph::addMethod);
+    return cg;
+  }
+
+  /**
+   * This internal class is the call graph returned by the algorithm. It stores the calls resolved
+   * so far in a {@link CompactCallGraph} and remembers which methods and call sites have been
+   * resolved. The calls of a method are resolved without holding a lock, the resolved graph is only
+   * locked to publish them once and to answer queries.
+   */
+  private class OnDemandCallGraph implements CallGraph {
+
+    /** guarded by this call graph */
+    @Nonnull private final MutableCallGraph resolvedGraph = new CompactCallGraph();
+
+    /** the statements of all call sites in the resolved methods, guarded by this call graph */
+    @Nonnull private final Set<Stmt> resolvedCallSites = new HashSet<>();
+
+    /** the methods whose calls are published in the resolved graph */
+    @Nonnull private final Set<MethodSignature> resolvedMethods = ConcurrentHashMap.newKeySet();
+
+    /** the resolution of each method that is requested, computed once by the first requester */
+    @Nonnull
+    private final Map<MethodSignature, Supplier<Map<CallSite, List<MethodSignature>>>> resolutions =
+        new ConcurrentHashMap<>();
+
+    /**
+     * resolves the calls of the given method and adds them to the resolved graph, if it has not
+     * been resolved before.
+     *
+     * @param method the method whose calls are resolved
+     */
+    private void resolve(@Nonnull MethodSignature method) {
+      if (resolvedMethods.contains(method)) {
+        return;
+      }
+      // only concurrent requests of the same method wait for each other
+      Map<CallSite, List<MethodSignature>> invocationTargets =
+          resolutions
+              .computeIfAbsent(
+                  method, m -> Suppliers.memoize(() -> resolveAllCallsFromSourceMethod(view, m)))
+              .get();
+
+      synchronized (this) {
+        if (resolvedMethods.contains(method)) {
+          return;
+        }
+        if (!resolvedGraph.containsMethod(method)) {
+          resolvedGraph.addMethod(method);
+        }
+        invocationTargets.forEach(
+            (callSite, targets) -> {
+              resolvedCallSites.add(callSite.getStmt());
+              for (MethodSignature target : targets) {
+                if (!resolvedGraph.containsMethod(target)) {
+                  resolvedGraph.addMethod(target);
+                }
+                resolvedGraph.addCall(callSite, target);
+              }
+            });
+        resolvedMethods.add(method);
+      }
+      resolutions.remove(method);
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Set<MethodSignature> getMethodSignatures() {
+      return ImmutableSet.copyOf(resolvedGraph.getMethodSignatures());
+    }
+
+    @Nonnull
+    @Override
+    public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+      resolve(sourceMethod);
+      synchronized (this) {
+        return ImmutableSet.copyOf(resolvedGraph.callsFrom(sourceMethod));
+      }
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+      if (!resolvedGraph.containsMethod(targetMethod)) {
+        return Collections.emptySet();
+      }
+      return ImmutableSet.copyOf(resolvedGraph.callsTo(targetMethod));
+    }
+
+    /**
+     * As the method containing the statement is not known, the methods reachable from the entry
+     * points are resolved until the containing method is found. {@link #calleesOf(CallSite)}
+     * resolves the containing method directly.
+     */
+    @Nonnull
+    @Override
+    public Set<MethodSignature> calleesOf(@Nonnull Stmt callSite) {
+      if (!callSite.containsInvokeExpr()) {
+        return Collections.emptySet();
+      }
+      while (true) {
+        List<MethodSignature> unresolvedMethods = new ArrayList<>();
+        synchronized (this) {
+          if (resolvedCallSites.contains(callSite)) {
+            return ImmutableSet.copyOf(resolvedGraph.calleesOf(callSite));
+          }
+          for (MethodSignature method : resolvedGraph.getMethodSignatures()) {
+            if (!resolvedMethods.contains(method)) {
+              unresolvedMethods.add(method);
+            }
+          }
+        }
+        if (unresolvedMethods.isEmpty()) {
+          // the statement is not part of a reachable method
+          return Collections.emptySet();
+        }
+        for (MethodSignature method : unresolvedMethods) {
+          resolve(method);
+          synchronized (this) {
+            if (resolvedCallSites.contains(callSite)) {
+              return ImmutableSet.copyOf(resolvedGraph.calleesOf(callSite));
+            }
+          }
+        }
+      }
+    }
+
+    @Nonnull
+    @Override
+    public Set<MethodSignature> calleesOf(@Nonnull CallSite callSite) {
+      resolve(callSite.getSourceMethod());
+      synchronized (this) {
+        return ImmutableSet.copyOf(resolvedGraph.calleesOf(callSite.getStmt()));
+      }
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Set<CallSite> callersOf(@Nonnull MethodSignature targetMethod) {
+      if (!resolvedGraph.containsMethod(targetMethod)) {
+        return Collections.emptySet();
+      }
+      return ImmutableSet.copyOf(resolvedGraph.callersOf(targetMethod));
+    }
+
+    @Override
+    public void forEachCallFrom(
+        @Nonnull MethodSignature sourceMethod, @Nonnull Consumer<MethodSignature> action) {
+      // the action is performed on a snapshot, as it must not run while the graph is locked
+      callsFrom(sourceMethod).forEach(action);
+    }
+
+    @Override
+    public void forEachCallTo(
+        @Nonnull MethodSignature targetMethod, @Nonnull Consumer<MethodSignature> action) {
+      callsTo(targetMethod).forEach(action);
+    }
+
+    @Override
+    public synchronized boolean containsMethod(@Nonnull MethodSignature method) {
+      return resolvedGraph.containsMethod(method);
+    }
+
+    @Override
+    public boolean containsCall(
+        @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+      resolve(sourceMethod);
+      synchronized (this) {
+        return resolvedGraph.containsCall(sourceMethod, targetMethod);
+      }
+    }
+
+    @Override
+    public synchronized int callCount() {
+      return resolvedGraph.callCount();
+    }
+
+    @Nonnull
+    @Override
+    public synchronized MutableCallGraph copy() {
+      return resolvedGraph.copy();
+    }
+
+    @Override
+    public synchronized String toStringSorted() {
+      return resolvedGraph.toStringSorted();
+    }
+
+    @Override
+    public synchronized String toString() {
+      return "OnDemandCallGraph(" + resolvedMethods.size() + " resolved): " + resolvedGraph;
+    }
   }
 }
@@ -24,6 +24,7 @@ package sootup.callgraph;
 
 import com.google.common.collect.Sets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -54,17 +55,38 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * a later time.
    */
   private static class Call {
-    @Nonnull final MethodSignature source;
+    @Nonnull final CallSite source;
     @Nonnull final MethodSignature target;
 
-    private Call(@Nonnull MethodSignature source, MethodSignature target) {
+    private Call(@Nonnull CallSite source, MethodSignature target) {
       this.source = source;
       this.target = target;
     }
   }
 
-  @Nonnull private Set<ClassType> instantiatedClasses = new HashSet<>();
-  @Nonnull private HashMap<ClassType, List<Call>> ignoredCalls = new HashMap<>();
+  /**
+   * This private class collects the instantiated classes and the ignored calls found while the
+   * calls of a method are resolved. They are merged into the state of the algorithm when the method
+   * is post processed, so methods that are resolved in parallel do not see each other's findings,
+   * and the merge happens in the same order in every run.
+   */
+  private static class MethodFindings {
+    @Nonnull final Set<ClassType> instantiatedClasses;
+    @Nonnull final List<Call> ignoredCalls = new ArrayList<>();
+
+    private MethodFindings(@Nonnull Set<ClassType> instantiatedClasses) {
+      this.instantiatedClasses = instantiatedClasses;
+    }
+  }
+
+  // both are only modified while post processing a method, which is never done concurrently
+  @Nonnull private final Set<ClassType> instantiatedClasses = new LinkedHashSet<>();
+  @Nonnull private final Map<ClassType, List<Call>> ignoredCalls = new LinkedHashMap<>();
+
+  /** the findings of the methods that have been resolved, but not post processed yet */
+  @Nonnull
+  private final Map<MethodSignature, MethodFindings> pendingFindings = new ConcurrentHashMap<>();
+
   @Nonnull private CallGraph chaGraph;
 
   /**
@@ -81,6 +103,7 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   @Override
   public CallGraph initialize() {
     ClassHierarchyAnalysisAlgorithm cha = new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy);
+    cha.setParallelism(getParallelism());
     List<MethodSignature> entryPoints = Collections.singletonList(findMainMethod());
     chaGraph = cha.initialize(entryPoints);
     return constructCompleteCallGraph(view, entryPoints);
@@ -90,6 +113,7 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   @Override
   public CallGraph initialize(@Nonnull List<MethodSignature> entryPoints) {
     ClassHierarchyAnalysisAlgorithm cha = new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy);
+    cha.setParallelism(getParallelism());
     chaGraph = cha.initialize(entryPoints);
     return constructCompleteCallGraph(view, entryPoints);
   }
@@ -99,16 +123,18 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * important since the RTA algorithm resolves virtual calls only to instantiated classes
    *
    * @param method this object contains the method body which is inspected.
+   * @return the instantiated classes and their super classes
    */
-  private void collectInstantiatedClassesInMethod(SootMethod method) {
+  @Nonnull
+  private Set<ClassType> collectInstantiatedClassesInMethod(SootMethod method) {
     Set<ClassType> instantiated =
         chaGraph.callsFrom(method.getSignature()).stream()
             .filter(s -> s.getSubSignature().getName().equals("<init>"))
             .map(s -> s.getDeclClassType())
-            .collect(Collectors.toSet());
-    instantiatedClasses.addAll(instantiated);
+            .collect(Collectors.toCollection(LinkedHashSet::new));
 
     // add also found classes' super classes
+    List<ClassType> superClasses = new ArrayList<>();
     instantiated.stream()
         .map(s -> view.getClass(s))
         .filter(Optional::isPresent)
@@ -116,7 +142,9 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
         .map(s -> s.getSuperclass())
         .filter(s -> s.isPresent())
         .map(s -> s.get())
-        .forEach(instantiatedClasses::add);
+        .forEach(superClasses::add);
+    instantiated.addAll(superClasses);
+    return instantiated;
   }
 
   /**
@@ -125,21 +153,29 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * is instantiated and if it contains an implementation of the methods called in the invoke
    * expression.
    *
-   * @param method the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param method the method object that contains the given call site in the body.
+   * @param callSite it contains the call which is resolved.
    * @return a stream containing all reachable method signatures after applying the RTA call graph
    *     algorithm
    */
   @Override
   @Nonnull
-  protected Stream<MethodSignature> resolveCall(SootMethod method, AbstractInvokeExpr invokeExpr) {
+  protected Stream<MethodSignature> resolveCall(SootMethod method, CallSite callSite) {
+    AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
     MethodSignature targetMethodSignature = invokeExpr.getMethodSignature();
     Stream<MethodSignature> result = Stream.of(targetMethodSignature);
 
     if (!chaGraph.containsMethod(method.getSignature())) {
       return result;
     }
-    collectInstantiatedClassesInMethod(method);
+    // each method is resolved by a single thread, which creates its findings at the first call
+    MethodFindings findings =
+        pendingFindings.computeIfAbsent(
+            method.getSignature(),
+            m -> new MethodFindings(collectInstantiatedClassesInMethod(method)));
+    // instantiatedClasses is not modified while methods are resolved
+    Set<ClassType> knownInstantiatedClasses =
+        Sets.union(findings.instantiatedClasses, instantiatedClasses);
 
     SootMethod targetMethod =
         view.getClass(targetMethodSignature.getDeclClassType())
@@ -151,22 +187,14 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
         || (invokeExpr instanceof JSpecialInvokeExpr)) {
       return result;
     } else {
-      Set<MethodSignature> notInstantiatedCallTargets = Sets.newHashSet();
+      Set<MethodSignature> notInstantiatedCallTargets = new LinkedHashSet<>();
       Set<MethodSignature> implAndOverrides =
           MethodDispatchResolver.resolveAbstractDispatchInClasses(
-              view, targetMethodSignature, instantiatedClasses, notInstantiatedCallTargets);
+              view, targetMethodSignature, knownInstantiatedClasses, notInstantiatedCallTargets);
 
       notInstantiatedCallTargets.forEach(
-          ignoredMethodSignature -> {
-            List<Call> calls = ignoredCalls.get(ignoredMethodSignature.getDeclClassType());
-            if (calls == null) {
-              calls = new ArrayList<>();
-              calls.add(new Call(method.getSignature(), ignoredMethodSignature));
-              ignoredCalls.put(ignoredMethodSignature.getDeclClassType(), calls);
-            } else {
-              calls.add(new Call(method.getSignature(), ignoredMethodSignature));
-            }
-          });
+          ignoredMethodSignature ->
+              findings.ignoredCalls.add(new Call(callSite, ignoredMethodSignature)));
 
       return Stream.concat(result, implAndOverrides.stream());
     }
@@ -176,7 +204,8 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * Post processing of a method in the RTA call graph algorithm
    *
    * <p>RTA has to add previously ignored calls because a found instantiation of a class could
-   * enable a call to a ignored method at a later time.
+   * enable a call to a ignored method at a later time. Before, the instantiated classes and ignored
+   * calls found while resolving the method are merged into the state of the algorithm.
    *
    * @param view view
    * @param sourceMethod the processed method
@@ -189,6 +218,16 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
       MethodSignature sourceMethod,
       @Nonnull Deque<MethodSignature> workList,
       @Nonnull MutableCallGraph cg) {
+    MethodFindings findings = pendingFindings.remove(sourceMethod);
+    if (findings != null) {
+      instantiatedClasses.addAll(findings.instantiatedClasses);
+      for (Call call : findings.ignoredCalls) {
+        ignoredCalls
+            .computeIfAbsent(call.target.getDeclClassType(), classType -> new ArrayList<>())
+            .add(call);
+      }
+    }
+
     instantiatedClasses.forEach(
         instantiatedClassType -> {
           List<Call> newEdges = ignoredCalls.get(instantiatedClassType);
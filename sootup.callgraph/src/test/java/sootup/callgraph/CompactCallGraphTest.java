@@ -0,0 +1,134 @@
+package sootup.callgraph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.stmt.JInvokeStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Category(Java8Test.class)
+public class CompactCallGraphTest {
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+  private MethodSignature method(int i) {
+    return identifierFactory.getMethodSignature(
+        "m" + i, "example.Class" + (i % 7), "void", Collections.emptyList());
+  }
+
+  @Test
+  public void testMatchesGraphBasedCallGraph() {
+    Random random = new Random(42);
+    int methodCount = 200;
+    List<MethodSignature> methods = new ArrayList<>();
+    MutableCallGraph expected = new GraphBasedCallGraph();
+    MutableCallGraph actual = new CompactCallGraph();
+    for (int i = 0; i < methodCount; i++) {
+      methods.add(method(i));
+      expected.addMethod(methods.get(i));
+      actual.addMethod(methods.get(i));
+    }
+    for (int i = 0; i < 5000; i++) {
+      MethodSignature source = methods.get(random.nextInt(methodCount));
+      MethodSignature target = methods.get(random.nextInt(methodCount));
+      // GraphBasedCallGraph does not expect duplicate calls
+      if (!expected.containsCall(source, target)) {
+        expected.addCall(source, target);
+      }
+      actual.addCall(source, target);
+    }
+
+    assertEquals(expected.getMethodSignatures(), actual.getMethodSignatures());
+    assertEquals(expected.callCount(), actual.callCount());
+    for (MethodSignature method : methods) {
+      assertEquals(expected.callsFrom(method), actual.callsFrom(method));
+      assertEquals(expected.callsTo(method), actual.callsTo(method));
+      Set<MethodSignature> callers = new HashSet<>();
+      actual.forEachCallTo(method, callers::add);
+      assertEquals(expected.callsTo(method), callers);
+      for (MethodSignature other : methods) {
+        assertEquals(expected.containsCall(method, other), actual.containsCall(method, other));
+      }
+    }
+    assertEquals(
+        expected.toStringSorted().replace("GraphBasedCallGraph", ""),
+        actual.toStringSorted().replace("CompactCallGraph", ""));
+  }
+
+  @Test
+  public void testCopy() {
+    MethodSignature a = method(1);
+    MethodSignature b = method(2);
+    MethodSignature c = method(3);
+    MutableCallGraph cg = new CompactCallGraph();
+    cg.addMethod(a);
+    cg.addMethod(b);
+    cg.addCall(a, b);
+    cg.addCall(a, b);
+    assertEquals(1, cg.callCount());
+    assertFalse(cg.containsCall(b, a));
+    assertFalse(cg.containsCall(a, c));
+
+    MutableCallGraph copy = cg.copy();
+    copy.addMethod(c);
+    copy.addCall(a, c);
+    copy.addCall(b, a);
+
+    assertEquals(1, cg.callCount());
+    assertEquals(Collections.singleton(b), cg.callsFrom(a));
+    assertFalse(cg.containsMethod(c));
+    assertEquals(3, copy.callCount());
+    assertEquals(new HashSet<>(Arrays.asList(b, c)), copy.callsFrom(a));
+    assertEquals(Collections.singleton(b), copy.callsTo(a));
+  }
+
+  private Stmt invokeStmt(MethodSignature target) {
+    return new JInvokeStmt(
+        new JStaticInvokeExpr(target, Collections.emptyList()),
+        StmtPositionInfo.createNoStmtPositionInfo());
+  }
+
+  @Test
+  public void testCallSites() {
+    for (MutableCallGraph cg : Arrays.asList(new GraphBasedCallGraph(), new CompactCallGraph())) {
+      MethodSignature a = method(1);
+      MethodSignature b = method(2);
+      MethodSignature c = method(3);
+      // two distinct statements with equal invoke expressions
+      Stmt first = invokeStmt(b);
+      Stmt second = invokeStmt(b);
+      CallSite firstSite = new CallSite(a, first);
+      CallSite secondSite = new CallSite(a, second);
+      cg.addMethod(a);
+      cg.addMethod(b);
+      cg.addMethod(c);
+      cg.addCall(firstSite, b);
+      cg.addCall(firstSite, b);
+      cg.addCall(firstSite, c);
+      cg.addCall(secondSite, b);
+
+      assertEquals(2, cg.callCount());
+      assertTrue(cg.containsCall(a, c));
+      assertEquals(new HashSet<>(Arrays.asList(b, c)), cg.calleesOf(first));
+      assertEquals(Collections.singleton(b), cg.calleesOf(second));
+      assertTrue(cg.calleesOf(invokeStmt(b)).isEmpty());
+      assertEquals(new HashSet<>(Arrays.asList(firstSite, secondSite)), cg.callersOf(b));
+      assertEquals(Collections.singleton(firstSite), cg.callersOf(c));
+      assertTrue(cg.callersOf(a).isEmpty());
+      assertEquals(CallSite.InvokeKind.STATIC, firstSite.getInvokeKind());
+
+      MutableCallGraph copy = cg.copy();
+      copy.addCall(secondSite, c);
+      assertEquals(Collections.singleton(b), cg.calleesOf(second));
+      assertEquals(new HashSet<>(Arrays.asList(b, c)), copy.calleesOf(second));
+      assertEquals(2, copy.callersOf(c).size());
+    }
+  }
+}
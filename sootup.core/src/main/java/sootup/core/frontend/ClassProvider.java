@@ -43,4 +43,13 @@ public interface ClassProvider<T extends AbstractClass<? extends AbstractClassSo
 
   /** Returns the file type that is handled by this provider, e.g. class, jimple, java */
   FileType getHandledFileType();
+
+  /**
+   * Returns true if {@link #createClassSource(AnalysisInputLocation, Path, ClassType)} may be
+   * called concurrently from several threads. Input locations only create class sources in parallel
+   * for such providers.
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
 }
@@ -0,0 +1,221 @@
+package sootup.core.graph;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+
+/**
+ * Precomputed traversal orders of the blocks of a StmtGraph. The blocks are indexed by their
+ * position in the linearized (i.e. Jimple printing) order of {@link StmtGraph#getBlockIterator()},
+ * the other orders are stored as arrays of these indices so that walking them needs no hashing. The
+ * reverse postorder and postorder are computed lazily on first use.
+ *
+ * <p>A BlockOrder is a snapshot of the graph: {@link StmtGraph#getBlockOrder()} returns a cached
+ * instance as long as the graph is not modified.
+ */
+public class BlockOrder implements Iterable<BasicBlock<?>> {
+
+  public enum Traversal {
+    /** the order in which the blocks are serialized to Jimple */
+    LINEARIZED,
+    /**
+     * reverse postorder of a depth first search from the starting block along normal and then
+     * exceptional successors, followed by the unreachable blocks in linearized order
+     */
+    REVERSE_POSTORDER,
+    /** postorder of the same depth first search, followed by the unreachable blocks */
+    POSTORDER
+  }
+
+  @Nonnull private final BasicBlock<?>[] blocks;
+  @Nonnull private final List<BasicBlock<?>> blockList;
+  @Nonnull private final Map<BasicBlock<?>, Integer> blockToIdx;
+  private final int startingBlockIdx;
+
+  private volatile int[] reversePostOrder;
+  private volatile int[] postOrder;
+
+  /**
+   * @param linearizedBlocks the blocks in the order of the Jimple serialization
+   * @param startingBlock the block of the starting Stmt or null if the graph is empty
+   */
+  public BlockOrder(
+      @Nonnull List<? extends BasicBlock<?>> linearizedBlocks, BasicBlock<?> startingBlock) {
+    blocks = linearizedBlocks.toArray(new BasicBlock<?>[0]);
+    blockList = Collections.unmodifiableList(Arrays.asList(blocks));
+    blockToIdx = new HashMap<>(blocks.length * 2);
+    for (int i = 0; i < blocks.length; i++) {
+      blockToIdx.put(blocks[i], i);
+    }
+    startingBlockIdx = startingBlock == null ? -1 : indexOf(startingBlock);
+  }
+
+  public int size() {
+    return blocks.length;
+  }
+
+  @Nonnull
+  public BasicBlock<?> getBlock(int idx) {
+    return blocks[idx];
+  }
+
+  /** @return the index of the block in the linearized order or -1 if it is not in the graph */
+  public int indexOf(@Nonnull BasicBlock<?> block) {
+    final Integer idx = blockToIdx.get(block);
+    return idx == null ? -1 : idx;
+  }
+
+  /** @return the blocks in linearized order */
+  @Nonnull
+  public List<BasicBlock<?>> getBlocks() {
+    return blockList;
+  }
+
+  /** @return the indices of the blocks in the given traversal order */
+  @Nonnull
+  public int[] getOrder(@Nonnull Traversal traversal) {
+    return getOrderArray(traversal).clone();
+  }
+
+  /** @return the blocks in the given traversal order */
+  @Nonnull
+  public Iterator<BasicBlock<?>> iterator(@Nonnull Traversal traversal) {
+    if (traversal == Traversal.LINEARIZED) {
+      return blockList.iterator();
+    }
+    final int[] order = getOrderArray(traversal);
+    return new Iterator<BasicBlock<?>>() {
+      int pos = 0;
+
+      @Override
+      public boolean hasNext() {
+        return pos < order.length;
+      }
+
+      @Override
+      public BasicBlock<?> next() {
+        if (pos >= order.length) {
+          throw new NoSuchElementException("Iterator has no more Blocks.");
+        }
+        return blocks[order[pos++]];
+      }
+    };
+  }
+
+  /** @return the blocks in linearized order */
+  @Nonnull
+  @Override
+  public Iterator<BasicBlock<?>> iterator() {
+    return blockList.iterator();
+  }
+
+  @Nonnull
+  private int[] getOrderArray(@Nonnull Traversal traversal) {
+    switch (traversal) {
+      case LINEARIZED:
+        final int[] linearized = new int[blocks.length];
+        for (int i = 0; i < linearized.length; i++) {
+          linearized[i] = i;
+        }
+        return linearized;
+      case REVERSE_POSTORDER:
+        if (reversePostOrder == null) {
+          computeDepthFirstOrders();
+        }
+        return reversePostOrder;
+      case POSTORDER:
+        if (postOrder == null) {
+          computeDepthFirstOrders();
+        }
+        return postOrder;
+      default:
+        throw new IllegalArgumentException("Unknown traversal: " + traversal);
+    }
+  }
+
+  private synchronized void computeDepthFirstOrders() {
+    if (postOrder != null) {
+      return;
+    }
+    final int blockCount = blocks.length;
+    final int[] post = new int[blockCount];
+    final int[] reversePost = new int[blockCount];
+    final boolean[] visited = new boolean[blockCount];
+    int postCount = 0;
+
+    if (startingBlockIdx >= 0) {
+      // iterative depth first search - a stack entry is the block index and the next successor
+      final int[] stack = new int[blockCount];
+      final int[] nextSucc = new int[blockCount];
+      final int[][] succs = new int[blockCount][];
+      int stackSize = 0;
+      stack[stackSize++] = startingBlockIdx;
+      visited[startingBlockIdx] = true;
+      while (stackSize > 0) {
+        final int block = stack[stackSize - 1];
+        if (succs[block] == null) {
+          succs[block] = successorIndices(blocks[block]);
+        }
+        if (nextSucc[block] < succs[block].length) {
+          final int succ = succs[block][nextSucc[block]++];
+          if (!visited[succ]) {
+            visited[succ] = true;
+            stack[stackSize++] = succ;
+          }
+        } else {
+          post[postCount++] = block;
+          stackSize--;
+        }
+      }
+    }
+
+    for (int i = 0; i < postCount; i++) {
+      reversePost[i] = post[postCount - 1 - i];
+    }
+    int idx = postCount;
+    for (int i = 0; i < blockCount; i++) {
+      if (!visited[i]) {
+        post[idx] = i;
+        reversePost[idx] = i;
+        idx++;
+      }
+    }
+    reversePostOrder = reversePost;
+    postOrder = post;
+  }
+
+  @Nonnull
+  private int[] successorIndices(@Nonnull BasicBlock<?> block) {
+    final List<? extends BasicBlock<?>> successors = block.getSuccessors();
+    final Collection<? extends BasicBlock<?>> handlers = block.getExceptionalSuccessors().values();
+    final int[] indices = new int[successors.size() + handlers.size()];
+    int i = 0;
+    for (BasicBlock<?> successor : successors) {
+      indices[i++] = indexOf(successor);
+    }
+    for (BasicBlock<?> handler : handlers) {
+      indices[i++] = indexOf(handler);
+    }
+    return indices;
+  }
+}
@@ -24,91 +24,320 @@ package sootup.core.graph;
 
 import java.util.*;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
+ * Computes the immediate dominators of the blocks of a StmtGraph. The blocks are numbered in
+ * reverse postorder and the flows between them are stored as int arrays, so that the iterative
+ * algorithm of Cooper, Harvey and Kennedy converges in few rounds without allocations. For very
+ * large graphs the algorithm of Lengauer and Tarjan is used instead. Dominance frontiers and
+ * post-dominators are only computed when they are requested.
+ *
  * @author Zun Wang
  * @see <a
  *     href="https://www.cs.rice.edu/~keith/EMBED/dom.pdf">https://www.cs.rice.edu/~keith/EMBED/dom.pdf</a>
  */
 public class DominanceFinder {
 
+  /** the number of reachable blocks from which on the Lengauer-Tarjan algorithm is used. */
+  public static final int LENGAUER_TARJAN_THRESHOLD = 1000;
+
   private List<BasicBlock<?>> blocks;
   private Map<BasicBlock<?>, Integer> blockToIdx = new HashMap<>();
+  private final int reachableBlockCount;
+  /** the (normal and exceptional) predecessors and successors of the reachable blocks */
+  private final int[][] preds;
+
+  private final int[][] succs;
   private int[] doms;
-  private ArrayList<Integer>[] domFrontiers;
-
-  public DominanceFinder(StmtGraph<?> blockGraph) {
-
-    // assign each block a integer id, startBlock's id must be 0
-    blocks = new ArrayList<>(blockGraph.getBlocks());
-    final BasicBlock<?> startingStmtBlock = blockGraph.getStartingStmtBlock();
-    {
-      int i = 1;
-      for (BasicBlock<?> block : blocks) {
-        if (startingStmtBlock == block) {
-          blockToIdx.put(block, 0);
-        } else {
-          blockToIdx.put(block, i);
-          i++;
-        }
+  @Nullable private BitSet[] domFrontiers = null;
+  @Nullable private int[] postDoms = null;
+
+  public DominanceFinder(@Nonnull StmtGraph<?> blockGraph) {
+    this(blockGraph, false);
+  }
+
+  /**
+   * @param forceLengauerTarjan use the Lengauer-Tarjan algorithm even if the graph has less than
+   *     {@link #LENGAUER_TARJAN_THRESHOLD} reachable blocks.
+   */
+  public DominanceFinder(@Nonnull StmtGraph<?> blockGraph, boolean forceLengauerTarjan) {
+
+    // assign each block an integer id in reverse postorder, startBlock's id must be 0. Blocks that
+    // are not reachable from the startBlock get the ids after all reachable blocks.
+    blocks = new ArrayList<>(blockGraph.getBlocks().size());
+    reachableBlockCount = collectBlocksInReversePostOrder(blockGraph);
+    for (BasicBlock<?> block : blockGraph.getBlocks()) {
+      if (!blockToIdx.containsKey(block)) {
+        blockToIdx.put(block, blocks.size());
+        blocks.add(block);
       }
     }
 
-    // initialize doms
-    doms = new int[blocks.size()];
-    doms[0] = 0;
-    for (int i = 1; i < doms.length; i++) {
-      doms[i] = -1;
+    // flows from unreachable blocks do not influence the dominators
+    preds = new int[reachableBlockCount][];
+    succs = new int[reachableBlockCount][];
+    for (int blockIdx = 0; blockIdx < reachableBlockCount; blockIdx++) {
+      final BasicBlock<?> block = blocks.get(blockIdx);
+      preds[blockIdx] = toReachableIdxs(block.getPredecessors());
+      succs[blockIdx] = toReachableIdxs(getAllSuccessors(block));
     }
 
     // calculate immediate dominator for each block
+    final int[] reachableDoms =
+        forceLengauerTarjan || reachableBlockCount >= LENGAUER_TARJAN_THRESHOLD
+            ? lengauerTarjan(succs, preds)
+            : iterate(preds);
+    doms = new int[blocks.size()];
+    Arrays.fill(doms, -1);
+    System.arraycopy(reachableDoms, 0, doms, 0, reachableBlockCount);
+  }
+
+  @Nonnull
+  private int[] toReachableIdxs(@Nonnull Collection<? extends BasicBlock<?>> blockList) {
+    final int[] idxs = new int[blockList.size()];
+    int size = 0;
+    for (BasicBlock<?> block : blockList) {
+      final int idx = blockToIdx.get(block);
+      if (idx < reachableBlockCount) {
+        idxs[size++] = idx;
+      }
+    }
+    return size == idxs.length ? idxs : Arrays.copyOf(idxs, size);
+  }
+
+  /**
+   * numbers the blocks which are reachable from the starting block in reverse postorder (including
+   * exceptional flows) so that a dominator has always a smaller id than the blocks it dominates.
+   *
+   * @return the number of reachable blocks
+   */
+  private int collectBlocksInReversePostOrder(@Nonnull StmtGraph<?> blockGraph) {
+    final BasicBlock<?> startingStmtBlock =
+        blockGraph.getStartingStmt() == null ? null : blockGraph.getStartingStmtBlock();
+    if (startingStmtBlock == null) {
+      return 0;
+    }
+
+    final List<BasicBlock<?>> postOrder = new ArrayList<>();
+    final Set<BasicBlock<?>> visited = new HashSet<>();
+    final Deque<BasicBlock<?>> blockStack = new ArrayDeque<>();
+    final Deque<Iterator<? extends BasicBlock<?>>> succIteratorStack = new ArrayDeque<>();
+    visited.add(startingStmtBlock);
+    blockStack.push(startingStmtBlock);
+    succIteratorStack.push(getAllSuccessors(startingStmtBlock).iterator());
+    while (!blockStack.isEmpty()) {
+      final Iterator<? extends BasicBlock<?>> succIterator = succIteratorStack.peek();
+      if (succIterator.hasNext()) {
+        final BasicBlock<?> succ = succIterator.next();
+        if (visited.add(succ)) {
+          blockStack.push(succ);
+          succIteratorStack.push(getAllSuccessors(succ).iterator());
+        }
+      } else {
+        postOrder.add(blockStack.pop());
+        succIteratorStack.pop();
+      }
+    }
+
+    for (int i = postOrder.size() - 1; i >= 0; i--) {
+      final BasicBlock<?> block = postOrder.get(i);
+      blockToIdx.put(block, blocks.size());
+      blocks.add(block);
+    }
+    return postOrder.size();
+  }
+
+  @Nonnull
+  private List<BasicBlock<?>> getAllSuccessors(@Nonnull BasicBlock<?> block) {
+    final List<BasicBlock<?>> succs = new ArrayList<>(block.getSuccessors());
+    succs.addAll(block.getExceptionalSuccessors().values());
+    return succs;
+  }
+
+  /**
+   * the iterative algorithm of Cooper, Harvey and Kennedy.
+   *
+   * @param preds the predecessors of each node - the nodes have to be numbered in reverse postorder
+   *     starting with the root 0.
+   * @return the immediate dominator of each node, the root dominates itself.
+   */
+  @Nonnull
+  static int[] iterate(@Nonnull int[][] preds) {
+    final int[] idoms = new int[preds.length];
+    Arrays.fill(idoms, -1);
+    if (idoms.length == 0) {
+      return idoms;
+    }
+    idoms[0] = 0;
+
     boolean isChanged = true;
     while (isChanged) {
       isChanged = false;
-      for (BasicBlock<?> block : blocks) {
-        if (block == startingStmtBlock) {
-          continue;
-        }
-        int blockIdx = blockToIdx.get(block);
-        List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-        // ms: should not be necessary preds.addAll(block.getExceptionalPredecessors());
-        int newIdom = getFirstDefinedBlockPredIdx(preds);
-        if (!preds.isEmpty() && newIdom != -1) {
-          preds.remove(blocks.get(newIdom));
-          for (BasicBlock<?> pred : preds) {
-            int predIdx = blockToIdx.get(pred);
-            if (this.doms[predIdx] != -1) {
-              newIdom = isIntersecting(newIdom, predIdx);
-            }
-          }
-          if (doms[blockIdx] != newIdom) {
-            doms[blockIdx] = newIdom;
-            isChanged = true;
+      for (int node = 1; node < preds.length; node++) {
+        int newIdom = -1;
+        for (int pred : preds[node]) {
+          if (idoms[pred] != -1) {
+            newIdom = newIdom == -1 ? pred : intersect(idoms, newIdom, pred);
           }
         }
+        if (newIdom != -1 && idoms[node] != newIdom) {
+          idoms[node] = newIdom;
+          isChanged = true;
+        }
+      }
+    }
+    return idoms;
+  }
+
+  private static int intersect(@Nonnull int[] idoms, int a, int b) {
+    while (a != b) {
+      while (a > b) {
+        a = idoms[a];
+      }
+      while (b > a) {
+        b = idoms[b];
       }
     }
+    return a;
+  }
 
-    // initialize domFrontiers
-    domFrontiers = new ArrayList[blockGraph.getBlocks().size()];
-    for (int i = 0; i < domFrontiers.length; i++) {
-      domFrontiers[i] = new ArrayList<>();
+  /**
+   * the (simple) algorithm of Lengauer and Tarjan which runs in O(E log N) independent of the
+   * structure of the graph.
+   *
+   * @param succs the successors of each node - every node has to be reachable from the root 0.
+   * @param preds the predecessors of each node
+   * @return the immediate dominator of each node, the root dominates itself.
+   */
+  @Nonnull
+  static int[] lengauerTarjan(@Nonnull int[][] succs, @Nonnull int[][] preds) {
+    final int n = succs.length;
+    final int[] idoms = new int[n];
+    Arrays.fill(idoms, -1);
+    if (n == 0) {
+      return idoms;
     }
 
-    // calculate dominance frontiers for each block
-    for (BasicBlock<?> block : blocks) {
-      List<BasicBlock<?>> preds = new ArrayList<>(block.getPredecessors());
-      // ms: should not be necessary  preds.addAll(block.getExceptionalPredecessors());
-      if (preds.size() > 1) {
-        int blockId = blockToIdx.get(block);
-        for (BasicBlock<?> pred : preds) {
-          int predId = blockToIdx.get(pred);
-          while (predId != doms[blockId]) {
-            domFrontiers[predId].add(blockId);
-            predId = doms[predId];
-          }
+    // number the nodes in dfs preorder: vertex maps the dfs number to the node
+    final int[] dfsNumber = new int[n];
+    Arrays.fill(dfsNumber, -1);
+    final int[] vertex = new int[n];
+    final int[] parent = new int[n];
+    final int[] stack = new int[n];
+    final int[] succPos = new int[n];
+    int count = 0;
+    int stackSize = 0;
+    stack[stackSize++] = 0;
+    dfsNumber[0] = count;
+    vertex[count++] = 0;
+    parent[0] = -1;
+    while (stackSize > 0) {
+      final int node = stack[stackSize - 1];
+      if (succPos[node] < succs[node].length) {
+        final int succ = succs[node][succPos[node]++];
+        if (dfsNumber[succ] == -1) {
+          dfsNumber[succ] = count;
+          vertex[count++] = succ;
+          parent[succ] = node;
+          stack[stackSize++] = succ;
+        }
+      } else {
+        stackSize--;
+      }
+    }
+
+    // semi, ancestor and label are indexed by dfs number
+    final int[] semi = new int[count];
+    final int[] ancestor = new int[count];
+    final int[] label = new int[count];
+    final int[] idom = new int[count];
+    final int[][] bucket = new int[count][];
+    final int[] bucketSize = new int[count];
+    for (int v = 0; v < count; v++) {
+      semi[v] = v;
+      label[v] = v;
+      ancestor[v] = -1;
+    }
+
+    for (int w = count - 1; w > 0; w--) {
+      final int node = vertex[w];
+      for (int pred : preds[node]) {
+        final int v = dfsNumber[pred];
+        if (v == -1) {
+          continue;
         }
+        final int u = eval(v, ancestor, label, semi);
+        if (semi[u] < semi[w]) {
+          semi[w] = semi[u];
+        }
+      }
+      final int s = semi[w];
+      if (bucket[s] == null) {
+        bucket[s] = new int[2];
+      } else if (bucketSize[s] == bucket[s].length) {
+        bucket[s] = Arrays.copyOf(bucket[s], bucket[s].length * 2);
+      }
+      bucket[s][bucketSize[s]++] = w;
+
+      // link
+      final int p = dfsNumber[parent[node]];
+      ancestor[w] = p;
+
+      for (int i = 0; i < bucketSize[p]; i++) {
+        final int v = bucket[p][i];
+        final int u = eval(v, ancestor, label, semi);
+        idom[v] = semi[u] < semi[v] ? u : p;
+      }
+      bucketSize[p] = 0;
+    }
+
+    for (int w = 1; w < count; w++) {
+      if (idom[w] != semi[w]) {
+        idom[w] = idom[idom[w]];
+      }
+    }
+
+    idoms[0] = 0;
+    for (int w = 1; w < count; w++) {
+      idoms[vertex[w]] = vertex[idom[w]];
+    }
+    return idoms;
+  }
+
+  private static int eval(int v, int[] ancestor, int[] label, int[] semi) {
+    if (ancestor[v] == -1) {
+      return v;
+    }
+    compress(v, ancestor, label, semi);
+    return label[v];
+  }
+
+  /** iterative path compression */
+  private static void compress(int v, int[] ancestor, int[] label, int[] semi) {
+    // collect the path up to the node below the root of the linked tree
+    int depth = 0;
+    int node = v;
+    while (ancestor[ancestor[node]] != -1) {
+      depth++;
+      node = ancestor[node];
+    }
+    if (depth == 0) {
+      return;
+    }
+    final int[] path = new int[depth];
+    node = v;
+    for (int i = 0; i < depth; i++) {
+      path[i] = node;
+      node = ancestor[node];
+    }
+    for (int i = depth - 1; i >= 0; i--) {
+      final int x = path[i];
+      final int a = ancestor[x];
+      if (semi[label[a]] < semi[label[x]]) {
+        label[x] = label[a];
       }
+      ancestor[x] = ancestor[a];
     }
   }
 
@@ -122,63 +351,182 @@ public class DominanceFinder {
     blocks.set(idx, newBlock);
   }
 
-  @Nonnull
-  public BasicBlock<?> getImmediateDominator(@Nonnull BasicBlock<?> block) {
-    if (!blockToIdx.containsKey(block)) {
+  private int getIdx(@Nonnull BasicBlock<?> block) {
+    final Integer idx = blockToIdx.get(block);
+    if (idx == null) {
       throw new RuntimeException("The given block: " + block + " is not in BlockGraph!");
     }
-    int idx = blockToIdx.get(block);
+    return idx;
+  }
+
+  @Nonnull
+  public BasicBlock<?> getImmediateDominator(@Nonnull BasicBlock<?> block) {
+    int idx = getIdx(block);
     int idomIdx = this.doms[idx];
     return blocks.get(idomIdx);
   }
 
+  /** @return whether dominator dominates block - every reachable block dominates itself. */
+  public boolean isDominatedBy(@Nonnull BasicBlock<?> block, @Nonnull BasicBlock<?> dominator) {
+    int idx = getIdx(block);
+    final int domIdx = getIdx(dominator);
+    if (doms[idx] == -1) {
+      return false;
+    }
+    // a dominator has always a smaller reverse postorder number
+    while (idx > domIdx) {
+      idx = doms[idx];
+    }
+    return idx == domIdx;
+  }
+
   @Nonnull
   public Set<BasicBlock<?>> getDominanceFrontiers(@Nonnull BasicBlock<?> block) {
-    if (!blockToIdx.containsKey(block)) {
-      throw new RuntimeException("The given block: " + block + " is not in BlockGraph!");
-    }
-    int idx = blockToIdx.get(block);
+    final BitSet frontier = getDominanceFrontier(getIdx(block));
     Set<BasicBlock<?>> dFs = new HashSet<>();
-    ArrayList<Integer> dFs_idx = this.domFrontiers[idx];
-    for (Integer i : dFs_idx) {
+    for (int i = frontier.nextSetBit(0); i >= 0; i = frontier.nextSetBit(i + 1)) {
       dFs.add(blocks.get(i));
     }
     return dFs;
   }
 
+  /**
+   * @param blockIdx the index of a block in {@link #getIdxToBlock()}
+   * @return the indices of the blocks in the dominance frontier of the given block
+   */
   @Nonnull
-  public List<BasicBlock<?>> getIdxToBlock() {
-    return blocks;
+  public BitSet getDominanceFrontier(int blockIdx) {
+    if (domFrontiers == null) {
+      domFrontiers = computeDominanceFrontiers();
+    }
+    return (BitSet) domFrontiers[blockIdx].clone();
   }
 
   @Nonnull
-  public Map<BasicBlock<?>, Integer> getBlockToIdx() {
-    return blockToIdx;
+  private BitSet[] computeDominanceFrontiers() {
+    final BitSet[] frontiers = new BitSet[blocks.size()];
+    for (int i = 0; i < frontiers.length; i++) {
+      frontiers[i] = new BitSet();
+    }
+    for (int blockIdx = 0; blockIdx < reachableBlockCount; blockIdx++) {
+      final int[] blockPreds = preds[blockIdx];
+      if (blockPreds.length > 1) {
+        for (int predIdx : blockPreds) {
+          while (predIdx != doms[blockIdx]) {
+            frontiers[predIdx].set(blockIdx);
+            predIdx = doms[predIdx];
+          }
+        }
+      }
+    }
+    return frontiers;
   }
 
-  @Nonnull
-  public int[] getImmediateDominators() {
-    return this.doms;
+  /**
+   * @return the immediate post-dominator of the given block or null if there is none i.e. the block
+   *     is only post-dominated by the (virtual) exit of the graph or it can't reach an exit.
+   */
+  @Nullable
+  public BasicBlock<?> getImmediatePostDominator(@Nonnull BasicBlock<?> block) {
+    if (postDoms == null) {
+      postDoms = computePostDominators();
+    }
+    final int ipdom = postDoms[getIdx(block)];
+    return ipdom == -1 ? null : blocks.get(ipdom);
   }
 
-  private int getFirstDefinedBlockPredIdx(List<BasicBlock<?>> preds) {
-    for (BasicBlock<?> block : preds) {
-      int idx = blockToIdx.get(block);
-      if (doms[idx] != -1) {
-        return idx;
+  /**
+   * computes the immediate post-dominators of the reachable blocks on the reversed graph with an
+   * additional virtual exit block that succeeds all blocks without successors.
+   */
+  @Nonnull
+  private int[] computePostDominators() {
+    final int exit = reachableBlockCount;
+    final int[] result = new int[blocks.size()];
+    Arrays.fill(result, -1);
+
+    // reverse postorder on the reversed graph starting at the virtual exit
+    final int nodeCount = reachableBlockCount + 1;
+    final int[] rpoNumber = new int[nodeCount];
+    Arrays.fill(rpoNumber, -1);
+    final boolean[] visited = new boolean[nodeCount];
+    final int[] postOrder = new int[nodeCount];
+    int postOrderSize = 0;
+    final int[] stack = new int[nodeCount];
+    final int[] pos = new int[nodeCount];
+    int exitPreds = 0;
+    final int[] exitSuccs = new int[reachableBlockCount];
+    for (int i = 0; i < reachableBlockCount; i++) {
+      if (succs[i].length == 0) {
+        exitSuccs[exitPreds++] = i;
       }
     }
-    return -1;
-  }
+    final int[][] reversedSuccs = new int[nodeCount][];
+    System.arraycopy(preds, 0, reversedSuccs, 0, reachableBlockCount);
+    reversedSuccs[exit] = Arrays.copyOf(exitSuccs, exitPreds);
 
-  private int isIntersecting(int a, int b) {
-    while (a != b) {
-      if (a > b) {
-        a = doms[a];
+    int stackSize = 0;
+    stack[stackSize++] = exit;
+    visited[exit] = true;
+    while (stackSize > 0) {
+      final int node = stack[stackSize - 1];
+      if (pos[node] < reversedSuccs[node].length) {
+        final int succ = reversedSuccs[node][pos[node]++];
+        if (!visited[succ]) {
+          visited[succ] = true;
+          stack[stackSize++] = succ;
+        }
       } else {
-        b = doms[b];
+        postOrder[postOrderSize++] = node;
+        stackSize--;
       }
     }
-    return a;
+    final int[] rpoToNode = new int[postOrderSize];
+    for (int i = 0; i < postOrderSize; i++) {
+      final int node = postOrder[postOrderSize - 1 - i];
+      rpoToNode[i] = node;
+      rpoNumber[node] = i;
+    }
+
+    // the predecessors in the reversed graph are the successors of the original graph
+    final int[][] reversedPreds = new int[postOrderSize][];
+    reversedPreds[0] = new int[0];
+    for (int i = 1; i < postOrderSize; i++) {
+      final int node = rpoToNode[i];
+      final int[] nodeSuccs = succs[node];
+      final int[] rpoPreds = new int[nodeSuccs.length == 0 ? 1 : nodeSuccs.length];
+      int size = 0;
+      if (nodeSuccs.length == 0) {
+        rpoPreds[size++] = 0;
+      }
+      for (int succ : nodeSuccs) {
+        if (rpoNumber[succ] != -1) {
+          rpoPreds[size++] = rpoNumber[succ];
+        }
+      }
+      reversedPreds[i] = size == rpoPreds.length ? rpoPreds : Arrays.copyOf(rpoPreds, size);
+    }
+
+    final int[] rpoIdoms = iterate(reversedPreds);
+    for (int i = 1; i < postOrderSize; i++) {
+      final int ipdom = rpoToNode[rpoIdoms[i]];
+      result[rpoToNode[i]] = ipdom == exit ? -1 : ipdom;
+    }
+    return result;
+  }
+
+  @Nonnull
+  public List<BasicBlock<?>> getIdxToBlock() {
+    return blocks;
+  }
+
+  @Nonnull
+  public Map<BasicBlock<?>, Integer> getBlockToIdx() {
+    return blockToIdx;
+  }
+
+  @Nonnull
+  public int[] getImmediateDominators() {
+    return this.doms;
   }
 }
@@ -75,6 +75,17 @@ public class ForwardingStmtGraph<V extends BasicBlock<V>> extends StmtGraph<V> {
     return backingGraph.getBlocksSorted();
   }
 
+  @Override
+  public Iterator<BasicBlock<?>> getBlockIterator() {
+    return backingGraph.getBlockIterator();
+  }
+
+  @Nonnull
+  @Override
+  public BlockOrder getBlockOrder() {
+    return backingGraph.getBlockOrder();
+  }
+
   @Override
   public boolean containsNode(@Nonnull Stmt node) {
     return backingGraph.containsNode(node);
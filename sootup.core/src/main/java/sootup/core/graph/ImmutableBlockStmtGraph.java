@@ -1,6 +1,5 @@
 package sootup.core.graph;
 
-import com.google.common.collect.Lists;
 import java.util.*;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -8,207 +7,390 @@ import sootup.core.jimple.basic.Trap;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.types.ClassType;
 
-// FIXME: implement!
+/**
+ * A frozen, compact copy of a StmtGraph.
+ *
+ * <p>The Stmts are stored in one flat array ordered block by block in the linearized order of the
+ * copied StmtGraph - so iterating over it is a plain array walk. Blocks are index ranges into that
+ * array and the (exceptional) flows between blocks are stored as CSR-style int arrays: the targets
+ * of block i are stored in targets[offsets[i]] to targets[offsets[i+1]-1].
+ */
 public class ImmutableBlockStmtGraph
     extends StmtGraph<ImmutableBlockStmtGraph.ImmutableBasicBlock> {
 
-  private final List<ImmutableBasicBlock> blocks;
-  private final Map<Stmt, ImmutableBasicBlock> stmtToBlock = new HashMap<>();
+  /** all Stmts ordered block by block */
+  @Nonnull private final Stmt[] stmts;
+
+  @Nonnull private final Map<Stmt, Integer> stmtToIdx;
+  /** maps the index of a Stmt to the index of its block */
+  @Nonnull private final int[] stmtToBlockIdx;
+
+  @Nonnull private final ImmutableBasicBlock[] blocks;
+  /** the Stmts of block i are stmts[blockStart[i]] to stmts[blockStart[i+1]-1] */
+  @Nonnull private final int[] blockStart;
+
+  @Nonnull private final int[] successorOffsets;
+  @Nonnull private final int[] successors;
+  @Nonnull private final int[] predecessorOffsets;
+  @Nonnull private final int[] predecessors;
+  @Nonnull private final int[] exceptionalSuccessorOffsets;
+  @Nonnull private final int[] exceptionalSuccessors;
+  @Nonnull private final ClassType[] exceptionTypes;
+
+  @Nullable private final Stmt startingStmt;
+  @Nonnull private final List<Trap> traps;
+  @Nullable private volatile BlockOrder blockOrder;
+
+  public ImmutableBlockStmtGraph(@Nonnull StmtGraph<?> graph) {
+    final List<BasicBlock<?>> sourceBlocks = new ArrayList<>();
+    graph.getBlockIterator().forEachRemaining(sourceBlocks::add);
+    final int blockCount = sourceBlocks.size();
+
+    blocks = new ImmutableBasicBlock[blockCount];
+    blockStart = new int[blockCount + 1];
+    int stmtCount = 0;
+    for (int i = 0; i < blockCount; i++) {
+      blockStart[i] = stmtCount;
+      stmtCount += sourceBlocks.get(i).getStmtCount();
+      blocks[i] = new ImmutableBasicBlock(i);
+    }
+    blockStart[blockCount] = stmtCount;
+
+    stmts = new Stmt[stmtCount];
+    stmtToIdx = new HashMap<>(stmtCount * 2);
+    stmtToBlockIdx = new int[stmtCount];
+    int stmtIdx = 0;
+    for (int i = 0; i < blockCount; i++) {
+      for (Stmt stmt : sourceBlocks.get(i).getStmts()) {
+        stmts[stmtIdx] = stmt;
+        stmtToIdx.put(stmt, stmtIdx);
+        stmtToBlockIdx[stmtIdx] = i;
+        stmtIdx++;
+      }
+    }
+
+    successorOffsets = new int[blockCount + 1];
+    predecessorOffsets = new int[blockCount + 1];
+    exceptionalSuccessorOffsets = new int[blockCount + 1];
+    int successorCount = 0;
+    int predecessorCount = 0;
+    int exceptionalSuccessorCount = 0;
+    for (int i = 0; i < blockCount; i++) {
+      final BasicBlock<?> block = sourceBlocks.get(i);
+      successorOffsets[i] = successorCount;
+      predecessorOffsets[i] = predecessorCount;
+      exceptionalSuccessorOffsets[i] = exceptionalSuccessorCount;
+      successorCount += block.getSuccessors().size();
+      predecessorCount += block.getPredecessors().size();
+      exceptionalSuccessorCount += block.getExceptionalSuccessors().size();
+    }
+    successorOffsets[blockCount] = successorCount;
+    predecessorOffsets[blockCount] = predecessorCount;
+    exceptionalSuccessorOffsets[blockCount] = exceptionalSuccessorCount;
+
+    successors = new int[successorCount];
+    predecessors = new int[predecessorCount];
+    exceptionalSuccessors = new int[exceptionalSuccessorCount];
+    exceptionTypes = new ClassType[exceptionalSuccessorCount];
+    for (int i = 0; i < blockCount; i++) {
+      final BasicBlock<?> block = sourceBlocks.get(i);
+      int j = successorOffsets[i];
+      for (BasicBlock<?> successor : block.getSuccessors()) {
+        successors[j++] = blockIdxOf(successor);
+      }
+      j = predecessorOffsets[i];
+      for (BasicBlock<?> predecessor : block.getPredecessors()) {
+        predecessors[j++] = blockIdxOf(predecessor);
+      }
+      j = exceptionalSuccessorOffsets[i];
+      for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+          block.getExceptionalSuccessors().entrySet()) {
+        exceptionTypes[j] = entry.getKey();
+        exceptionalSuccessors[j++] = blockIdxOf(entry.getValue());
+      }
+    }
 
-  public ImmutableBlockStmtGraph(@Nonnull MutableStmtGraph graph) {
+    startingStmt = graph.getStartingStmt();
+    traps = blockCount == 0 ? Collections.emptyList() : graph.getTraps();
+  }
 
-    final List<? extends BasicBlock<?>> mblocks = graph.getBlocksSorted();
-    blocks = Lists.newArrayListWithExpectedSize(mblocks.size());
-    for (BasicBlock<?> block : mblocks) {
-      /* TODO: link predecessors/successors as well..
-      // final ImmutableBasicBlock ib = new ImmutableBasicBlock();
-      block.getStmts().forEach(stmt -> stmtToBlock.put(stmt, ib));
+  private int blockIdxOf(@Nonnull BasicBlock<?> sourceBlock) {
+    final Integer stmtIdx = stmtToIdx.get(sourceBlock.getHead());
+    if (stmtIdx == null) {
+      throw new IllegalArgumentException(
+          "The block starting with " + sourceBlock.getHead() + " is not in the StmtGraph.");
+    }
+    return stmtToBlockIdx[stmtIdx];
+  }
 
-      blocks.add(ib);*/
+  private int idxOf(@Nonnull Stmt stmt) {
+    final Integer idx = stmtToIdx.get(stmt);
+    if (idx == null) {
+      throw new IllegalArgumentException(
+          "Stmt '" + stmt + "' is not contained in the BlockStmtGraph");
     }
+    return idx;
   }
 
   @Nullable
   @Override
   public Stmt getStartingStmt() {
-    return blocks.isEmpty() ? null : blocks.get(0).getHead();
+    return startingStmt;
   }
 
+  @Nullable
   @Override
-  public BasicBlock<?> getStartingStmtBlock() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getStartingStmtBlock() {
+    return startingStmt == null ? null : getBlockOf(startingStmt);
   }
 
   @Override
-  public BasicBlock<ImmutableBasicBlock> getBlockOf(@Nonnull Stmt stmt) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+  public ImmutableBasicBlock getBlockOf(@Nonnull Stmt stmt) {
+    return blocks[stmtToBlockIdx[idxOf(stmt)]];
   }
 
   @Nonnull
   @Override
-  public List<Stmt> nodes() {
-    int size = 0;
-    for (ImmutableBasicBlock block : blocks) {
-      size += block.getStmtCount();
-    }
-    final ArrayList<Stmt> stmts = new ArrayList<>(size);
-    for (ImmutableBasicBlock block : blocks) {
-      stmts.addAll(block.getStmts());
-    }
-    return stmts;
+  public Collection<Stmt> nodes() {
+    return Collections.unmodifiableSet(stmtToIdx.keySet());
+  }
+
+  @Override
+  public List<Stmt> getStmts() {
+    return new ArrayList<>(Arrays.asList(stmts));
   }
 
   @Nonnull
   @Override
-  public Collection<ImmutableBasicBlock> getBlocks() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocks() {
+    return Collections.unmodifiableList(Arrays.asList(blocks));
   }
 
   @Nonnull
   @Override
-  public List<? extends BasicBlock<?>> getBlocksSorted() {
-    return blocks;
+  public List<ImmutableBasicBlock> getBlocksSorted() {
+    return getBlocks();
+  }
+
+  @Override
+  public Iterator<BasicBlock<?>> getBlockIterator() {
+    return Collections.<BasicBlock<?>>unmodifiableList(Arrays.asList(blocks)).iterator();
+  }
+
+  @Nonnull
+  @Override
+  public BlockOrder getBlockOrder() {
+    if (blockOrder == null) {
+      blockOrder = new BlockOrder(Arrays.asList(blocks), getStartingStmtBlock());
+    }
+    return blockOrder;
   }
 
   @Override
   public boolean containsNode(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    return stmtToIdx.containsKey(node);
   }
 
   @Nonnull
   @Override
   public List<Stmt> predecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = idxOf(node);
+    final int blockIdx = stmtToBlockIdx[idx];
+    if (idx != blockStart[blockIdx]) {
+      return Collections.singletonList(stmts[idx - 1]);
+    }
+    final int from = predecessorOffsets[blockIdx];
+    final int to = predecessorOffsets[blockIdx + 1];
+    final List<Stmt> preds = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      preds.add(blocks[predecessors[i]].getTail());
+    }
+    return Collections.unmodifiableList(preds);
   }
 
   @Nonnull
   @Override
   public List<Stmt> exceptionalPredecessors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("not implemented");
+    final int idx = idxOf(node);
+    final int blockIdx = stmtToBlockIdx[idx];
+    if (idx != blockStart[blockIdx]) {
+      // only the head of a block can be a traphandler
+      return Collections.emptyList();
+    }
+    final List<Stmt> exceptionalPreds = new ArrayList<>();
+    for (ImmutableBasicBlock predecessor : blocks[blockIdx].getExceptionalPredecessors()) {
+      exceptionalPreds.addAll(predecessor.getStmts());
+    }
+    return Collections.unmodifiableList(exceptionalPreds);
   }
 
   @Nonnull
   @Override
   public List<Stmt> successors(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = idxOf(node);
+    final int blockIdx = stmtToBlockIdx[idx];
+    if (idx != blockStart[blockIdx + 1] - 1) {
+      return Collections.singletonList(stmts[idx + 1]);
+    }
+    final int from = successorOffsets[blockIdx];
+    final int to = successorOffsets[blockIdx + 1];
+    final List<Stmt> succs = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      succs.add(blocks[successors[i]].getHead());
+    }
+    return Collections.unmodifiableList(succs);
   }
 
   @Nonnull
   @Override
   public Map<ClassType, Stmt> exceptionalSuccessors(@Nonnull Stmt node) {
-    // FIXME! implement
-    throw new RuntimeException("not implemented");
+    final int blockIdx = stmtToBlockIdx[idxOf(node)];
+    final int from = exceptionalSuccessorOffsets[blockIdx];
+    final int to = exceptionalSuccessorOffsets[blockIdx + 1];
+    final Map<ClassType, Stmt> exceptionalSuccs = new HashMap<>();
+    for (int i = from; i < to; i++) {
+      exceptionalSuccs.put(exceptionTypes[i], blocks[exceptionalSuccessors[i]].getHead());
+    }
+    return Collections.unmodifiableMap(exceptionalSuccs);
   }
 
   @Override
   public int inDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = idxOf(node);
+    final int blockIdx = stmtToBlockIdx[idx];
+    if (idx != blockStart[blockIdx]) {
+      return 1;
+    }
+    return predecessorOffsets[blockIdx + 1] - predecessorOffsets[blockIdx];
   }
 
   @Override
   public int outDegree(@Nonnull Stmt node) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = idxOf(node);
+    final int blockIdx = stmtToBlockIdx[idx];
+    if (idx != blockStart[blockIdx + 1] - 1) {
+      return 1;
+    }
+    return successorOffsets[blockIdx + 1] - successorOffsets[blockIdx];
   }
 
   @Override
   public boolean hasEdgeConnecting(@Nonnull Stmt source, @Nonnull Stmt target) {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    final int idx = idxOf(source);
+    final int blockIdx = stmtToBlockIdx[idx];
+    if (idx != blockStart[blockIdx + 1] - 1) {
+      return stmts[idx + 1] == target;
+    }
+    for (int i = successorOffsets[blockIdx]; i < successorOffsets[blockIdx + 1]; i++) {
+      if (stmts[blockStart[successors[i]]] == target) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Nonnull
   @Override
   public List<Trap> getTraps() {
-    throw new UnsupportedOperationException("Not implemented yet!");
+    return new ArrayList<>(traps);
   }
 
   @Nonnull
   @Override
   public Iterator<Stmt> iterator() {
-    return new Iterator<Stmt>() {
-      final Iterator<ImmutableBasicBlock> blockIt = blocks.iterator();
-      Iterator<Stmt> stmtIt = blockIt.next().getStmts().iterator();
-
-      @Override
-      public boolean hasNext() {
-        // hint: there are no empty blocks!
-        return stmtIt.hasNext() || blockIt.hasNext();
-      }
-
-      @Override
-      public Stmt next() {
-        if (stmtIt.hasNext()) {
-          return stmtIt.next();
-        }
-        stmtIt = blockIt.next().getStmts().iterator();
-        return stmtIt.next();
-      }
-    };
+    return Collections.unmodifiableList(Arrays.asList(stmts)).iterator();
   }
 
+  /** a view on a range of the Stmts of the ImmutableBlockStmtGraph */
   public class ImmutableBasicBlock implements BasicBlock<ImmutableBasicBlock> {
-    private final MutableBasicBlock graph;
-    private final int startIdx;
-    private final int endIdx;
-    private final List<ImmutableBasicBlock> successors;
-    private final List<ImmutableBasicBlock> predecessors;
-
-    private ImmutableBasicBlock(
-        MutableBasicBlock graph,
-        int startIdx,
-        int endIdx,
-        List<ImmutableBasicBlock> successors,
-        List<ImmutableBasicBlock> predecessors) {
-      this.graph = graph;
-      this.startIdx = startIdx;
-      this.endIdx = endIdx;
-      this.successors = successors;
-      this.predecessors = predecessors;
+    private final int idx;
+
+    private ImmutableBasicBlock(int idx) {
+      this.idx = idx;
+    }
+
+    @Nonnull
+    private List<ImmutableBasicBlock> toBlocks(@Nonnull int[] blockIdxs, int from, int to) {
+      final List<ImmutableBasicBlock> result = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        result.add(blocks[blockIdxs[i]]);
+      }
+      return result;
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getPredecessors() {
-      return predecessors;
+      return Collections.unmodifiableList(
+          toBlocks(predecessors, predecessorOffsets[idx], predecessorOffsets[idx + 1]));
     }
 
     @Nonnull
     @Override
     public List<ImmutableBasicBlock> getSuccessors() {
-      return successors;
+      return Collections.unmodifiableList(
+          toBlocks(successors, successorOffsets[idx], successorOffsets[idx + 1]));
     }
 
     @Override
     public List<ImmutableBasicBlock> getExceptionalPredecessors() {
-      return null;
+      final List<ImmutableBasicBlock> exceptionalPreds = new ArrayList<>();
+      for (int i = predecessorOffsets[idx]; i < predecessorOffsets[idx + 1]; i++) {
+        final int predIdx = predecessors[i];
+        for (int j = exceptionalSuccessorOffsets[predIdx];
+            j < exceptionalSuccessorOffsets[predIdx + 1];
+            j++) {
+          if (exceptionalSuccessors[j] == idx && !exceptionalPreds.contains(blocks[predIdx])) {
+            exceptionalPreds.add(blocks[predIdx]);
+            break;
+          }
+        }
+      }
+      return exceptionalPreds;
     }
 
     @Nonnull
     @Override
     public Map<? extends ClassType, ImmutableBasicBlock> getExceptionalSuccessors() {
-      throw new UnsupportedOperationException("not implemented yet");
+      final int from = exceptionalSuccessorOffsets[idx];
+      final int to = exceptionalSuccessorOffsets[idx + 1];
+      if (from == to) {
+        return Collections.emptyMap();
+      }
+      final Map<ClassType, ImmutableBasicBlock> exceptionalSuccs = new LinkedHashMap<>();
+      for (int i = from; i < to; i++) {
+        exceptionalSuccs.put(exceptionTypes[i], blocks[exceptionalSuccessors[i]]);
+      }
+      return Collections.unmodifiableMap(exceptionalSuccs);
     }
 
     @Nonnull
     @Override
     public List<Stmt> getStmts() {
-      throw new UnsupportedOperationException();
+      return Collections.unmodifiableList(
+          Arrays.asList(stmts).subList(blockStart[idx], blockStart[idx + 1]));
     }
 
     @Override
     public int getStmtCount() {
-      return endIdx - startIdx + 1;
+      return blockStart[idx + 1] - blockStart[idx];
     }
 
     @Nonnull
     @Override
     public Stmt getHead() {
-      throw new UnsupportedOperationException();
+      return stmts[blockStart[idx]];
     }
 
     @Nonnull
     @Override
     public Stmt getTail() {
-      throw new UnsupportedOperationException();
+      return stmts[blockStart[idx + 1] - 1];
+    }
+
+    @Override
+    public String toString() {
+      return "ImmutableBasicBlock" + getStmts();
     }
   }
 }
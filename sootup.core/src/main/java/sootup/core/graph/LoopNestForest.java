@@ -0,0 +1,360 @@
+package sootup.core.graph;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The loop nesting forest of a StmtGraph computed on its blocks with Havlak's algorithm (including
+ * Ramalingam's correction), so that natural loops as well as irreducible loops i.e. loops with
+ * multiple entries are found. Exceptional flows are considered like normal flows.
+ *
+ * <p>The blocks are indexed in the order of {@link StmtGraph#getBlockIterator()} - i.e. the same
+ * way as the blocks of a {@link sootup.core.model.BodyNumbering}. Blocks that are not reachable
+ * from the starting Stmt are in no loop.
+ *
+ * @see <a href="https://dl.acm.org/doi/10.1145/262004.262005">Havlak: Nesting of reducible and
+ *     irreducible loops</a>
+ */
+public class LoopNestForest {
+
+  @Nonnull private final BasicBlock<?>[] blocks;
+  @Nonnull private final Map<BasicBlock<?>, Integer> blockToIdx;
+  /** the innermost loop of each block or null */
+  @Nonnull private final Loop[] innermostLoop;
+
+  @Nonnull private final List<Loop> loops = new ArrayList<>();
+  @Nonnull private final List<Loop> rootLoops = new ArrayList<>();
+
+  public LoopNestForest(@Nonnull StmtGraph<?> graph) {
+    final List<BasicBlock<?>> blockList = new ArrayList<>();
+    graph.getBlockIterator().forEachRemaining(blockList::add);
+    blocks = blockList.toArray(new BasicBlock<?>[0]);
+    blockToIdx = new HashMap<>(blocks.length * 2);
+    for (int i = 0; i < blocks.length; i++) {
+      blockToIdx.put(blocks[i], i);
+    }
+    innermostLoop = new Loop[blocks.length];
+
+    if (graph.getStartingStmt() != null && blocks.length > 0) {
+      findLoops(blockToIdx.get(graph.getStartingStmtBlock()));
+    }
+  }
+
+  private void findLoops(int startIdx) {
+    final int blockCount = blocks.length;
+    final int[][] succs = new int[blockCount][];
+    for (int i = 0; i < blockCount; i++) {
+      final BasicBlock<?> block = blocks[i];
+      final Collection<? extends BasicBlock<?>> exceptionalSuccs =
+          block.getExceptionalSuccessors().values();
+      final int[] blockSuccs = new int[block.getSuccessors().size() + exceptionalSuccs.size()];
+      int j = 0;
+      for (BasicBlock<?> succ : block.getSuccessors()) {
+        blockSuccs[j++] = blockToIdx.get(succ);
+      }
+      for (BasicBlock<?> succ : exceptionalSuccs) {
+        blockSuccs[j++] = blockToIdx.get(succ);
+      }
+      succs[i] = blockSuccs;
+    }
+
+    // number the reachable blocks in dfs preorder, last[n] is the highest number in the dfs
+    // subtree of n - so n is an ancestor of m iff n <= m <= last[n]
+    final int[] number = new int[blockCount];
+    Arrays.fill(number, -1);
+    final int[] node = new int[blockCount];
+    final int[] last = new int[blockCount];
+    final int[] stack = new int[blockCount];
+    final int[] succPos = new int[blockCount];
+    int count = 0;
+    int stackSize = 0;
+    number[startIdx] = count;
+    node[count++] = startIdx;
+    stack[stackSize++] = startIdx;
+    while (stackSize > 0) {
+      final int block = stack[stackSize - 1];
+      if (succPos[block] < succs[block].length) {
+        final int succ = succs[block][succPos[block]++];
+        if (number[succ] == -1) {
+          number[succ] = count;
+          node[count++] = succ;
+          stack[stackSize++] = succ;
+        }
+      } else {
+        last[number[block]] = count - 1;
+        stackSize--;
+      }
+    }
+
+    // from here on everything is indexed by dfs number
+    final int[][] backPreds = new int[count][];
+    final int[][] nonBackPreds = new int[count][];
+    final int[] backPredCount = new int[count];
+    final int[] nonBackPredCount = new int[count];
+    for (int w = 0; w < count; w++) {
+      backPreds[w] = new int[2];
+      nonBackPreds[w] = new int[2];
+    }
+    for (int v = 0; v < count; v++) {
+      for (int succ : succs[node[v]]) {
+        final int w = number[succ];
+        if (w <= v && v <= last[w]) {
+          backPreds[w] = add(backPreds[w], backPredCount[w]++, v);
+        } else {
+          nonBackPreds[w] = add(nonBackPreds[w], nonBackPredCount[w]++, v);
+        }
+      }
+    }
+
+    final int[] header = new int[count];
+    final Loop[] loopOfHeader = new Loop[count];
+    // union find: representative of the (collapsed) loop a node belongs to
+    final int[] unionFind = new int[count];
+    for (int w = 0; w < count; w++) {
+      unionFind[w] = w;
+      header[w] = -1;
+    }
+
+    final int[] nodePool = new int[count];
+    final boolean[] inPool = new boolean[count];
+    final int[] workList = new int[count];
+    for (int w = count - 1; w >= 0; w--) {
+      int poolSize = 0;
+      boolean isSelfLoop = false;
+      boolean isIrreducible = false;
+      for (int i = 0; i < backPredCount[w]; i++) {
+        final int v = backPreds[w][i];
+        if (v == w) {
+          isSelfLoop = true;
+        } else {
+          final int x = find(unionFind, v);
+          if (!inPool[x]) {
+            inPool[x] = true;
+            nodePool[poolSize++] = x;
+          }
+        }
+      }
+
+      int workListSize = 0;
+      for (int i = 0; i < poolSize; i++) {
+        workList[workListSize++] = nodePool[i];
+      }
+      while (workListSize > 0) {
+        final int x = workList[--workListSize];
+        for (int i = 0; i < nonBackPredCount[x]; i++) {
+          final int y = find(unionFind, nonBackPreds[x][i]);
+          if (!(w <= y && y <= last[w])) {
+            // an entry into the loop which does not pass the header
+            isIrreducible = true;
+            nonBackPreds[w] = add(nonBackPreds[w], nonBackPredCount[w]++, y);
+          } else if (y != w && !inPool[y]) {
+            inPool[y] = true;
+            nodePool[poolSize++] = y;
+            workList[workListSize++] = y;
+          }
+        }
+      }
+
+      if (poolSize > 0 || isSelfLoop) {
+        final Loop loop = new Loop(blocks[node[w]], !isIrreducible);
+        loopOfHeader[w] = loop;
+        for (int i = 0; i < poolSize; i++) {
+          final int x = nodePool[i];
+          inPool[x] = false;
+          header[x] = w;
+          unionFind[x] = w;
+          if (loopOfHeader[x] != null) {
+            loopOfHeader[x].parent = loop;
+            loop.children.add(loopOfHeader[x]);
+          }
+        }
+      }
+    }
+
+    // assign the innermost loops and collect the loops outside in
+    for (int w = 0; w < count; w++) {
+      final Loop loop = loopOfHeader[w];
+      if (loop != null) {
+        innermostLoop[node[w]] = loop;
+        loops.add(loop);
+        if (loop.parent == null) {
+          rootLoops.add(loop);
+        } else {
+          loop.depth = loop.parent.depth + 1;
+        }
+      } else if (header[w] != -1) {
+        innermostLoop[node[w]] = loopOfHeader[header[w]];
+      }
+    }
+    for (int i = 0; i < blocks.length; i++) {
+      if (innermostLoop[i] != null) {
+        innermostLoop[i].directBlocks.add(blocks[i]);
+      }
+    }
+  }
+
+  @Nonnull
+  private static int[] add(@Nonnull int[] array, int idx, int value) {
+    final int[] result = idx < array.length ? array : Arrays.copyOf(array, array.length * 2);
+    result[idx] = value;
+    return result;
+  }
+
+  private static int find(@Nonnull int[] unionFind, int x) {
+    while (unionFind[x] != x) {
+      unionFind[x] = unionFind[unionFind[x]];
+      x = unionFind[x];
+    }
+    return x;
+  }
+
+  private int getIdx(@Nonnull BasicBlock<?> block) {
+    final Integer idx = blockToIdx.get(block);
+    if (idx == null) {
+      throw new IllegalArgumentException("The given block: " + block + " is not in the StmtGraph!");
+    }
+    return idx;
+  }
+
+  /** @return all loops, outer loops before the loops nested in them. */
+  @Nonnull
+  public List<Loop> getLoops() {
+    return Collections.unmodifiableList(loops);
+  }
+
+  /** @return the loops which are not nested in another loop. */
+  @Nonnull
+  public List<Loop> getRootLoops() {
+    return Collections.unmodifiableList(rootLoops);
+  }
+
+  /** @return the innermost loop which contains the given block or null if it is in no loop. */
+  @Nullable
+  public Loop getInnermostLoop(@Nonnull BasicBlock<?> block) {
+    return innermostLoop[getIdx(block)];
+  }
+
+  /** @return the innermost loop of the block with the given index or null. */
+  @Nullable
+  public Loop getInnermostLoop(int blockIdx) {
+    return innermostLoop[blockIdx];
+  }
+
+  /** @return the number of loops which contain the given block. */
+  public int getLoopDepth(@Nonnull BasicBlock<?> block) {
+    return getLoopDepth(getIdx(block));
+  }
+
+  /** @return the number of loops which contain the block with the given index. */
+  public int getLoopDepth(int blockIdx) {
+    final Loop loop = innermostLoop[blockIdx];
+    return loop == null ? 0 : loop.getDepth() + 1;
+  }
+
+  public boolean isLoopHeader(@Nonnull BasicBlock<?> block) {
+    final Loop loop = getInnermostLoop(block);
+    return loop != null && loop.getHeader().equals(block);
+  }
+
+  /** @return whether the given block is part of the given loop or of a loop nested in it. */
+  public boolean isInLoop(@Nonnull BasicBlock<?> block, @Nonnull Loop loop) {
+    Loop current = getInnermostLoop(block);
+    while (current != null && current.getDepth() > loop.getDepth()) {
+      current = current.getParent();
+    }
+    return current == loop;
+  }
+
+  /** A loop of the {@link LoopNestForest}. */
+  public static class Loop {
+    @Nonnull private final BasicBlock<?> header;
+    private final boolean isReducible;
+    @Nullable private Loop parent = null;
+    @Nonnull private final List<Loop> children = new ArrayList<>();
+    /** the blocks of this loop which are not in a nested loop - including the header */
+    @Nonnull private final List<BasicBlock<?>> directBlocks = new ArrayList<>();
+
+    private int depth = 0;
+
+    private Loop(@Nonnull BasicBlock<?> header, boolean isReducible) {
+      this.header = header;
+      this.isReducible = isReducible;
+    }
+
+    /**
+     * @return the entry of this loop - for an irreducible loop it is one of the entries, i.e. the
+     *     one which is visited first by a depth first search.
+     */
+    @Nonnull
+    public BasicBlock<?> getHeader() {
+      return header;
+    }
+
+    /** @return whether this is a natural loop i.e. the header dominates all blocks of the loop. */
+    public boolean isReducible() {
+      return isReducible;
+    }
+
+    /** @return the loop this loop is nested in or null if this is an outermost loop. */
+    @Nullable
+    public Loop getParent() {
+      return parent;
+    }
+
+    @Nonnull
+    public List<Loop> getChildren() {
+      return Collections.unmodifiableList(children);
+    }
+
+    /** @return the number of loops this loop is nested in. */
+    public int getDepth() {
+      return depth;
+    }
+
+    /** @return the blocks of this loop which are not part of a nested loop. */
+    @Nonnull
+    public List<BasicBlock<?>> getDirectBlocks() {
+      return Collections.unmodifiableList(directBlocks);
+    }
+
+    /** @return all blocks of this loop including the blocks of nested loops. */
+    @Nonnull
+    public Set<BasicBlock<?>> getBlocks() {
+      final Set<BasicBlock<?>> result = new LinkedHashSet<>(directBlocks);
+      final Deque<Loop> queue = new ArrayDeque<>(children);
+      while (!queue.isEmpty()) {
+        final Loop loop = queue.poll();
+        result.addAll(loop.directBlocks);
+        queue.addAll(loop.children);
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "Loop " + header;
+    }
+  }
+}
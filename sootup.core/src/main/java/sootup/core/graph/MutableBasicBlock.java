@@ -36,6 +36,15 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
 
   @Nonnull private final List<Stmt> stmts;
 
+  /**
+   * caches the position of each Stmt in stmts. Only the entries for the positions below
+   * validStmtIdxCount are up to date - the rest is (re)calculated lazily in indexOf(), so that
+   * appending or replacing Stmts stays O(1).
+   */
+  @Nonnull private final Map<Stmt, Integer> stmtToIdx = new HashMap<>();
+
+  private int validStmtIdxCount = 0;
+
   public MutableBasicBlock() {
     exceptionalSuccessorBlocks = new HashMap<>();
     stmts = new ArrayList<>();
@@ -62,16 +71,56 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
     stmts.add(stmt);
   }
 
+  /**
+   * @return the position of the given Stmt in this Block or -1 if it is not contained. Amortized
+   *     O(1): positions are only recalculated after Stmts were removed before them.
+   */
+  public int indexOf(@Nonnull Stmt stmt) {
+    final int size = stmts.size();
+    if (validStmtIdxCount < size) {
+      for (int i = validStmtIdxCount; i < size; i++) {
+        final Stmt s = stmts.get(i);
+        final Integer existingIdx = stmtToIdx.get(s);
+        // keep the first occurrence like List.indexOf() does
+        if (existingIdx == null || existingIdx >= i || stmts.get(existingIdx) != s) {
+          stmtToIdx.put(s, i);
+        }
+      }
+      validStmtIdxCount = size;
+    }
+    final Integer idx = stmtToIdx.get(stmt);
+    if (idx == null || idx >= size || stmts.get(idx) != stmt) {
+      return -1;
+    }
+    return idx;
+  }
+
   public void removeStmt(@Nonnull Stmt stmt) {
-    stmts.remove(stmt);
+    final int idx = indexOf(stmt);
+    if (idx < 0) {
+      return;
+    }
+    stmts.remove(idx);
+    stmtToIdx.remove(stmt);
+    validStmtIdxCount = idx;
+  }
+
+  /** removes all Stmts of this block which are contained in "toRemove" in a single pass. */
+  public void removeStmts(@Nonnull Set<Stmt> toRemove) {
+    if (stmts.removeIf(toRemove::contains)) {
+      stmtToIdx.clear();
+      validStmtIdxCount = 0;
+    }
   }
 
   public void replaceStmt(Stmt oldStmt, Stmt newStmt) {
-    final int idx = stmts.indexOf(oldStmt);
+    final int idx = indexOf(oldStmt);
     if (idx < 0) {
       throw new IllegalArgumentException("oldStmt does not exist in this Block!");
     }
     stmts.set(idx, newStmt);
+    stmtToIdx.remove(oldStmt);
+    stmtToIdx.put(newStmt, idx);
   }
 
   public void addPredecessorBlock(@Nonnull MutableBasicBlock block) {
@@ -90,6 +139,16 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
     successorBlocks.remove(b);
   }
 
+  /** replaces all flows to "oldBlock" by flows to "newBlock" and keeps their order. */
+  public void replaceSuccessorBlock(
+      @Nonnull MutableBasicBlock oldBlock, @Nonnull MutableBasicBlock newBlock) {
+    for (int i = 0; i < successorBlocks.size(); i++) {
+      if (successorBlocks.get(i) == oldBlock) {
+        successorBlocks.set(i, newBlock);
+      }
+    }
+  }
+
   public void addExceptionalSuccessorBlock(@Nonnull ClassType exception, MutableBasicBlock b) {
     exceptionalSuccessorBlocks.put(exception, b);
     b.addPredecessorBlock(this);
@@ -173,7 +232,7 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
    * blocks.
    */
   public MutableBasicBlock splitBlockUnlinked(@Nonnull Stmt newTail, @Nonnull Stmt newHead) {
-    int splitIdx = stmts.indexOf(newTail); // not cheap.
+    int splitIdx = indexOf(newTail);
     if (splitIdx < 0) {
       throw new IllegalArgumentException(
           "Can not split by that Stmt - it is not contained in this Block.");
@@ -201,7 +260,10 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
 
     // remove stmt references from current i.e. first block
     if (splitIdx < stmts.size()) {
-      stmts.subList(splitIdx, stmts.size()).clear();
+      final List<Stmt> movedStmts = stmts.subList(splitIdx, stmts.size());
+      movedStmts.forEach(stmtToIdx::remove);
+      movedStmts.clear();
+      validStmtIdxCount = Math.min(validStmtIdxCount, splitIdx);
     }
 
     return secondBlock;
@@ -218,7 +280,7 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
   @Nonnull
   public MutableBasicBlock splitBlockLinked(@Nonnull Stmt splitStmt, boolean shouldBeNewHead) {
 
-    int splitIdx = stmts.indexOf(splitStmt);
+    int splitIdx = indexOf(splitStmt);
     if (splitIdx < 0) {
       throw new IllegalArgumentException("splitting Stmt is not contained in this Block.");
     }
@@ -2,6 +2,8 @@ package sootup.core.graph;
 
 import com.google.common.collect.ComparisonChain;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
@@ -32,6 +34,17 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Nonnull private final Set<MutableBasicBlock> blocks = new HashSet<>();
 
+  /**
+   * counts the structural modifications of this graph. The linearized block order, Stmt order and
+   * traps are cached until the next modification. Hint: modifications made directly on the
+   * MutableBasicBlocks of this graph are not tracked.
+   */
+  private int modCount = 0;
+
+  @Nullable private BlockOrder cachedBlockOrder = null;
+  @Nullable private List<Stmt> cachedStmts = null;
+  @Nullable private List<Trap> cachedTraps = null;
+
   public MutableBlockStmtGraph() {}
 
   public MutableBlockStmtGraph(boolean isStatic, MethodSignature sig, LocalGenerator localgen) {
@@ -94,6 +107,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull List<Stmt> stmts,
       @Nonnull Map<BranchingStmt, List<Stmt>> branchingMap,
       @Nonnull List<Trap> traps) {
+    modified();
 
     if (stmts.isEmpty()) {
       return;
@@ -348,6 +362,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   @Override
   public void addExceptionalEdge(
       @Nonnull Stmt stmt, @Nonnull ClassType exceptionType, @Nonnull Stmt traphandlerStmt) {
+    modified();
 
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
@@ -369,22 +384,35 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeExceptionalEdge(@Nonnull Stmt node, @Nonnull ClassType exceptionType) {
+    modified();
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
     }
-    block.removeExceptionalSuccessorBlock(exceptionType);
-    tryMergeIntoSurroundingBlocks(block);
+    if (!block.getExceptionalSuccessors().containsKey(exceptionType)) {
+      throw new IllegalArgumentException(
+          "there is no handler for the given ClassType: " + exceptionType);
+    }
+    // the other Stmts of the block keep their exceptional flow
+    final MutableBasicBlock separatedBlock = excludeStmtFromBlock(node, block);
+    separatedBlock.removeExceptionalSuccessorBlock(exceptionType);
+    tryMergeIntoSurroundingBlocks(separatedBlock);
   }
 
   @Override
   public void clearExceptionalEdges(@Nonnull Stmt node) {
+    modified();
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
     }
-    block.clearExceptionalSuccessorBlocks();
-    tryMergeIntoSurroundingBlocks(block);
+    if (block.getExceptionalSuccessors().isEmpty()) {
+      return;
+    }
+    // the other Stmts of the block keep their exceptional flows
+    final MutableBasicBlock separatedBlock = excludeStmtFromBlock(node, block);
+    separatedBlock.clearExceptionalSuccessorBlocks();
+    tryMergeIntoSurroundingBlocks(separatedBlock);
   }
 
   @Override
@@ -407,6 +435,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
    */
   @Override
   public void addBlock(@Nonnull List<Stmt> stmts, @Nonnull Map<ClassType, Stmt> trapMap) {
+    modified();
     if (stmts.isEmpty()) {
       return;
     }
@@ -474,6 +503,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void addNode(@Nonnull Stmt stmt, @Nonnull Map<ClassType, Stmt> exceptions) {
+    modified();
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
       // Stmt does not exist in the graph -> create
@@ -521,7 +551,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     final MutableBasicBlock excludedFromOrigBlock;
     if (block.getStmtCount() > 1) {
       final List<Stmt> blockStmts = block.getStmts();
-      int stmtIdx = blockStmts.indexOf(splitStmt);
+      int stmtIdx = block.indexOf(splitStmt);
 
       if (stmtIdx < 0) {
         throw new IllegalArgumentException("splitStmt does not exist in this block!");
@@ -565,8 +595,10 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
         block.clearSuccessorBlocks();
 
         // link third/leftover block with previous stmts from the separated block
+        if (excludedFromOrigBlock != block) {
+          linkBlocks(block, excludedFromOrigBlock);
+        }
         linkBlocks(excludedFromOrigBlock, restOfOrigBlock);
-        block.clearSuccessorBlocks();
 
         // add blocks exceptional flows
         block
@@ -592,8 +624,10 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
         linkBlocks(block, excludedFromOrigBlock);
       }
 
-      // cleanup original block -> "beforeBlock" -> remove now copied Stmts
-      for (int i = blockStmts.size() - 1; i >= stmtIdx; i--) {
+      // cleanup original block -> "beforeBlock" -> remove now copied Stmts (splitStmt stays if
+      // the original block is the excluded one)
+      final int firstCopiedIdx = excludedFromOrigBlock == block ? stmtIdx + 1 : stmtIdx;
+      for (int i = blockStmts.size() - 1; i >= firstCopiedIdx; i--) {
         block.removeStmt(blockStmts.get(i));
       }
 
@@ -652,6 +686,10 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     if (firstBlock.getTail().branches()) {
       return false;
     }
+    if (followingBlock.getHead() == startingStmt) {
+      // the starting Stmt has to stay the head of its block
+      return false;
+    }
     final List<MutableBasicBlock> fBlocksuccessors = firstBlock.getSuccessors();
     if (fBlocksuccessors.size() != 1 || fBlocksuccessors.get(0) != followingBlock) {
       return false;
@@ -684,6 +722,8 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       // done in clearPredecessorBlock      firstBlock.removeSuccessorBlock(followingBlock);
       followingBlock.getSuccessors().forEach(succ -> linkBlocks(firstBlock, succ));
       followingBlock.clearSuccessorBlocks();
+      // firstBlock has the same exceptional flows already
+      followingBlock.clearExceptionalSuccessorBlocks();
 
       blocks.remove(followingBlock);
 
@@ -716,6 +756,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void removeNode(@Nonnull Stmt stmt) {
+    modified();
     // TODO: [ms] whats intuitive? removing the flows to the block too? or is deleting a stmt
     // keeping the flows to it
     // is the answer different if its the tail? consistency vs intuitivity..
@@ -723,6 +764,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void removeNode(@Nonnull Stmt stmt, boolean keepFlow) {
+    modified();
 
     MutableBasicBlock blockOfRemovedStmt = stmtToBlock.remove(stmt);
     if (blockOfRemovedStmt == null) {
@@ -778,8 +820,478 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     }
   }
 
+  @Override
+  public void removeNodes(@Nonnull Collection<Stmt> stmts) {
+    modified();
+    final Set<Stmt> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Set<MutableBasicBlock> affectedBlocks = new LinkedHashSet<>();
+    for (Stmt stmt : stmts) {
+      final MutableBasicBlock block = stmtToBlock.get(stmt);
+      if (block == null) {
+        throw new IllegalArgumentException("Stmt " + stmt + " is not in the StmtGraph!");
+      }
+      if (stmt.branches()) {
+        throw new IllegalArgumentException("Can not keep the flows of the branching Stmt " + stmt);
+      }
+      toRemove.add(stmt);
+      affectedBlocks.add(block);
+    }
+
+    // remove the Stmts from blocks which keep at least one Stmt - the flows stay untouched
+    final Set<MutableBasicBlock> emptiedBlocks = new LinkedHashSet<>();
+    for (MutableBasicBlock block : affectedBlocks) {
+      if (toRemove.containsAll(block.getStmts())) {
+        emptiedBlocks.add(block);
+        continue;
+      }
+      final boolean isStartingStmtRemoved =
+          toRemove.contains(startingStmt) && stmtToBlock.get(startingStmt) == block;
+      block.removeStmts(toRemove);
+      if (isStartingStmtRemoved) {
+        startingStmt = block.getHead();
+      }
+    }
+
+    // remove blocks which consist only of removed Stmts and redirect their flows
+    final Set<MutableBasicBlock> redirectTargets = new LinkedHashSet<>();
+    for (MutableBasicBlock block : emptiedBlocks) {
+      // a non-branching block has at most one successor which can be an emptied block as well
+      MutableBasicBlock target = block;
+      final Set<MutableBasicBlock> visited = new HashSet<>();
+      while (target != null && emptiedBlocks.contains(target) && visited.add(target)) {
+        final List<MutableBasicBlock> successors = target.getSuccessors();
+        target = successors.isEmpty() ? null : successors.get(0);
+      }
+      if (target != null && emptiedBlocks.contains(target)) {
+        // the emptied blocks form a cycle
+        target = null;
+      }
+
+      if (toRemove.contains(startingStmt) && stmtToBlock.get(startingStmt) == block) {
+        startingStmt = target == null ? null : target.getHead();
+      }
+
+      for (MutableBasicBlock predecessor : new ArrayList<>(block.getPredecessors())) {
+        if (emptiedBlocks.contains(predecessor)) {
+          // its flows are redirected when the predecessor itself is removed
+          continue;
+        }
+        for (ClassType exceptionType : predecessor.collectExceptionalSuccessorBlocks(block)) {
+          predecessor.removeExceptionalSuccessorBlock(exceptionType);
+          if (target != null) {
+            predecessor.addExceptionalSuccessorBlock(exceptionType, target);
+          }
+        }
+        if (predecessor.getSuccessors().contains(block)) {
+          if (target == null) {
+            while (predecessor.getSuccessors().contains(block)) {
+              predecessor.removeSuccessorBlock(block);
+            }
+          } else {
+            for (MutableBasicBlock successor : predecessor.getSuccessors()) {
+              if (successor == block) {
+                target.addPredecessorBlock(predecessor);
+              }
+            }
+            predecessor.replaceSuccessorBlock(block, target);
+          }
+        }
+      }
+      if (target != null) {
+        redirectTargets.add(target);
+      }
+    }
+    for (Stmt stmt : toRemove) {
+      stmtToBlock.remove(stmt);
+    }
+    for (MutableBasicBlock block : emptiedBlocks) {
+      block.clearSuccessorBlocks();
+      block.clearExceptionalSuccessorBlocks();
+      block.clearPredecessorBlocks();
+      blocks.remove(block);
+    }
+
+    for (MutableBasicBlock block : affectedBlocks) {
+      if (blocks.contains(block)) {
+        tryMergeIntoSurroundingBlocks(block);
+      }
+    }
+    for (MutableBasicBlock block : redirectTargets) {
+      if (blocks.contains(block)) {
+        tryMergeWithPredecessorBlock(block);
+      }
+    }
+  }
+
+  @Override
+  public void removeBlocks(@Nonnull Collection<? extends BasicBlock<?>> blocksToRemove) {
+    modified();
+    final Set<MutableBasicBlock> removedBlocks = new LinkedHashSet<>();
+    for (BasicBlock<?> block : blocksToRemove) {
+      final MutableBasicBlock mutableBlock = stmtToBlock.get(block.getHead());
+      if (mutableBlock == null || !blocks.contains(mutableBlock)) {
+        throw new IllegalArgumentException("The block " + block + " is not in the StmtGraph!");
+      }
+      removedBlocks.add(mutableBlock);
+    }
+
+    final Set<MutableBasicBlock> survivingSuccessors = new LinkedHashSet<>();
+    for (MutableBasicBlock block : removedBlocks) {
+      for (Stmt stmt : block.getStmts()) {
+        stmtToBlock.remove(stmt);
+        if (stmt == startingStmt) {
+          startingStmt = null;
+        }
+      }
+      for (MutableBasicBlock successor : block.getSuccessors()) {
+        if (!removedBlocks.contains(successor)) {
+          survivingSuccessors.add(successor);
+        }
+      }
+      for (MutableBasicBlock successor : block.getExceptionalSuccessors().values()) {
+        if (!removedBlocks.contains(successor)) {
+          survivingSuccessors.add(successor);
+        }
+      }
+      block.clearPredecessorBlocks();
+      block.clearSuccessorBlocks();
+      block.clearExceptionalSuccessorBlocks();
+      blocks.remove(block);
+    }
+
+    for (MutableBasicBlock block : survivingSuccessors) {
+      if (blocks.contains(block)) {
+        tryMergeWithPredecessorBlock(block);
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the blocks which contain an edited Stmt once instead of splitting and merging blocks
+   * for each edit: the Stmts of these blocks are unfolded into their flows, the edits are applied
+   * to these flows and the blocks are formed anew. Removals of branching Stmts are applied
+   * afterwards via {@link #removeNode(Stmt)}.
+   */
+  @Override
+  void applyBatchEdit(
+      @Nonnull Map<Stmt, Stmt> replacements,
+      @Nonnull List<BatchEdit.FlowEdit> flowEdits,
+      @Nonnull Collection<Stmt> removals) {
+    modified();
+    final UnaryOperator<Stmt> replaced = stmt -> replacements.getOrDefault(stmt, stmt);
+    final Map<Stmt, Stmt> replacedStmts = new HashMap<>(replacements.size() * 2);
+    replacements.forEach((oldStmt, newStmt) -> replacedStmts.put(newStmt, oldStmt));
+
+    final Set<Stmt> removedStmts = new HashSet<>();
+    final List<Stmt> branchingRemovals = new ArrayList<>();
+    for (Stmt removal : removals) {
+      if (removal.branches()) {
+        branchingRemovals.add(removal);
+      } else {
+        removedStmts.add(removal);
+      }
+    }
+
+    final Set<MutableBasicBlock> affectedBlocks = new LinkedHashSet<>();
+    for (Stmt stmt : replacements.keySet()) {
+      addBlockOf(stmt, affectedBlocks);
+    }
+    for (BatchEdit.FlowEdit flowEdit : flowEdits) {
+      addBlockOf(replacedStmts.getOrDefault(flowEdit.from, flowEdit.from), affectedBlocks);
+      addBlockOf(replacedStmts.getOrDefault(flowEdit.to, flowEdit.to), affectedBlocks);
+    }
+    for (Stmt stmt : removedStmts) {
+      addBlockOf(replacedStmts.getOrDefault(stmt, stmt), affectedBlocks);
+    }
+
+    // unfold the affected blocks into the flows of their (replaced) Stmts - the Stmts of a block
+    // share the map of their exceptional flows
+    final List<Stmt> stmts = new ArrayList<>();
+    final Map<Stmt, List<Stmt>> successors = new HashMap<>();
+    final Map<Stmt, Map<ClassType, Stmt>> exceptionalSuccessors = new HashMap<>();
+    for (MutableBasicBlock block : affectedBlocks) {
+      final Map<ClassType, Stmt> traps = new HashMap<>();
+      block
+          .getExceptionalSuccessors()
+          .forEach((type, handlerBlock) -> traps.put(type, replaced.apply(handlerBlock.getHead())));
+      final List<Stmt> blockStmts = block.getStmts();
+      for (int i = 0; i < blockStmts.size(); i++) {
+        final Stmt stmt = replaced.apply(blockStmts.get(i));
+        final List<Stmt> stmtSuccessors = new ArrayList<>();
+        if (i + 1 < blockStmts.size()) {
+          stmtSuccessors.add(replaced.apply(blockStmts.get(i + 1)));
+        } else {
+          for (MutableBasicBlock successor : block.getSuccessors()) {
+            stmtSuccessors.add(replaced.apply(successor.getHead()));
+          }
+        }
+        stmts.add(stmt);
+        successors.put(stmt, stmtSuccessors);
+        exceptionalSuccessors.put(stmt, traps);
+      }
+    }
+
+    for (BatchEdit.FlowEdit flowEdit : flowEdits) {
+      final Stmt from = flowEdit.from;
+      final Stmt to = flowEdit.to;
+      List<Stmt> fromSuccessors = successors.get(from);
+      if (flowEdit.isRemoval) {
+        if (fromSuccessors != null) {
+          fromSuccessors.remove(to);
+        }
+        continue;
+      }
+      if (fromSuccessors == null) {
+        // "from" is new in the graph
+        fromSuccessors = new ArrayList<>();
+        stmts.add(from);
+        successors.put(from, fromSuccessors);
+        exceptionalSuccessors.put(from, new HashMap<>());
+      }
+      if (fromSuccessors.size() >= from.getExpectedSuccessorCount()) {
+        throw new IllegalArgumentException(
+            "Can't add another flow - there are already enough flows i.e. "
+                + from.getExpectedSuccessorCount()
+                + " outgoing from StmtA '"
+                + from
+                + "'");
+      }
+      if (!successors.containsKey(to)) {
+        // "to" is new in the graph and gets the exceptional flows of "from"
+        stmts.add(to);
+        successors.put(to, new ArrayList<>());
+        exceptionalSuccessors.put(to, exceptionalSuccessors.get(from));
+      }
+      fromSuccessors.add(to);
+    }
+
+    // flows to a removed Stmt are redirected to its successor
+    final Map<Stmt, Stmt> redirects = redirectRemovedStmts(removedStmts, successors);
+    final UnaryOperator<Stmt> redirected =
+        stmt -> removedStmts.contains(stmt) ? redirects.get(stmt) : stmt;
+    final Set<Map<ClassType, Stmt>> trapMaps = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (!removedStmts.isEmpty()) {
+      stmts.removeIf(removedStmts::contains);
+      for (Stmt stmt : removedStmts) {
+        successors.remove(stmt);
+        exceptionalSuccessors.remove(stmt);
+      }
+      for (Stmt stmt : stmts) {
+        final List<Stmt> stmtSuccessors = successors.get(stmt);
+        stmtSuccessors.replaceAll(redirected);
+        stmtSuccessors.removeIf(Objects::isNull);
+        final Map<ClassType, Stmt> traps = exceptionalSuccessors.get(stmt);
+        if (trapMaps.add(traps)) {
+          traps.replaceAll((type, handler) -> redirected.apply(handler));
+          traps.values().removeIf(Objects::isNull);
+        }
+      }
+    }
+    if (startingStmt != null) {
+      startingStmt = redirected.apply(replaced.apply(startingStmt));
+    }
+    final Function<MutableBasicBlock, Stmt> newHeadOf =
+        block -> redirected.apply(replaced.apply(block.getHead()));
+
+    // a Stmt continues the block of its predecessor if it is the only successor of its only
+    // predecessor, which does not branch and has the same exceptional flows
+    final Set<MutableBasicBlock> externalPredecessors = new LinkedHashSet<>();
+    for (MutableBasicBlock block : affectedBlocks) {
+      for (MutableBasicBlock predecessor : block.getPredecessors()) {
+        if (!affectedBlocks.contains(predecessor)) {
+          externalPredecessors.add(predecessor);
+        }
+      }
+    }
+    final Set<Stmt> heads = new HashSet<>();
+    if (startingStmt != null) {
+      heads.add(startingStmt);
+    }
+    for (MutableBasicBlock predecessor : externalPredecessors) {
+      for (MutableBasicBlock successor : predecessor.getSuccessors()) {
+        if (affectedBlocks.contains(successor)) {
+          heads.add(newHeadOf.apply(successor));
+        }
+      }
+      for (MutableBasicBlock handlerBlock : predecessor.getExceptionalSuccessors().values()) {
+        if (affectedBlocks.contains(handlerBlock)) {
+          heads.add(newHeadOf.apply(handlerBlock));
+        }
+      }
+    }
+    trapMaps.clear();
+    final Map<Stmt, Stmt> continuedFrom = new HashMap<>();
+    for (Stmt stmt : stmts) {
+      final Map<ClassType, Stmt> traps = exceptionalSuccessors.get(stmt);
+      if (trapMaps.add(traps)) {
+        heads.addAll(traps.values());
+      }
+      final List<Stmt> stmtSuccessors = successors.get(stmt);
+      final boolean endsBlock = stmt.branches() || stmtSuccessors.size() != 1;
+      for (Stmt successor : stmtSuccessors) {
+        if (endsBlock
+            || continuedFrom.containsKey(successor)
+            || !traps.equals(exceptionalSuccessors.get(successor))) {
+          heads.add(successor);
+        } else {
+          continuedFrom.put(successor, stmt);
+        }
+      }
+    }
+
+    // replace the affected blocks
+    for (MutableBasicBlock block : affectedBlocks) {
+      for (Stmt stmt : block.getStmts()) {
+        stmtToBlock.remove(stmt);
+      }
+      for (MutableBasicBlock successor : block.getSuccessors()) {
+        if (!affectedBlocks.contains(successor)) {
+          successor.removePredecessorBlock(block);
+        }
+      }
+      for (MutableBasicBlock handlerBlock : block.getExceptionalSuccessors().values()) {
+        if (!affectedBlocks.contains(handlerBlock)) {
+          handlerBlock.removePredecessorBlock(block);
+        }
+      }
+      blocks.remove(block);
+    }
+    final List<MutableBasicBlock> newBlocks = new ArrayList<>();
+    for (Stmt stmt : stmts) {
+      if ((heads.contains(stmt) || !continuedFrom.containsKey(stmt))
+          && !stmtToBlock.containsKey(stmt)) {
+        newBlocks.add(createBlockFrom(stmt, successors, heads, continuedFrom));
+      }
+    }
+    for (Stmt stmt : stmts) {
+      // a cycle of Stmts which is only reachable from itself has no head yet
+      if (!stmtToBlock.containsKey(stmt)) {
+        newBlocks.add(createBlockFrom(stmt, successors, heads, continuedFrom));
+      }
+    }
+
+    for (MutableBasicBlock block : newBlocks) {
+      for (Stmt successor : successors.get(block.getTail())) {
+        linkBlocks(block, stmtToBlock.get(successor));
+      }
+      exceptionalSuccessors
+          .get(block.getHead())
+          .forEach(
+              (type, handler) ->
+                  block.addExceptionalSuccessorBlock(type, stmtToBlock.get(handler)));
+    }
+    for (MutableBasicBlock predecessor : externalPredecessors) {
+      for (MutableBasicBlock successor : new LinkedHashSet<>(predecessor.getSuccessors())) {
+        if (!affectedBlocks.contains(successor)) {
+          continue;
+        }
+        final Stmt newHead = newHeadOf.apply(successor);
+        if (newHead == null) {
+          while (predecessor.getSuccessors().contains(successor)) {
+            predecessor.removeSuccessorBlock(successor);
+          }
+        } else {
+          final MutableBasicBlock newBlock = stmtToBlock.get(newHead);
+          for (MutableBasicBlock s : predecessor.getSuccessors()) {
+            if (s == successor) {
+              newBlock.addPredecessorBlock(predecessor);
+            }
+          }
+          predecessor.replaceSuccessorBlock(successor, newBlock);
+        }
+      }
+      new HashMap<>(predecessor.getExceptionalSuccessors())
+          .forEach(
+              (type, handlerBlock) -> {
+                if (affectedBlocks.contains(handlerBlock)) {
+                  predecessor.removeExceptionalSuccessorBlock(type);
+                  final Stmt newHandler = newHeadOf.apply(handlerBlock);
+                  if (newHandler != null) {
+                    predecessor.addExceptionalSuccessorBlock(type, stmtToBlock.get(newHandler));
+                  }
+                }
+              });
+    }
+
+    // the new blocks can continue a block outside of the affected ones
+    for (MutableBasicBlock block : newBlocks) {
+      if (blocks.contains(block)) {
+        tryMergeIntoSurroundingBlocks(block);
+      }
+    }
+    branchingRemovals.forEach(this::removeNode);
+  }
+
+  private void addBlockOf(@Nonnull Stmt stmt, @Nonnull Set<MutableBasicBlock> blocks) {
+    final MutableBasicBlock block = stmtToBlock.get(stmt);
+    if (block != null) {
+      blocks.add(block);
+    }
+  }
+
+  /**
+   * @return maps each removed Stmt to the Stmt its flows are redirected to i.e. the first successor
+   *     which is not removed, or null if there is none.
+   */
+  @Nonnull
+  private static Map<Stmt, Stmt> redirectRemovedStmts(
+      @Nonnull Set<Stmt> removedStmts, @Nonnull Map<Stmt, List<Stmt>> successors) {
+    // a removed non-branching Stmt has at most one successor which can be removed as well
+    final Map<Stmt, Stmt> redirects = new HashMap<>(removedStmts.size() * 2);
+    for (Stmt removed : removedStmts) {
+      final List<Stmt> path = new ArrayList<>();
+      final Set<Stmt> onPath = new HashSet<>();
+      Stmt target = removed;
+      while (target != null && removedStmts.contains(target)) {
+        if (redirects.containsKey(target)) {
+          target = redirects.get(target);
+          break;
+        }
+        if (!onPath.add(target)) {
+          // the removed Stmts form a cycle
+          target = null;
+          break;
+        }
+        path.add(target);
+        final List<Stmt> targetSuccessors = successors.get(target);
+        target = targetSuccessors.isEmpty() ? null : targetSuccessors.get(0);
+      }
+      for (Stmt stmt : path) {
+        redirects.put(stmt, target);
+      }
+    }
+    return redirects;
+  }
+
+  /** creates a block starting at "head" which contains the Stmts continuing it */
+  @Nonnull
+  private MutableBasicBlock createBlockFrom(
+      @Nonnull Stmt head,
+      @Nonnull Map<Stmt, List<Stmt>> successors,
+      @Nonnull Set<Stmt> heads,
+      @Nonnull Map<Stmt, Stmt> continuedFrom) {
+    final MutableBasicBlock block = new MutableBasicBlock();
+    blocks.add(block);
+    Stmt stmt = head;
+    while (true) {
+      addNodeToBlock(block, stmt);
+      final List<Stmt> stmtSuccessors = successors.get(stmt);
+      if (stmtSuccessors.size() != 1) {
+        return block;
+      }
+      final Stmt next = stmtSuccessors.get(0);
+      if (continuedFrom.get(next) != stmt
+          || heads.contains(next)
+          || stmtToBlock.containsKey(next)) {
+        return block;
+      }
+      stmt = next;
+    }
+  }
+
   @Override
   public void replaceNode(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+    modified();
 
     final MutableBasicBlock blockOfOldStmt = stmtToBlock.get(oldStmt);
     if (blockOfOldStmt == null) {
@@ -823,6 +1335,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull Stmt beforeStmt,
       @Nonnull List<Stmt> stmts,
       @Nonnull Map<ClassType, Stmt> exceptionMap) {
+    modified();
     if (stmts.isEmpty()) {
       return;
     }
@@ -832,12 +1345,21 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       // merge blocks - performance hint: if exceptionMap equals the current blocks exception and
       // the stmts have only fallsthrough Stmts there could be some allocation/deallocation be saved
       final MutableBasicBlock predecessorBlock = addBlockInternal(stmts, exceptionMap);
-      for (MutableBasicBlock predecessor : block.getPredecessors()) {
+      for (MutableBasicBlock predecessor : new ArrayList<>(block.getPredecessors())) {
         // cleanup old
-        predecessor.removeSuccessorBlock(block);
         block.removePredecessorBlock(predecessor);
-        // add new link
-        linkBlocks(predecessor, predecessorBlock);
+        if (predecessor.getSuccessors().contains(block)) {
+          predecessor.removeSuccessorBlock(block);
+          // add new link
+          linkBlocks(predecessor, predecessorBlock);
+        }
+        // exceptional flows into block need to reach the inserted Stmts as well
+        for (ClassType exceptionType : predecessor.collectExceptionalSuccessorBlocks(block)) {
+          predecessor.addExceptionalSuccessorBlock(exceptionType, predecessorBlock);
+        }
+      }
+      if (predecessorBlock.getTail().fallsThrough()) {
+        linkBlocks(predecessorBlock, block);
       }
       tryMergeBlocks(predecessorBlock, block);
     } else {
@@ -854,8 +1376,71 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     }
   }
 
+  @Override
+  public void insertAfter(
+      @Nonnull Stmt afterStmt,
+      @Nonnull List<Stmt> stmts,
+      @Nonnull Map<ClassType, Stmt> exceptionMap) {
+    modified();
+    if (stmts.isEmpty()) {
+      return;
+    }
+    final MutableBasicBlock block = stmtToBlock.get(afterStmt);
+    if (block == null) {
+      throw new IllegalArgumentException("afterStmt '" + afterStmt + "' is not in the StmtGraph!");
+    }
+    if (!afterStmt.fallsThrough() || afterStmt.branches()) {
+      throw new IllegalArgumentException(
+          "Can't insert after '" + afterStmt + "' as it does not fall through or it branches.");
+    }
+    for (Stmt stmt : stmts) {
+      if (!stmt.fallsThrough() || stmt.branches()) {
+        throw new IllegalArgumentException(
+            "Only fallsthrough and non-branching Stmts can be inserted but '" + stmt + "' is not.");
+      }
+    }
+
+    if (block.getTail() != afterStmt) {
+      // afterStmt has a fallsthrough successor in the same Block -> insert before that one
+      insertBefore(block.getStmts().get(block.indexOf(afterStmt) + 1), stmts, exceptionMap);
+      return;
+    }
+
+    if (hasSameExceptionalFlows(block, exceptionMap)) {
+      // just append to the Block - the successors of the Block stay the same
+      stmts.forEach(stmt -> addNodeToBlock(block, stmt));
+      return;
+    }
+
+    // the inserted Stmts need their own Block -> move the outgoing flows of block to the new Block
+    final MutableBasicBlock newBlock = addBlockInternal(stmts, exceptionMap);
+    for (MutableBasicBlock successor : new ArrayList<>(block.getSuccessors())) {
+      linkBlocks(newBlock, successor);
+    }
+    block.clearSuccessorBlocks();
+    linkBlocks(block, newBlock);
+    tryMergeWithSuccessorBlock(newBlock);
+  }
+
+  /** checks whether the exceptional flows of block are exactly the ones given in exceptionMap */
+  private boolean hasSameExceptionalFlows(
+      @Nonnull MutableBasicBlock block, @Nonnull Map<ClassType, Stmt> exceptionMap) {
+    final Map<ClassType, MutableBasicBlock> exceptionalSuccessors =
+        block.getExceptionalSuccessors();
+    if (exceptionalSuccessors.size() != exceptionMap.size()) {
+      return false;
+    }
+    for (Map.Entry<ClassType, MutableBasicBlock> entry : exceptionalSuccessors.entrySet()) {
+      if (exceptionMap.get(entry.getKey()) != entry.getValue().getHead()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public void putEdge(@Nonnull Stmt stmtA, @Nonnull Stmt stmtB) {
+    modified();
     MutableBasicBlock blockA = stmtToBlock.get(stmtA);
     MutableBasicBlock blockB = stmtToBlock.get(stmtB);
 
@@ -954,6 +1539,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeEdge(@Nonnull Stmt from, @Nonnull Stmt to) {
+    modified();
     // FIXME: how to handle "partial" removals of targets of flows starting from a Branching Stmt..
     // e.g. because one of the targets are removed.. that changes the whole logic there..
 
@@ -971,7 +1557,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     if (blockOfFrom == blockOfTo) {
       // divide block and don't link them
       final List<Stmt> stmtsOfBlock = blockOfFrom.getStmts();
-      int toIdx = stmtsOfBlock.indexOf(from) + 1;
+      int toIdx = blockOfFrom.indexOf(from) + 1;
       // from is not the tail Stmt and the from-Stmt is directly before the to-Stmt
       if (toIdx < stmtsOfBlock.size() && stmtsOfBlock.get(toIdx) == to) {
         MutableBasicBlock newBlock = blockOfFrom.splitBlockUnlinked(from, to);
@@ -1040,6 +1626,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void setEdges(@Nonnull Stmt fromStmt, @Nonnull List<Stmt> targets) {
+    modified();
     if (fromStmt.getExpectedSuccessorCount() != targets.size()) {
       throw new IllegalArgumentException(
           "Size of Targets is not the amount of from's expected successors.");
@@ -1081,6 +1668,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void setStartingStmt(@Nonnull Stmt startingStmt) {
+    modified();
     if (stmtToBlock.get(startingStmt) == null) {
       MutableBasicBlock block = stmtToBlock.get(startingStmt);
       if (block == null) {
@@ -1117,12 +1705,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       predecessorBlocks.forEach(p -> preds.add(p.getTail()));
       return preds;
     } else {
-      // argh indexOf.. possibly expensive..
-      List<Stmt> stmts = block.getStmts();
-      final int i = stmts.indexOf(node);
-      // assert (stmts.size() > 0) : "no stmts in " + block + " " + block.hashCode();
-      // assert (i > 0) : " stmt not found in " + block;
-      return Collections.singletonList(stmts.get(i - 1));
+      return Collections.singletonList(block.getStmts().get(block.indexOf(node) - 1));
     }
   }
 
@@ -1195,9 +1778,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       successorBlocks.forEach(p -> succs.add(p.getHead()));
       return succs;
     } else {
-      // argh indexOf.. possibly expensive..
-      List<Stmt> stmts = block.getStmts();
-      return Collections.singletonList(stmts.get(stmts.indexOf(node) + 1));
+      return Collections.singletonList(block.getStmts().get(block.indexOf(node) + 1));
     }
   }
 
@@ -1265,8 +1846,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
               successorBlock -> /*successorBlock == blockB && */
                   successorBlock.getHead() == target);
     } else {
-      List<Stmt> stmtsA = blockA.getStmts();
-      return stmtsA.get(stmtsA.indexOf(source) + 1) == target;
+      return blockA.getStmts().get(blockA.indexOf(source) + 1) == target;
     }
   }
 
@@ -1281,9 +1861,77 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
             .result();
   }
 
-  /** hint: little expensive getter - its more of a build/create */
+  /** invalidates the cached linearization - called before each structural modification. */
+  private void modified() {
+    modCount++;
+    cachedBlockOrder = null;
+    cachedStmts = null;
+    cachedTraps = null;
+  }
+
+  /**
+   * @return the number of structural modifications of this graph so far; can be used to detect
+   *     whether information derived from this graph is outdated.
+   */
+  public int getModCount() {
+    return modCount;
+  }
+
+  /** the order is cached until the next modification of this graph. */
+  @Nonnull
+  @Override
+  public BlockOrder getBlockOrder() {
+    if (cachedBlockOrder == null) {
+      cachedBlockOrder = super.getBlockOrder();
+    }
+    return cachedBlockOrder;
+  }
+
+  @Nonnull
+  private List<BasicBlock<?>> getLinearizedBlocks() {
+    return getBlockOrder().getBlocks();
+  }
+
+  @Nonnull
+  private List<Stmt> getLinearizedStmts() {
+    if (cachedStmts == null) {
+      final List<Stmt> stmts = new ArrayList<>(stmtToBlock.size());
+      for (BasicBlock<?> block : getLinearizedBlocks()) {
+        stmts.addAll(block.getStmts());
+      }
+      cachedStmts = Collections.unmodifiableList(stmts);
+    }
+    return cachedStmts;
+  }
+
+  /** the order is cached until the next modification of this graph. */
+  @Override
+  public Iterator<BasicBlock<?>> getBlockIterator() {
+    return getLinearizedBlocks().iterator();
+  }
+
+  @Nonnull
+  @Override
+  public Iterator<Stmt> iterator() {
+    return getLinearizedStmts().iterator();
+  }
+
+  @Override
+  public List<Stmt> getStmts() {
+    return new ArrayList<>(getLinearizedStmts());
+  }
+
+  /** the traps are built once and cached until the next modification of this graph. */
   @Override
   public List<Trap> getTraps() {
+    if (cachedTraps == null) {
+      cachedTraps = Collections.unmodifiableList(buildTraps());
+    }
+    return new ArrayList<>(cachedTraps);
+  }
+
+  @Nonnull
+  private List<Trap> buildTraps() {
     // [ms] try to incorporate it into the serialisation of jimple printing so the other half of
     // iteration information is not wasted..
     BlockGraphIteratorAndTrapAggregator it =
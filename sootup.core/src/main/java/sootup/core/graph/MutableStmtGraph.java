@@ -76,9 +76,40 @@ public abstract class MutableStmtGraph extends StmtGraph<MutableBasicBlock> {
     insertBefore(beforeStmt, Collections.singletonList(newStmt), Collections.emptyMap());
   }
 
+  /**
+   * inserts the "stmts" directly after "afterStmt" i.e. the first Stmt of "stmts" is the successor
+   * of "afterStmt" and the last Stmt of "stmts" flows to the former successor of "afterStmt".
+   * "afterStmt" and the inserted Stmts have to be fallsthrough and non-branching Stmts.
+   */
+  public abstract void insertAfter(
+      @Nonnull Stmt afterStmt,
+      @Nonnull List<Stmt> stmts,
+      @Nonnull Map<ClassType, Stmt> exceptionMap);
+
+  /**
+   * inserts the "newStmt" after the position of "afterStmt" i.e.
+   * afterStmt.successors().contains(newStmt) will be true
+   */
+  public void insertAfter(@Nonnull Stmt afterStmt, @Nonnull Stmt newStmt) {
+    insertAfter(afterStmt, Collections.singletonList(newStmt), Collections.emptyMap());
+  }
+
   /** removes "stmt" from the StmtGraph */
   public abstract void removeNode(@Nonnull Stmt stmt);
 
+  /**
+   * removes the given non-branching "stmts" from the StmtGraph while keeping the flows through them
+   * i.e. the predecessors of a removed Stmt flow to its successor afterwards. The Stmts are removed
+   * block by block without splitting blocks.
+   */
+  public abstract void removeNodes(@Nonnull Collection<Stmt> stmts);
+
+  /**
+   * removes the given blocks with all of their Stmts and all flows from and to them from the
+   * StmtGraph in a single operation.
+   */
+  public abstract void removeBlocks(@Nonnull Collection<? extends BasicBlock<?>> blocks);
+
   /**
    * Modifications of unexceptional flows
    *
@@ -111,4 +142,160 @@ public abstract class MutableStmtGraph extends StmtGraph<MutableBasicBlock> {
 
   /** removes an exceptional flow of the type "exception" flow from "stmt" */
   public abstract void removeExceptionalEdge(@Nonnull Stmt stmt, @Nonnull ClassType exception);
+
+  /**
+   * starts recording edits which are applied together via {@link BatchEdit#commit()} - use it for
+   * many edits in a row so the block structure is rebuilt once instead of after each edit.
+   */
+  @Nonnull
+  public BatchEdit startBatchEdit() {
+    return new BatchEdit(this);
+  }
+
+  /**
+   * applies the edits of a {@link BatchEdit} to this StmtGraph one after another. The Stmts of the
+   * edits are already resolved to their final replacements.
+   *
+   * @param replacements maps the replaced Stmts of the graph to their final replacement
+   * @param flowEdits the flow modifications in the order they were recorded
+   * @param removals the Stmts to remove
+   */
+  void applyBatchEdit(
+      @Nonnull Map<Stmt, Stmt> replacements,
+      @Nonnull List<BatchEdit.FlowEdit> flowEdits,
+      @Nonnull Collection<Stmt> removals) {
+    replacements.forEach(this::replaceNode);
+
+    for (BatchEdit.FlowEdit flowEdit : flowEdits) {
+      if (flowEdit.isRemoval) {
+        removeEdge(flowEdit.from, flowEdit.to);
+      } else {
+        putEdge(flowEdit.from, flowEdit.to);
+      }
+    }
+
+    final List<Stmt> nonBranchingRemovals = new ArrayList<>(removals.size());
+    final List<Stmt> branchingRemovals = new ArrayList<>();
+    for (Stmt removal : removals) {
+      if (removal.branches()) {
+        branchingRemovals.add(removal);
+      } else {
+        nonBranchingRemovals.add(removal);
+      }
+    }
+    if (!nonBranchingRemovals.isEmpty()) {
+      removeNodes(nonBranchingRemovals);
+    }
+    branchingRemovals.forEach(this::removeNode);
+  }
+
+  /**
+   * Records replacements, flow modifications and removals of Stmts and applies them on commit():
+   * first all replacements, then the flow modifications in the order they were recorded and at last
+   * all removals. A removed non-branching Stmt keeps the flows through it (see {@link
+   * #removeNodes(Collection)}). Each edit can name a Stmt of the graph or any of its replacements.
+   * Until commit() the StmtGraph is not modified i.e. queries still return the state before the
+   * edits.
+   */
+  public static class BatchEdit {
+    @Nonnull private final MutableStmtGraph graph;
+
+    /** maps the Stmts in the graph to their latest replacement */
+    @Nonnull private final Map<Stmt, Stmt> replacements = new LinkedHashMap<>();
+    /** maps each replacement - including the replaced ones - back to the Stmt in the graph */
+    @Nonnull private final Map<Stmt, Stmt> replacedBy = new HashMap<>();
+
+    @Nonnull private final List<FlowEdit> flowEdits = new ArrayList<>();
+    @Nonnull private final Set<Stmt> removals = new LinkedHashSet<>();
+    private boolean isCommitted = false;
+
+    private BatchEdit(@Nonnull MutableStmtGraph graph) {
+      this.graph = graph;
+    }
+
+    private void checkNotCommitted() {
+      if (isCommitted) {
+        throw new IllegalStateException("The BatchEdit is already committed.");
+      }
+    }
+
+    /** @see MutableStmtGraph#replaceNode(Stmt, Stmt) */
+    @Nonnull
+    public BatchEdit replaceNode(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+      checkNotCommitted();
+      // a replacement can be replaced again in the same batch
+      final Stmt stmtInGraph = replacedBy.getOrDefault(oldStmt, oldStmt);
+      if (!graph.containsNode(stmtInGraph)) {
+        throw new IllegalArgumentException("oldStmt does not exist in the StmtGraph!");
+      }
+      replacements.put(stmtInGraph, newStmt);
+      replacedBy.put(newStmt, stmtInGraph);
+      return this;
+    }
+
+    /** @see MutableStmtGraph#removeNode(Stmt) */
+    @Nonnull
+    public BatchEdit removeNode(@Nonnull Stmt stmt) {
+      checkNotCommitted();
+      final Stmt stmtInGraph = replacedBy.getOrDefault(stmt, stmt);
+      if (!graph.containsNode(stmtInGraph)) {
+        throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
+      }
+      removals.add(stmt);
+      return this;
+    }
+
+    /** @see MutableStmtGraph#putEdge(Stmt, Stmt) */
+    @Nonnull
+    public BatchEdit putEdge(@Nonnull Stmt from, @Nonnull Stmt to) {
+      checkNotCommitted();
+      flowEdits.add(new FlowEdit(from, to, false));
+      return this;
+    }
+
+    /** @see MutableStmtGraph#removeEdge(Stmt, Stmt) */
+    @Nonnull
+    public BatchEdit removeEdge(@Nonnull Stmt from, @Nonnull Stmt to) {
+      checkNotCommitted();
+      flowEdits.add(new FlowEdit(from, to, true));
+      return this;
+    }
+
+    /** applies all recorded edits to the StmtGraph. */
+    public void commit() {
+      checkNotCommitted();
+      isCommitted = true;
+
+      final List<FlowEdit> resolvedFlowEdits = new ArrayList<>(flowEdits.size());
+      for (FlowEdit flowEdit : flowEdits) {
+        resolvedFlowEdits.add(
+            new FlowEdit(resolve(flowEdit.from), resolve(flowEdit.to), flowEdit.isRemoval));
+      }
+      final Set<Stmt> resolvedRemovals = new LinkedHashSet<>(removals.size() * 2);
+      for (Stmt removal : removals) {
+        resolvedRemovals.add(resolve(removal));
+      }
+      graph.applyBatchEdit(replacements, resolvedFlowEdits, resolvedRemovals);
+    }
+
+    /** follows the chain of replacements of the given Stmt to its final replacement */
+    @Nonnull
+    private Stmt resolve(@Nonnull Stmt stmt) {
+      final Stmt stmtInGraph = replacedBy.getOrDefault(stmt, stmt);
+      return replacements.getOrDefault(stmtInGraph, stmtInGraph);
+    }
+
+    /** a recorded putEdge or removeEdge */
+    static class FlowEdit {
+      @Nonnull final Stmt from;
+      @Nonnull final Stmt to;
+      final boolean isRemoval;
+
+      private FlowEdit(@Nonnull Stmt from, @Nonnull Stmt to, boolean isRemoval) {
+        this.from = from;
+        this.to = to;
+        this.isRemoval = isRemoval;
+      }
+    }
+  }
 }
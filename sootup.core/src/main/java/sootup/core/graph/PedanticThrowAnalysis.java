@@ -0,0 +1,47 @@
+package sootup.core.graph;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * A {@link ThrowAnalysis} which assumes that every Stmt might throw any Throwable - i.e. the
+ * exceptional edges of a StmtGraph are taken as they are.
+ */
+public class PedanticThrowAnalysis implements ThrowAnalysis {
+
+  @Nonnull private static final PedanticThrowAnalysis INSTANCE = new PedanticThrowAnalysis();
+
+  private PedanticThrowAnalysis() {}
+
+  @Nonnull
+  public static PedanticThrowAnalysis getInstance() {
+    return INSTANCE;
+  }
+
+  @Nonnull
+  @Override
+  public ThrowableSet mightThrow(@Nonnull Stmt stmt) {
+    return ThrowableSet.any();
+  }
+}
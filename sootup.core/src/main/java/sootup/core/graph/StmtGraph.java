@@ -87,6 +87,17 @@ public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stm
     return new BlockGraphIterator();
   }
 
+  /**
+   * @return the linearized order of the blocks and the depth first orders derived from it.
+   *     Implementations cache the BlockOrder as long as the graph is not modified.
+   */
+  @Nonnull
+  public BlockOrder getBlockOrder() {
+    final List<BasicBlock<?>> blocks = new ArrayList<>();
+    new BlockGraphIterator().forEachRemaining(blocks::add);
+    return new BlockOrder(blocks, getStartingStmt() == null ? null : getStartingStmtBlock());
+  }
+
   public abstract BasicBlock<?> getBlockOf(@Nonnull Stmt stmt);
 
   public abstract boolean containsNode(@Nonnull Stmt node);
@@ -126,6 +137,45 @@ public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stm
     return allSuccessors;
   }
 
+  /**
+   * The exceptional successors of the Stmt in an exceptional control flow graph: only the
+   * exceptional flows whose exception type might actually be thrown by the Stmt according to the
+   * given ThrowAnalysis are contained.
+   */
+  @Nonnull
+  public Map<ClassType, Stmt> exceptionalSuccessors(
+      @Nonnull Stmt node, @Nonnull ThrowAnalysis throwAnalysis) {
+    final Map<ClassType, Stmt> exSuccessors = exceptionalSuccessors(node);
+    if (exSuccessors.isEmpty()) {
+      return exSuccessors;
+    }
+    final ThrowableSet throwables = throwAnalysis.mightThrow(node);
+    if (throwables.isAny()) {
+      return exSuccessors;
+    }
+    final Map<ClassType, Stmt> thrownSuccessors = new HashMap<>();
+    for (Map.Entry<ClassType, Stmt> entry : exSuccessors.entrySet()) {
+      if (throwables.catchableAs(entry.getKey())) {
+        thrownSuccessors.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return thrownSuccessors;
+  }
+
+  /**
+   * Collects the unexceptional successors and the exceptional successors which are possible
+   * according to the given ThrowAnalysis of a given stmt into a list.
+   */
+  @Nonnull
+  public List<Stmt> getAllSuccessors(@Nonnull Stmt stmt, @Nonnull ThrowAnalysis throwAnalysis) {
+    final List<Stmt> successors = successors(stmt);
+    final Map<ClassType, Stmt> exSuccessors = exceptionalSuccessors(stmt, throwAnalysis);
+    List<Stmt> allSuccessors = new ArrayList<>(successors.size() + exSuccessors.size());
+    allSuccessors.addAll(successors);
+    allSuccessors.addAll(exSuccessors.values());
+    return allSuccessors;
+  }
+
   /** returns the amount of ingoing flows into node */
   public abstract int inDegree(@Nonnull Stmt node);
 
@@ -386,14 +436,14 @@ public abstract class StmtGraph<V extends BasicBlock<V>> implements Iterable<Stm
   /** Iterates the Stmts according to the jimple output order. */
   private class BlockStmtGraphIterator implements Iterator<Stmt> {
 
-    private final BlockGraphIterator blockIt;
+    private final Iterator<BasicBlock<?>> blockIt;
     @Nonnull private Iterator<Stmt> currentBlockIt = Collections.emptyIterator();
 
     public BlockStmtGraphIterator() {
-      this(new BlockGraphIterator());
+      this(getBlockIterator());
     }
 
-    public BlockStmtGraphIterator(@Nonnull BlockGraphIterator blockIterator) {
+    public BlockStmtGraphIterator(@Nonnull Iterator<BasicBlock<?>> blockIterator) {
       blockIt = blockIterator;
     }
 
@@ -0,0 +1,46 @@
+package sootup.core.graph;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.types.ClassType;
+
+/**
+ * Determines which exceptions a Stmt might throw - the base of an exceptional control flow graph
+ * which only contains the exceptional edges that can actually be taken, see {@link
+ * StmtGraph#exceptionalSuccessors(Stmt, ThrowAnalysis)}.
+ *
+ * @see UnitThrowAnalysis
+ * @see PedanticThrowAnalysis
+ */
+public interface ThrowAnalysis {
+
+  /** @return the exceptions the given Stmt might throw */
+  @Nonnull
+  ThrowableSet mightThrow(@Nonnull Stmt stmt);
+
+  /** @return whether the given Stmt might throw an exception which is caught as the given type */
+  default boolean mightThrow(@Nonnull Stmt stmt, @Nonnull ClassType catchType) {
+    return mightThrow(stmt).catchableAs(catchType);
+  }
+}
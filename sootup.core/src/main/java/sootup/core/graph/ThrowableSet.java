@@ -0,0 +1,205 @@
+package sootup.core.graph;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.types.ClassType;
+
+/**
+ * The set of exceptions a Stmt might throw as determined by a {@link ThrowAnalysis}. It either
+ * contains exactly typed exceptions which are raised by the VM itself - e.g. a
+ * java.lang.NullPointerException for a field access - or it contains "any Throwable" e.g. for
+ * invocations and throw Stmts.
+ *
+ * <p>The exceptions the VM raises are classes of java.lang, so their supertypes are known without a
+ * type hierarchy. That makes it possible to decide whether a trap can catch an exception of the set
+ * by the name of the caught type alone.
+ */
+public final class ThrowableSet {
+
+  /** maps the exceptions thrown by the VM to their superclass */
+  private static final Map<String, String> vmExceptionSuperclasses = new HashMap<>();
+
+  static {
+    registerVmExceptions("java.lang.Throwable", "java.lang.Exception", "java.lang.Error");
+    registerVmExceptions("java.lang.Exception", "java.lang.RuntimeException");
+    registerVmExceptions(
+        "java.lang.RuntimeException",
+        "java.lang.ArithmeticException",
+        "java.lang.ArrayStoreException",
+        "java.lang.ClassCastException",
+        "java.lang.IllegalMonitorStateException",
+        "java.lang.IndexOutOfBoundsException",
+        "java.lang.NegativeArraySizeException",
+        "java.lang.NullPointerException");
+    registerVmExceptions(
+        "java.lang.IndexOutOfBoundsException", "java.lang.ArrayIndexOutOfBoundsException");
+    registerVmExceptions(
+        "java.lang.Error",
+        "java.lang.LinkageError",
+        "java.lang.ThreadDeath",
+        "java.lang.VirtualMachineError");
+    registerVmExceptions(
+        "java.lang.VirtualMachineError",
+        "java.lang.InternalError",
+        "java.lang.OutOfMemoryError",
+        "java.lang.StackOverflowError",
+        "java.lang.UnknownError");
+    registerVmExceptions(
+        "java.lang.LinkageError",
+        "java.lang.ClassCircularityError",
+        "java.lang.ClassFormatError",
+        "java.lang.ExceptionInInitializerError",
+        "java.lang.IncompatibleClassChangeError",
+        "java.lang.NoClassDefFoundError",
+        "java.lang.UnsatisfiedLinkError",
+        "java.lang.VerifyError");
+    registerVmExceptions(
+        "java.lang.IncompatibleClassChangeError",
+        "java.lang.AbstractMethodError",
+        "java.lang.IllegalAccessError",
+        "java.lang.InstantiationError",
+        "java.lang.NoSuchFieldError",
+        "java.lang.NoSuchMethodError");
+  }
+
+  private static void registerVmExceptions(String superclass, String... exceptions) {
+    for (String exception : exceptions) {
+      vmExceptionSuperclasses.put(exception, superclass);
+    }
+  }
+
+  @Nonnull
+  private static final ThrowableSet EMPTY = new ThrowableSet(false, Collections.emptySet());
+
+  @Nonnull private static final ThrowableSet ANY = new ThrowableSet(true, Collections.emptySet());
+
+  private final boolean any;
+  @Nonnull private final Set<String> exceptions;
+
+  private ThrowableSet(boolean any, @Nonnull Set<String> exceptions) {
+    this.any = any;
+    this.exceptions = exceptions;
+  }
+
+  @Nonnull
+  public static ThrowableSet empty() {
+    return EMPTY;
+  }
+
+  /** @return the set which contains any Throwable */
+  @Nonnull
+  public static ThrowableSet any() {
+    return ANY;
+  }
+
+  /**
+   * @param exceptions fully qualified names of exceptions thrown by the VM e.g.
+   *     "java.lang.NullPointerException"
+   */
+  @Nonnull
+  public static ThrowableSet of(@Nonnull String... exceptions) {
+    return EMPTY.add(exceptions);
+  }
+
+  /** @return a set which contains the exceptions of this set and the given exceptions */
+  @Nonnull
+  public ThrowableSet add(@Nonnull String... exceptions) {
+    if (any || exceptions.length == 0) {
+      return this;
+    }
+    final Set<String> union = new HashSet<>(this.exceptions);
+    for (String exception : exceptions) {
+      if (!vmExceptionSuperclasses.containsKey(exception)) {
+        throw new IllegalArgumentException(
+            "'" + exception + "' is not an exception which is thrown by the VM.");
+      }
+      union.add(exception);
+    }
+    return union.size() == this.exceptions.size()
+        ? this
+        : new ThrowableSet(false, Collections.unmodifiableSet(union));
+  }
+
+  /** @return a set which contains the exceptions of this and the other set */
+  @Nonnull
+  public ThrowableSet add(@Nonnull ThrowableSet other) {
+    if (other.any) {
+      return other;
+    }
+    return add(other.exceptions.toArray(new String[0]));
+  }
+
+  /** @return whether this set contains any Throwable */
+  public boolean isAny() {
+    return any;
+  }
+
+  public boolean isEmpty() {
+    return !any && exceptions.isEmpty();
+  }
+
+  /** @return the fully qualified names of the exactly typed exceptions */
+  @Nonnull
+  public Set<String> getExceptions() {
+    return exceptions;
+  }
+
+  /** @return whether a trap for the given exception type can catch an exception of this set */
+  public boolean catchableAs(@Nonnull ClassType catchType) {
+    if (any) {
+      return true;
+    }
+    final String catchTypeName = catchType.getFullyQualifiedName();
+    for (String exception : exceptions) {
+      for (String type = exception; type != null; type = vmExceptionSuperclasses.get(type)) {
+        if (type.equals(catchTypeName)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ThrowableSet)) {
+      return false;
+    }
+    ThrowableSet that = (ThrowableSet) o;
+    return any == that.any && exceptions.equals(that.exceptions);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(any, exceptions);
+  }
+
+  @Override
+  public String toString() {
+    return any ? "ThrowableSet{any}" : "ThrowableSet" + exceptions;
+  }
+}
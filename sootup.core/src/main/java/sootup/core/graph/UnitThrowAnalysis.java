@@ -0,0 +1,168 @@
+package sootup.core.graph;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.LongConstant;
+import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.ref.JStaticFieldRef;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.jimple.javabytecode.stmt.JEnterMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JExitMonitorStmt;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.ReferenceType;
+import sootup.core.types.Type;
+
+/**
+ * A {@link ThrowAnalysis} which inspects a single Stmt (like the UnitThrowAnalysis of old Soot):
+ * invocations and throw Stmts might throw any Throwable, all other Stmts only throw the exceptions
+ * the VM raises for their operations - e.g. a NullPointerException for the access of an instance
+ * field or an ArithmeticException for an integer division.
+ *
+ * <p>The VM might throw asynchronous errors like an OutOfMemoryError or a StackOverflowError at any
+ * Stmt. They are considered by default which keeps traps for java.lang.Error and
+ * java.lang.Throwable at every Stmt; {@link #UnitThrowAnalysis(boolean)} allows to ignore them.
+ */
+public class UnitThrowAnalysis implements ThrowAnalysis {
+
+  @Nonnull private static final UnitThrowAnalysis INSTANCE = new UnitThrowAnalysis(true);
+
+  @Nonnull
+  private static final ThrowableSet VM_ERRORS =
+      ThrowableSet.of(
+          "java.lang.InternalError",
+          "java.lang.OutOfMemoryError",
+          "java.lang.StackOverflowError",
+          "java.lang.UnknownError",
+          "java.lang.ThreadDeath");
+
+  @Nonnull
+  private static final ThrowableSet RESOLVE_CLASS_ERRORS =
+      ThrowableSet.of(
+          "java.lang.ClassCircularityError",
+          "java.lang.ClassFormatError",
+          "java.lang.IllegalAccessError",
+          "java.lang.IncompatibleClassChangeError",
+          "java.lang.LinkageError",
+          "java.lang.NoClassDefFoundError",
+          "java.lang.VerifyError");
+
+  @Nonnull
+  private static final ThrowableSet RESOLVE_FIELD_ERRORS =
+      RESOLVE_CLASS_ERRORS.add("java.lang.NoSuchFieldError");
+
+  @Nonnull
+  private static final ThrowableSet INITIALIZATION_ERRORS =
+      ThrowableSet.of("java.lang.ExceptionInInitializerError");
+
+  private final boolean considerVmErrors;
+
+  /**
+   * @param considerVmErrors whether asynchronous errors of the VM (e.g. an OutOfMemoryError) are
+   *     assumed to be thrown by every Stmt
+   */
+  public UnitThrowAnalysis(boolean considerVmErrors) {
+    this.considerVmErrors = considerVmErrors;
+  }
+
+  /** @return the instance which considers asynchronous errors of the VM */
+  @Nonnull
+  public static UnitThrowAnalysis getInstance() {
+    return INSTANCE;
+  }
+
+  @Nonnull
+  @Override
+  public ThrowableSet mightThrow(@Nonnull Stmt stmt) {
+    ThrowableSet result = considerVmErrors ? VM_ERRORS : ThrowableSet.empty();
+
+    if (stmt instanceof JInvokeStmt || stmt instanceof JThrowStmt || stmt.containsInvokeExpr()) {
+      // the callee resp. the thrown value can be of any exception type
+      return ThrowableSet.any();
+    } else if (stmt instanceof JEnterMonitorStmt) {
+      result = result.add("java.lang.NullPointerException");
+    } else if (stmt instanceof JExitMonitorStmt) {
+      result =
+          result.add("java.lang.NullPointerException", "java.lang.IllegalMonitorStateException");
+    } else if (stmt instanceof JReturnStmt || stmt instanceof JReturnVoidStmt) {
+      // a return of a synchronized method with an unbalanced monitor
+      result = result.add("java.lang.IllegalMonitorStateException");
+    } else if (stmt instanceof JAssignStmt) {
+      final JAssignStmt<?, ?> assignStmt = (JAssignStmt<?, ?>) stmt;
+      if (assignStmt.getLeftOp() instanceof JArrayRef
+          && !(assignStmt.getRightOp().getType() instanceof PrimitiveType)) {
+        result = result.add("java.lang.ArrayStoreException");
+      }
+      for (Value value : stmt.getUsesAndDefs()) {
+        result = result.add(mightThrow(value));
+      }
+    }
+    return result;
+  }
+
+  /** @return the exceptions the evaluation of the given Value itself (not its uses) might throw */
+  @Nonnull
+  protected ThrowableSet mightThrow(@Nonnull Value value) {
+    if (value instanceof JInstanceFieldRef) {
+      return RESOLVE_FIELD_ERRORS.add("java.lang.NullPointerException");
+    } else if (value instanceof JStaticFieldRef) {
+      return RESOLVE_FIELD_ERRORS.add(INITIALIZATION_ERRORS);
+    } else if (value instanceof JArrayRef) {
+      return ThrowableSet.of(
+          "java.lang.NullPointerException", "java.lang.ArrayIndexOutOfBoundsException");
+    } else if (value instanceof JLengthExpr) {
+      return ThrowableSet.of("java.lang.NullPointerException");
+    } else if (value instanceof JDivExpr || value instanceof JRemExpr) {
+      final AbstractBinopExpr expr = (AbstractBinopExpr) value;
+      if (isIntegral(expr.getType()) && !isNonZeroConstant(expr.getOp2())) {
+        return ThrowableSet.of("java.lang.ArithmeticException");
+      }
+    } else if (value instanceof JCastExpr) {
+      if (((JCastExpr) value).getType() instanceof ReferenceType) {
+        return RESOLVE_CLASS_ERRORS.add("java.lang.ClassCastException");
+      }
+    } else if (value instanceof JInstanceOfExpr) {
+      return RESOLVE_CLASS_ERRORS;
+    } else if (value instanceof JNewExpr) {
+      return RESOLVE_CLASS_ERRORS.add(INITIALIZATION_ERRORS).add("java.lang.InstantiationError");
+    } else if (value instanceof JNewArrayExpr || value instanceof JNewMultiArrayExpr) {
+      return RESOLVE_CLASS_ERRORS.add("java.lang.NegativeArraySizeException");
+    } else if (value instanceof AbstractInvokeExpr) {
+      return ThrowableSet.any();
+    }
+    return ThrowableSet.empty();
+  }
+
+  /** @return whether the Type is not a floating point type i.e. a division by zero throws */
+  private boolean isIntegral(@Nonnull Type type) {
+    return type != PrimitiveType.getFloat() && type != PrimitiveType.getDouble();
+  }
+
+  private boolean isNonZeroConstant(@Nonnull Value value) {
+    return (value instanceof IntConstant && ((IntConstant) value).getValue() != 0)
+        || (value instanceof LongConstant && ((LongConstant) value).getValue() != 0);
+  }
+}
@@ -0,0 +1,93 @@
+package sootup.core.graph.dataflow;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.BitSet;
+import javax.annotation.Nonnull;
+
+/**
+ * Lattices over sets of densely numbered elements (e.g. the Locals or Stmts of a {@link
+ * sootup.core.model.BodyNumbering}) stored as BitSets - union for may-analyses and intersection for
+ * must-analyses. The lattices are stateless and can be shared between analyses.
+ */
+public abstract class BitSetLattice implements FlowLattice<BitSet> {
+
+  protected final int size;
+
+  private BitSetLattice(int size) {
+    this.size = size;
+  }
+
+  /** a lattice for may-analyses: bottom is the empty set and the join is the union. */
+  @Nonnull
+  public static BitSetLattice union(int size) {
+    return new BitSetLattice(size) {
+      @Nonnull
+      @Override
+      public BitSet bottom() {
+        return new BitSet(size);
+      }
+
+      @Override
+      public boolean joinInto(@Nonnull BitSet target, @Nonnull BitSet source) {
+        final int cardinality = target.cardinality();
+        target.or(source);
+        return target.cardinality() != cardinality;
+      }
+    };
+  }
+
+  /**
+   * a lattice for must-analyses: bottom is the set of all "size" elements and the join is the
+   * intersection.
+   */
+  @Nonnull
+  public static BitSetLattice intersection(int size) {
+    return new BitSetLattice(size) {
+      @Nonnull
+      @Override
+      public BitSet bottom() {
+        final BitSet bitSet = new BitSet(size);
+        bitSet.set(0, size);
+        return bitSet;
+      }
+
+      @Override
+      public boolean joinInto(@Nonnull BitSet target, @Nonnull BitSet source) {
+        final int cardinality = target.cardinality();
+        target.and(source);
+        return target.cardinality() != cardinality;
+      }
+    };
+  }
+
+  /** @return the number of elements */
+  public int getSize() {
+    return size;
+  }
+
+  @Nonnull
+  @Override
+  public BitSet copy(@Nonnull BitSet value) {
+    return (BitSet) value.clone();
+  }
+}
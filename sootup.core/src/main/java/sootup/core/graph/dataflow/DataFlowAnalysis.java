@@ -0,0 +1,392 @@
+package sootup.core.graph.dataflow;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.BlockOrder;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.BodyNumbering;
+
+/**
+ * A forward or backward intraprocedural data-flow analysis over a {@link StmtGraph}, solved on the
+ * level of BasicBlocks: the solver keeps a worklist of block numbers ordered by reverse postorder
+ * (postorder for backward analyses), applies the transfer function {@link #flowThrough(Stmt,
+ * Object)} in place along the Stmts of a block and only stores the flow at the borders of the
+ * blocks. The flow before/after a single Stmt is recomputed on demand from the flow at the border
+ * of its block.
+ *
+ * <p>Exceptional edges are handled per Stmt: in a forward analysis the handler of a trap receives
+ * the flow before each Stmt of the covered block, in a backward analysis the flow at the handler is
+ * merged into the flow before each Stmt of the covered block.
+ *
+ * <p>The analysis is solved lazily by the first query or explicitly via {@link #solve()}. The
+ * transfer function has to be monotone with respect to the {@link FlowLattice}.
+ *
+ * @param <F> the type of the flow values
+ */
+public abstract class DataFlowAnalysis<F> {
+
+  public enum Direction {
+    FORWARD,
+    BACKWARD
+  }
+
+  @Nonnull protected final StmtGraph<?> graph;
+  @Nonnull protected final BodyNumbering numbering;
+  @Nonnull protected final Direction direction;
+  @Nonnull protected final FlowLattice<F> lattice;
+
+  /** the numbers of the successors/predecessors in the direction of the analysis */
+  private int[][] succs;
+
+  private int[][] preds;
+  /** the numbers of the trap handler blocks of a block and of the blocks covered by a handler */
+  private int[][] handlers;
+
+  private int[][] coveredBlocks;
+
+  /** flow at the beginning/end of each block in the direction of the analysis */
+  private Object[] blockIn;
+
+  private Object[] blockOut;
+  /** forward analyses: the flow which leaves a block via its exceptional edges */
+  private Object[] blockExceptionalOut;
+
+  private volatile boolean solved = false;
+
+  protected DataFlowAnalysis(
+      @Nonnull StmtGraph<?> graph, @Nonnull Direction direction, @Nonnull FlowLattice<F> lattice) {
+    this(graph, new BodyNumbering(graph), direction, lattice);
+  }
+
+  /** @param numbering a numbering of the current state of the graph */
+  protected DataFlowAnalysis(
+      @Nonnull StmtGraph<?> graph,
+      @Nonnull BodyNumbering numbering,
+      @Nonnull Direction direction,
+      @Nonnull FlowLattice<F> lattice) {
+    this.graph = graph;
+    this.numbering = numbering;
+    this.direction = direction;
+    this.lattice = lattice;
+  }
+
+  /**
+   * applies the effect of the given Stmt to the flow in place i.e. turns the flow before the Stmt
+   * into the flow after it (forward) or the flow after the Stmt into the flow before it (backward).
+   */
+  protected abstract void flowThrough(@Nonnull Stmt stmt, @Nonnull F flow);
+
+  /**
+   * @return the flow at the starting Stmt (forward) or after the Stmts without successors
+   *     (backward). Defaults to the bottom element of the lattice.
+   */
+  @Nonnull
+  protected F entryFlow() {
+    return lattice.bottom();
+  }
+
+  @Nonnull
+  public Direction getDirection() {
+    return direction;
+  }
+
+  @Nonnull
+  public BodyNumbering getNumbering() {
+    return numbering;
+  }
+
+  /** solves several independent analyses (e.g. of different methods) in parallel. */
+  public static void solveAll(@Nonnull Collection<? extends DataFlowAnalysis<?>> analyses) {
+    analyses.parallelStream().forEach(DataFlowAnalysis::solve);
+  }
+
+  /** computes the fixpoint of the analysis if that did not happen yet. */
+  public final void solve() {
+    if (solved) {
+      return;
+    }
+    synchronized (this) {
+      if (!solved) {
+        computeFixpoint();
+        solved = true;
+      }
+    }
+  }
+
+  private void computeFixpoint() {
+    final int blockCount = numbering.getBlockCount();
+    buildEdges(blockCount);
+
+    final boolean forward = direction == Direction.FORWARD;
+    blockIn = new Object[blockCount];
+    blockOut = new Object[blockCount];
+    if (forward) {
+      blockExceptionalOut = new Object[blockCount];
+    }
+    for (int i = 0; i < blockCount; i++) {
+      blockOut[i] = lattice.bottom();
+      if (forward && handlers[i].length > 0) {
+        blockExceptionalOut[i] = lattice.bottom();
+      }
+    }
+
+    final boolean[] isEntry = new boolean[blockCount];
+    if (forward) {
+      final Stmt startingStmt = graph.getStartingStmt();
+      if (startingStmt != null) {
+        isEntry[numbering.getBlockNumberOfStmt(numbering.getNumber(startingStmt))] = true;
+      }
+    } else {
+      for (int i = 0; i < blockCount; i++) {
+        isEntry[i] = succs[i].length == 0;
+      }
+    }
+
+    // order[position] = block number; position[block number] = position in the worklist order
+    final int[] order = computeOrder(forward);
+    final int[] position = new int[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      position[order[i]] = i;
+    }
+
+    final BitSet worklist = new BitSet(blockCount);
+    worklist.set(0, blockCount);
+    for (int pos = worklist.nextSetBit(0); pos >= 0; pos = worklist.nextSetBit(0)) {
+      worklist.clear(pos);
+      final int block = order[pos];
+
+      final F in = lattice.bottom();
+      if (isEntry[block]) {
+        lattice.joinInto(in, entryFlow());
+      }
+      for (int pred : preds[block]) {
+        lattice.joinInto(in, castFlow(blockOut[pred]));
+      }
+      if (forward) {
+        for (int coveringBlock : coveredBlocks[block]) {
+          lattice.joinInto(in, castFlow(blockExceptionalOut[coveringBlock]));
+        }
+      }
+      blockIn[block] = in;
+
+      final F flow = lattice.copy(in);
+      final F exceptionalFlow = forward && handlers[block].length > 0 ? lattice.copy(in) : null;
+      flowThroughBlock(block, flow, exceptionalFlow, null);
+
+      if (lattice.joinInto(castFlow(blockOut[block]), flow)) {
+        for (int succ : succs[block]) {
+          worklist.set(position[succ]);
+        }
+        if (!forward) {
+          for (int coveredBlock : coveredBlocks[block]) {
+            worklist.set(position[coveredBlock]);
+          }
+        }
+      }
+      if (exceptionalFlow != null
+          && lattice.joinInto(castFlow(blockExceptionalOut[block]), exceptionalFlow)) {
+        for (int handler : handlers[block]) {
+          worklist.set(position[handler]);
+        }
+      }
+    }
+  }
+
+  /**
+   * applies the transfer function to the Stmts of the given block in the direction of the analysis
+   * until "stopAt" is reached (exclusive) or all Stmts are processed.
+   *
+   * @param exceptionalFlow forward analyses: accumulates the flow before each Stmt if not null
+   * @return whether "stopAt" was reached
+   */
+  private boolean flowThroughBlock(int block, F flow, F exceptionalFlow, Stmt stopAt) {
+    final int first = numbering.getFirstStmtNumberOfBlock(block);
+    final int end = numbering.getEndStmtNumberOfBlock(block);
+    if (direction == Direction.FORWARD) {
+      for (int i = first; i < end; i++) {
+        final Stmt stmt = numbering.getStmt(i);
+        if (stmt == stopAt) {
+          return true;
+        }
+        flowThrough(stmt, flow);
+        if (exceptionalFlow != null && i < end - 1) {
+          lattice.joinInto(exceptionalFlow, flow);
+        }
+      }
+    } else {
+      final int[] blockHandlers = handlers[block];
+      for (int i = end - 1; i >= first; i--) {
+        final Stmt stmt = numbering.getStmt(i);
+        if (stmt == stopAt) {
+          return true;
+        }
+        flowThrough(stmt, flow);
+        for (int handler : blockHandlers) {
+          lattice.joinInto(flow, castFlow(blockOut[handler]));
+        }
+      }
+    }
+    return false;
+  }
+
+  private void buildEdges(int blockCount) {
+    final int[][] normalSuccs = new int[blockCount][];
+    handlers = new int[blockCount][];
+    final int[] normalPredCounts = new int[blockCount];
+    final int[] coveredCounts = new int[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      final BasicBlock<?> block = numbering.getBlock(i);
+      normalSuccs[i] = toNumbers(block.getSuccessors());
+      handlers[i] = toNumbers(new LinkedHashSet<>(block.getExceptionalSuccessors().values()));
+      for (int succ : normalSuccs[i]) {
+        normalPredCounts[succ]++;
+      }
+      for (int handler : handlers[i]) {
+        coveredCounts[handler]++;
+      }
+    }
+    final int[][] normalPreds = invert(normalSuccs, normalPredCounts);
+    coveredBlocks = invert(handlers, coveredCounts);
+    if (direction == Direction.FORWARD) {
+      succs = normalSuccs;
+      preds = normalPreds;
+    } else {
+      succs = normalPreds;
+      preds = normalSuccs;
+    }
+  }
+
+  private int[] toNumbers(Collection<? extends BasicBlock<?>> blocks) {
+    final int[] numbers = new int[blocks.size()];
+    int idx = 0;
+    for (BasicBlock<?> block : blocks) {
+      numbers[idx++] = numbering.getNumber(block);
+    }
+    return numbers;
+  }
+
+  private static int[][] invert(int[][] edges, int[] counts) {
+    final int[][] inverted = new int[edges.length][];
+    for (int i = 0; i < edges.length; i++) {
+      inverted[i] = new int[counts[i]];
+      counts[i] = 0;
+    }
+    for (int i = 0; i < edges.length; i++) {
+      for (int target : edges[i]) {
+        inverted[target][counts[target]++] = i;
+      }
+    }
+    return inverted;
+  }
+
+  /**
+   * @return the block numbers in reverse postorder (forward) or postorder (backward) of the
+   *     precomputed {@link BlockOrder} of the graph, followed by the unreachable blocks.
+   */
+  private int[] computeOrder(boolean forward) {
+    final BlockOrder blockOrder = graph.getBlockOrder();
+    final int[] traversal =
+        blockOrder.getOrder(
+            forward ? BlockOrder.Traversal.REVERSE_POSTORDER : BlockOrder.Traversal.POSTORDER);
+    if (traversal.length != numbering.getBlockCount()) {
+      throw new IllegalStateException("The BodyNumbering does not match the StmtGraph.");
+    }
+    for (int i = 0; i < traversal.length; i++) {
+      final int blockNumber = numbering.getNumber(blockOrder.getBlock(traversal[i]));
+      if (blockNumber < 0) {
+        throw new IllegalStateException("The BodyNumbering does not match the StmtGraph.");
+      }
+      traversal[i] = blockNumber;
+    }
+    return traversal;
+  }
+
+  /** @return the flow at the beginning of the block in the direction of the analysis */
+  @Nonnull
+  public F getBlockIn(@Nonnull BasicBlock<?> block) {
+    solve();
+    return lattice.copy(castFlow(blockIn[getBlockNumber(block)]));
+  }
+
+  /** @return the flow at the end of the block in the direction of the analysis */
+  @Nonnull
+  public F getBlockOut(@Nonnull BasicBlock<?> block) {
+    solve();
+    return lattice.copy(castFlow(blockOut[getBlockNumber(block)]));
+  }
+
+  /** @return the flow before the given Stmt in program order */
+  @Nonnull
+  public F getFlowBefore(@Nonnull Stmt stmt) {
+    return direction == Direction.FORWARD ? flowUpTo(stmt, false) : flowUpTo(stmt, true);
+  }
+
+  /** @return the flow after the given Stmt in program order */
+  @Nonnull
+  public F getFlowAfter(@Nonnull Stmt stmt) {
+    return direction == Direction.FORWARD ? flowUpTo(stmt, true) : flowUpTo(stmt, false);
+  }
+
+  /**
+   * replays the transfer functions of the block of the given Stmt from the stored flow at the
+   * beginning of the block up to the Stmt.
+   *
+   * @param includeStmt whether the effect of the Stmt itself is applied
+   */
+  @Nonnull
+  private F flowUpTo(@Nonnull Stmt stmt, boolean includeStmt) {
+    solve();
+    final int stmtNumber = numbering.getNumber(stmt);
+    if (stmtNumber < 0) {
+      throw new IllegalArgumentException("Stmt: " + stmt + " is not in the StmtGraph!");
+    }
+    final int block = numbering.getBlockNumberOfStmt(stmtNumber);
+    final F flow = lattice.copy(castFlow(blockIn[block]));
+    flowThroughBlock(block, flow, null, stmt);
+    if (includeStmt) {
+      flowThrough(stmt, flow);
+      if (direction == Direction.BACKWARD) {
+        for (int handler : handlers[block]) {
+          lattice.joinInto(flow, castFlow(blockOut[handler]));
+        }
+      }
+    }
+    return flow;
+  }
+
+  private int getBlockNumber(@Nonnull BasicBlock<?> block) {
+    final int blockNumber = numbering.getNumber(block);
+    if (blockNumber < 0) {
+      throw new IllegalArgumentException("BasicBlock is not in the StmtGraph!");
+    }
+    return blockNumber;
+  }
+
+  @SuppressWarnings("unchecked")
+  private F castFlow(Object flow) {
+    return (F) flow;
+  }
+}
@@ -0,0 +1,47 @@
+package sootup.core.graph.dataflow;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+
+/**
+ * The lattice of the flow values of a {@link DataFlowAnalysis}. Flow values are mutable so that
+ * joins and transfer functions can work in place without allocating new values.
+ *
+ * @param <F> the type of the flow values
+ */
+public interface FlowLattice<F> {
+
+  /** @return a new instance of the initial value of the analysis i.e. the bottom element. */
+  @Nonnull
+  F bottom();
+
+  @Nonnull
+  F copy(@Nonnull F value);
+
+  /**
+   * joins "source" into "target" in place.
+   *
+   * @return whether "target" changed
+   */
+  boolean joinInto(@Nonnull F target, @Nonnull F source);
+}
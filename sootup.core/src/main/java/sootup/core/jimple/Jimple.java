@@ -343,6 +343,10 @@ public abstract class Jimple {
     return new JPhiExpr(args, argToBlock);
   }
 
+  public static JPhiExpr newPhiExpr(List<Local> args, List<BasicBlock<?>> blocks) {
+    return new JPhiExpr(args, blocks);
+  }
+
   /** Constructs a NewStaticInvokeExpr(ArrayType, List of Immediate) grammar chunk. */
   public static JStaticInvokeExpr newStaticInvokeExpr(
       MethodSignature method, List<Immediate> args) {
@@ -25,6 +25,7 @@ package sootup.core.jimple.basic;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.visitor.Acceptor;
@@ -114,6 +115,9 @@ public class Local implements Immediate, Copyable, Acceptor<ImmediateVisitor> {
     return Collections.emptyList();
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {}
+
   @Nonnull
   public Position getPosition() {
     return position;
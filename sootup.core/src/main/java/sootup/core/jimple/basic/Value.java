@@ -23,6 +23,7 @@ package sootup.core.jimple.basic;
  */
 
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.common.constant.Constant;
 import sootup.core.jimple.common.expr.Expr;
@@ -48,6 +49,16 @@ public interface Value extends EquivTo {
   @Nonnull
   List<Value> getUses();
 
+  /**
+   * Passes the Values which are used by this Value to the consumer in the same order as {@link
+   * #getUses()} - without allocating a List for them.
+   */
+  default void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    for (Value use : getUses()) {
+      consumer.accept(use);
+    }
+  }
+
   /** Returns the Soot type of this Value. */
   @Nonnull
   Type getType();
@@ -24,6 +24,7 @@ package sootup.core.jimple.common.constant;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Immediate;
 import sootup.core.jimple.basic.JimpleComparator;
@@ -39,6 +40,9 @@ public interface Constant extends Immediate, Acceptor<ConstantVisitor> {
     return Collections.emptyList();
   }
 
+  @Override
+  default void forEachUse(@Nonnull Consumer<? super Value> consumer) {}
+
   @Override
   default boolean equivTo(Object o, @Nonnull JimpleComparator comparator) {
     return comparator.caseConstant(this, o);
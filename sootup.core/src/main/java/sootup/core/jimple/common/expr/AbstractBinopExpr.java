@@ -24,6 +24,7 @@ package sootup.core.jimple.common.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Immediate;
 import sootup.core.jimple.basic.JimpleComparator;
@@ -63,6 +64,12 @@ public abstract class AbstractBinopExpr implements Expr {
     return list;
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(op1);
+    consumer.accept(op2);
+  }
+
   @Override
   public boolean equivTo(@Nonnull Object o, @Nonnull JimpleComparator comparator) {
     return comparator.caseAbstractBinopExpr(this, o);
@@ -24,6 +24,7 @@ package sootup.core.jimple.common.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Immediate;
 import sootup.core.jimple.basic.Value;
@@ -50,4 +51,9 @@ public abstract class AbstractUnopExpr implements Expr {
     list.add(op);
     return list;
   }
+
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(op);
+  }
 }
@@ -24,6 +24,7 @@ package sootup.core.jimple.common.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Immediate;
 import sootup.core.jimple.basic.JimpleComparator;
@@ -81,6 +82,11 @@ public final class JCastExpr implements Expr, Copyable {
     return list;
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(op);
+  }
+
   @Nonnull
   @Override
   public Type getType() {
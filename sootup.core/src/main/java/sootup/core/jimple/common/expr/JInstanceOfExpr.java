@@ -24,6 +24,7 @@ package sootup.core.jimple.common.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.Immediate;
@@ -84,6 +85,11 @@ public final class JInstanceOfExpr implements Expr, Copyable {
     return list;
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(op);
+  }
+
   @Nonnull
   @Override
   public Type getType() {
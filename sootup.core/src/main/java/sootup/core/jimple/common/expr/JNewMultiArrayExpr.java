@@ -24,6 +24,7 @@ package sootup.core.jimple.common.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.*;
@@ -130,6 +131,13 @@ public final class JNewMultiArrayExpr implements Expr, Copyable {
     return list;
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    for (Value size : sizes) {
+      consumer.accept(size);
+    }
+  }
+
   @Nonnull
   @Override
   public Type getType() {
@@ -23,6 +23,7 @@ package sootup.core.jimple.common.expr;
  */
 
 import java.util.*;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.graph.BasicBlock;
@@ -39,29 +40,50 @@ import sootup.core.util.printer.StmtPrinter;
 public final class JPhiExpr implements Expr, Copyable {
 
   private final List<Local> args;
-  private final Map<BasicBlock<?>, Local> blockToArg = new HashMap<>();
-  private final Map<Local, BasicBlock<?>> argToBlock;
+  // blocks.get(i) is the predecessor block through which args.get(i) flows into the phi - a Local
+  // can arrive via multiple predecessors so this can not be expressed by a Map<Local, Block>
+  private final List<BasicBlock<?>> blocks;
   @Nullable private final Type type;
 
   public JPhiExpr(@Nonnull List<Local> args, @Nonnull Map<Local, BasicBlock<?>> argToBlock) {
+    this(args, mapArgsToBlocks(args, argToBlock));
+  }
+
+  /**
+   * @param args the incoming Locals
+   * @param blocks the predecessor block of each incoming Local i.e. blocks.get(i) belongs to
+   *     args.get(i)
+   */
+  public JPhiExpr(@Nonnull List<Local> args, @Nonnull List<BasicBlock<?>> blocks) {
+    if (args.size() != blocks.size()) {
+      throw new IllegalArgumentException("The given args and blocks must have the same size!");
+    }
     this.args = args;
-    this.argToBlock = argToBlock;
+    this.blocks = blocks;
 
     int argsSize = args.size();
     if (argsSize > 0) {
       this.type = args.get(0).getType();
       for (int i = 1; i < argsSize; i++) {
-        Local arg = args.get(i);
-        if (!arg.getType().equals(this.type)) {
+        if (!args.get(i).getType().equals(this.type)) {
           throw new RuntimeException("The given args should have the same type!");
         }
-        blockToArg.put(argToBlock.get(arg), arg);
       }
     } else {
       type = null;
     }
   }
 
+  @Nonnull
+  private static List<BasicBlock<?>> mapArgsToBlocks(
+      @Nonnull List<Local> args, @Nonnull Map<Local, BasicBlock<?>> argToBlock) {
+    List<BasicBlock<?>> blocks = new ArrayList<>(args.size());
+    for (Local arg : args) {
+      blocks.add(argToBlock.get(arg));
+    }
+    return blocks;
+  }
+
   @Nonnull
   public List<Local> getArgs() {
     return new ArrayList<>(this.args);
@@ -73,10 +95,11 @@ public final class JPhiExpr implements Expr, Copyable {
 
   @Nonnull
   public Local getArg(@Nonnull BasicBlock<?> block) {
-    if (blockToArg.get(block) == null) {
+    int idx = blocks.indexOf(block);
+    if (idx < 0) {
       throw new RuntimeException("There's no matched arg for the given block " + block);
     }
-    return this.blockToArg.get(block);
+    return this.args.get(idx);
   }
 
   @Nonnull
@@ -89,11 +112,11 @@ public final class JPhiExpr implements Expr, Copyable {
 
   @Nonnull
   public int getArgIndex(@Nonnull BasicBlock<?> block) {
-    if (!this.blockToArg.containsKey(block)) {
+    int idx = blocks.indexOf(block);
+    if (idx < 0) {
       throw new RuntimeException("The given block: " + block + " is not contained by PhiExpr!");
     }
-    Local arg = blockToArg.get(block);
-    return args.indexOf(arg);
+    return idx;
   }
 
   /**
@@ -102,18 +125,17 @@ public final class JPhiExpr implements Expr, Copyable {
    */
   @Nonnull
   public List<BasicBlock<?>> getBlocks() {
-    List<BasicBlock<?>> blocks = new ArrayList<>();
-    this.args.forEach(arg -> blocks.add(this.argToBlock.get(arg)));
-    return blocks;
+    return new ArrayList<>(this.blocks);
   }
 
   @Nonnull
   public BasicBlock<?> getBlock(@Nonnull Local arg) {
-    if (!getArgs().contains(arg)) {
+    int idx = args.indexOf(arg);
+    if (idx < 0) {
       throw new RuntimeException(
           "The given arg: " + arg.toString() + " is not contained by PhiExpr!");
     }
-    return this.argToBlock.get(arg);
+    return this.blocks.get(idx);
   }
 
   @Nonnull
@@ -121,12 +143,17 @@ public final class JPhiExpr implements Expr, Copyable {
     if (index >= this.getArgsSize()) {
       throw new RuntimeException("The given index is out of the bound!");
     }
-    return this.argToBlock.get(getArg(index));
+    return this.blocks.get(index);
   }
 
+  /** hint: if an arg flows in via multiple blocks only one of them is kept in the returned Map. */
   @Nonnull
   public Map<Local, BasicBlock<?>> getArgToBlockMap() {
-    return new HashMap<>(this.argToBlock);
+    Map<Local, BasicBlock<?>> argToBlock = new HashMap<>();
+    for (int i = 0; i < args.size(); i++) {
+      argToBlock.put(args.get(i), blocks.get(i));
+    }
+    return argToBlock;
   }
 
   @Nonnull
@@ -138,6 +165,16 @@ public final class JPhiExpr implements Expr, Copyable {
     return new ArrayList<>(getArgs());
   }
 
+  @Override
+  public void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    if (args == null) {
+      return;
+    }
+    for (Local arg : args) {
+      consumer.accept(arg);
+    }
+  }
+
   @Override
   public int equivHashCode() {
     return Objects.hash(args);
@@ -186,7 +223,11 @@ public final class JPhiExpr implements Expr, Copyable {
 
   @Nonnull
   public JPhiExpr withArgs(@Nonnull List<Local> args) {
-    return new JPhiExpr(args, this.argToBlock);
+    if (args.size() == blocks.size()) {
+      // keep the positional association of args and blocks
+      return new JPhiExpr(args, getBlocks());
+    }
+    return new JPhiExpr(args, getArgToBlockMap());
   }
 
   @Nonnull
@@ -24,6 +24,7 @@ package sootup.core.jimple.common.ref;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.IdentifierFactory;
 import sootup.core.jimple.basic.Immediate;
@@ -124,6 +125,12 @@ public final class JArrayRef implements ConcreteRef, Copyable {
     return list;
   }
 
+  @Override
+  public void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(base);
+    consumer.accept(index);
+  }
+
   @Override
   @Nonnull
   public Type getType() {
@@ -28,6 +28,7 @@ package sootup.core.jimple.common.ref;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.JimpleComparator;
 import sootup.core.jimple.basic.Local;
@@ -76,6 +77,11 @@ public final class JInstanceFieldRef extends JFieldRef implements Copyable {
     return list;
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(base);
+  }
+
   @Override
   public void accept(@Nonnull RefVisitor v) {
     v.caseInstanceFieldRef(this);
@@ -25,6 +25,7 @@ package sootup.core.jimple.common.stmt;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.StmtPositionInfo;
 import sootup.core.jimple.basic.Value;
@@ -72,6 +73,19 @@ public abstract class AbstractDefinitionStmt<L extends Value, R extends Value> e
     return list;
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    leftOp.forEachUse(consumer);
+    consumer.accept(rightOp);
+    rightOp.forEachUse(consumer);
+  }
+
+  @Override
+  public final void forEachUseAndDef(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(leftOp);
+    forEachUse(consumer);
+  }
+
   @Override
   public boolean fallsThrough() {
     return true;
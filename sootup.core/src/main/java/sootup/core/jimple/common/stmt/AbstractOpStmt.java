@@ -24,6 +24,7 @@ package sootup.core.jimple.common.stmt;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Immediate;
 import sootup.core.jimple.basic.StmtPositionInfo;
@@ -52,6 +53,11 @@ public abstract class AbstractOpStmt extends Stmt {
     return list;
   }
 
+  @Override
+  public final void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    consumer.accept(op);
+  }
+
   @Override
   public int equivHashCode() {
     return op.equivHashCode();
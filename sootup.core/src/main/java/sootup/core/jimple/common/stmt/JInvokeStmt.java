@@ -23,6 +23,7 @@ package sootup.core.jimple.common.stmt;
  */
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.JimpleComparator;
 import sootup.core.jimple.basic.StmtPositionInfo;
@@ -72,6 +73,12 @@ public final class JInvokeStmt extends Stmt implements Copyable {
     return list;
   }
 
+  @Override
+  public void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    invokeExpr.forEachUse(consumer);
+    consumer.accept(invokeExpr);
+  }
+
   @Override
   public void accept(@Nonnull StmtVisitor sw) {
     sw.caseInvokeStmt(this);
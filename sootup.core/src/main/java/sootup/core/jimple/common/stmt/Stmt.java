@@ -25,6 +25,7 @@ package sootup.core.jimple.common.stmt;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.EquivTo;
 import sootup.core.jimple.basic.StmtPositionInfo;
@@ -54,6 +55,12 @@ public abstract class Stmt implements EquivTo, Acceptor<StmtVisitor>, Copyable {
     return Collections.emptyList();
   }
 
+  /**
+   * Passes the Values used in this Stmt to the consumer in the same order as {@link #getUses()}.
+   * Prefer this over {@link #getUses()} in hot loops as it does not allocate a List.
+   */
+  public void forEachUse(@Nonnull Consumer<? super Value> consumer) {}
+
   /** Returns a list of Values defined in this Stmt. */
   // TODO: [ms] naming/signature its just a single Def..always.
   @Nonnull
@@ -78,6 +85,17 @@ public abstract class Stmt implements EquivTo, Acceptor<StmtVisitor>, Copyable {
     }
   }
 
+  /**
+   * Passes the Values either used or defined or both in this Stmt to the consumer in the same order
+   * as {@link #getUsesAndDefs()} - without allocating a List for them.
+   */
+  public void forEachUseAndDef(@Nonnull Consumer<? super Value> consumer) {
+    for (Value def : getDefs()) {
+      consumer.accept(def);
+    }
+    forEachUse(consumer);
+  }
+
   /**
    * Returns true if execution after this statement may continue at the following statement. (e.g.
    * GotoStmt will return false and e.g. IfStmt will return true).
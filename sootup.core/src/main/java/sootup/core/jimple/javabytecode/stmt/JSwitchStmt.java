@@ -23,6 +23,7 @@ package sootup.core.jimple.javabytecode.stmt;
  */
 
 import java.util.*;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.*;
@@ -101,6 +102,13 @@ public class JSwitchStmt extends BranchingStmt implements Copyable {
     return list;
   }
 
+  @Override
+  public void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    final Immediate key = getKey();
+    key.forEachUse(consumer);
+    consumer.accept(key);
+  }
+
   @Override
   public boolean fallsThrough() {
     return false;
@@ -23,8 +23,10 @@ package sootup.core.model;
  */
 
 import com.google.common.collect.Iterables;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ResolveException;
@@ -79,6 +81,14 @@ public abstract class AbstractClass<T extends AbstractClassSource<?>> {
         .findAny();
   }
 
+  /** Returns the methods with the given name, i.e. all overloads of <code>name</code>. */
+  @Nonnull
+  public Collection<? extends SootMethod> getMethodsByName(@Nonnull String name) {
+    return getMethods().stream()
+        .filter(method -> method.getSignature().getName().equals(name))
+        .collect(Collectors.toList());
+  }
+
   /** Attemtps to retrieve the field with the given FieldSubSignature. */
   @Nonnull
   public Optional<? extends SootField> getField(@Nonnull FieldSubSignature subSignature) {
@@ -110,11 +120,8 @@ public abstract class AbstractClass<T extends AbstractClassSource<?>> {
   @Nonnull
   public Optional<? extends SootMethod> getMethod(
       @Nonnull String name, @Nonnull Iterable<? extends Type> parameterTypes) {
-    return this.getMethods().stream()
-        .filter(
-            method ->
-                method.getSignature().getName().equals(name)
-                    && Iterables.elementsEqual(parameterTypes, method.getParameterTypes()))
+    return this.getMethodsByName(name).stream()
+        .filter(method -> Iterables.elementsEqual(parameterTypes, method.getParameterTypes()))
         .reduce(
             (l, r) -> {
               throw new ResolveException(
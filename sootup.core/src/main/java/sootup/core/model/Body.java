@@ -22,7 +22,6 @@ package sootup.core.model;
  * #L%
  */
 
-import com.google.common.collect.Lists;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
@@ -59,6 +58,15 @@ public class Body implements Copyable {
   /** The MethodSignature associated with this Body. */
   @Nonnull private final MethodSignature methodSignature;
 
+  /** lazily created dense numbering of the Stmts, blocks and Locals of this Body */
+  @Nullable private volatile BodyNumbering numbering;
+
+  /** lazily created loop nesting forest of the StmtGraph of this Body */
+  @Nullable private volatile LoopNestForest loopNestForest;
+
+  /** lazily computed structural fingerprint of this Body */
+  @Nullable private volatile BodyFingerprint fingerprint;
+
   /** An array containing some validators in order to validate the JimpleBody */
   @Nonnull
   private static final List<BodyValidator> validators =
@@ -85,8 +93,7 @@ public class Body implements Copyable {
       @Nonnull Position position) {
     this.methodSignature = methodSignature;
     this.locals = Collections.unmodifiableSet(locals);
-    this.graph = /* FIXME: [ms] make immutable when availabe */
-        new MutableBlockStmtGraph(stmtGraph).unmodifiableStmtGraph();
+    this.graph = new ImmutableBlockStmtGraph(stmtGraph);
     this.position = position;
     // FIXME: [JMP] Virtual method call in constructor
     checkInit();
@@ -241,19 +248,67 @@ public class Body implements Copyable {
    */
   @Nonnull
   public List<Stmt> getStmts() {
-    final ArrayList<Stmt> stmts = new ArrayList<>(graph.nodes().size());
-    for (Stmt stmt : graph) {
-      stmts.add(stmt);
-    }
-    return stmts;
+    return graph.getStmts();
   }
 
   @Nonnull
-  // TODO: [ms] should be an ImmutableStmtGraph!
   public StmtGraph<?> getStmtGraph() {
     return graph;
   }
 
+  /**
+   * Returns the dense numbering of the Stmts, blocks and Locals of this Body. The numbering is
+   * created on the first call and stays valid as the Body is immutable.
+   */
+  @Nonnull
+  public BodyNumbering getNumbering() {
+    BodyNumbering result = numbering;
+    if (result == null) {
+      result = new BodyNumbering(graph, locals);
+      numbering = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the loops of this Body. Like the numbering the loop nesting forest is created on the
+   * first call - its block indices match the block numbers of {@link #getNumbering()}.
+   */
+  @Nonnull
+  public LoopNestForest getLoopNestForest() {
+    LoopNestForest result = loopNestForest;
+    if (result == null) {
+      result = new LoopNestForest(graph);
+      loopNestForest = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the structural fingerprint of this Body - it is computed on the first call. Bodies
+   * which differ only in the names of their Locals have the same fingerprint.
+   */
+  @Nonnull
+  public BodyFingerprint getFingerprint() {
+    BodyFingerprint result = fingerprint;
+    if (result == null) {
+      result = BodyFingerprint.of(graph);
+      fingerprint = result;
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether the other Body has the same structure i.e. the same normalized Jimple (see
+   * {@link BodyFingerprint}). The check only compares the cached fingerprints: among n distinct
+   * Bodies, the probability that any two of them share a 128 bit fingerprint is below n^2 / 2^129,
+   * e.g. about 10^-27 for a million Bodies. The hash is not cryptographic, so Bodies crafted to
+   * collide are not told apart.
+   */
+  public boolean isStructurallyEqual(@Nonnull Body other) {
+    return this == other || getFingerprint().equals(other.getFingerprint());
+  }
+
   private void checkInit() {
     runValidation(new CheckInitValidator());
   }
@@ -377,8 +432,6 @@ public class Body implements Copyable {
     @Nonnull private final MutableStmtGraph graph;
     @Nullable private MethodSignature methodSig = null;
 
-    @Nullable private List<Stmt> cachedLinearizedStmts = null;
-
     BodyBuilder() {
       graph = new MutableBlockStmtGraph();
     }
@@ -402,8 +455,7 @@ public class Body implements Copyable {
 
     @Nonnull
     public List<Stmt> getStmts() {
-      cachedLinearizedStmts = Lists.newArrayList(graph);
-      return cachedLinearizedStmts;
+      return graph.getStmts();
     }
 
     @Nonnull
@@ -446,10 +498,18 @@ public class Body implements Copyable {
     @Nonnull
     public BodyBuilder removeStmt(@Nonnull Stmt stmt) {
       graph.removeNode(stmt);
-      cachedLinearizedStmts = null;
       return this;
     }
 
+    /**
+     * starts recording Stmt replacements, removals and flow modifications which are applied
+     * together to the StmtGraph of this builder on {@link MutableStmtGraph.BatchEdit#commit()}.
+     */
+    @Nonnull
+    public MutableStmtGraph.BatchEdit startBatchEdit() {
+      return graph.startBatchEdit();
+    }
+
     @Nonnull
     public BodyBuilder clearExceptionEdgesOf(@Nonnull Stmt stmt) {
       graph.clearExceptionalEdges(stmt);
@@ -465,14 +525,12 @@ public class Body implements Copyable {
     @Nonnull
     public BodyBuilder addFlow(@Nonnull Stmt fromStmt, @Nonnull Stmt toStmt) {
       graph.putEdge(fromStmt, toStmt);
-      cachedLinearizedStmts = null;
       return this;
     }
 
     @Nonnull
     public BodyBuilder removeFlow(@Nonnull Stmt fromStmt, @Nonnull Stmt toStmt) {
       graph.removeEdge(fromStmt, toStmt);
-      cachedLinearizedStmts = null;
       return this;
     }
 
@@ -492,6 +550,11 @@ public class Body implements Copyable {
       return this;
     }
 
+    @Nullable
+    public MethodSignature getMethodSignature() {
+      return methodSig;
+    }
+
     @Nonnull
     public Body build() {
 
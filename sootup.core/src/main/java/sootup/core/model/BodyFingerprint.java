@@ -0,0 +1,155 @@
+package sootup.core.model;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Trap;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.types.Type;
+import sootup.core.util.printer.NormalStmtPrinter;
+
+/**
+ * A 128 bit structural fingerprint of a StmtGraph: the hash of its normalized Jimple i.e. the Stmts
+ * in linearized order where Locals are renamed canonically by their first occurrence and branch
+ * targets are referenced by their position, followed by the types of the Locals and the Traps.
+ * Graphs which differ only in the names of their Locals have the same fingerprint. The fingerprint
+ * of a {@link Body} is cached, see {@link Body#getFingerprint()}.
+ */
+public final class BodyFingerprint {
+
+  private final long high;
+  private final long low;
+
+  private BodyFingerprint(long high, long low) {
+    this.high = high;
+    this.low = low;
+  }
+
+  @Nonnull
+  public static BodyFingerprint of(@Nonnull StmtGraph<?> graph) {
+    final HashCode hash =
+        Hashing.murmur3_128().hashString(normalize(graph), StandardCharsets.UTF_8);
+    final ByteBuffer bytes = ByteBuffer.wrap(hash.asBytes());
+    return new BodyFingerprint(bytes.getLong(), bytes.getLong());
+  }
+
+  /** @return the normalized Jimple of the graph which is the input of the fingerprint */
+  @Nonnull
+  static String normalize(@Nonnull StmtGraph<?> graph) {
+    final List<Stmt> stmts = graph.getStmts();
+    final CanonicalStmtPrinter printer = new CanonicalStmtPrinter(graph, stmts);
+    for (Stmt stmt : stmts) {
+      printer.stmt(stmt);
+    }
+    printer.literal("locals:");
+    for (Type type : printer.localTypes) {
+      printer.literal(" ");
+      printer.typeSignature(type);
+    }
+    printer.newline();
+    for (Trap trap : graph.getTraps()) {
+      printer.literal("catch ");
+      printer.typeSignature(trap.getExceptionType());
+      printer.literal(" from ");
+      printer.stmtRef(trap.getBeginStmt(), true);
+      printer.literal(" to ");
+      printer.stmtRef(trap.getEndStmt(), true);
+      printer.literal(" with ");
+      printer.stmtRef(trap.getHandlerStmt(), true);
+      printer.newline();
+    }
+    return printer.toString();
+  }
+
+  public long getHigh() {
+    return high;
+  }
+
+  public long getLow() {
+    return low;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BodyFingerprint)) {
+      return false;
+    }
+    BodyFingerprint that = (BodyFingerprint) o;
+    return high == that.high && low == that.low;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (low ^ (low >>> 32));
+  }
+
+  /** @return the fingerprint as 32 hex digits */
+  @Override
+  public String toString() {
+    return String.format("%016x%016x", high, low);
+  }
+
+  /** prints Locals by the order of their first occurrence and Stmt references by position */
+  private static class CanonicalStmtPrinter extends NormalStmtPrinter {
+
+    @Nonnull private final Map<Stmt, Integer> stmtPositions;
+    @Nonnull private final Map<Local, Integer> localNumbers = new HashMap<>();
+    @Nonnull private final List<Type> localTypes = new ArrayList<>();
+
+    CanonicalStmtPrinter(@Nonnull StmtGraph<?> graph, @Nonnull List<Stmt> stmts) {
+      this.graph = graph;
+      stmtPositions = new IdentityHashMap<>(stmts.size());
+      for (int i = 0; i < stmts.size(); i++) {
+        stmtPositions.put(stmts.get(i), i);
+      }
+    }
+
+    @Override
+    public void local(Local local) {
+      handleIndent();
+      Integer number = localNumbers.get(local);
+      if (number == null) {
+        number = localNumbers.size();
+        localNumbers.put(local, number);
+        localTypes.add(local.getType());
+      }
+      output.append('$').append(number);
+    }
+
+    @Override
+    public void stmtRef(Stmt stmt, boolean branchTarget) {
+      handleIndent();
+      final Integer position = stmtPositions.get(stmt);
+      output.append('#').append(position == null ? "?" : position.toString());
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package sootup.core.model;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997 - 2026 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * Assigns dense numbers starting at 0 to the Stmts, BasicBlocks and Locals of a StmtGraph, so that
+ * analyses can store their information in arrays and BitSets instead of hash based collections.
+ *
+ * <p>Blocks are numbered in the order of {@link StmtGraph#getBlockIterator()} and Stmts in the same
+ * order block by block, i.e. the Stmts of a block have consecutive numbers. Locals which are given
+ * explicitly are numbered first, followed by Locals which only occur in the Stmts.
+ *
+ * <p>A BodyNumbering is a snapshot: it is not updated when the StmtGraph is modified afterwards and
+ * has to be rebuilt in that case. {@link Body#getNumbering()} caches the numbering of the
+ * (immutable) Body.
+ */
+public class BodyNumbering {
+
+  @Nonnull private final Stmt[] stmts;
+  @Nonnull private final Map<Stmt, Integer> stmtToNumber;
+
+  @Nonnull private final BasicBlock<?>[] blocks;
+  @Nonnull private final Map<BasicBlock<?>, Integer> blockToNumber;
+  /** the Stmts of block i are numbered from blockStart[i] to blockStart[i+1]-1 */
+  @Nonnull private final int[] blockStart;
+  /** the number of the block of each Stmt */
+  @Nonnull private final int[] stmtToBlockNumber;
+
+  @Nonnull private final Local[] locals;
+  @Nonnull private final Map<Local, Integer> localToNumber;
+
+  /** numbers the Stmts and BasicBlocks of the graph and the Locals which occur in its Stmts. */
+  public BodyNumbering(@Nonnull StmtGraph<?> graph) {
+    this(graph, Collections.emptyList());
+  }
+
+  /**
+   * numbers the Stmts and BasicBlocks of the graph, the given locals and the Locals which occur in
+   * the Stmts of the graph but are not given.
+   */
+  public BodyNumbering(@Nonnull StmtGraph<?> graph, @Nonnull Collection<Local> locals) {
+    final List<BasicBlock<?>> blockList = new ArrayList<>();
+    graph.getBlockIterator().forEachRemaining(blockList::add);
+    blocks = blockList.toArray(new BasicBlock<?>[0]);
+    blockToNumber = new HashMap<>(blocks.length * 2);
+    blockStart = new int[blocks.length + 1];
+
+    int stmtCount = 0;
+    for (int i = 0; i < blocks.length; i++) {
+      blockToNumber.put(blocks[i], i);
+      blockStart[i] = stmtCount;
+      stmtCount += blocks[i].getStmtCount();
+    }
+    blockStart[blocks.length] = stmtCount;
+
+    stmts = new Stmt[stmtCount];
+    stmtToNumber = new IdentityHashMap<>(stmtCount);
+    stmtToBlockNumber = new int[stmtCount];
+    final Map<Local, Integer> localNumbers = new LinkedHashMap<>();
+    for (Local local : locals) {
+      localNumbers.putIfAbsent(local, localNumbers.size());
+    }
+    int stmtNumber = 0;
+    for (int i = 0; i < blocks.length; i++) {
+      for (Stmt stmt : blocks[i].getStmts()) {
+        stmts[stmtNumber] = stmt;
+        stmtToNumber.put(stmt, stmtNumber);
+        stmtToBlockNumber[stmtNumber] = i;
+        stmtNumber++;
+        stmt.forEachUseAndDef(
+            value -> {
+              if (value instanceof Local) {
+                localNumbers.putIfAbsent((Local) value, localNumbers.size());
+              }
+            });
+      }
+    }
+
+    this.locals = localNumbers.keySet().toArray(new Local[0]);
+    this.localToNumber = localNumbers;
+  }
+
+  public int getStmtCount() {
+    return stmts.length;
+  }
+
+  /** @return the number of the given Stmt or -1 if it was not in the numbered StmtGraph. */
+  public int getNumber(@Nonnull Stmt stmt) {
+    final Integer number = stmtToNumber.get(stmt);
+    return number == null ? -1 : number;
+  }
+
+  /**
+   * @return the number of the given Stmt or, if it was not in the numbered StmtGraph, the number of
+   *     the only numbered Stmt which is equivalent to it (see {@link Stmt#equivTo(Object)}) e.g.
+   *     the Stmt a copy was created from via a withXxx method. Otherwise -1.
+   */
+  public int getNumberOfEquivalent(@Nonnull Stmt stmt) {
+    final int number = getNumber(stmt);
+    if (number >= 0) {
+      return number;
+    }
+    int equivalent = -1;
+    for (int i = 0; i < stmts.length; i++) {
+      if (stmts[i].equivTo(stmt)) {
+        if (equivalent >= 0) {
+          // ambiguous
+          return -1;
+        }
+        equivalent = i;
+      }
+    }
+    return equivalent;
+  }
+
+  @Nonnull
+  public Stmt getStmt(int number) {
+    return stmts[number];
+  }
+
+  public int getBlockCount() {
+    return blocks.length;
+  }
+
+  /** @return the number of the given BasicBlock or -1 if it was not in the numbered StmtGraph. */
+  public int getNumber(@Nonnull BasicBlock<?> block) {
+    final Integer number = blockToNumber.get(block);
+    return number == null ? -1 : number;
+  }
+
+  @Nonnull
+  public BasicBlock<?> getBlock(int number) {
+    return blocks[number];
+  }
+
+  /** @return the number of the block which contains the Stmt with the given number. */
+  public int getBlockNumberOfStmt(int stmtNumber) {
+    return stmtToBlockNumber[stmtNumber];
+  }
+
+  /** @return the number of the first Stmt of the block with the given number. */
+  public int getFirstStmtNumberOfBlock(int blockNumber) {
+    return blockStart[blockNumber];
+  }
+
+  /** @return the number of the Stmt after the last Stmt of the block with the given number. */
+  public int getEndStmtNumberOfBlock(int blockNumber) {
+    return blockStart[blockNumber + 1];
+  }
+
+  public int getLocalCount() {
+    return locals.length;
+  }
+
+  /** @return the number of the given Local or -1 if it was not numbered. */
+  public int getNumber(@Nonnull Local local) {
+    final Integer number = localToNumber.get(local);
+    return number == null ? -1 : number;
+  }
+
+  /**
+   * @return the number of the given Value if it is a numbered Local, otherwise -1. Handy when
+   *     iterating over the uses of a Stmt.
+   */
+  public int getLocalNumber(@Nonnull Value value) {
+    return value instanceof Local ? getNumber((Local) value) : -1;
+  }
+
+  @Nonnull
+  public Local getLocal(int number) {
+    return locals[number];
+  }
+}
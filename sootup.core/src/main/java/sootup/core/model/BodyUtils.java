@@ -21,14 +21,18 @@ package sootup.core.model;
  * #L%
  */
 import java.util.*;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.expr.JPhiExpr;
+import sootup.core.jimple.common.ref.Ref;
 import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.JIdentityStmt;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.jimple.visitor.ReplaceUseRefVisitor;
 import sootup.core.jimple.visitor.ReplaceUseStmtVisitor;
 
 /**
@@ -147,6 +151,64 @@ public class BodyUtils {
     return visitor.getResult();
   }
 
+  /**
+   * Replaces every used Local of oldStmt by the Local the renaming returns for it. In contrast to
+   * {@link #withNewUse(Stmt, Value, Value)} this covers the Locals used by a Ref on the left side
+   * of an assignment, too. The arguments of a JPhiExpr are not replaced as they belong to the
+   * predecessor blocks.
+   *
+   * @param oldStmt the Stmt whose uses are renamed
+   * @param renaming returns the new Local for a used Local or the given Local to keep it
+   * @return oldStmt if no use was renamed, else a new Stmt with the renamed uses
+   */
+  @Nonnull
+  public static Stmt withNewLocalUses(
+      @Nonnull Stmt oldStmt, @Nonnull Function<Local, Local> renaming) {
+    Stmt newStmt = oldStmt;
+    List<Value> uses;
+    if (oldStmt instanceof JAssignStmt) {
+      final JAssignStmt<?, ?> assignStmt = (JAssignStmt<?, ?>) oldStmt;
+      final Value leftOp = assignStmt.getLeftOp();
+      if (leftOp instanceof Ref) {
+        // the ReplaceUseStmtVisitor does only look at the right side of an assignment
+        Ref newLeftOp = (Ref) leftOp;
+        ReplaceUseRefVisitor refVisitor = new ReplaceUseRefVisitor();
+        for (Value use : leftOp.getUses()) {
+          if (use instanceof Local) {
+            final Local newUse = renaming.apply((Local) use);
+            if (newUse != use) {
+              refVisitor.init(use, newUse);
+              newLeftOp.accept(refVisitor);
+              newLeftOp = refVisitor.getResult();
+            }
+          }
+        }
+        if (newLeftOp != leftOp) {
+          newStmt = assignStmt.withVariable(newLeftOp);
+        }
+      }
+      final Value rightOp = assignStmt.getRightOp();
+      if (rightOp instanceof JPhiExpr) {
+        return newStmt;
+      }
+      uses = new ArrayList<>(rightOp.getUses());
+      uses.add(rightOp);
+    } else {
+      uses = oldStmt.getUses();
+    }
+
+    final Set<Value> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Value use : uses) {
+      if (use instanceof Local && visited.add(use)) {
+        final Local newUse = renaming.apply((Local) use);
+        if (newUse != use) {
+          newStmt = withNewUse(newStmt, use, newUse);
+        }
+      }
+    }
+    return newStmt;
+  }
+
   /**
    * Use newDef to replace the definition in oldStmt.
    *
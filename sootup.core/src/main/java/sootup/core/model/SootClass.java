@@ -25,12 +25,19 @@ package sootup.core.model;
 import com.google.common.base.Suppliers;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import sootup.core.frontend.ResolveException;
 import sootup.core.frontend.SootClassSource;
+import sootup.core.signatures.MethodSubSignature;
 import sootup.core.types.ClassType;
 import sootup.core.util.ImmutableUtils;
 import sootup.core.util.printer.JimplePrinter;
@@ -95,6 +102,40 @@ public class SootClass<S extends SootClassSource<? extends SootClass<S>>> extend
     return this._lazyMethods.get();
   }
 
+  /** Indexes the methods by sub-signature and by name, so lookups do not scan the method set. */
+  @Nonnull
+  private final Supplier<MethodIndex> _lazyMethodIndex =
+      Suppliers.memoize(() -> new MethodIndex(getMethods()));
+
+  @Override
+  @Nonnull
+  public Optional<? extends SootMethod> getMethod(@Nonnull MethodSubSignature subSignature) {
+    return Optional.ofNullable(_lazyMethodIndex.get().bySubSignature.get(subSignature));
+  }
+
+  @Override
+  @Nonnull
+  public Collection<? extends SootMethod> getMethodsByName(@Nonnull String name) {
+    return _lazyMethodIndex.get().byName.getOrDefault(name, Collections.emptyList());
+  }
+
+  private static final class MethodIndex {
+    @Nonnull final Map<MethodSubSignature, SootMethod> bySubSignature;
+    @Nonnull final Map<String, List<SootMethod>> byName;
+
+    MethodIndex(@Nonnull Set<? extends SootMethod> methods) {
+      bySubSignature = new HashMap<>(methods.size() * 4 / 3 + 1);
+      byName = new HashMap<>();
+      for (SootMethod method : methods) {
+        bySubSignature.putIfAbsent(method.getSignature().getSubSignature(), method);
+        byName
+            .computeIfAbsent(method.getSignature().getName(), name -> new ArrayList<>(1))
+            .add(method);
+      }
+      byName.replaceAll((name, overloads) -> Collections.unmodifiableList(overloads));
+    }
+  }
+
   @Nonnull
   private final Supplier<Set<? extends SootField>> _lazyFields =
       Suppliers.memoize(this::lazyFieldInitializer);
@@ -0,0 +1,112 @@
+package sootup.core.typehierarchy;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import sootup.core.ViewChangeListener;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.types.ClassType;
+import sootup.core.views.MutableView;
+import sootup.core.views.View;
+
+/**
+ * Holds the results of {@link MethodDispatchResolver} for a {@link View}, so repeated dispatch
+ * queries for the same call are hash lookups.
+ *
+ * <p>For every class, a virtual dispatch table maps the sub-signature of a called method to its
+ * concrete implementation. The tables are filled lazily; an entry that the class does not implement
+ * itself is taken from the table of its superclass. The targets of abstract dispatches are cached
+ * per called method.
+ *
+ * <p>The cache is stored as module data of the view. It is cleared whenever a {@link MutableView}
+ * changes.
+ */
+final class DispatchCache implements ViewChangeListener {
+
+  private static final class Key extends View.ModuleDataKey<DispatchCache> {
+    private static final Key instance = new Key();
+
+    private Key() {}
+  }
+
+  /** the concrete target (or none) per class and called sub-signature */
+  @Nonnull
+  private final Map<ClassType, Map<MethodSubSignature, Optional<MethodSignature>>> vtables =
+      new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<MethodSignature, Set<MethodSignature>> abstractDispatchTargets =
+      new ConcurrentHashMap<>();
+
+  private DispatchCache(@Nonnull View<?> view) {
+    if (view instanceof MutableView) {
+      ((MutableView) view).addChangeListener(this);
+    }
+  }
+
+  @Nonnull
+  static DispatchCache of(@Nonnull View<?> view) {
+    return view.computeModuleDataIfAbsent(Key.instance, () -> new DispatchCache(view));
+  }
+
+  @Nonnull
+  Map<MethodSubSignature, Optional<MethodSignature>> getVTable(@Nonnull ClassType classType) {
+    return vtables.computeIfAbsent(classType, type -> new ConcurrentHashMap<>());
+  }
+
+  @Nonnull
+  Map<MethodSignature, Set<MethodSignature>> getAbstractDispatchTargets() {
+    return abstractDispatchTargets;
+  }
+
+  private void clear() {
+    vtables.clear();
+    abstractDispatchTargets.clear();
+  }
+
+  @Override
+  public void classAdded(SootClass sc) {
+    clear();
+  }
+
+  @Override
+  public void classRemoved(SootClass sc) {
+    clear();
+  }
+
+  @Override
+  public void methodAdded(SootMethod m) {
+    clear();
+  }
+
+  @Override
+  public void methodRemoved(SootMethod m) {
+    clear();
+  }
+}
@@ -22,6 +22,9 @@ package sootup.core.typehierarchy;
  */
 
 import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -31,6 +34,7 @@ import sootup.core.model.Method;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
 import sootup.core.types.ClassType;
 import sootup.core.views.View;
 
@@ -40,10 +44,21 @@ public final class MethodDispatchResolver {
   /**
    * Searches the view for classes that implement or override the method <code>m</code> and returns
    * the set of method signatures that a method call could resolve to.
+   *
+   * <p>The result is cached per view and must not be modified.
    */
   @Nonnull
   public static Set<MethodSignature> resolveAbstractDispatch(
       View<? extends SootClass<?>> view, MethodSignature m) {
+    return DispatchCache.of(view)
+        .getAbstractDispatchTargets()
+        .computeIfAbsent(
+            m, called -> Collections.unmodifiableSet(computeAbstractDispatch(view, called)));
+  }
+
+  @Nonnull
+  private static Set<MethodSignature> computeAbstractDispatch(
+      View<? extends SootClass<?>> view, MethodSignature m) {
     TypeHierarchy hierarchy = view.getTypeHierarchy();
 
     return hierarchy.subtypesOf(m.getDeclClassType()).stream()
@@ -54,7 +69,7 @@ public final class MethodDispatchResolver {
                         () ->
                             new ResolveException(
                                 "Could not resolve " + subtype + ", but found it in hierarchy.")))
-        .flatMap(abstractClass -> abstractClass.getMethods().stream())
+        .flatMap(abstractClass -> abstractClass.getMethodsByName(m.getName()).stream())
         .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
         .filter(method -> !method.isAbstract())
         .map(Method::getSignature)
@@ -68,21 +83,8 @@ public final class MethodDispatchResolver {
   @Nonnull
   public static Set<MethodSignature> resolveAbstractDispatchInClasses(
       View<? extends SootClass<?>> view, MethodSignature m, Set<ClassType> classes) {
-    TypeHierarchy hierarchy = view.getTypeHierarchy();
-
-    return hierarchy.subtypesOf(m.getDeclClassType()).stream()
-        .map(
-            subtype ->
-                view.getClass(subtype)
-                    .orElseThrow(
-                        () ->
-                            new ResolveException(
-                                "Could not resolve " + subtype + ", but found it in hierarchy.")))
-        .filter(c -> classes.contains(c.getType()))
-        .flatMap(abstractClass -> abstractClass.getMethods().stream())
-        .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
-        .filter(method -> !method.isAbstract())
-        .map(Method::getSignature)
+    return resolveAbstractDispatch(view, m).stream()
+        .filter(target -> classes.contains(target.getDeclClassType()))
         .collect(Collectors.toSet());
   }
 
@@ -135,36 +137,53 @@ public final class MethodDispatchResolver {
   /**
    * Searches for the signature of the method that is the concrete implementation of <code>m</code>.
    * This is done by checking each superclass and the class itself for whether it contains the
-   * concrete implementation.
+   * concrete implementation. The results are kept in per class dispatch tables of the view.
    */
   @Nonnull
   public static MethodSignature resolveConcreteDispatch(
       View<? extends SootClass<?>> view, MethodSignature m) {
-    TypeHierarchy hierarchy = view.getTypeHierarchy();
+    return resolveConcreteDispatch(view, DispatchCache.of(view), m.getDeclClassType(), m)
+        .orElseThrow(() -> new ResolveException("Could not find concrete method for " + m));
+  }
+
+  /**
+   * Looks up the concrete implementation of <code>m</code> for instances of <code>classType</code>
+   * in its dispatch table and fills the entry from the class itself or its superclass if missing.
+   */
+  @Nonnull
+  private static Optional<MethodSignature> resolveConcreteDispatch(
+      View<? extends SootClass<?>> view,
+      DispatchCache cache,
+      ClassType classType,
+      MethodSignature m) {
+    Map<MethodSubSignature, Optional<MethodSignature>> vtable = cache.getVTable(classType);
+    Optional<MethodSignature> target = vtable.get(m.getSubSignature());
+    if (target != null) {
+      return target;
+    }
 
-    ClassType superClassType = m.getDeclClassType();
-    do {
-      ClassType finalSuperClassType = superClassType;
-      SootClass<?> superClass =
-          view.getClass(superClassType)
-              .orElseThrow(
-                  () ->
-                      new ResolveException(
-                          "Did not find class " + finalSuperClassType + " in View"));
-
-      SootMethod concreteMethod =
-          superClass.getMethods().stream()
-              .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
-              .findAny()
-              .orElse(null);
-      if (concreteMethod != null && !concreteMethod.isAbstract()) {
-        return concreteMethod.getSignature();
-      }
-
-      superClassType = hierarchy.superClassOf(superClassType);
-    } while (superClassType != null);
-
-    throw new ResolveException("Could not find concrete method for " + m);
+    TypeHierarchy hierarchy = view.getTypeHierarchy();
+    SootClass<?> sootClass =
+        view.getClass(classType)
+            .orElseThrow(
+                () -> new ResolveException("Did not find class " + classType + " in View"));
+    SootMethod concreteMethod =
+        sootClass.getMethodsByName(m.getName()).stream()
+            .filter(potentialTarget -> canDispatch(m, potentialTarget.getSignature(), hierarchy))
+            .findAny()
+            .orElse(null);
+    if (concreteMethod != null && !concreteMethod.isAbstract()) {
+      target = Optional.of(concreteMethod.getSignature());
+    } else {
+      ClassType superClassType = hierarchy.superClassOf(classType);
+      target =
+          superClassType == null
+              ? Optional.empty()
+              : resolveConcreteDispatch(view, cache, superClassType, m);
+    }
+    // concurrent lookups compute the same entry, so it does not matter which one is kept
+    vtable.put(m.getSubSignature(), target);
+    return target;
   }
 
   /**
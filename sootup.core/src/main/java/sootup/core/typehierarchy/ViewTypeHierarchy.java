@@ -21,36 +21,36 @@ package sootup.core.typehierarchy;
  * #L%
  */
 import com.google.common.base.Suppliers;
-import java.util.ArrayList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.SimpleDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.core.frontend.ResolveException;
 import sootup.core.model.SootClass;
-import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Edge;
-import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
-import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.VertexType;
 import sootup.core.types.ClassType;
+import sootup.core.types.Type;
 import sootup.core.views.View;
 
 /**
  * Full documentation is in the <a
  * href="https://github.com/secure-software-engineering/soot-reloaded/wiki/Type-Hierarchy-Algorithm">wiki</a>.
  *
+ * <p>The results of {@link #subtypesOf(ClassType)}, {@link #implementedInterfacesOf(ClassType)} and
+ * {@link #superClassesOf(ClassType)} are computed once per type and shared between callers, hence
+ * they are unmodifiable. {@link #addType(SootClass)} discards them.
+ *
  * @author Christian Brüggemann
  */
 public class ViewTypeHierarchy implements MutableTypeHierarchy {
@@ -61,6 +61,18 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
 
   @Nonnull private final View<? extends SootClass> view;
 
+  /** built on the first subtype query; dropped by {@link #addType(SootClass)}. */
+  @Nullable private volatile SubtypeIndex subtypeIndex;
+
+  @Nonnull private final Map<ClassType, Set<ClassType>> subtypesCache = new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<ClassType, Set<ClassType>> implementedInterfacesCache =
+      new ConcurrentHashMap<>();
+
+  @Nonnull
+  private final Map<ClassType, List<ClassType>> superClassesCache = new ConcurrentHashMap<>();
+
   /** to allow caching use Typehierarchy.fromView() to get/create the Typehierarchy. */
   public ViewTypeHierarchy(@Nonnull View<? extends SootClass> view) {
     this.view = view;
@@ -69,11 +81,12 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nonnull
   @Override
   public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
-    Vertex vertex = lazyScanResult.get().typeToVertex.get(interfaceType);
-    if (vertex == null) {
+    ScanResult scanResult = lazyScanResult.get();
+    int idx = scanResult.indexOf(interfaceType);
+    if (idx < 0) {
       throw new ResolveException("Could not find " + interfaceType + " in hierarchy.");
     }
-    if (vertex.type != VertexType.Interface) {
+    if (scanResult.vertexTypes[idx] != VertexType.Interface) {
       throw new IllegalArgumentException(interfaceType + " is not an interface.");
     }
     return subtypesOf(interfaceType);
@@ -82,11 +95,12 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nonnull
   @Override
   public Set<ClassType> subclassesOf(@Nonnull ClassType classType) {
-    Vertex vertex = lazyScanResult.get().typeToVertex.get(classType);
-    if (vertex == null) {
+    ScanResult scanResult = lazyScanResult.get();
+    int idx = scanResult.indexOf(classType);
+    if (idx < 0) {
       throw new ResolveException("Could not find " + classType + " in hierarchy.");
     }
-    if (vertex.type != VertexType.Class) {
+    if (scanResult.vertexTypes[idx] != VertexType.Class) {
       throw new IllegalArgumentException(classType + " is not a class.");
     }
     return subtypesOf(classType);
@@ -95,142 +109,145 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Nonnull
   @Override
   public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+    return subtypesCache.computeIfAbsent(type, this::computeSubtypesOf);
+  }
+
+  @Nonnull
+  private Set<ClassType> computeSubtypesOf(@Nonnull ClassType type) {
     ScanResult scanResult = lazyScanResult.get();
-    Vertex vertex = scanResult.typeToVertex.get(type);
-    if (vertex == null) {
+    int idx = scanResult.indexOf(type);
+    if (idx < 0) {
       throw new ResolveException("Could not find " + type + " in hierarchy.");
     }
 
-    Set<ClassType> subclasses = new HashSet<>();
     // We now traverse the subgraph of the vertex to find all its subtypes
-    visitSubgraph(
-        scanResult.graph, vertex, false, subvertex -> subclasses.add(subvertex.javaClassType));
-    return subclasses;
+    BitSet subtypes = new BitSet(scanResult.size);
+    int[] worklist = new int[16];
+    int worklistSize = 0;
+    worklist[worklistSize++] = idx;
+    while (worklistSize > 0) {
+      int current = worklist[--worklistSize];
+      int[] directSubtypes = scanResult.directSubtypes(current);
+      int count = scanResult.directSubtypeCount(current);
+      for (int i = 0; i < count; i++) {
+        int subtype = directSubtypes[i];
+        if (!subtypes.get(subtype)) {
+          subtypes.set(subtype);
+          if (worklistSize == worklist.length) {
+            worklist = Arrays.copyOf(worklist, worklistSize * 2);
+          }
+          worklist[worklistSize++] = subtype;
+        }
+      }
+    }
+    return scanResult.toTypes(subtypes);
   }
 
   @Nonnull
   @Override
   public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
     ScanResult scanResult = lazyScanResult.get();
-    Vertex vertex = scanResult.typeToVertex.get(type);
-    if (vertex == null) {
+    int idx = scanResult.indexOf(type);
+    if (idx < 0) {
       throw new ResolveException("Could not find " + type + " in hierarchy.");
     }
 
     Set<ClassType> subclasses = new HashSet<>();
-
-    Graph<Vertex, Edge> graph = scanResult.graph;
-
-    switch (vertex.type) {
-      case Interface:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(
-                edge ->
-                    edge.type == EdgeType.ClassDirectlyImplements
-                        || edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubclass -> subclasses.add(directSubclass.javaClassType));
-        break;
-      case Class:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubclass -> subclasses.add(directSubclass.javaClassType));
-        break;
-      default:
-        throw new AssertionError("Unknown vertex type!");
+    int[] directSubtypes = scanResult.directSubtypes(idx);
+    int count = scanResult.directSubtypeCount(idx);
+    for (int i = 0; i < count; i++) {
+      subclasses.add(scanResult.types[directSubtypes[i]]);
     }
-
     return subclasses;
   }
 
   @Nonnull
-  private List<Vertex> superClassesOf(@Nonnull Vertex classVertex, boolean includingSelf) {
-    ScanResult scanResult = lazyScanResult.get();
-    Graph<Vertex, Edge> graph = scanResult.graph;
-
-    List<Vertex> superClasses = new ArrayList<>();
-    if (includingSelf) {
-      superClasses.add(classVertex);
-    }
-
-    Optional<Vertex> superClass =
-        graph.outgoingEdgesOf(classVertex).stream()
-            .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-            .map(graph::getEdgeTarget)
-            .findAny();
-    while (superClass.isPresent()) {
-      superClasses.add(superClass.get());
-      superClass =
-          graph.outgoingEdgesOf(superClass.get()).stream()
-              .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-              .map(graph::getEdgeTarget)
-              .findAny();
-    }
-
-    return superClasses;
-  }
-
-  private Stream<Vertex> directlyImplementedInterfacesOf(Vertex classVertex) {
-    Graph<Vertex, Edge> graph = lazyScanResult.get().graph;
-    return graph.outgoingEdgesOf(classVertex).stream()
-        .filter(edge -> edge.type == EdgeType.ClassDirectlyImplements)
-        .map(graph::getEdgeTarget);
-  }
-
-  private Stream<Vertex> directlyExtendedInterfacesOf(Vertex interfaceVertex) {
-    Graph<Vertex, Edge> graph = lazyScanResult.get().graph;
-    return graph.outgoingEdgesOf(interfaceVertex).stream()
-        .filter(edge -> edge.type == EdgeType.InterfaceDirectlyExtends)
-        .map(graph::getEdgeTarget);
+  @Override
+  public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+    return implementedInterfacesCache.computeIfAbsent(type, this::computeImplementedInterfacesOf);
   }
 
   @Nonnull
-  @Override
-  public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+  private Set<ClassType> computeImplementedInterfacesOf(@Nonnull ClassType type) {
     ScanResult scanResult = lazyScanResult.get();
-    Vertex vertex = scanResult.typeToVertex.get(type);
+    int idx = scanResult.indexOf(type);
 
-    if (vertex == null) {
+    if (idx < 0) {
       throw new ResolveException("Could not find " + type + " in hierarchy for view " + view);
     }
 
-    switch (vertex.type) {
+    BitSet interfaces = new BitSet(scanResult.size);
+    switch (scanResult.vertexTypes[idx]) {
       case Class:
-        // We ascend from vertex through its superclasses to java.lang.Object.
+        // We ascend from the class through its superclasses to java.lang.Object.
         // For each superclass, we take the interfaces it implements and merge
-        // them together in a Set.
-        List<Vertex> superClasses = superClassesOf(vertex, true);
-        return superClasses.stream()
-            .flatMap(this::directlyImplementedInterfacesOf)
-            .flatMap(this::selfAndImplementedInterfaces)
-            .collect(Collectors.toSet());
+        // them together with the interfaces they extend.
+        for (int superClass = idx;
+            superClass >= 0;
+            superClass = scanResult.superClass[superClass]) {
+          collectInterfaces(scanResult, superClass, interfaces);
+        }
+        break;
       case Interface:
-        return directlyExtendedInterfacesOf(vertex)
-            .flatMap(this::selfAndImplementedInterfaces)
-            .collect(Collectors.toSet());
+        collectInterfaces(scanResult, idx, interfaces);
+        break;
       default:
         throw new AssertionError("Unexpected vertex type!");
     }
+    return scanResult.toTypes(interfaces);
   }
 
   /**
-   * Recursively obtains all interfaces this interface extends, including transitively extended
-   * interfaces.
+   * Adds all interfaces the type at <code>idx</code> implements or extends, including transitively
+   * extended interfaces, to <code>interfaces</code>.
    */
-  @Nonnull
-  private Stream<ClassType> selfAndImplementedInterfaces(Vertex vertex) {
-    ScanResult scanResult = lazyScanResult.get();
-    Graph<Vertex, Edge> graph = scanResult.graph;
+  private static void collectInterfaces(ScanResult scanResult, int idx, BitSet interfaces) {
+    int[] superInterfaces = scanResult.superInterfaces[idx];
+    int count = scanResult.superInterfaceCount[idx];
+    for (int i = 0; i < count; i++) {
+      int superInterface = superInterfaces[i];
+      if (!interfaces.get(superInterface)) {
+        interfaces.set(superInterface);
+        collectInterfaces(scanResult, superInterface, interfaces);
+      }
+    }
+  }
 
-    Stream<Vertex> extendedInterfaces =
-        graph.outgoingEdgesOf(vertex).stream()
-            .filter(edge -> edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeTarget);
+  /**
+   * Answers class/interface subtype queries for types known to the hierarchy from a precomputed
+   * {@link SubtypeIndex}. Array, null and primitive types as well as types that are not part of the
+   * hierarchy are handled by {@link TypeHierarchy#isSubtype(Type, Type)}.
+   */
+  @Override
+  public boolean isSubtype(@Nonnull Type supertype, @Nonnull Type potentialSubtype) {
+    if (supertype instanceof ClassType && potentialSubtype instanceof ClassType) {
+      SubtypeIndex index = getSubtypeIndex();
+      int superIdx = index.indexOf((ClassType) supertype);
+      int subIdx = index.indexOf((ClassType) potentialSubtype);
+      if (superIdx >= 0 && subIdx >= 0) {
+        if (superIdx == index.objectIdx) {
+          // interfaces are subtypes of java.lang.Object, too
+          return subIdx != superIdx;
+        }
+        return index.isSubtype(superIdx, subIdx);
+      }
+    }
+    return MutableTypeHierarchy.super.isSubtype(supertype, potentialSubtype);
+  }
 
-    return Stream.concat(
-        Stream.of(vertex.javaClassType),
-        extendedInterfaces.flatMap(this::selfAndImplementedInterfaces));
+  @Nonnull
+  private SubtypeIndex getSubtypeIndex() {
+    SubtypeIndex index = subtypeIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = subtypeIndex;
+        if (index == null) {
+          index = new SubtypeIndex(lazyScanResult.get());
+          subtypeIndex = index;
+        }
+      }
+    }
+    return index;
   }
 
   @Nullable
@@ -239,107 +256,31 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     return sootClassFor(classType).getSuperclass().orElse(null);
   }
 
-  /**
-   * Visits the subgraph of the specified <code>vertex</code> and calls the <code>visitor</code> for
-   * each vertex in the subgraph. If <code>includeSelf</code> is true, the <code>visitor</code> is
-   * also called with the <code>vertex</code>.
-   */
-  private static void visitSubgraph(
-      Graph<Vertex, Edge> graph, Vertex vertex, boolean includeSelf, Consumer<Vertex> visitor) {
-    if (includeSelf) {
-      visitor.accept(vertex);
-    }
-    switch (vertex.type) {
-      case Interface:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(
-                edge ->
-                    edge.type == EdgeType.ClassDirectlyImplements
-                        || edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubtype -> visitSubgraph(graph, directSubtype, true, visitor));
-        break;
-      case Class:
-        graph.incomingEdgesOf(vertex).stream()
-            .filter(edge -> edge.type == EdgeType.ClassDirectlyExtends)
-            .map(graph::getEdgeSource)
-            .forEach(directSubclass -> visitSubgraph(graph, directSubclass, true, visitor));
-        break;
-      default:
-        throw new AssertionError("Unknown vertex type!");
-    }
+  @Nonnull
+  @Override
+  public List<ClassType> superClassesOf(@Nonnull ClassType classType) {
+    return superClassesCache.computeIfAbsent(
+        classType,
+        type -> Collections.unmodifiableList(MutableTypeHierarchy.super.superClassesOf(type)));
   }
 
   /**
-   * This method scans the view by iterating over its classes and creating a graph vertex for each
-   * one. When a class is encountered that extends another one or implements an interface, the graph
-   * vertex of the extended class or implemented interface is connected to the vertex of the
-   * subtype.
+   * This method scans the view by iterating over its classes and creating a vertex for each one.
+   * When a class is encountered that extends another one or implements an interface, the vertex of
+   * the extended class or implemented interface is connected to the vertex of the subtype.
    *
    * <p>We distinguish between interface and class vertices, as interfaces may have direct
    * implementers as well as other interfaces that extend them.
    *
-   * <p>In the graph structure, a type is only connected to its direct subtypes.
+   * <p>In the hierarchy structure, a type is only connected to its direct subtypes.
    */
   private ScanResult scanView() {
     long startNanos = System.nanoTime();
-    Map<ClassType, Vertex> typeToVertex = new HashMap<>();
-    Graph<Vertex, Edge> graph = new SimpleDirectedGraph<>(null, null, false);
-
-    view.getClasses().stream()
-        .forEach(sootClass -> addSootClassToGraph(sootClass, typeToVertex, graph));
+    ScanResult scanResult = new ScanResult();
+    view.getClasses().forEach(scanResult::addSootClass);
     double runtimeMs = (System.nanoTime() - startNanos) / 1e6;
     log.info("Type hierarchy scan took " + runtimeMs + " ms");
-    return new ScanResult(typeToVertex, graph);
-  }
-
-  private static void addSootClassToGraph(
-      SootClass<?> sootClass, Map<ClassType, Vertex> typeToVertex, Graph<Vertex, Edge> graph) {
-    if (sootClass.isInterface()) {
-      Vertex vertex =
-          typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddInterfaceVertex(graph, type));
-      for (ClassType extendedInterface : sootClass.getInterfaces()) {
-        Vertex extendedInterfaceVertex =
-            typeToVertex.computeIfAbsent(
-                extendedInterface, type -> createAndAddInterfaceVertex(graph, type));
-        graph.addEdge(vertex, extendedInterfaceVertex, new Edge(EdgeType.InterfaceDirectlyExtends));
-      }
-    } else {
-      Vertex vertex =
-          typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddClassVertex(graph, type));
-      for (ClassType implementedInterface : sootClass.getInterfaces()) {
-        Vertex implementedInterfaceVertex =
-            typeToVertex.computeIfAbsent(
-                implementedInterface, type -> createAndAddInterfaceVertex(graph, type));
-        graph.addEdge(
-            vertex, implementedInterfaceVertex, new Edge(EdgeType.ClassDirectlyImplements));
-      }
-      sootClass
-          .getSuperclass()
-          .ifPresent(
-              superClass -> {
-                Vertex superClassVertex =
-                    typeToVertex.computeIfAbsent(
-                        superClass, type -> createAndAddClassVertex(graph, type));
-                graph.addEdge(vertex, superClassVertex, new Edge(EdgeType.ClassDirectlyExtends));
-              });
-    }
-  }
-
-  @Nonnull
-  private static Vertex createAndAddClassVertex(Graph<Vertex, Edge> graph, ClassType type) {
-    Vertex classVertex = new Vertex(type, VertexType.Class);
-    graph.addVertex(classVertex);
-    return classVertex;
-  }
-
-  @Nonnull
-  private static Vertex createAndAddInterfaceVertex(Graph<Vertex, Edge> graph, ClassType type) {
-    Vertex interfaceVertex = new Vertex(type, VertexType.Interface);
-    graph.addVertex(interfaceVertex);
-    return interfaceVertex;
+    return scanResult;
   }
 
   @Nonnull
@@ -348,12 +289,20 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   }
 
   @Override
-  public void addType(SootClass sootClass) {
-    ScanResult scanResult = lazyScanResult.get();
-    addSootClassToGraph(sootClass, scanResult.typeToVertex, scanResult.graph);
+  public synchronized void addType(SootClass sootClass) {
+    lazyScanResult.get().addSootClass(sootClass);
+    subtypeIndex = null;
+    subtypesCache.clear();
+    implementedInterfacesCache.clear();
+    superClassesCache.clear();
   }
 
-  /** Holds a vertex for each {@link ClassType} encountered during the scan. */
+  /**
+   * Holds a dense index for each {@link ClassType} encountered during the scan. The relations
+   * between the types are stored as arrays of type indices: the direct superclass of each type and
+   * growable adjacency lists of the directly implemented or extended interfaces and of the direct
+   * subtypes.
+   */
   static class ScanResult {
 
     enum VertexType {
@@ -361,47 +310,302 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
       Interface
     }
 
+    private static final int[] EMPTY = new int[0];
+
+    /** Holds the index of each type. */
+    @Nonnull private final Map<ClassType, Integer> typeToIdx = new HashMap<>();
+
+    int size = 0;
+    @Nonnull ClassType[] types = new ClassType[16];
+    @Nonnull VertexType[] vertexTypes = new VertexType[16];
+    /** the index of the direct superclass of a class or -1 */
+    @Nonnull int[] superClass = new int[16];
+    /** the interfaces a class implements or an interface extends directly, non-transitively */
+    @Nonnull int[][] superInterfaces = new int[16][];
+
+    @Nonnull int[] superInterfaceCount = new int[16];
+    /** the classes directly extending a class */
+    @Nonnull private int[][] subclasses = new int[16][];
+
+    @Nonnull private int[] subclassCount = new int[16];
+    /** the classes directly implementing and the interfaces directly extending an interface */
+    @Nonnull private int[][] implementers = new int[16][];
+
+    @Nonnull private int[] implementerCount = new int[16];
+
+    /** Returns the index of <code>type</code> or -1 if it is not part of the hierarchy. */
+    int indexOf(@Nonnull ClassType type) {
+      Integer idx = typeToIdx.get(type);
+      return idx == null ? -1 : idx;
+    }
+
     /**
-     * @see #javaClassType
-     * @see #type
+     * Returns the direct subtypes of the type at <code>idx</code>. Only the first {@link
+     * #directSubtypeCount(int)} entries are valid.
      */
-    static class Vertex {
-      @Nonnull final ClassType javaClassType;
-      @Nonnull final VertexType type;
+    @Nonnull
+    int[] directSubtypes(int idx) {
+      return vertexTypes[idx] == VertexType.Interface ? implementers[idx] : subclasses[idx];
+    }
+
+    int directSubtypeCount(int idx) {
+      return vertexTypes[idx] == VertexType.Interface ? implementerCount[idx] : subclassCount[idx];
+    }
+
+    @Nonnull
+    Set<ClassType> toTypes(@Nonnull BitSet indices) {
+      Set<ClassType> result = new HashSet<>(indices.cardinality() * 4 / 3 + 1);
+      for (int idx = indices.nextSetBit(0); idx >= 0; idx = indices.nextSetBit(idx + 1)) {
+        result.add(types[idx]);
+      }
+      return Collections.unmodifiableSet(result);
+    }
+
+    void addSootClass(@Nonnull SootClass<?> sootClass) {
+      if (sootClass.isInterface()) {
+        int idx = getOrAdd(sootClass.getType(), VertexType.Interface);
+        for (ClassType extendedInterface : sootClass.getInterfaces()) {
+          addSuperInterface(idx, getOrAdd(extendedInterface, VertexType.Interface));
+        }
+      } else {
+        int idx = getOrAdd(sootClass.getType(), VertexType.Class);
+        for (ClassType implementedInterface : sootClass.getInterfaces()) {
+          addSuperInterface(idx, getOrAdd(implementedInterface, VertexType.Interface));
+        }
+        sootClass
+            .getSuperclass()
+            .ifPresent(superClass -> setSuperClass(idx, getOrAdd(superClass, VertexType.Class)));
+      }
+    }
+
+    private int getOrAdd(@Nonnull ClassType type, @Nonnull VertexType vertexType) {
+      Integer existing = typeToIdx.get(type);
+      if (existing != null) {
+        return existing;
+      }
+      if (size == types.length) {
+        int capacity = size * 2;
+        types = Arrays.copyOf(types, capacity);
+        vertexTypes = Arrays.copyOf(vertexTypes, capacity);
+        superClass = Arrays.copyOf(superClass, capacity);
+        superInterfaces = Arrays.copyOf(superInterfaces, capacity);
+        superInterfaceCount = Arrays.copyOf(superInterfaceCount, capacity);
+        subclasses = Arrays.copyOf(subclasses, capacity);
+        subclassCount = Arrays.copyOf(subclassCount, capacity);
+        implementers = Arrays.copyOf(implementers, capacity);
+        implementerCount = Arrays.copyOf(implementerCount, capacity);
+      }
+      int idx = size++;
+      typeToIdx.put(type, idx);
+      types[idx] = type;
+      vertexTypes[idx] = vertexType;
+      superClass[idx] = -1;
+      superInterfaces[idx] = EMPTY;
+      subclasses[idx] = EMPTY;
+      implementers[idx] = EMPTY;
+      return idx;
+    }
+
+    private void addSuperInterface(int idx, int superInterface) {
+      if (idx == superInterface
+          || contains(superInterfaces[idx], superInterfaceCount[idx], superInterface)) {
+        return;
+      }
+      superInterfaces[idx] =
+          append(superInterfaces[idx], superInterfaceCount[idx]++, superInterface);
+      implementers[superInterface] =
+          append(implementers[superInterface], implementerCount[superInterface]++, idx);
+    }
 
-      Vertex(@Nonnull ClassType javaClassType, @Nonnull VertexType type) {
-        this.javaClassType = javaClassType;
-        this.type = type;
+    private void setSuperClass(int idx, int newSuperClass) {
+      int oldSuperClass = superClass[idx];
+      if (idx == newSuperClass || oldSuperClass == newSuperClass) {
+        return;
       }
+      if (oldSuperClass >= 0) {
+        // a re-added class changed its superclass
+        int[] oldSiblings = subclasses[oldSuperClass];
+        int count = subclassCount[oldSuperClass];
+        for (int i = 0; i < count; i++) {
+          if (oldSiblings[i] == idx) {
+            System.arraycopy(oldSiblings, i + 1, oldSiblings, i, count - i - 1);
+            subclassCount[oldSuperClass]--;
+            break;
+          }
+        }
+      }
+      superClass[idx] = newSuperClass;
+      subclasses[newSuperClass] =
+          append(subclasses[newSuperClass], subclassCount[newSuperClass]++, idx);
+    }
+
+    private static boolean contains(@Nonnull int[] list, int count, int value) {
+      for (int i = 0; i < count; i++) {
+        if (list[i] == value) {
+          return true;
+        }
+      }
+      return false;
     }
 
-    enum EdgeType {
-      /** Edge to an interface vertex this interface extends directly, non-transitively. */
-      InterfaceDirectlyExtends,
-      /** Edge to an interface extending this interface directly, non-transitively. */
-      ClassDirectlyImplements,
-      /** Edge to a class this class is directly subclassed by, non-transitively. */
-      ClassDirectlyExtends
+    @Nonnull
+    private static int[] append(@Nonnull int[] list, int count, int value) {
+      if (count == list.length) {
+        list = Arrays.copyOf(list, Math.max(4, count * 2));
+      }
+      list[count] = value;
+      return list;
     }
+  }
+
+  /**
+   * Encodes the subtype relation of a {@link ScanResult} so that a single query is a constant-time
+   * array test.
+   *
+   * <p>The class tree formed by the superclass relation is numbered in pre- and postorder: a class
+   * is a subclass of another one iff its interval is nested in the interval of the other class. For
+   * interfaces, each type stores a bit set of all interfaces it implements or extends, directly or
+   * transitively.
+   */
+  static class SubtypeIndex {
+
+    @Nonnull private final Map<ClassType, Integer> typeToIdx;
+    /** index of java.lang.Object or -1 if it is not part of the hierarchy */
+    final int objectIdx;
+
+    @Nonnull private final int[] preOrder;
+    @Nonnull private final int[] postOrder;
+    /** the bit of an interface; -1 for classes */
+    @Nonnull private final int[] interfaceBit;
+    /** all interfaces (as bits) a type is a subtype of */
+    @Nonnull private final BitSet[] implementedInterfaces;
+
+    SubtypeIndex(@Nonnull ScanResult scanResult) {
+      final int size = scanResult.size;
+      // the scan result keeps growing with addType, so queries use a snapshot of its indices
+      ImmutableMap.Builder<ClassType, Integer> indices = ImmutableMap.builderWithExpectedSize(size);
+      for (int idx = 0; idx < size; idx++) {
+        indices.put(scanResult.types[idx], idx);
+      }
+      typeToIdx = indices.build();
+      interfaceBit = new int[size];
+      int interfaceCount = 0;
+      int object = -1;
+      for (int idx = 0; idx < size; idx++) {
+        interfaceBit[idx] =
+            scanResult.vertexTypes[idx] == VertexType.Interface ? interfaceCount++ : -1;
+        if (scanResult.types[idx].getFullyQualifiedName().equals("java.lang.Object")) {
+          object = idx;
+        }
+      }
+      objectIdx = object;
+
+      // number the class tree iteratively as inheritance chains may be deep
+      preOrder = new int[size];
+      postOrder = new int[size];
+      int[] treeOrder = new int[size];
+      int preCounter = 0;
+      int postCounter = 0;
+      int[] stack = new int[16];
+      for (int root = 0; root < size; root++) {
+        if (scanResult.superClass[root] >= 0) {
+          continue;
+        }
+        int stackSize = 0;
+        stack[stackSize++] = root;
+        while (stackSize > 0) {
+          int idx = stack[stackSize - 1];
+          if (preOrder[idx] == 0) {
+            preOrder[idx] = ++preCounter;
+            treeOrder[preCounter - 1] = idx;
+            int[] subclasses = scanResult.subclasses[idx];
+            int count = scanResult.subclassCount[idx];
+            if (stackSize + count > stack.length) {
+              stack = Arrays.copyOf(stack, Math.max(stack.length * 2, stackSize + count));
+            }
+            for (int i = 0; i < count; i++) {
+              stack[stackSize++] = subclasses[i];
+            }
+          } else {
+            stackSize--;
+            if (postOrder[idx] == 0) {
+              postOrder[idx] = ++postCounter;
+            }
+          }
+        }
+      }
 
-    /** @see #type */
-    static class Edge {
-      @Nonnull final EdgeType type;
+      // superclasses precede their subclasses in the tree order, so their sets are complete.
+      // types that add no interfaces share the set of their superclass, which is never modified
+      implementedInterfaces = new BitSet[size];
+      BitSet noInterfaces = new BitSet();
+      for (int i = 0; i < preCounter; i++) {
+        int idx = treeOrder[i];
+        int superClass = scanResult.superClass[idx];
+        BitSet inherited = superClass < 0 ? noInterfaces : implementedInterfaces[superClass];
+        implementedInterfaces[idx] = withInterfacesOf(scanResult, idx, inherited);
+      }
+    }
 
-      Edge(@Nonnull EdgeType type) {
-        this.type = type;
+    /**
+     * Returns <code>inherited</code> if the type at <code>idx</code> adds no interfaces to it,
+     * otherwise a copy containing the added interfaces as well.
+     */
+    @Nonnull
+    private BitSet withInterfacesOf(
+        @Nonnull ScanResult scanResult, int idx, @Nonnull BitSet inherited) {
+      BitSet interfaces = inherited;
+      int[] superInterfaces = scanResult.superInterfaces[idx];
+      int count = scanResult.superInterfaceCount[idx];
+      for (int i = 0; i < count; i++) {
+        int target = superInterfaces[i];
+        int bit = interfaceBit[target];
+        if (bit >= 0 && !interfaces.get(bit)) {
+          if (interfaces == inherited) {
+            interfaces = (BitSet) inherited.clone();
+          }
+          interfaces.set(bit);
+          collectInterfaces(scanResult, target, interfaces);
+        }
       }
+      return interfaces;
     }
 
-    /** Holds the vertex for each type. */
-    @Nonnull final Map<ClassType, Vertex> typeToVertex;
+    /** Adds the transitive closure of the interfaces the type at <code>idx</code> refers to. */
+    private void collectInterfaces(@Nonnull ScanResult scanResult, int idx, BitSet interfaces) {
+      int[] superInterfaces = scanResult.superInterfaces[idx];
+      int count = scanResult.superInterfaceCount[idx];
+      for (int i = 0; i < count; i++) {
+        int target = superInterfaces[i];
+        int bit = interfaceBit[target];
+        if (bit >= 0 && !interfaces.get(bit)) {
+          interfaces.set(bit);
+          collectInterfaces(scanResult, target, interfaces);
+        }
+      }
+    }
 
-    @Nonnull final Graph<Vertex, Edge> graph;
+    /** Returns the index of <code>type</code> or -1 if it is not part of the index. */
+    int indexOf(@Nonnull ClassType type) {
+      Integer idx = typeToIdx.get(type);
+      return idx == null ? -1 : idx;
+    }
 
-    private ScanResult(
-        @Nonnull Map<ClassType, Vertex> typeToVertex, @Nonnull Graph<Vertex, Edge> graph) {
-      this.typeToVertex = typeToVertex;
-      this.graph = graph;
+    /**
+     * Returns true if the type at <code>subIdx</code> is a proper subtype of <code>superIdx</code>.
+     */
+    boolean isSubtype(int superIdx, int subIdx) {
+      if (superIdx == subIdx) {
+        return false;
+      }
+      if (preOrder[superIdx] < preOrder[subIdx] && postOrder[subIdx] < postOrder[superIdx]) {
+        return true;
+      }
+      int bit = interfaceBit[superIdx];
+      // types on an (invalid) inheritance cycle are not numbered
+      return bit >= 0
+          && implementedInterfaces[subIdx] != null
+          && implementedInterfaces[subIdx].get(bit);
     }
   }
 }
@@ -22,9 +22,11 @@ package sootup.core.validation;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 
 public class LocalsValidator implements BodyValidator {
@@ -32,11 +34,14 @@ public class LocalsValidator implements BodyValidator {
   /** Verifies that each Local of getUseAndDefBoxes() is in this body's locals Chain. */
   @Override
   public void validate(Body body, List<ValidationException> exception) {
-    for (Value v : body.getUses()) {
-      validateLocal(body, v, exception);
+    final Collection<Stmt> stmts = body.getStmtGraph().nodes();
+    for (Stmt stmt : stmts) {
+      stmt.forEachUse(v -> validateLocal(body, v, exception));
     }
-    for (Value v : body.getDefs()) {
-      validateLocal(body, v, exception);
+    for (Stmt stmt : stmts) {
+      for (Value v : stmt.getDefs()) {
+        validateLocal(body, v, exception);
+      }
     }
   }
 
@@ -22,9 +22,10 @@ package sootup.core.views;
  * #L%
  */
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
@@ -47,17 +48,25 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
 
   @Nonnull private final Project<T, ? extends View<T>> project;
 
-  @Nonnull private final Map<ModuleDataKey<?>, Object> moduleData = new HashMap<>();
+  // module data may be requested concurrently, e.g. while resolving calls in parallel
+  @Nonnull private final Map<ModuleDataKey<?>, Object> moduleData = new ConcurrentHashMap<>();
 
-  @Nullable private TypeHierarchy typeHierarchy;
+  @Nullable private volatile TypeHierarchy typeHierarchy;
 
   @Override
   @Nonnull
   public TypeHierarchy getTypeHierarchy() {
-    if (this.typeHierarchy == null) {
-      typeHierarchy = new ViewTypeHierarchy(this);
+    TypeHierarchy hierarchy = this.typeHierarchy;
+    if (hierarchy == null) {
+      synchronized (this) {
+        hierarchy = this.typeHierarchy;
+        if (hierarchy == null) {
+          hierarchy = new ViewTypeHierarchy(this);
+          this.typeHierarchy = hierarchy;
+        }
+      }
     }
-    return typeHierarchy;
+    return hierarchy;
   }
 
   public AbstractView(@Nonnull Project<?, ? extends View<?>> project) {
@@ -117,6 +126,17 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
     moduleData.put(key, value);
   }
 
+  @SuppressWarnings("unchecked") // Safe because we only put T in putModuleData
+  @Override
+  public <K> K computeModuleDataIfAbsent(@Nonnull ModuleDataKey<K> key, Supplier<K> dataSupplier) {
+    // look up first, as computeIfAbsent may lock even if the data is present
+    K data = (K) moduleData.get(key);
+    if (data != null) {
+      return data;
+    }
+    return (K) moduleData.computeIfAbsent(key, k -> dataSupplier.get());
+  }
+
   @Override
   @Nonnull
   public Project<? extends T, ? extends View<T>> getProject() {
@@ -0,0 +1,132 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JGeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.types.PrimitiveType;
+
+@Category(Java8Test.class)
+public class BlockOrderTest {
+
+  DiamondGraph diamond = new DiamondGraph();
+
+  @Test
+  public void testTraversals() {
+    for (StmtGraph<?> graph :
+        Arrays.asList(diamond.create(), new ImmutableBlockStmtGraph(diamond.create()))) {
+      final BlockOrder order = graph.getBlockOrder();
+      final List<BasicBlock<?>> linearized = new ArrayList<>();
+      graph.getBlockIterator().forEachRemaining(linearized::add);
+      assertEquals(linearized, order.getBlocks());
+      assertEquals(4, order.size());
+      for (int i = 0; i < order.size(); i++) {
+        assertEquals(i, order.indexOf(order.getBlock(i)));
+      }
+
+      final BasicBlock<?> startBlock = graph.getBlockOf(diamond.assignA);
+      final BasicBlock<?> returnBlock = graph.getBlockOf(diamond.returnStmt);
+      final int[] rpo = order.getOrder(BlockOrder.Traversal.REVERSE_POSTORDER);
+      final int[] postOrder = order.getOrder(BlockOrder.Traversal.POSTORDER);
+      assertEquals(startBlock, order.getBlock(rpo[0]));
+      assertEquals(returnBlock, order.getBlock(rpo[3]));
+      assertEquals(returnBlock, order.getBlock(postOrder[0]));
+      assertEquals(startBlock, order.getBlock(postOrder[3]));
+      for (int i = 0; i < rpo.length; i++) {
+        assertEquals(rpo[i], postOrder[rpo.length - 1 - i]);
+      }
+
+      final List<BasicBlock<?>> rpoBlocks = new ArrayList<>();
+      order.iterator(BlockOrder.Traversal.REVERSE_POSTORDER).forEachRemaining(rpoBlocks::add);
+      assertEquals(startBlock, rpoBlocks.get(0));
+      assertEquals(new HashSet<>(linearized), new HashSet<>(rpoBlocks));
+      assertSame(order, graph.getBlockOrder());
+    }
+  }
+
+  @Test
+  public void testUnreachableBlocksAndInvalidation() {
+    MutableBlockStmtGraph graph = diamond.create();
+    final BlockOrder order = graph.getBlockOrder();
+    assertSame(order, graph.getBlockOrder());
+
+    Stmt unreachableStmt = new JReturnVoidStmt(diamond.noPosition);
+    graph.addNode(unreachableStmt);
+    final BlockOrder newOrder = graph.getBlockOrder();
+    assertNotSame(order, newOrder);
+    assertEquals(5, newOrder.size());
+    final int[] rpo = newOrder.getOrder(BlockOrder.Traversal.REVERSE_POSTORDER);
+    final int[] postOrder = newOrder.getOrder(BlockOrder.Traversal.POSTORDER);
+    final BasicBlock<?> unreachableBlock = graph.getBlockOf(unreachableStmt);
+    assertEquals(unreachableBlock, newOrder.getBlock(rpo[4]));
+    assertEquals(unreachableBlock, newOrder.getBlock(postOrder[4]));
+  }
+
+  /**
+   *
+   *
+   * <pre>
+   *    i = 0
+   * label1:
+   *    if i >= 10 goto label2
+   *    i = i + 1
+   *    goto label1
+   * label2:
+   *    return
+   * </pre>
+   */
+  @Test
+  public void testLoop() {
+    Local i = new Local("i", PrimitiveType.getInt());
+    Stmt initI = new JAssignStmt<>(i, IntConstant.getInstance(0), diamond.noPosition);
+    Stmt loopIf = new JIfStmt(new JGeExpr(i, IntConstant.getInstance(10)), diamond.noPosition);
+    Stmt incI =
+        new JAssignStmt<>(i, new JAddExpr(i, IntConstant.getInstance(1)), diamond.noPosition);
+    Stmt loopGoto = new JGotoStmt(diamond.noPosition);
+    Stmt returnStmt = new JReturnVoidStmt(diamond.noPosition);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(initI);
+    graph.putEdge(initI, loopIf);
+    graph.putEdge(loopIf, incI);
+    graph.putEdge(loopIf, returnStmt);
+    graph.putEdge(incI, loopGoto);
+    graph.putEdge(loopGoto, loopIf);
+
+    final BlockOrder order = graph.getBlockOrder();
+    assertEquals(4, order.size());
+    final int start = order.indexOf(graph.getBlockOf(initI));
+    final int header = order.indexOf(graph.getBlockOf(loopIf));
+    final int body = order.indexOf(graph.getBlockOf(incI));
+    final int exit = order.indexOf(graph.getBlockOf(returnStmt));
+
+    final int[] rpo = order.getOrder(BlockOrder.Traversal.REVERSE_POSTORDER);
+    final int[] postOrder = order.getOrder(BlockOrder.Traversal.POSTORDER);
+    final int[] rpoPosition = new int[rpo.length];
+    final int[] postPosition = new int[postOrder.length];
+    for (int j = 0; j < rpo.length; j++) {
+      rpoPosition[rpo[j]] = j;
+      postPosition[postOrder[j]] = j;
+      assertEquals(rpo[j], postOrder[rpo.length - 1 - j]);
+    }
+
+    // reverse postorder visits a block before its successors, except along the back edge
+    assertEquals(0, rpoPosition[start]);
+    assertEquals(1, rpoPosition[header]);
+    // the back edge from the loop body to its header goes against the reverse postorder
+    assertTrue(rpoPosition[header] < rpoPosition[body]);
+    assertTrue(rpoPosition[header] < rpoPosition[exit]);
+    // postorder visits all successors first, the loop body precedes its header
+    assertEquals(3, postPosition[start]);
+    assertEquals(2, postPosition[header]);
+    assertTrue(postPosition[body] < postPosition[header]);
+    assertTrue(postPosition[exit] < postPosition[header]);
+  }
+}
@@ -0,0 +1,48 @@
+package sootup.core.graph;
+
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.types.PrimitiveType;
+
+/**
+ * The statements of a diamond shaped graph that is used by several graph tests.
+ *
+ * <pre>
+ *    a = 1
+ *    if a <= 3 goto label1
+ *    a = 2
+ *    goto label2
+ * label1:
+ *    a = 3
+ * label2:
+ *    return
+ * </pre>
+ */
+class DiamondGraph {
+
+  final StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  final Local a = new Local("a", PrimitiveType.getInt());
+
+  final Stmt assignA = new JAssignStmt<>(a, IntConstant.getInstance(1), noPosition);
+  final Stmt ifStmt = new JIfStmt(new JLeExpr(a, IntConstant.getInstance(3)), noPosition);
+  final Stmt thenStmt = new JAssignStmt<>(a, IntConstant.getInstance(2), noPosition);
+  final Stmt gotoStmt = new JGotoStmt(noPosition);
+  final Stmt elseStmt = new JAssignStmt<>(a, IntConstant.getInstance(3), noPosition);
+  final Stmt returnStmt = new JReturnVoidStmt(noPosition);
+
+  /** Creates a new graph of the statements. */
+  MutableBlockStmtGraph create() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(assignA);
+    graph.putEdge(assignA, ifStmt);
+    graph.putEdge(ifStmt, thenStmt);
+    graph.putEdge(ifStmt, elseStmt);
+    graph.putEdge(thenStmt, gotoStmt);
+    graph.putEdge(gotoStmt, returnStmt);
+    graph.putEdge(elseStmt, returnStmt);
+    return graph;
+  }
+}
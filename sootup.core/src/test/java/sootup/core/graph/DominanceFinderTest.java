@@ -0,0 +1,114 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.common.stmt.*;
+
+@Category(Java8Test.class)
+public class DominanceFinderTest {
+
+  DiamondGraph diamond = new DiamondGraph();
+
+  @Test
+  public void testDiamond() {
+    for (boolean forceLengauerTarjan : new boolean[] {false, true}) {
+      MutableBlockStmtGraph graph = diamond.create();
+      DominanceFinder finder = new DominanceFinder(graph, forceLengauerTarjan);
+      BasicBlock<?> startBlock = graph.getBlockOf(diamond.assignA);
+      BasicBlock<?> thenBlock = graph.getBlockOf(diamond.thenStmt);
+      BasicBlock<?> elseBlock = graph.getBlockOf(diamond.elseStmt);
+      BasicBlock<?> returnBlock = graph.getBlockOf(diamond.returnStmt);
+
+      assertEquals(startBlock, finder.getIdxToBlock().get(0));
+      assertEquals(startBlock, finder.getImmediateDominator(startBlock));
+      assertEquals(startBlock, finder.getImmediateDominator(thenBlock));
+      assertEquals(startBlock, finder.getImmediateDominator(elseBlock));
+      assertEquals(startBlock, finder.getImmediateDominator(returnBlock));
+
+      assertTrue(finder.isDominatedBy(returnBlock, startBlock));
+      assertTrue(finder.isDominatedBy(thenBlock, thenBlock));
+      assertFalse(finder.isDominatedBy(returnBlock, thenBlock));
+
+      assertEquals(Collections.singleton(returnBlock), finder.getDominanceFrontiers(thenBlock));
+      assertEquals(Collections.singleton(returnBlock), finder.getDominanceFrontiers(elseBlock));
+      assertTrue(finder.getDominanceFrontiers(startBlock).isEmpty());
+
+      assertEquals(returnBlock, finder.getImmediatePostDominator(startBlock));
+      assertEquals(returnBlock, finder.getImmediatePostDominator(thenBlock));
+      assertNull(finder.getImmediatePostDominator(returnBlock));
+    }
+  }
+
+  @Test
+  public void testLengauerTarjanMatchesIterative() {
+    final Random random = new Random(42);
+    for (int round = 0; round < 200; round++) {
+      final int n = 1 + random.nextInt(40);
+      final List<List<Integer>> edges = new ArrayList<>();
+      for (int i = 0; i < n; i++) {
+        edges.add(new ArrayList<>());
+      }
+      // a spanning chain keeps every node reachable, the other edges create branches and loops
+      for (int i = 1; i < n; i++) {
+        edges.get(random.nextInt(i)).add(i);
+      }
+      for (int i = random.nextInt(2 * n); i > 0; i--) {
+        edges.get(random.nextInt(n)).add(random.nextInt(n));
+      }
+
+      // renumber the nodes in reverse postorder as the iterative algorithm requires
+      final int[] rpo = reversePostOrderNumbers(edges);
+      final int[][] succs = new int[n][];
+      final List<List<Integer>> predLists = new ArrayList<>();
+      for (int i = 0; i < n; i++) {
+        predLists.add(new ArrayList<>());
+      }
+      for (int i = 0; i < n; i++) {
+        final List<Integer> nodeSuccs = edges.get(i);
+        succs[rpo[i]] = new int[nodeSuccs.size()];
+        for (int j = 0; j < nodeSuccs.size(); j++) {
+          succs[rpo[i]][j] = rpo[nodeSuccs.get(j)];
+          predLists.get(rpo[nodeSuccs.get(j)]).add(rpo[i]);
+        }
+      }
+      final int[][] preds = new int[n][];
+      for (int i = 0; i < n; i++) {
+        preds[i] = predLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+      }
+
+      assertArrayEquals(
+          DominanceFinder.iterate(preds), DominanceFinder.lengauerTarjan(succs, preds));
+    }
+  }
+
+  private int[] reversePostOrderNumbers(List<List<Integer>> edges) {
+    final int n = edges.size();
+    final List<Integer> postOrder = new ArrayList<>();
+    final boolean[] visited = new boolean[n];
+    final Deque<int[]> stack = new ArrayDeque<>();
+    visited[0] = true;
+    stack.push(new int[] {0, 0});
+    while (!stack.isEmpty()) {
+      final int[] top = stack.peek();
+      final List<Integer> succs = edges.get(top[0]);
+      if (top[1] < succs.size()) {
+        final int succ = succs.get(top[1]++);
+        if (!visited[succ]) {
+          visited[succ] = true;
+          stack.push(new int[] {succ, 0});
+        }
+      } else {
+        postOrder.add(stack.pop()[0]);
+      }
+    }
+    final int[] rpo = new int[n];
+    for (int i = 0; i < n; i++) {
+      rpo[postOrder.get(i)] = n - 1 - i;
+    }
+    return rpo;
+  }
+}
@@ -0,0 +1,136 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JGeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.types.PrimitiveType;
+
+@Category(Java8Test.class)
+public class LoopNestForestTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  Local i = new Local("i", PrimitiveType.getInt());
+  Local j = new Local("j", PrimitiveType.getInt());
+
+  /**
+   *
+   *
+   * <pre>
+   *    i = 0
+   * label1:
+   *    if i >= 10 goto label4
+   *    j = 0
+   * label2:
+   *    if j >= 5 goto label3
+   *    j = j + 1
+   *    goto label2
+   * label3:
+   *    i = i + 1
+   *    goto label1
+   * label4:
+   *    return
+   * </pre>
+   */
+  @Test
+  public void testNestedLoops() {
+    Stmt initI = new JAssignStmt<>(i, IntConstant.getInstance(0), noPosition);
+    Stmt outerIf = new JIfStmt(new JGeExpr(i, IntConstant.getInstance(10)), noPosition);
+    Stmt initJ = new JAssignStmt<>(j, IntConstant.getInstance(0), noPosition);
+    Stmt innerIf = new JIfStmt(new JGeExpr(j, IntConstant.getInstance(5)), noPosition);
+    Stmt incJ = new JAssignStmt<>(j, new JAddExpr(j, IntConstant.getInstance(1)), noPosition);
+    Stmt innerGoto = new JGotoStmt(noPosition);
+    Stmt incI = new JAssignStmt<>(i, new JAddExpr(i, IntConstant.getInstance(1)), noPosition);
+    Stmt outerGoto = new JGotoStmt(noPosition);
+    Stmt returnStmt = new JReturnVoidStmt(noPosition);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(initI);
+    graph.putEdge(initI, outerIf);
+    graph.putEdge(outerIf, initJ);
+    graph.putEdge(outerIf, returnStmt);
+    graph.putEdge(initJ, innerIf);
+    graph.putEdge(innerIf, incJ);
+    graph.putEdge(innerIf, incI);
+    graph.putEdge(incJ, innerGoto);
+    graph.putEdge(innerGoto, innerIf);
+    graph.putEdge(incI, outerGoto);
+    graph.putEdge(outerGoto, outerIf);
+
+    LoopNestForest forest = new LoopNestForest(graph);
+    assertEquals(2, forest.getLoops().size());
+    assertEquals(1, forest.getRootLoops().size());
+
+    LoopNestForest.Loop outerLoop = forest.getRootLoops().get(0);
+    assertEquals(graph.getBlockOf(outerIf), outerLoop.getHeader());
+    assertTrue(outerLoop.isReducible());
+    assertEquals(0, outerLoop.getDepth());
+    assertEquals(1, outerLoop.getChildren().size());
+
+    LoopNestForest.Loop innerLoop = outerLoop.getChildren().get(0);
+    assertEquals(graph.getBlockOf(innerIf), innerLoop.getHeader());
+    assertSame(outerLoop, innerLoop.getParent());
+    assertEquals(1, innerLoop.getDepth());
+    assertEquals(
+        new HashSet<>(Arrays.asList(graph.getBlockOf(innerIf), graph.getBlockOf(incJ))),
+        innerLoop.getBlocks());
+    assertEquals(5, outerLoop.getBlocks().size());
+
+    assertSame(innerLoop, forest.getInnermostLoop(graph.getBlockOf(incJ)));
+    assertSame(outerLoop, forest.getInnermostLoop(graph.getBlockOf(incI)));
+    assertNull(forest.getInnermostLoop(graph.getBlockOf(returnStmt)));
+    assertEquals(2, forest.getLoopDepth(graph.getBlockOf(incJ)));
+    assertEquals(1, forest.getLoopDepth(graph.getBlockOf(initJ)));
+    assertEquals(0, forest.getLoopDepth(graph.getBlockOf(initI)));
+    assertTrue(forest.isLoopHeader(graph.getBlockOf(innerIf)));
+    assertFalse(forest.isLoopHeader(graph.getBlockOf(incI)));
+    assertTrue(forest.isInLoop(graph.getBlockOf(incJ), outerLoop));
+    assertFalse(forest.isInLoop(graph.getBlockOf(incI), innerLoop));
+  }
+
+  /**
+   *
+   *
+   * <pre>
+   *    if i >= 10 goto label2
+   * label1:
+   *    if j >= 5 goto label3
+   * label2:
+   *    goto label1
+   * label3:
+   *    return
+   * </pre>
+   */
+  @Test
+  public void testIrreducibleLoop() {
+    Stmt startIf = new JIfStmt(new JGeExpr(i, IntConstant.getInstance(10)), noPosition);
+    Stmt ifA = new JIfStmt(new JGeExpr(j, IntConstant.getInstance(5)), noPosition);
+    Stmt gotoB = new JGotoStmt(noPosition);
+    Stmt returnStmt = new JReturnVoidStmt(noPosition);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(startIf);
+    graph.putEdge(startIf, ifA);
+    graph.putEdge(startIf, gotoB);
+    graph.putEdge(ifA, gotoB);
+    graph.putEdge(ifA, returnStmt);
+    graph.putEdge(gotoB, ifA);
+
+    LoopNestForest forest = new LoopNestForest(graph);
+    assertEquals(1, forest.getLoops().size());
+    LoopNestForest.Loop loop = forest.getLoops().get(0);
+    assertFalse(loop.isReducible());
+    assertEquals(
+        new HashSet<>(Arrays.asList(graph.getBlockOf(ifA), graph.getBlockOf(gotoB))),
+        loop.getBlocks());
+    assertNull(forest.getInnermostLoop(graph.getBlockOf(startIf)));
+  }
+}
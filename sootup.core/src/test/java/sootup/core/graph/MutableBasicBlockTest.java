@@ -2,11 +2,14 @@ package sootup.core.graph;
 
 import static org.junit.Assert.*;
 
+import categories.Java8Test;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import sootup.core.jimple.basic.StmtPositionInfo;
 import sootup.core.jimple.common.stmt.JNopStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 
+@Category(Java8Test.class)
 public class MutableBasicBlockTest {
 
   Stmt firstNop = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
@@ -142,4 +145,37 @@ public class MutableBasicBlockTest {
     assertEquals(4, block.getStmtCount());
     assertEquals(0, newBlock.getStmtCount());
   }
+
+  @Test
+  public void testIndexOf() {
+    MutableBasicBlock block = new MutableBasicBlock();
+    block.addStmt(firstNop);
+    block.addStmt(secondNop);
+    block.addStmt(thirdNop);
+    assertEquals(1, block.indexOf(secondNop));
+    assertEquals(-1, block.indexOf(fourthNop));
+
+    block.replaceStmt(secondNop, fourthNop);
+    assertEquals(-1, block.indexOf(secondNop));
+    assertEquals(1, block.indexOf(fourthNop));
+
+    block.removeStmt(firstNop);
+    assertEquals(-1, block.indexOf(firstNop));
+    assertEquals(0, block.indexOf(fourthNop));
+    assertEquals(1, block.indexOf(thirdNop));
+
+    block.addStmt(firstNop);
+    assertEquals(2, block.indexOf(firstNop));
+
+    MutableBasicBlock newBlock = block.splitBlockUnlinked(fourthNop, thirdNop);
+    assertEquals(0, block.indexOf(fourthNop));
+    assertEquals(-1, block.indexOf(thirdNop));
+    assertEquals(-1, block.indexOf(firstNop));
+    assertEquals(0, newBlock.indexOf(thirdNop));
+    assertEquals(1, newBlock.indexOf(firstNop));
+
+    block.addStmt(secondNop);
+    assertEquals(1, block.indexOf(secondNop));
+    assertEquals(-1, block.indexOf(thirdNop));
+  }
 }
@@ -750,14 +750,13 @@ public class MutableBlockStmtGraphTest {
 
   @Test
   public void copyOfImmutable() {
-    /*
     Stmt stmt1 = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
     Stmt stmt2 = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
     MutableStmtGraph graph = new MutableBlockStmtGraph();
     graph.putEdge(stmt1, stmt2);
     graph.setStartingStmt(stmt1);
 
-    final ImmutableStmtGraph immutableGraph = ImmutableStmtGraph.copyOf(graph);
+    final StmtGraph<?> immutableGraph = new ImmutableBlockStmtGraph(graph);
 
     assertEquals(graph.getStartingStmt(), immutableGraph.getStartingStmt());
     assertEquals(graph.nodes().size(), immutableGraph.nodes().size());
@@ -770,25 +769,201 @@ public class MutableBlockStmtGraphTest {
       assertEquals(graph.predecessors(node), immutableGraph.predecessors(node));
       assertEquals(graph.successors(node), immutableGraph.successors(node));
     }
+    assertEquals(graph, immutableGraph);
 
     try {
       immutableGraph.nodes().add(stmt1);
-      assertTrue(false);
-    } catch (Exception ignore) {
+      fail();
+    } catch (UnsupportedOperationException ignore) {
     }
 
     try {
-      immutableGraph.predecessors(stmt1).add(stmt2);
-      assertTrue(false);
-    } catch (Exception ignore) {
+      immutableGraph.predecessors(stmt2).add(stmt2);
+      fail();
+    } catch (UnsupportedOperationException ignore) {
     }
 
     try {
       immutableGraph.successors(stmt1).add(stmt2);
-      assertTrue(false);
-    } catch (Exception ignore) {
+      fail();
+    } catch (UnsupportedOperationException ignore) {
     }
-     */
+  }
+
+  @Test
+  public void copyOfImmutableWithTraps() {
+    Local exc = new Local("ex", UnknownType.getInstance());
+    Stmt catchStmt =
+        new JIdentityStmt<>(
+            exc,
+            new JCaughtExceptionRef(throwableSig),
+            StmtPositionInfo.createNoStmtPositionInfo());
+    Stmt returnStmt = new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(firstNop);
+    graph.addNode(firstNop);
+    graph.addNode(secondNop, Collections.singletonMap(throwableSig, catchStmt));
+    graph.putEdge(firstNop, secondNop);
+    graph.putEdge(secondNop, conditionalStmt);
+    graph.putEdge(conditionalStmt, thirdNop);
+    graph.putEdge(conditionalStmt, returnStmt);
+    graph.putEdge(thirdNop, returnStmt);
+    graph.putEdge(catchStmt, returnStmt);
+
+    final ImmutableBlockStmtGraph immutableGraph = new ImmutableBlockStmtGraph(graph);
+
+    assertEquals(graph.getStmts(), immutableGraph.getStmts());
+    assertEquals(graph.getTraps(), immutableGraph.getTraps());
+    assertEquals(graph.getBlocks().size(), immutableGraph.getBlocks().size());
+    for (Stmt node : graph.nodes()) {
+      assertEquals(graph.predecessors(node), immutableGraph.predecessors(node));
+      assertEquals(graph.successors(node), immutableGraph.successors(node));
+      assertEquals(graph.exceptionalSuccessors(node), immutableGraph.exceptionalSuccessors(node));
+      assertEquals(graph.inDegree(node), immutableGraph.inDegree(node));
+      assertEquals(graph.outDegree(node), immutableGraph.outDegree(node));
+    }
+    assertEquals(
+        Arrays.asList(secondNop, conditionalStmt),
+        immutableGraph.exceptionalPredecessors(catchStmt));
+    assertTrue(immutableGraph.hasEdgeConnecting(conditionalStmt, returnStmt));
+    assertFalse(immutableGraph.hasEdgeConnecting(firstNop, thirdNop));
+    assertEquals(graph, immutableGraph);
+
+    // the frozen graph can be copied back into a modifiable one
+    assertEquals(graph, new MutableBlockStmtGraph(immutableGraph));
+  }
+
+  @Test
+  public void cachedLinearizationIsInvalidated() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(firstNop);
+    graph.putEdge(firstNop, secondNop);
+    final Stmt returnStmt = new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+    graph.putEdge(secondNop, returnStmt);
+
+    final int modCount = graph.getModCount();
+    assertEquals(Arrays.asList(firstNop, secondNop, returnStmt), graph.getStmts());
+    assertTrue(graph.getTraps().isEmpty());
+    // reading does not modify
+    assertEquals(modCount, graph.getModCount());
+    // returned lists are copies of the cached ones
+    graph.getStmts().clear();
+    assertEquals(3, graph.getStmts().size());
+
+    graph.insertBefore(secondNop, thirdNop);
+    assertTrue(modCount < graph.getModCount());
+    assertEquals(Arrays.asList(firstNop, thirdNop, secondNop, returnStmt), graph.getStmts());
+
+    Stmt catchStmt =
+        new JIdentityStmt<>(
+            new Local("ex", UnknownType.getInstance()),
+            new JCaughtExceptionRef(throwableSig),
+            StmtPositionInfo.createNoStmtPositionInfo());
+    graph.putEdge(catchStmt, new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo()));
+    graph.addExceptionalEdge(thirdNop, throwableSig, catchStmt);
+    assertEquals(1, graph.getTraps().size());
+    assertEquals(thirdNop, graph.getTraps().get(0).getBeginStmt());
+
+    graph.removeNode(secondNop);
+    final List<Stmt> stmts = new ArrayList<>();
+    graph.forEach(stmts::add);
+    assertEquals(graph.getStmts(), stmts);
+    assertFalse(stmts.contains(secondNop));
+  }
+
+  @Test
+  public void batchEdit() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(firstNop);
+    graph.putEdge(firstNop, secondNop);
+    graph.putEdge(secondNop, thirdNop);
+    final Stmt returnStmt = new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+    graph.putEdge(thirdNop, returnStmt);
+
+    final Stmt newNop = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
+    final Stmt newerNop = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
+    final MutableStmtGraph.BatchEdit batchEdit = graph.startBatchEdit();
+    batchEdit.replaceNode(secondNop, newNop);
+    batchEdit.replaceNode(newNop, newerNop);
+    batchEdit.removeNode(firstNop);
+    batchEdit.removeNode(thirdNop);
+
+    // nothing is applied before the commit
+    assertEquals(Arrays.asList(firstNop, secondNop, thirdNop, returnStmt), graph.getStmts());
+
+    batchEdit.commit();
+    assertEquals(Arrays.asList(newerNop, returnStmt), graph.getStmts());
+    assertEquals(newerNop, graph.getStartingStmt());
+    assertEquals(1, graph.getBlocks().size());
+
+    try {
+      batchEdit.commit();
+      fail();
+    } catch (IllegalStateException ignore) {
+    }
+  }
+
+  @Test
+  public void batchEditFollowsReplacementChains() {
+    DiamondGraph diamond = new DiamondGraph();
+    MutableBlockStmtGraph graph = diamond.create();
+    final Stmt newReturn = new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+    final Stmt newerReturn = new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+
+    final MutableStmtGraph.BatchEdit batchEdit = graph.startBatchEdit();
+    batchEdit.replaceNode(diamond.returnStmt, newReturn);
+    batchEdit.replaceNode(newReturn, newerReturn);
+    // edits can name the intermediate replacement
+    batchEdit.removeEdge(diamond.gotoStmt, newReturn);
+    batchEdit.putEdge(diamond.gotoStmt, diamond.assignA);
+    batchEdit.commit();
+
+    assertFalse(graph.containsNode(diamond.returnStmt));
+    assertFalse(graph.containsNode(newReturn));
+    assertEquals(Collections.singletonList(diamond.assignA), graph.successors(diamond.gotoStmt));
+    assertEquals(Collections.singletonList(diamond.elseStmt), graph.predecessors(newerReturn));
+    graph.validateBlocks();
+  }
+
+  @Test
+  public void batchEditRebuildsAffectedBlocks() {
+    DiamondGraph diamond = new DiamondGraph();
+    MutableBlockStmtGraph graph = diamond.create();
+    final Stmt handlerStmt =
+        new JIdentityStmt<>(
+            new Local("ex", UnknownType.getInstance()),
+            new JCaughtExceptionRef(throwableSig),
+            StmtPositionInfo.createNoStmtPositionInfo());
+    graph.putEdge(handlerStmt, new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo()));
+    graph.addExceptionalEdge(diamond.elseStmt, throwableSig, handlerStmt);
+
+    final Stmt newThen =
+        new JAssignStmt<>(
+            diamond.a, IntConstant.getInstance(4), StmtPositionInfo.createNoStmtPositionInfo());
+    final Stmt nop = new JNopStmt(StmtPositionInfo.createNoStmtPositionInfo());
+    final MutableStmtGraph.BatchEdit batchEdit = graph.startBatchEdit();
+    batchEdit.replaceNode(diamond.thenStmt, newThen);
+    batchEdit.removeEdge(diamond.elseStmt, diamond.returnStmt);
+    batchEdit.putEdge(diamond.elseStmt, nop);
+    batchEdit.putEdge(nop, diamond.returnStmt);
+    batchEdit.removeNode(diamond.assignA);
+    batchEdit.commit();
+
+    assertEquals(diamond.ifStmt, graph.getStartingStmt());
+    assertEquals(Arrays.asList(newThen, diamond.elseStmt), graph.successors(diamond.ifStmt));
+    assertEquals(Collections.singletonList(diamond.gotoStmt), graph.successors(newThen));
+    assertEquals(Collections.singletonList(nop), graph.successors(diamond.elseStmt));
+    assertEquals(Collections.singletonList(diamond.returnStmt), graph.successors(nop));
+    assertEquals(2, graph.predecessors(diamond.returnStmt).size());
+
+    // the inserted Stmt continues the block of its predecessor including its exceptional flows
+    assertEquals(Arrays.asList(diamond.elseStmt, nop), graph.getBlockOf(nop).getStmts());
+    assertEquals(
+        Collections.singletonMap(throwableSig, handlerStmt), graph.exceptionalSuccessors(nop));
+    assertEquals(Arrays.asList(newThen, diamond.gotoStmt), graph.getBlockOf(newThen).getStmts());
+    assertEquals(5, graph.getBlocks().size());
+    graph.validateBlocks();
   }
 
   @Test
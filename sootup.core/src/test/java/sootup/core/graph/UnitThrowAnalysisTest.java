@@ -0,0 +1,152 @@
+package sootup.core.graph;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.FloatConstant;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JDivExpr;
+import sootup.core.jimple.common.expr.JLengthExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+
+@Category(Java8Test.class)
+public class UnitThrowAnalysisTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  Local a = new Local("a", PrimitiveType.getInt());
+  Local b = new Local("b", PrimitiveType.getInt());
+  Local f = new Local("f", PrimitiveType.getFloat());
+  Local arr = new Local("arr", new ArrayType(PrimitiveType.getInt(), 1));
+
+  ClassType throwable = createClassType("Throwable");
+  ClassType runtimeException = createClassType("RuntimeException");
+  ClassType arithmeticException = createClassType("ArithmeticException");
+  ClassType nullPointerException = createClassType("NullPointerException");
+  ClassType error = createClassType("Error");
+
+  private static ClassType createClassType(String className) {
+    return new ClassType() {
+      @Override
+      public boolean isBuiltInClass() {
+        return true;
+      }
+
+      @Override
+      public String getFullyQualifiedName() {
+        return getPackageName() + "." + getClassName();
+      }
+
+      @Override
+      public String getClassName() {
+        return className;
+      }
+
+      @Override
+      public PackageName getPackageName() {
+        return new PackageName("java.lang");
+      }
+    };
+  }
+
+  @Test
+  public void testThrowableSet() {
+    ThrowableSet set = ThrowableSet.of("java.lang.ArithmeticException");
+    assertTrue(set.catchableAs(arithmeticException));
+    assertTrue(set.catchableAs(runtimeException));
+    assertTrue(set.catchableAs(throwable));
+    assertFalse(set.catchableAs(nullPointerException));
+    assertFalse(set.catchableAs(error));
+
+    assertTrue(ThrowableSet.empty().isEmpty());
+    assertFalse(ThrowableSet.empty().catchableAs(throwable));
+    assertTrue(ThrowableSet.any().catchableAs(error));
+    assertSame(ThrowableSet.any(), set.add(ThrowableSet.any()));
+    assertEquals(set, ThrowableSet.empty().add("java.lang.ArithmeticException"));
+  }
+
+  @Test
+  public void testMightThrow() {
+    final UnitThrowAnalysis analysis = new UnitThrowAnalysis(false);
+    Stmt intDivision = new JAssignStmt<>(a, new JDivExpr(a, b), noPosition);
+    Stmt constantDivision =
+        new JAssignStmt<>(a, new JDivExpr(a, IntConstant.getInstance(2)), noPosition);
+    Stmt floatDivision =
+        new JAssignStmt<>(f, new JDivExpr(f, FloatConstant.getInstance(0)), noPosition);
+    Stmt length = new JAssignStmt<>(a, new JLengthExpr(arr), noPosition);
+    Stmt gotoStmt = new JGotoStmt(noPosition);
+    Stmt throwStmt = new JThrowStmt(arr, noPosition);
+
+    assertEquals(
+        ThrowableSet.of("java.lang.ArithmeticException"), analysis.mightThrow(intDivision));
+    assertTrue(analysis.mightThrow(constantDivision).isEmpty());
+    assertTrue(analysis.mightThrow(floatDivision).isEmpty());
+    assertTrue(analysis.mightThrow(length, nullPointerException));
+    assertFalse(analysis.mightThrow(length, arithmeticException));
+    assertTrue(analysis.mightThrow(gotoStmt).isEmpty());
+    assertTrue(analysis.mightThrow(throwStmt).isAny());
+
+    // asynchronous errors of the VM can be thrown everywhere
+    assertTrue(UnitThrowAnalysis.getInstance().mightThrow(gotoStmt, error));
+    assertFalse(UnitThrowAnalysis.getInstance().mightThrow(gotoStmt, runtimeException));
+    assertTrue(PedanticThrowAnalysis.getInstance().mightThrow(gotoStmt, runtimeException));
+  }
+
+  /**
+   *
+   *
+   * <pre>
+   *    a = 1
+   *    b = a / b
+   *    a = 2
+   *    return
+   *  catch java.lang.ArithmeticException from a = 1 to return with handler
+   * </pre>
+   */
+  @Test
+  public void testExceptionalSuccessors() {
+    Stmt assign1 = new JAssignStmt<>(a, IntConstant.getInstance(1), noPosition);
+    Stmt division = new JAssignStmt<>(b, new JDivExpr(a, b), noPosition);
+    Stmt assign2 = new JAssignStmt<>(a, IntConstant.getInstance(2), noPosition);
+    Stmt returnStmt = new JReturnVoidStmt(noPosition);
+    Stmt handler = new JReturnVoidStmt(noPosition);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(assign1);
+    graph.addBlock(
+        Arrays.asList(assign1, division, assign2, returnStmt),
+        Collections.singletonMap(arithmeticException, handler));
+
+    final UnitThrowAnalysis analysis = UnitThrowAnalysis.getInstance();
+    assertTrue(graph.exceptionalSuccessors(assign1, analysis).isEmpty());
+    assertEquals(
+        Collections.singletonMap(arithmeticException, handler),
+        graph.exceptionalSuccessors(division, analysis));
+    assertEquals(Arrays.asList(assign2, handler), graph.getAllSuccessors(division, analysis));
+    assertEquals(Collections.singletonList(division), graph.getAllSuccessors(assign1, analysis));
+    assertEquals(
+        Collections.singletonMap(arithmeticException, handler),
+        graph.exceptionalSuccessors(assign2, PedanticThrowAnalysis.getInstance()));
+
+    // removing the exceptional flow of a single Stmt keeps the flows of the others
+    graph.removeExceptionalEdge(assign2, arithmeticException);
+    assertTrue(graph.exceptionalSuccessors(assign2).isEmpty());
+    assertEquals(
+        Collections.singletonMap(arithmeticException, handler),
+        graph.exceptionalSuccessors(division));
+    assertEquals(
+        Collections.singletonMap(arithmeticException, handler),
+        graph.exceptionalSuccessors(returnStmt));
+    assertEquals(Collections.singletonList(assign2), graph.successors(division));
+    assertEquals(Collections.singletonList(returnStmt), graph.successors(assign2));
+    assertEquals(Arrays.asList(assign1, division, assign2, returnStmt, handler), graph.getStmts());
+  }
+}
@@ -0,0 +1,228 @@
+package sootup.core.graph.dataflow;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JGeExpr;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.UnknownType;
+
+@Category(Java8Test.class)
+public class DataFlowAnalysisTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+  Local i = new Local("i", PrimitiveType.getInt());
+  Local j = new Local("j", PrimitiveType.getInt());
+
+  private final ClassType throwableSig =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return true;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return getPackageName() + "." + getClassName();
+        }
+
+        @Override
+        public String getClassName() {
+          return "Throwable";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("java.lang");
+        }
+      };
+
+  /** a may-analysis of the live Locals */
+  static class LiveLocals extends DataFlowAnalysis<BitSet> {
+    LiveLocals(StmtGraph<?> graph) {
+      super(graph, Direction.BACKWARD, BitSetLattice.union(0));
+    }
+
+    @Override
+    protected void flowThrough(@Nonnull Stmt stmt, @Nonnull BitSet flow) {
+      for (Value def : stmt.getDefs()) {
+        final int localNumber = numbering.getLocalNumber(def);
+        if (localNumber >= 0) {
+          flow.clear(localNumber);
+        }
+      }
+      stmt.forEachUse(
+          use -> {
+            final int localNumber = numbering.getLocalNumber(use);
+            if (localNumber >= 0) {
+              flow.set(localNumber);
+            }
+          });
+    }
+
+    Set<Local> toLocals(BitSet flow) {
+      final Set<Local> locals = new HashSet<>();
+      flow.stream().forEach(idx -> locals.add(numbering.getLocal(idx)));
+      return locals;
+    }
+  }
+
+  /** a must-analysis of the Locals which are definitely assigned */
+  static class AssignedLocals extends DataFlowAnalysis<BitSet> {
+    AssignedLocals(StmtGraph<?> graph, int localCount) {
+      super(graph, Direction.FORWARD, BitSetLattice.intersection(localCount));
+    }
+
+    @Nonnull
+    @Override
+    protected BitSet entryFlow() {
+      return new BitSet();
+    }
+
+    @Override
+    protected void flowThrough(@Nonnull Stmt stmt, @Nonnull BitSet flow) {
+      for (Value def : stmt.getDefs()) {
+        final int localNumber = numbering.getLocalNumber(def);
+        if (localNumber >= 0) {
+          flow.set(localNumber);
+        }
+      }
+    }
+  }
+
+  Stmt initI = new JAssignStmt<>(i, IntConstant.getInstance(0), noPosition);
+  Stmt loopIf = new JIfStmt(new JGeExpr(i, IntConstant.getInstance(10)), noPosition);
+  Stmt assignJ = new JAssignStmt<>(j, i, noPosition);
+  Stmt incI = new JAssignStmt<>(i, new JAddExpr(i, IntConstant.getInstance(1)), noPosition);
+  Stmt loopGoto = new JGotoStmt(noPosition);
+  Stmt returnStmt = new JReturnStmt(j, noPosition);
+
+  /**
+   *
+   *
+   * <pre>
+   *    i = 0
+   * label1:
+   *    if i >= 10 goto label2
+   *    j = i
+   *    i = i + 1
+   *    goto label1
+   * label2:
+   *    return j
+   * </pre>
+   */
+  private MutableBlockStmtGraph createLoop() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(initI);
+    graph.putEdge(initI, loopIf);
+    graph.putEdge(loopIf, assignJ);
+    graph.putEdge(loopIf, returnStmt);
+    graph.putEdge(assignJ, incI);
+    graph.putEdge(incI, loopGoto);
+    graph.putEdge(loopGoto, loopIf);
+    return graph;
+  }
+
+  @Test
+  public void testBackwardLiveness() {
+    LiveLocals analysis = new LiveLocals(createLoop());
+    assertEquals(Collections.singleton(j), analysis.toLocals(analysis.getFlowBefore(initI)));
+    assertEquals(
+        new HashSet<>(Arrays.asList(i, j)), analysis.toLocals(analysis.getFlowAfter(initI)));
+    assertEquals(
+        new HashSet<>(Arrays.asList(i, j)), analysis.toLocals(analysis.getFlowBefore(loopIf)));
+    assertEquals(Collections.singleton(i), analysis.toLocals(analysis.getFlowBefore(assignJ)));
+    assertEquals(
+        new HashSet<>(Arrays.asList(i, j)), analysis.toLocals(analysis.getFlowAfter(loopGoto)));
+    assertEquals(Collections.singleton(j), analysis.toLocals(analysis.getFlowBefore(returnStmt)));
+    assertTrue(analysis.getFlowAfter(returnStmt).isEmpty());
+  }
+
+  @Test
+  public void testForwardMustAnalysis() {
+    MutableBlockStmtGraph graph = createLoop();
+    AssignedLocals analysis = new AssignedLocals(graph, 2);
+    final int iNumber = analysis.getNumbering().getNumber(i);
+    final int jNumber = analysis.getNumbering().getNumber(j);
+
+    assertTrue(analysis.getFlowBefore(initI).isEmpty());
+    final BitSet beforeReturn = analysis.getFlowBefore(returnStmt);
+    assertTrue(beforeReturn.get(iNumber));
+    // j is not assigned if the loop is not entered
+    assertFalse(beforeReturn.get(jNumber));
+    assertTrue(analysis.getFlowAfter(assignJ).get(jNumber));
+    assertEquals(analysis.getFlowAfter(loopGoto), analysis.getBlockOut(graph.getBlockOf(incI)));
+  }
+
+  /**
+   *
+   *
+   * <pre>
+   *    i = 1
+   *  tryBegin:
+   *    i = 2
+   *    return
+   *  tryEnd:
+   *  handler:
+   *    ex := @caughtexception
+   *    return i
+   * </pre>
+   */
+  @Test
+  public void testExceptionalFlow() {
+    Local ex = new Local("ex", UnknownType.getInstance());
+    Stmt assign1 = new JAssignStmt<>(i, IntConstant.getInstance(1), noPosition);
+    Stmt assign2 = new JAssignStmt<>(i, IntConstant.getInstance(2), noPosition);
+    Stmt returnVoid = new JReturnVoidStmt(noPosition);
+    Stmt catchStmt = new JIdentityStmt<>(ex, new JCaughtExceptionRef(throwableSig), noPosition);
+    Stmt returnI = new JReturnStmt(i, noPosition);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(assign1);
+    graph.addNode(assign1);
+    graph.addNode(assign2, Collections.singletonMap(throwableSig, catchStmt));
+    graph.addNode(returnVoid, Collections.singletonMap(throwableSig, catchStmt));
+    graph.putEdge(assign1, assign2);
+    graph.putEdge(assign2, returnVoid);
+    graph.putEdge(catchStmt, returnI);
+
+    // i = 1 is not dead as "i = 2" can throw before it assigns i
+    LiveLocals liveness = new LiveLocals(graph);
+    assertEquals(Collections.singleton(i), liveness.toLocals(liveness.getFlowAfter(assign1)));
+    assertEquals(Collections.singleton(i), liveness.toLocals(liveness.getFlowAfter(assign2)));
+    assertTrue(liveness.getFlowAfter(returnVoid).isEmpty());
+
+    // the handler is reached after "i = 1" was executed
+    AssignedLocals assigned = new AssignedLocals(graph, 2);
+    final int iNumber = assigned.getNumbering().getNumber(i);
+    assertTrue(assigned.getFlowBefore(catchStmt).get(iNumber));
+    assertFalse(assigned.getFlowBefore(assign1).get(iNumber));
+  }
+
+  @Test
+  public void testSolveAll() {
+    List<LiveLocals> analyses = new ArrayList<>();
+    for (int k = 0; k < 8; k++) {
+      analyses.add(new LiveLocals(createLoop()));
+    }
+    DataFlowAnalysis.solveAll(analyses);
+    for (LiveLocals analysis : analyses) {
+      assertEquals(Collections.singleton(j), analysis.toLocals(analysis.getFlowBefore(initI)));
+    }
+  }
+}
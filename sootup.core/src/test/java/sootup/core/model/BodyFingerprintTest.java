@@ -0,0 +1,114 @@
+package sootup.core.model;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.VoidType;
+
+@Category(Java8Test.class)
+public class BodyFingerprintTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  /**
+   *
+   *
+   * <pre>
+   *    a = 1
+   *    if a <= 3 goto label1
+   *    b = a + constant
+   * label1:
+   *    return
+   * </pre>
+   */
+  private MutableBlockStmtGraph createGraph(String nameA, String nameB, int constant) {
+    Local a = new Local(nameA, PrimitiveType.getInt());
+    Local b = new Local(nameB, PrimitiveType.getInt());
+    Stmt assignA = new JAssignStmt<>(a, IntConstant.getInstance(1), noPosition);
+    Stmt ifStmt = new JIfStmt(new JLeExpr(a, IntConstant.getInstance(3)), noPosition);
+    Stmt assignB =
+        new JAssignStmt<>(b, new JAddExpr(a, IntConstant.getInstance(constant)), noPosition);
+    Stmt returnStmt = new JReturnVoidStmt(noPosition);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(assignA);
+    graph.putEdge(assignA, ifStmt);
+    graph.putEdge(ifStmt, assignB);
+    graph.putEdge(ifStmt, returnStmt);
+    graph.putEdge(assignB, returnStmt);
+    return graph;
+  }
+
+  @Test
+  public void testLocalNamesAreNormalized() {
+    BodyFingerprint fingerprint = BodyFingerprint.of(createGraph("a", "b", 1));
+    assertEquals(fingerprint, BodyFingerprint.of(createGraph("x", "y", 1)));
+    assertEquals(fingerprint.hashCode(), BodyFingerprint.of(createGraph("x", "y", 1)).hashCode());
+    assertEquals(32, fingerprint.toString().length());
+
+    // locals are numbered by first occurrence, so swapping their names is not visible
+    assertEquals(
+        BodyFingerprint.normalize(createGraph("a", "b", 1)),
+        BodyFingerprint.normalize(createGraph("b", "a", 1)));
+
+    assertNotEquals(fingerprint, BodyFingerprint.of(createGraph("a", "b", 2)));
+  }
+
+  @Test
+  public void testBodyFingerprint() {
+    Body body = createBody(createGraph("a", "b", 1));
+    assertSame(body.getFingerprint(), body.getFingerprint());
+    assertEquals(BodyFingerprint.of(body.getStmtGraph()), body.getFingerprint());
+
+    assertTrue(body.isStructurallyEqual(createBody(createGraph("x", "y", 1))));
+    assertFalse(body.isStructurallyEqual(createBody(createGraph("a", "b", 2))));
+  }
+
+  private Body createBody(MutableBlockStmtGraph graph) {
+    ClassType classType =
+        new ClassType() {
+          @Override
+          public boolean isBuiltInClass() {
+            return false;
+          }
+
+          @Override
+          public String getFullyQualifiedName() {
+            return "a.b.ClassOne";
+          }
+
+          @Override
+          public String getClassName() {
+            return "ClassOne";
+          }
+
+          @Override
+          public PackageName getPackageName() {
+            return new PackageName("a.b");
+          }
+        };
+    MethodSignature methodSignature =
+        new MethodSignature(
+            classType,
+            new MethodSubSignature("banana", Collections.emptyList(), VoidType.getInstance()));
+    return Body.builder(graph)
+        .setModifiers(Collections.emptySet())
+        .setMethodSignature(methodSignature)
+        .build();
+  }
+}
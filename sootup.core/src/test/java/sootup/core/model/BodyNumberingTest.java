@@ -0,0 +1,97 @@
+package sootup.core.model;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.types.PrimitiveType;
+
+@Category(Java8Test.class)
+public class BodyNumberingTest {
+
+  StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+
+  Local a = new Local("a", PrimitiveType.getInt());
+  Local b = new Local("b", PrimitiveType.getInt());
+  Local unused = new Local("unused", PrimitiveType.getInt());
+
+  Stmt assignA = new JAssignStmt<>(a, IntConstant.getInstance(1), noPosition);
+  Stmt ifStmt = new JIfStmt(new JLeExpr(a, IntConstant.getInstance(3)), noPosition);
+  Stmt assignB = new JAssignStmt<>(b, new JAddExpr(a, IntConstant.getInstance(1)), noPosition);
+  Stmt returnStmt = new JReturnVoidStmt(noPosition);
+
+  private MutableBlockStmtGraph createGraph() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(assignA);
+    graph.putEdge(assignA, ifStmt);
+    graph.putEdge(ifStmt, assignB);
+    graph.putEdge(ifStmt, returnStmt);
+    graph.putEdge(assignB, returnStmt);
+    return graph;
+  }
+
+  @Test
+  public void testStmtsAndBlocks() {
+    MutableBlockStmtGraph graph = createGraph();
+    BodyNumbering numbering = new BodyNumbering(graph);
+
+    assertEquals(4, numbering.getStmtCount());
+    assertEquals(3, numbering.getBlockCount());
+    assertEquals(-1, numbering.getNumber(new JNopStmt(noPosition)));
+
+    Set<Integer> stmtNumbers = new HashSet<>();
+    for (Stmt stmt : graph.getStmts()) {
+      int number = numbering.getNumber(stmt);
+      assertSame(stmt, numbering.getStmt(number));
+      stmtNumbers.add(number);
+
+      // the Stmts of a block have consecutive numbers
+      int blockNumber = numbering.getBlockNumberOfStmt(number);
+      BasicBlock<?> block = numbering.getBlock(blockNumber);
+      assertEquals(block, graph.getBlockOf(stmt));
+      assertEquals(blockNumber, numbering.getNumber(block));
+      int first = numbering.getFirstStmtNumberOfBlock(blockNumber);
+      assertEquals(block.getStmts().indexOf(stmt), number - first);
+      assertEquals(block.getStmtCount(), numbering.getEndStmtNumberOfBlock(blockNumber) - first);
+    }
+    assertEquals(4, stmtNumbers.size());
+    assertEquals(0, numbering.getNumber(assignA));
+  }
+
+  @Test
+  public void testEquivalentStmts() {
+    BodyNumbering numbering = new BodyNumbering(createGraph());
+    Stmt copy = ((JAssignStmt<?, ?>) assignB).withPositionInfo(noPosition);
+    assertEquals(-1, numbering.getNumber(copy));
+    assertEquals(numbering.getNumber(assignB), numbering.getNumberOfEquivalent(copy));
+    assertEquals(-1, numbering.getNumberOfEquivalent(new JNopStmt(noPosition)));
+  }
+
+  @Test
+  public void testLocals() {
+    BodyNumbering numbering = new BodyNumbering(createGraph());
+    assertEquals(2, numbering.getLocalCount());
+    assertEquals(0, numbering.getNumber(a));
+    assertEquals(1, numbering.getNumber(b));
+    assertEquals(-1, numbering.getNumber(unused));
+    assertEquals(-1, numbering.getLocalNumber(IntConstant.getInstance(1)));
+
+    // given locals are numbered first, even if they do not occur in the graph
+    numbering = new BodyNumbering(createGraph(), Arrays.asList(unused, b));
+    assertEquals(3, numbering.getLocalCount());
+    assertEquals(0, numbering.getNumber(unused));
+    assertEquals(1, numbering.getNumber(b));
+    assertEquals(2, numbering.getNumber(a));
+    assertSame(a, numbering.getLocal(2));
+  }
+}
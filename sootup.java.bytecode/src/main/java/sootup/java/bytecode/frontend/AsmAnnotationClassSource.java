@@ -24,6 +24,7 @@ package sootup.java.bytecode.frontend;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -57,15 +58,15 @@ import sootup.java.core.types.JavaClassType;
 
 public class AsmAnnotationClassSource extends JavaAnnotationSootClassSource {
 
-  @Nonnull protected final ClassNode classNode;
+  @Nonnull protected final AsmClassFile classFile;
 
   public AsmAnnotationClassSource(
       AnalysisInputLocation<? extends SootClass<?>> inputLocation,
       Path sourcePath,
       JavaClassType javaClassType,
-      @Nonnull ClassNode classNode) {
+      @Nonnull AsmClassFile classFile) {
     super(inputLocation, javaClassType, sourcePath);
-    this.classNode = classNode;
+    this.classFile = classFile;
   }
 
   private static Set<JavaSootField> resolveFields(
@@ -92,7 +93,7 @@ public class AsmAnnotationClassSource extends JavaAnnotationSootClassSource {
   @Nonnull
   public Collection<? extends SootMethod> resolveMethods() throws ResolveException {
     IdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
-    return resolveMethods(classNode.methods, identifierFactory, classSignature)
+    return resolveMethods(classFile.getClassNode().methods, identifierFactory, classSignature)
         .collect(Collectors.toSet());
   }
 
@@ -137,6 +138,7 @@ public class AsmAnnotationClassSource extends JavaAnnotationSootClassSource {
 
   @Override
   protected Iterable<AnnotationUsage> resolveAnnotations() {
+    ClassNode classNode = classFile.getClassNode();
     List<AnnotationNode> annotationNodes = new ArrayList<>();
 
     annotationNodes.addAll(
@@ -163,30 +165,30 @@ public class AsmAnnotationClassSource extends JavaAnnotationSootClassSource {
   @Nonnull
   public Collection<? extends SootField> resolveFields() throws ResolveException {
     IdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
-    return resolveFields(classNode.fields, identifierFactory, classSignature);
+    return resolveFields(classFile.getClassNode().fields, identifierFactory, classSignature);
   }
 
   @Nonnull
   public EnumSet<Modifier> resolveModifiers() {
-    return AsmUtil.getModifiers(classNode.access);
+    return AsmUtil.getModifiers(classFile.access);
   }
 
   @Nonnull
   public Set<? extends ClassType> resolveInterfaces() {
-    return new HashSet<>(AsmUtil.asmIdToSignature(classNode.interfaces));
+    return new HashSet<>(AsmUtil.asmIdToSignature(Arrays.asList(classFile.interfaces)));
   }
 
   @Nonnull
   public Optional<? extends ClassType> resolveSuperclass() {
-    if (classNode.superName == null) {
+    if (classFile.superName == null) {
       return Optional.empty();
     }
-    return Optional.ofNullable(AsmUtil.toJimpleClassType(classNode.superName));
+    return Optional.ofNullable(AsmUtil.toJimpleClassType(classFile.superName));
   }
 
   @Nonnull
   public Optional<? extends ClassType> resolveOuterClass() {
-    return Optional.ofNullable(AsmUtil.toJimpleClassType(classNode.outerClass));
+    return Optional.ofNullable(AsmUtil.toJimpleClassType(classFile.getClassNode().outerClass));
   }
 
   @Nonnull
@@ -0,0 +1,64 @@
+package sootup.java.bytecode.frontend;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2020 Raja Vallée-Rai, Linghui Luo, Markus Schmidt and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Suppliers;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+/**
+ * A class file whose header, i.e. access flags, superclass and interfaces, is read eagerly as it is
+ * all a type hierarchy needs. The {@link ClassNode} holding fields, methods and attributes is
+ * parsed from the retained class file on its first access.
+ */
+final class AsmClassFile {
+
+  /** the access flags of the class file header; excludes ASM's attribute based pseudo flags */
+  final int access;
+
+  @Nullable final String superName;
+  @Nonnull final String[] interfaces;
+
+  @Nonnull private final Supplier<ClassNode> lazyClassNode;
+
+  AsmClassFile(
+      @Nonnull ClassReader classReader, @Nonnull Supplier<? extends ClassNode> classNodeFactory) {
+    this.access = classReader.getAccess();
+    this.superName = classReader.getSuperName();
+    this.interfaces = classReader.getInterfaces();
+    this.lazyClassNode =
+        Suppliers.memoize(
+            () -> {
+              ClassNode classNode = classNodeFactory.get();
+              classReader.accept(classNode, ClassReader.SKIP_FRAMES);
+              return classNode;
+            });
+  }
+
+  @Nonnull
+  ClassNode getClassNode() {
+    return lazyClassNode.get();
+  }
+}
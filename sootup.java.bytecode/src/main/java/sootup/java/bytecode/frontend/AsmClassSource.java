@@ -43,15 +43,15 @@ import sootup.java.core.types.JavaClassType;
 /** A ClassSource that reads from Java bytecode */
 class AsmClassSource extends JavaSootClassSource {
 
-  @Nonnull private final ClassNode classNode;
+  @Nonnull private final AsmClassFile classFile;
 
   public AsmClassSource(
       AnalysisInputLocation<? extends SootClass<?>> inputLocation,
       Path sourcePath,
       JavaClassType javaClassType,
-      @Nonnull ClassNode classNode) {
+      @Nonnull AsmClassFile classFile) {
     super(inputLocation, javaClassType, sourcePath);
-    this.classNode = classNode;
+    this.classFile = classFile;
   }
 
   private static Set<JavaSootField> resolveFields(
@@ -85,6 +85,7 @@ class AsmClassSource extends JavaSootClassSource {
 
   @Override
   protected Iterable<AnnotationUsage> resolveAnnotations() {
+    ClassNode classNode = classFile.getClassNode();
     List<AnnotationNode> annotationNodes = new ArrayList<>();
 
     annotationNodes.addAll(
@@ -110,7 +111,7 @@ class AsmClassSource extends JavaSootClassSource {
   @Nonnull
   public Collection<? extends SootMethod> resolveMethods() throws ResolveException {
     IdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
-    return classNode.methods.stream()
+    return classFile.getClassNode().methods.stream()
         .map(
             methodSource -> {
               AsmMethodSource asmClassClassSourceContent = (AsmMethodSource) methodSource;
@@ -144,30 +145,30 @@ class AsmClassSource extends JavaSootClassSource {
   @Nonnull
   public Collection<? extends SootField> resolveFields() throws ResolveException {
     IdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
-    return resolveFields(classNode.fields, identifierFactory, classSignature);
+    return resolveFields(classFile.getClassNode().fields, identifierFactory, classSignature);
   }
 
   @Nonnull
   public EnumSet<Modifier> resolveModifiers() {
-    return AsmUtil.getModifiers(classNode.access);
+    return AsmUtil.getModifiers(classFile.access);
   }
 
   @Nonnull
   public Set<? extends ClassType> resolveInterfaces() {
-    return new HashSet<>(AsmUtil.asmIdToSignature(classNode.interfaces));
+    return new HashSet<>(AsmUtil.asmIdToSignature(Arrays.asList(classFile.interfaces)));
   }
 
   @Nonnull
   public Optional<? extends ClassType> resolveSuperclass() {
-    if (classNode.superName == null) {
+    if (classFile.superName == null) {
       return Optional.empty();
     }
-    return Optional.ofNullable(AsmUtil.toJimpleClassType(classNode.superName));
+    return Optional.ofNullable(AsmUtil.toJimpleClassType(classFile.superName));
   }
 
   @Nonnull
   public Optional<? extends ClassType> resolveOuterClass() {
-    return Optional.ofNullable(AsmUtil.toJimpleClassType(classNode.outerClass));
+    return Optional.ofNullable(AsmUtil.toJimpleClassType(classFile.getClassNode().outerClass));
   }
 
   @Nonnull
@@ -55,10 +55,10 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
       AnalysisInputLocation<? extends SootClass<?>> srcNamespace,
       Path sourcePath,
       ClassType classType) {
-    SootClassNode classNode = new SootClassNode();
-
+    // members are parsed lazily, building a type hierarchy only needs the header
+    AsmClassFile classFile;
     try {
-      AsmUtil.initAsmClassSource(sourcePath, classNode);
+      classFile = new AsmClassFile(AsmUtil.readClassFile(sourcePath), SootClassNode::new);
     } catch (IOException exception) {
       throw new ResolveException(
           exception.getMessage(), sourcePath, NoPositionInformation.getInstance(), exception);
@@ -71,10 +71,10 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
           "Can not create ClassSource from a module info descriptor!", sourcePath);
     } else {
       if (klassType instanceof AnnotationType) {
-        return new AsmAnnotationClassSource(srcNamespace, sourcePath, klassType, classNode);
+        return new AsmAnnotationClassSource(srcNamespace, sourcePath, klassType, classFile);
       }
 
-      return new AsmClassSource(srcNamespace, sourcePath, klassType, classNode);
+      return new AsmClassSource(srcNamespace, sourcePath, klassType, classFile);
     }
   }
 
@@ -84,6 +84,12 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
     return FileType.CLASS;
   }
 
+  /** Each class source reads its own class file, the body interceptors are only shared. */
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
   class SootClassNode extends ClassNode {
 
     SootClassNode() {
@@ -75,6 +75,19 @@ public final class AsmUtil {
     }
   }
 
+  /**
+   * Reads a class file. The returned reader has only located the constant pool entries; the class
+   * members are not parsed before {@link ClassReader#accept(ClassVisitor, int)} is called.
+   *
+   * @param classSource The source.
+   */
+  @Nonnull
+  protected static ClassReader readClassFile(@Nonnull Path classSource) throws IOException {
+    try (InputStream sourceFileInputStream = Files.newInputStream(classSource)) {
+      return new ClassReader(sourceFileInputStream);
+    }
+  }
+
   /**
    * Determines if a type is a dword type.
    *
@@ -23,6 +23,7 @@ package sootup.java.bytecode.frontend;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.JimpleComparator;
 import sootup.core.jimple.basic.StmtPositionInfo;
@@ -78,6 +79,11 @@ class StmtContainer extends Stmt {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void forEachUse(@Nonnull Consumer<? super Value> consumer) {
+    throw new UnsupportedOperationException();
+  }
+
   @Nonnull
   @Override
   public List<Value> getDefs() {
@@ -90,6 +96,11 @@ class StmtContainer extends Stmt {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void forEachUseAndDef(@Nonnull Consumer<? super Value> consumer) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public boolean fallsThrough() {
     throw new UnsupportedOperationException();
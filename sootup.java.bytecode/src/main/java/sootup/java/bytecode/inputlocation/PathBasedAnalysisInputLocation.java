@@ -14,6 +14,8 @@ import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import javax.annotation.Nonnull;
@@ -34,7 +36,6 @@ import sootup.core.inputlocation.FileType;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
-import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 import sootup.java.bytecode.frontend.AsmJavaClassProvider;
 import sootup.java.bytecode.frontend.AsmModuleSource;
@@ -190,19 +191,29 @@ public class PathBasedAnalysisInputLocation implements AnalysisInputLocation<Jav
       @Nonnull Path dirPath,
       @Nonnull IdentifierFactory factory,
       @Nonnull ClassProvider<JavaSootClass> classProvider) {
-    try {
-      final FileType handledFileType = classProvider.getHandledFileType();
-      final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
-      return Files.walk(dirPath)
-          .filter(
-              filePath ->
-                  PathUtils.hasExtension(filePath, handledFileType)
-                      && !filePath.toString().endsWith(moduleInfoFilename))
-          .flatMap(
-              p ->
-                  StreamUtils.optionalToStream(
-                      Optional.of(
-                          classProvider.createClassSource(this, p, factory.fromPath(dirPath, p)))))
+    final FileType handledFileType = classProvider.getHandledFileType();
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+    try (Stream<Path> files = Files.walk(dirPath)) {
+      final List<Path> classFiles =
+          files
+              .filter(
+                  filePath ->
+                      PathUtils.hasExtension(filePath, handledFileType)
+                          && !filePath.toString().endsWith(moduleInfoFilename))
+              .collect(Collectors.toList());
+      // the identifier factory is not thread-safe, so the types are created up front
+      final List<ClassType> classTypes =
+          classFiles.stream()
+              .map(filePath -> factory.fromPath(dirPath, filePath))
+              .collect(Collectors.toList());
+      // the class sources are independent per file if the provider supports concurrent calls
+      IntStream indices = IntStream.range(0, classFiles.size());
+      if (classProvider.isThreadSafe()) {
+        indices = indices.parallel();
+      }
+      return indices
+          .mapToObj(
+              i -> classProvider.createClassSource(this, classFiles.get(i), classTypes.get(i)))
           .collect(Collectors.toList());
 
     } catch (IOException e) {
@@ -23,6 +23,7 @@ package sootup.java.bytecode.interceptors;
 import java.util.*;
 import javax.annotation.Nonnull;
 import sootup.core.graph.MutableBasicBlock;
+import sootup.core.graph.MutableStmtGraph;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.Local;
@@ -184,29 +185,32 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
         while (!deque.isEmpty()) {
           Stmt stmt = deque.removeFirst();
           if (essentialStmts.add(stmt)) {
-            for (Value value : stmt.getUses()) {
-              if (value instanceof Local) {
-                Local local = (Local) value;
-                List<Stmt> defs = allDefs.get(local);
-                if (defs != null) {
-                  deque.addAll(defs);
-                }
-              }
-            }
+            stmt.forEachUse(
+                value -> {
+                  if (value instanceof Local) {
+                    List<Stmt> defs = allDefs.get(value);
+                    if (defs != null) {
+                      deque.addAll(defs);
+                    }
+                  }
+                });
           }
         }
 
         // Remove the dead statements
+        final MutableStmtGraph.BatchEdit batchEdit = builder.startBatchEdit();
         for (Stmt stmt : stmts) {
           if (!essentialStmts.contains(stmt)) {
-            builder.removeStmt(stmt);
+            batchEdit.removeNode(stmt);
           }
         }
+        batchEdit.commit();
       }
 
       if (containsInvoke) {
         allUses = BodyUtils.collectUses(builder.getStmts());
         // Eliminate dead assignments from invokes such as x = f(), where x is no longer used
+        final Set<Stmt> remainingStmts = new HashSet<>(builder.getStmts());
         List<JAssignStmt<?, ?>> postProcess = new ArrayList<>();
         for (Stmt stmt : stmts) {
           if (stmt instanceof JAssignStmt) {
@@ -216,7 +220,7 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
               boolean deadAssignment = true;
               Local local = (Local) assignStmt.getRightOp();
               for (Stmt use : allUses.get(local)) {
-                if (builder.getStmts().contains(use)) {
+                if (remainingStmts.contains(use)) {
                   deadAssignment = false;
                   break;
                 }
@@ -228,12 +232,14 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
           }
         }
 
+        final MutableStmtGraph.BatchEdit batchEdit = builder.startBatchEdit();
         for (JAssignStmt<?, ?> assignStmt : postProcess) {
           // Transform it into a simple invoke
           Stmt newInvoke =
               Jimple.newInvokeStmt(assignStmt.getInvokeExpr(), assignStmt.getPositionInfo());
-          builder.replaceStmt(assignStmt, newInvoke);
+          batchEdit.replaceNode(assignStmt, newInvoke);
         }
+        batchEdit.commit();
       }
     }
   }
@@ -28,129 +28,142 @@ import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.BodyNumbering;
 
 /** @author Zun Wang */
 public class LocalLivenessAnalyser {
 
+  @Nonnull private final BodyNumbering numbering;
   // Each stmt(node) has out-edges and in-edges
   // A local is live-in at a node if it is live on any its in-edges
-  private final Map<Stmt, Set<Local>> liveIn = new HashMap<>();
+  // the BitSets are indexed by the numbers of the Locals and the arrays by the numbers of the Stmts
+  @Nonnull private final BitSet[] liveIn;
   // A local is live-out at a node if it is live on any of its out-edges.
   // e.g: a = b + c; live-in={b,c}  live-out={a,b,c}
-  private final Map<Stmt, Set<Local>> liveOut = new HashMap<>();
+  @Nonnull private final BitSet[] liveOut;
 
   public LocalLivenessAnalyser(@Nonnull StmtGraph<?> graph) {
-    // initial liveIn and liveOut
-    List<Stmt> startingStmts = new ArrayList<>();
-    for (Stmt stmt : graph.nodes()) {
-      liveIn.put(stmt, Collections.emptySet());
-      liveOut.put(stmt, Collections.emptySet());
-      if (graph.successors(stmt).isEmpty() && graph.exceptionalSuccessors(stmt).isEmpty()) {
-        startingStmts.add(stmt);
+    this(graph, new BodyNumbering(graph));
+  }
+
+  /** @param numbering a numbering of the current state of the graph */
+  public LocalLivenessAnalyser(@Nonnull StmtGraph<?> graph, @Nonnull BodyNumbering numbering) {
+    this.numbering = numbering;
+    final int stmtCount = numbering.getStmtCount();
+    liveIn = new BitSet[stmtCount];
+    liveOut = new BitSet[stmtCount];
+
+    final BitSet[] uses = new BitSet[stmtCount];
+    final int[] defs = new int[stmtCount];
+    final int[][] succs = new int[stmtCount][];
+    final int[] predCounts = new int[stmtCount];
+    for (int i = 0; i < stmtCount; i++) {
+      final Stmt stmt = numbering.getStmt(i);
+      final BitSet stmtUses = new BitSet();
+      stmt.forEachUse(
+          use -> {
+            final int localNumber = numbering.getLocalNumber(use);
+            if (localNumber >= 0) {
+              stmtUses.set(localNumber);
+            }
+          });
+      uses[i] = stmtUses;
+      final List<Value> stmtDefs = stmt.getDefs();
+      defs[i] = stmtDefs.isEmpty() ? -1 : numbering.getLocalNumber(stmtDefs.get(0));
+
+      final List<Stmt> successors = graph.successors(stmt);
+      final Collection<Stmt> exceptionalSuccessors = graph.exceptionalSuccessors(stmt).values();
+      final int[] stmtSuccs = new int[successors.size() + exceptionalSuccessors.size()];
+      int succIdx = 0;
+      for (Stmt succ : successors) {
+        stmtSuccs[succIdx++] = numbering.getNumber(succ);
+      }
+      for (Stmt esucc : exceptionalSuccessors) {
+        stmtSuccs[succIdx++] = numbering.getNumber(esucc);
+      }
+      succs[i] = stmtSuccs;
+      for (int succ : stmtSuccs) {
+        predCounts[succ]++;
+      }
+      liveIn[i] = new BitSet();
+      liveOut[i] = new BitSet();
+    }
+    final int[][] preds = new int[stmtCount][];
+    for (int i = 0; i < stmtCount; i++) {
+      preds[i] = new int[predCounts[i]];
+      predCounts[i] = 0;
+    }
+    for (int i = 0; i < stmtCount; i++) {
+      for (int succ : succs[i]) {
+        preds[succ][predCounts[succ]++] = i;
       }
     }
 
-    boolean fixed = false;
-    while (!fixed) {
-      fixed = true;
-      Deque<Stmt> queue = new ArrayDeque<>(startingStmts);
-      HashSet<Stmt> visitedStmts = new HashSet<>();
-      while (!queue.isEmpty()) {
-        Stmt stmt = queue.removeFirst();
-        visitedStmts.add(stmt);
-
-        Set<Local> out = new HashSet<>(liveOut.get(stmt));
-        for (Stmt succ : graph.successors(stmt)) {
-          out = merge(out, liveIn.get(succ));
-        }
-        for (Stmt esucc : graph.exceptionalSuccessors(stmt).values()) {
-          out = merge(out, liveIn.get(esucc));
-        }
-        if (isNotEqual(out, liveOut.get(stmt))) {
-          fixed = false;
-          liveOut.put(stmt, new HashSet<>(out));
-        }
+    // backward analysis: start with the last stmts so that most successors are processed first.
+    // a stmt is queued at most once, so the worklist is a ring buffer with a slot per stmt
+    final int[] worklist = new int[stmtCount];
+    final boolean[] isQueued = new boolean[stmtCount];
+    for (int i = 0; i < stmtCount; i++) {
+      worklist[i] = stmtCount - 1 - i;
+      isQueued[i] = true;
+    }
+    int head = 0;
+    int queued = stmtCount;
+    while (queued > 0) {
+      final int i = worklist[head];
+      head = head + 1 == stmtCount ? 0 : head + 1;
+      queued--;
+      isQueued[i] = false;
 
-        Set<Local> in = new HashSet<>();
-        for (Value use : stmt.getUses()) {
-          if (use instanceof Local) {
-            in.add((Local) use);
-          }
-        }
-        final List<Value> defs = stmt.getDefs();
-        if (!defs.isEmpty()) {
-          final Value value = defs.get(0);
-          if (value instanceof Local) {
-            out.remove(value);
-          }
-        }
-        in = merge(in, out);
-        if (isNotEqual(in, liveIn.get(stmt))) {
-          fixed = false;
-          liveIn.put(stmt, in);
-        }
-        for (Stmt pred : graph.predecessors(stmt)) {
-          if (!visitedStmts.contains(pred)) {
-            queue.addLast(pred);
-          }
-        }
-        for (Stmt epred : graph.exceptionalPredecessors(stmt)) {
-          if (!visitedStmts.contains(epred)) {
-            queue.addLast(epred);
+      final BitSet out = liveOut[i];
+      for (int succ : succs[i]) {
+        out.or(liveIn[succ]);
+      }
+      final BitSet in = (BitSet) out.clone();
+      if (defs[i] >= 0) {
+        in.clear(defs[i]);
+      }
+      in.or(uses[i]);
+      if (!in.equals(liveIn[i])) {
+        liveIn[i] = in;
+        for (int pred : preds[i]) {
+          if (!isQueued[pred]) {
+            isQueued[pred] = true;
+            final int tail = head + queued;
+            worklist[tail < stmtCount ? tail : tail - stmtCount] = pred;
+            queued++;
           }
         }
       }
     }
   }
 
-  /** Get all live locals before the given stmt. */
+  /**
+   * Get all live locals before the given stmt. A stmt which is not in the StmtGraph is looked up by
+   * equivalence, see {@link BodyNumbering#getNumberOfEquivalent(Stmt)}.
+   */
   @Nonnull
   public Set<Local> getLiveLocalsBeforeStmt(@Nonnull Stmt stmt) {
-    if (!liveIn.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
-    }
-    return liveIn.get(stmt);
+    return toLocals(liveIn, stmt);
   }
 
   /** Get all live locals after the given stmt. */
   @Nonnull
   public Set<Local> getLiveLocalsAfterStmt(@Nonnull Stmt stmt) {
-    if (!liveOut.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
-    }
-    return liveOut.get(stmt);
+    return toLocals(liveOut, stmt);
   }
 
-  /**
-   * Merge two local sets into one set.
-   *
-   * @return a merged local set
-   */
   @Nonnull
-  private Set<Local> merge(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.isEmpty()) {
-      return set2;
-    } else {
-      set1.addAll(set2);
-      return set1;
+  private Set<Local> toLocals(@Nonnull BitSet[] liveLocals, @Nonnull Stmt stmt) {
+    final int stmtNumber = numbering.getNumberOfEquivalent(stmt);
+    if (stmtNumber < 0) {
+      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
     }
-  }
-
-  /**
-   * Check whether two sets contains same locals.
-   *
-   * @return if same return true, else return false;
-   */
-  private boolean isNotEqual(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.size() != set2.size()) {
-      return true;
-    } else {
-      for (Local local : set1) {
-        if (!set2.contains(local)) {
-          return true;
-        }
-      }
+    final BitSet localNumbers = liveLocals[stmtNumber];
+    final Set<Local> locals = new HashSet<>(localNumbers.cardinality() * 2);
+    for (int i = localNumbers.nextSetBit(0); i >= 0; i = localNumbers.nextSetBit(i + 1)) {
+      locals.add(numbering.getLocal(i));
     }
-    return false;
+    return locals;
   }
 }
@@ -23,7 +23,7 @@ package sootup.java.bytecode.interceptors;
  */
 import java.util.*;
 import javax.annotation.Nonnull;
-import sootup.core.graph.StmtGraph;
+import sootup.core.graph.MutableStmtGraph;
 import sootup.core.jimple.common.stmt.JNopStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
@@ -38,24 +38,24 @@ import sootup.core.transform.BodyInterceptor;
 public class NopEliminator implements BodyInterceptor {
 
   /**
-   * Removes {@link JNopStmt}s from the given {@link Body}. Complexity is linear with respect to the
-   * statements.
+   * Removes {@link JNopStmt}s from the given {@link Body}. All nops are removed block by block in a
+   * single graph operation, so the complexity is linear with respect to the statements.
    *
    * @param builder The current body before interception.
    */
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder) {
-    StmtGraph<?> graph = builder.getStmtGraph();
+    MutableStmtGraph graph = builder.getStmtGraph();
 
-    Queue<Stmt> q = new ArrayDeque<>();
+    List<Stmt> nops = new ArrayList<>();
     for (Stmt stmt : graph.nodes()) {
       if (stmt instanceof JNopStmt) {
-        q.add(stmt);
+        nops.add(stmt);
       }
     }
 
-    for (Stmt stmt : q) {
-      builder.removeStmt(stmt);
+    if (!nops.isEmpty()) {
+      graph.removeNodes(nops);
     }
   }
 }
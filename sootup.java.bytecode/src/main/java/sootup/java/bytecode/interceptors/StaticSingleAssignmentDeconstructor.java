@@ -0,0 +1,411 @@
+package sootup.java.bytecode.interceptors;
+
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2023 Zun Wang
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.MutableStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.expr.JPhiExpr;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.JIdentityStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.BodyUtils;
+import sootup.core.transform.BodyInterceptor;
+
+/**
+ * Translates a Body out of Static Single Assignment Form i.e. removes the phiStmts which are
+ * created by {@link StaticSingleAssignmentFormer}.
+ *
+ * <p>The versions "name#n" of a Local whose live ranges do not interfere are renamed back to the
+ * original Local, which makes the phiStmts of them obsolete. For versions with interfering live
+ * ranges each phiStmt is replaced by a copy from a fresh temporary Local which is assigned in each
+ * predecessor block (Sreedhar et al., Method I). The copy is placed directly behind the definition
+ * of the argument if it is defined in the predecessor, otherwise at the beginning of the
+ * predecessor - so it is also valid if the predecessor reaches the phiStmt via an exceptional flow.
+ *
+ * @see <a href="https://doi.org/10.1007/3-540-48294-6_13">Sreedhar et al.: Translating Out of
+ *     Static Single Assignment Form</a>
+ */
+public class StaticSingleAssignmentDeconstructor implements BodyInterceptor {
+
+  @Override
+  public void interceptBody(@Nonnull Body.BodyBuilder builder) {
+    final MutableStmtGraph stmtGraph = builder.getStmtGraph();
+    if (stmtGraph.getStartingStmt() == null) {
+      return;
+    }
+
+    final List<BasicBlock<?>> blocks = new ArrayList<>(stmtGraph.getBlocks());
+    final Map<BasicBlock<?>, Integer> blockToIdx = new HashMap<>();
+    for (int i = 0; i < blocks.size(); i++) {
+      blockToIdx.put(blocks.get(i), i);
+    }
+
+    final List<Local> locals = new ArrayList<>(builder.getLocals());
+    final Map<Local, Integer> localToIdx = new HashMap<>();
+    for (int i = 0; i < locals.size(); i++) {
+      localToIdx.put(locals.get(i), i);
+    }
+
+    // collect the phiStmts and resolve the blocks of their arguments before anything is changed
+    final List<JAssignStmt<?, ?>> phiStmts = new ArrayList<>();
+    final List<int[]> phiPreds = new ArrayList<>();
+    final Map<Local, Stmt> localToDef = new HashMap<>();
+    for (BasicBlock<?> block : blocks) {
+      for (Stmt stmt : block.getStmts()) {
+        final Local def = getLocalDef(stmt);
+        if (def != null) {
+          localToDef.put(def, stmt);
+        }
+        if (isPhiStmt(stmt)) {
+          final JPhiExpr phi = (JPhiExpr) ((JAssignStmt<?, ?>) stmt).getRightOp();
+          final int[] preds = new int[phi.getArgsSize()];
+          for (int i = 0; i < preds.length; i++) {
+            final BasicBlock<?> predBlock = stmtGraph.getBlockOf(phi.getBlock(i).getTail());
+            preds[i] = blockToIdx.get(predBlock);
+          }
+          phiStmts.add((JAssignStmt<?, ?>) stmt);
+          phiPreds.add(preds);
+        }
+      }
+    }
+    if (phiStmts.isEmpty()) {
+      return;
+    }
+
+    // the copies for an argument are placed behind its definition or at the beginning of the
+    // predecessor. The anchors are determined before the Stmts get replaced.
+    final List<Stmt[]> phiArgDefAnchors = new ArrayList<>(phiStmts.size());
+    final List<Stmt[]> phiPredTails = new ArrayList<>(phiStmts.size());
+    for (int p = 0; p < phiStmts.size(); p++) {
+      final JPhiExpr phi = (JPhiExpr) phiStmts.get(p).getRightOp();
+      final int[] preds = phiPreds.get(p);
+      final Stmt[] argDefAnchors = new Stmt[preds.length];
+      final Stmt[] predTails = new Stmt[preds.length];
+      for (int i = 0; i < preds.length; i++) {
+        final BasicBlock<?> predBlock = blocks.get(preds[i]);
+        final Stmt argDef = localToDef.get(phi.getArg(i));
+        if (argDef != null && stmtGraph.getBlockOf(argDef).equals(predBlock)) {
+          argDefAnchors[i] = argDef;
+        }
+        predTails[i] = predBlock.getTail();
+      }
+      phiArgDefAnchors.add(argDefAnchors);
+      phiPredTails.add(predTails);
+    }
+
+    // Locals are grouped by the name of their original Local
+    final int[] localToGroup = new int[locals.size()];
+    final Map<String, Integer> nameToGroup = new HashMap<>();
+    for (int i = 0; i < locals.size(); i++) {
+      final String originalName = getOriginalName(locals.get(i));
+      Integer group = nameToGroup.get(originalName);
+      if (group == null) {
+        group = nameToGroup.size();
+        nameToGroup.put(originalName, group);
+      }
+      localToGroup[i] = group;
+    }
+
+    final BitSet interferingGroups =
+        findInterferingGroups(
+            stmtGraph, blocks, blockToIdx, localToIdx, localToGroup, phiStmts, phiPreds);
+
+    // rename the versions of the non interfering groups back to their original Local
+    final Local[] groupLocals = new Local[nameToGroup.size()];
+    final Local[] renaming = new Local[locals.size()];
+    for (int i = 0; i < locals.size(); i++) {
+      final Local local = locals.get(i);
+      final int group = localToGroup[i];
+      if (interferingGroups.get(group)) {
+        continue;
+      }
+      final String originalName = getOriginalName(local);
+      if (groupLocals[group] == null || local.getName().equals(originalName)) {
+        groupLocals[group] = local.withName(originalName);
+      }
+      renaming[i] = groupLocals[group];
+    }
+    for (int i = 0; i < locals.size(); i++) {
+      if (renaming[i] != null) {
+        renaming[i] = groupLocals[localToGroup[i]];
+      }
+    }
+    final Function<Local, Local> toOriginal =
+        local -> {
+          final Integer localIdx = localToIdx.get(local);
+          return localIdx == null || renaming[localIdx] == null ? local : renaming[localIdx];
+        };
+
+    final Map<Stmt, Stmt> replacedStmts = new HashMap<>();
+    for (BasicBlock<?> block : blocks) {
+      for (Stmt stmt : block.getStmts()) {
+        if (isPhiStmt(stmt)) {
+          continue;
+        }
+        Stmt newStmt = BodyUtils.withNewLocalUses(stmt, toOriginal);
+        final Local def = getLocalDef(stmt);
+        if (def != null && toOriginal.apply(def) != def) {
+          newStmt = BodyUtils.withNewDef(newStmt, toOriginal.apply(def));
+        }
+        if (newStmt != stmt) {
+          stmtGraph.replaceNode(stmt, newStmt);
+          replacedStmts.put(stmt, newStmt);
+        }
+      }
+    }
+
+    // remove the obsolete phiStmts and replace the others by a copy of a temporary Local
+    final StmtPositionInfo noPositionInfo = StmtPositionInfo.createNoStmtPositionInfo();
+    final Set<Local> tempLocals = new LinkedHashSet<>();
+    final List<Stmt> copies = new ArrayList<>();
+    final List<Stmt> copyAnchors = new ArrayList<>();
+    final List<Stmt> copyPredTails = new ArrayList<>();
+    for (int p = 0; p < phiStmts.size(); p++) {
+      final JAssignStmt<?, ?> phiStmt = phiStmts.get(p);
+      final Local def = (Local) phiStmt.getLeftOp();
+      if (toOriginal.apply(def) != def) {
+        removePhiStmt(stmtGraph, phiStmt);
+        continue;
+      }
+      final Local temp = def.withName(def.getName() + "#phi");
+      tempLocals.add(temp);
+      final Stmt copyOfTemp = Jimple.newAssignStmt(def, temp, noPositionInfo);
+      stmtGraph.replaceNode(phiStmt, copyOfTemp);
+      replacedStmts.put(phiStmt, copyOfTemp);
+
+      final JPhiExpr phi = (JPhiExpr) phiStmt.getRightOp();
+      final Stmt[] argDefAnchors = phiArgDefAnchors.get(p);
+      final Stmt[] predTails = phiPredTails.get(p);
+      for (int i = 0; i < argDefAnchors.length; i++) {
+        copies.add(Jimple.newAssignStmt(temp, phi.getArg(i), noPositionInfo));
+        copyAnchors.add(argDefAnchors[i]);
+        copyPredTails.add(predTails[i]);
+      }
+    }
+
+    for (int i = 0; i < copies.size(); i++) {
+      final Stmt copy = copies.get(i);
+      final Stmt anchor = copyAnchors.get(i);
+      if (anchor != null) {
+        final Stmt currentAnchor = replacedStmts.getOrDefault(anchor, anchor);
+        stmtGraph.insertAfter(
+            currentAnchor,
+            Collections.singletonList(copy),
+            stmtGraph.exceptionalSuccessors(currentAnchor));
+      } else {
+        final Stmt predTail = copyPredTails.get(i);
+        insertAtBlockBeginning(
+            stmtGraph, stmtGraph.getBlockOf(replacedStmts.getOrDefault(predTail, predTail)), copy);
+      }
+    }
+
+    final Set<Local> newLocals = new LinkedHashSet<>();
+    for (Local local : locals) {
+      newLocals.add(toOriginal.apply(local));
+    }
+    newLocals.addAll(tempLocals);
+    builder.setLocals(newLocals);
+  }
+
+  /**
+   * checks for each group of versions whether the live ranges of two of them interfere. In SSA form
+   * it is sufficient to check whether another version is live at the definition of a version.
+   */
+  @Nonnull
+  private BitSet findInterferingGroups(
+      @Nonnull MutableStmtGraph stmtGraph,
+      @Nonnull List<BasicBlock<?>> blocks,
+      @Nonnull Map<BasicBlock<?>, Integer> blockToIdx,
+      @Nonnull Map<Local, Integer> localToIdx,
+      @Nonnull int[] localToGroup,
+      @Nonnull List<JAssignStmt<?, ?>> phiStmts,
+      @Nonnull List<int[]> phiPreds) {
+    final int blockCount = blocks.size();
+    final BitSet[] defs = new BitSet[blockCount];
+    final BitSet[] upwardExposedUses = new BitSet[blockCount];
+    final BitSet[] phiUses = new BitSet[blockCount];
+    final int[][] succs = new int[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      final BasicBlock<?> block = blocks.get(b);
+      defs[b] = new BitSet();
+      upwardExposedUses[b] = new BitSet();
+      phiUses[b] = new BitSet();
+      for (Stmt stmt : block.getStmts()) {
+        if (!isPhiStmt(stmt)) {
+          final BitSet blockDefs = defs[b];
+          final BitSet blockUpwardExposedUses = upwardExposedUses[b];
+          stmt.forEachUse(
+              use -> {
+                final Integer localIdx = use instanceof Local ? localToIdx.get(use) : null;
+                if (localIdx != null && !blockDefs.get(localIdx)) {
+                  blockUpwardExposedUses.set(localIdx);
+                }
+              });
+        }
+        final Integer defIdx = getLocalDefIdx(stmt, localToIdx);
+        if (defIdx != null) {
+          defs[b].set(defIdx);
+        }
+      }
+      final Set<Integer> blockSuccs = new LinkedHashSet<>();
+      block.getSuccessors().forEach(succ -> blockSuccs.add(blockToIdx.get(succ)));
+      block
+          .getExceptionalSuccessors()
+          .values()
+          .forEach(succ -> blockSuccs.add(blockToIdx.get(succ)));
+      succs[b] = blockSuccs.stream().mapToInt(Integer::intValue).toArray();
+    }
+    // the arguments of a phi are live at the end of the corresponding predecessor
+    for (int p = 0; p < phiStmts.size(); p++) {
+      final JPhiExpr phi = (JPhiExpr) phiStmts.get(p).getRightOp();
+      final int[] preds = phiPreds.get(p);
+      for (int i = 0; i < preds.length; i++) {
+        final Integer argIdx = localToIdx.get(phi.getArg(i));
+        if (argIdx != null) {
+          phiUses[preds[i]].set(argIdx);
+        }
+      }
+    }
+
+    final BitSet[] liveIn = new BitSet[blockCount];
+    final BitSet[] liveOut = new BitSet[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      liveIn[b] = (BitSet) upwardExposedUses[b].clone();
+      liveOut[b] = (BitSet) phiUses[b].clone();
+    }
+    boolean isChanged = true;
+    while (isChanged) {
+      isChanged = false;
+      for (int b = blockCount - 1; b >= 0; b--) {
+        final BitSet out = (BitSet) phiUses[b].clone();
+        for (int succ : succs[b]) {
+          out.or(liveIn[succ]);
+        }
+        liveOut[b] = out;
+        final BitSet in = (BitSet) out.clone();
+        in.andNot(defs[b]);
+        in.or(upwardExposedUses[b]);
+        if (!in.equals(liveIn[b])) {
+          liveIn[b] = in;
+          isChanged = true;
+        }
+      }
+    }
+
+    final BitSet interferingGroups = new BitSet();
+    for (int b = 0; b < blockCount; b++) {
+      final BitSet live = (BitSet) liveOut[b].clone();
+      final List<Stmt> stmts = blocks.get(b).getStmts();
+      for (int i = stmts.size() - 1; i >= 0; i--) {
+        final Stmt stmt = stmts.get(i);
+        final Integer defIdx = getLocalDefIdx(stmt, localToIdx);
+        if (defIdx != null) {
+          final int group = localToGroup[defIdx];
+          for (int l = live.nextSetBit(0); l >= 0; l = live.nextSetBit(l + 1)) {
+            if (l != defIdx && localToGroup[l] == group) {
+              interferingGroups.set(group);
+              break;
+            }
+          }
+          live.clear(defIdx);
+        }
+        if (!isPhiStmt(stmt)) {
+          stmt.forEachUse(
+              use -> {
+                final Integer localIdx = use instanceof Local ? localToIdx.get(use) : null;
+                if (localIdx != null) {
+                  live.set(localIdx);
+                }
+              });
+        }
+      }
+    }
+    return interferingGroups;
+  }
+
+  private void removePhiStmt(@Nonnull MutableStmtGraph stmtGraph, @Nonnull Stmt phiStmt) {
+    if (stmtGraph.getStartingStmt() == phiStmt) {
+      final Stmt nextStmt = stmtGraph.successors(phiStmt).get(0);
+      stmtGraph.removeNode(phiStmt);
+      stmtGraph.setStartingStmt(nextStmt);
+    } else {
+      stmtGraph.removeNode(phiStmt);
+    }
+  }
+
+  /** inserts stmt at the beginning of block but behind its IdentityStmts. */
+  private void insertAtBlockBeginning(
+      @Nonnull MutableStmtGraph stmtGraph, @Nonnull BasicBlock<?> block, @Nonnull Stmt stmt) {
+    final List<Stmt> stmts = block.getStmts();
+    int identityStmtCount = 0;
+    while (identityStmtCount < stmts.size()
+        && stmts.get(identityStmtCount) instanceof JIdentityStmt) {
+      identityStmtCount++;
+    }
+    if (identityStmtCount > 0) {
+      final Stmt anchor = stmts.get(identityStmtCount - 1);
+      stmtGraph.insertAfter(
+          anchor, Collections.singletonList(stmt), stmtGraph.exceptionalSuccessors(anchor));
+    } else {
+      final Stmt anchor = stmts.get(0);
+      stmtGraph.insertBefore(
+          anchor, Collections.singletonList(stmt), stmtGraph.exceptionalSuccessors(anchor));
+    }
+  }
+
+  private static boolean isPhiStmt(@Nonnull Stmt stmt) {
+    return stmt instanceof JAssignStmt
+        && ((JAssignStmt<?, ?>) stmt).getRightOp() instanceof JPhiExpr;
+  }
+
+  private static Local getLocalDef(@Nonnull Stmt stmt) {
+    if (stmt instanceof JAssignStmt || stmt instanceof JIdentityStmt) {
+      final List<Value> defs = stmt.getDefs();
+      if (!defs.isEmpty() && defs.get(0) instanceof Local) {
+        return (Local) defs.get(0);
+      }
+    }
+    return null;
+  }
+
+  private static Integer getLocalDefIdx(
+      @Nonnull Stmt stmt, @Nonnull Map<Local, Integer> localToIdx) {
+    final Local def = getLocalDef(stmt);
+    return def == null ? null : localToIdx.get(def);
+  }
+
+  @Nonnull
+  private static String getOriginalName(@Nonnull Local local) {
+    final String name = local.getName();
+    final int hashPos = name.indexOf('#');
+    return hashPos < 0 ? name : name.substring(0, hashPos);
+  }
+}
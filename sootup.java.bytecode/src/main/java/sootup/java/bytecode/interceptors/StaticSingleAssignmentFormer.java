@@ -23,16 +23,17 @@ package sootup.java.bytecode.interceptors;
  */
 
 import java.util.*;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import sootup.core.graph.BasicBlock;
 import sootup.core.graph.DominanceFinder;
-import sootup.core.graph.DominanceTree;
 import sootup.core.graph.MutableStmtGraph;
+import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.StmtPositionInfo;
 import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.expr.JPhiExpr;
 import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.JIdentityStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.model.BodyUtils;
@@ -42,330 +43,512 @@ import sootup.core.transform.BodyInterceptor;
  * In Static Single Assignment Form, each variable be assigned exactly once, and every variable be
  * defined before it is used.
  *
+ * <p>The phi functions are placed in the iterated dominance frontiers of the definitions of a
+ * Local. Depending on the {@link PhiPlacement} the placement is restricted to the Locals which are
+ * live at the entry of the join block (pruned SSA) or to Locals which are used across block borders
+ * (semi-pruned SSA). Blocks, Locals and dominance frontiers are numbered densely so the placement
+ * and the liveness analysis work on int arrays and BitSets. The versions of a Local are named
+ * "name#n". Use {@link StaticSingleAssignmentDeconstructor} to translate the Body back.
+ *
  * @author Zun Wang
  * @see <a
  *     href="https://en.wikipedia.org/wiki/Static_single_assignment_form">https://en.wikipedia.org/wiki/Static_single_assignment_form</a>
  */
 public class StaticSingleAssignmentFormer implements BodyInterceptor {
 
+  /** Decides for which Locals a phi function is placed at a join block. */
+  public enum PhiPlacement {
+    /** at each block of the iterated dominance frontier of a definition. */
+    MINIMAL,
+    /**
+     * like MINIMAL but only for Locals which are used in a different block than they are defined.
+     */
+    SEMI_PRUNED,
+    /** only if the Local is live at the entry of the join block. */
+    PRUNED
+  }
+
+  @Nonnull private final PhiPlacement phiPlacement;
+
+  public StaticSingleAssignmentFormer() {
+    this(PhiPlacement.PRUNED);
+  }
+
+  public StaticSingleAssignmentFormer(@Nonnull PhiPlacement phiPlacement) {
+    this.phiPlacement = phiPlacement;
+  }
+
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder) {
+    final MutableStmtGraph stmtGraph = builder.getStmtGraph();
+    if (stmtGraph.getStartingStmt() == null) {
+      return;
+    }
 
-    Set<Local> newLocals = new LinkedHashSet<>(builder.getLocals());
-    int nextFreeIdx = 0;
-
-    MutableStmtGraph stmtGraph = builder.getStmtGraph();
-
-    // Keys: all blocks in BlockGraph. Values: a set of locals which defined in the corresponding
-    // block
-    Map<BasicBlock<?>, Set<Local>> blockToDefs = new HashMap<>();
-
-    // Keys: all locals in BodyBuilder. Values: a set of blocks which contains stmts with
-    // corresponding local's def.
-    Map<Local, Set<BasicBlock<?>>> localToBlocks = new HashMap<>();
-
-    // determine blockToDefs and localToBlocks by iterating all blocks.
-    for (BasicBlock<?> block : stmtGraph.getBlocks()) {
-      Set<Local> defs = new HashSet<>();
-      for (Stmt stmt : block.getStmts()) {
-        if (!stmt.getDefs().isEmpty() && stmt.getDefs().get(0) instanceof Local) {
-          Local local = (Local) stmt.getDefs().get(0);
-          defs.add(local);
-          if (localToBlocks.containsKey(local)) {
-            localToBlocks.get(local).add(block);
-          } else {
-            Set<BasicBlock<?>> bs = new HashSet<>();
-            bs.add(block);
-            localToBlocks.put(local, bs);
-          }
+    // blocks are numbered in reverse postorder - unreachable blocks have no immediate dominator
+    final DominanceFinder dominanceFinder = new DominanceFinder(stmtGraph);
+    final List<BasicBlock<?>> blocks = dominanceFinder.getIdxToBlock();
+    final Map<BasicBlock<?>, Integer> blockToIdx = dominanceFinder.getBlockToIdx();
+    final int[] iDoms = dominanceFinder.getImmediateDominators();
+    final int blockCount = blocks.size();
+
+    final List<Local> locals = new ArrayList<>(builder.getLocals());
+    final Map<Local, Integer> localToIdx = new HashMap<>();
+    for (int i = 0; i < locals.size(); i++) {
+      localToIdx.put(locals.get(i), i);
+    }
+    // Locals which are still referenced in the Body after renaming i.e. used before any definition
+    // or used in unreachable code
+    final BitSet remainingLocals = new BitSet(locals.size());
+
+    final Stmt[][] blockStmts = new Stmt[blockCount][];
+    final BitSet[] blockDefs = new BitSet[blockCount];
+    final BitSet[] blockUpwardExposedUses = new BitSet[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      final Stmt[] stmts = blocks.get(b).getStmts().toArray(new Stmt[0]);
+      final BitSet defs = new BitSet();
+      final BitSet upwardExposedUses = new BitSet();
+      for (Stmt stmt : stmts) {
+        stmt.forEachUse(
+            use -> {
+              final Integer localIdx = use instanceof Local ? localToIdx.get(use) : null;
+              if (localIdx != null && !defs.get(localIdx)) {
+                upwardExposedUses.set(localIdx);
+              }
+            });
+        final Integer localIdx = getLocalDefIdx(stmt, localToIdx);
+        if (localIdx != null) {
+          defs.set(localIdx);
         }
       }
-      blockToDefs.put(block, defs);
+      if (iDoms[b] == -1) {
+        // unreachable blocks are not renamed
+        remainingLocals.or(defs);
+        remainingLocals.or(upwardExposedUses);
+      }
+      blockStmts[b] = stmts;
+      blockDefs[b] = defs;
+      blockUpwardExposedUses[b] = upwardExposedUses;
     }
 
-    DominanceFinder dominanceFinder = new DominanceFinder(stmtGraph);
-
-    // decide which block should be add a phi assignStmt, and store such info in a map
-    // key: Block which contains phiStmts. Values : a set of phiStmts which contained by
-    // corresponding Block
-    Map<BasicBlock<?>, Set<Stmt>> blockToPhiStmts =
-        decideBlockToPhiStmts(builder, dominanceFinder, blockToDefs, localToBlocks);
+    final int[][] succs = new int[blockCount][];
+    final int[][] preds = new int[blockCount][];
+    collectFlows(blocks, blockToIdx, succs, preds);
+
+    final BitSet[] liveIn =
+        phiPlacement == PhiPlacement.PRUNED
+            ? computeLiveIn(succs, blockDefs, blockUpwardExposedUses)
+            : null;
+    final BitSet nonLocalLocals = new BitSet(locals.size());
+    for (BitSet upwardExposedUses : blockUpwardExposedUses) {
+      nonLocalLocals.or(upwardExposedUses);
+    }
 
-    // delete meaningless phiStmts and add other phiStmts into stmtGraph
-    addPhiStmts(blockToPhiStmts, stmtGraph, blockToDefs);
+    final BitSet[] frontiers = new BitSet[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      frontiers[b] = dominanceFinder.getDominanceFrontier(b);
+    }
 
-    DominanceTree tree = new DominanceTree(dominanceFinder);
+    final int[][] phiLocals =
+        placePhis(locals.size(), iDoms, frontiers, blockDefs, liveIn, nonLocalLocals);
 
-    Map<Local, Stack<Local>> localToNameStack = new HashMap<>();
-    for (Local local : builder.getLocals()) {
-      localToNameStack.put(local, new Stack<>());
+    // rename the Locals in a preorder traversal of the dominator tree
+    final Set<Local> newLocals = new LinkedHashSet<>();
+    final Local[][] phiDefs = new Local[blockCount][];
+    final Local[][][] phiArgs = new Local[blockCount][][];
+    for (int b = 0; b < blockCount; b++) {
+      phiDefs[b] = new Local[phiLocals[b].length];
+      phiArgs[b] = new Local[phiLocals[b].length][preds[b].length];
     }
 
-    List<BasicBlock<?>> treeNodes = tree.getAllNodesDFS();
-    List<BasicBlock<?>> blockStack = new ArrayList<>();
-    Set<BasicBlock<?>> visited = new HashSet<>();
-
-    // rename each def-local and its corresponding name and add args and blocks into phiStmts
-    for (BasicBlock<?> block : treeNodes) {
-      // replace use and def in each stmts in the current block
-      Set<Stmt> newPhiStmts = new HashSet<>();
-      for (Stmt stmt : block.getStmts()) {
-        // replace use
-        final List<Value> uses = stmt.getUses();
-        if (!uses.isEmpty() && !constainsPhiExpr(stmt)) {
-          for (Value use : uses) {
-            if (use instanceof Local) {
-              Local newUse = localToNameStack.get(use).peek();
-              Stmt newStmt = BodyUtils.withNewUse(stmt, use, newUse);
-              stmtGraph.replaceNode(stmt, newStmt);
-              stmt = newStmt;
-            }
+    final NameStacks nameStacks = new NameStacks(locals.size(), blockCount);
+    final BitSet renamedLocals = new BitSet(locals.size());
+    final Function<Local, Local> currentName =
+        local -> {
+          final Integer localIdx = localToIdx.get(local);
+          if (localIdx == null) {
+            return local;
           }
-        }
-        // generate new def and replace with new def
-        final List<Value> defs = stmt.getDefs();
-        if (!defs.isEmpty() && defs.get(0) instanceof Local) {
-          Local def = (Local) defs.get(0);
-          Local newDef = def.withName(def.getName() + "#" + nextFreeIdx);
-          newLocals.add(newDef);
-          nextFreeIdx++;
-          localToNameStack.get(def).push(newDef);
-          Stmt newStmt = BodyUtils.withNewDef(stmt, newDef);
-          stmtGraph.replaceNode(stmt, newStmt);
-          if (constainsPhiExpr(newStmt)) {
-            newPhiStmts.add(newStmt);
+          final Local top = nameStacks.peek(localIdx);
+          if (top == null) {
+            remainingLocals.set(localIdx);
+            return local;
           }
-        }
+          return top;
+        };
+
+    final int[][] domTreeChildren = buildDominatorTree(iDoms);
+    final int[] dfsStack = new int[2 * blockCount];
+    int dfsStackSize = 0;
+    dfsStack[dfsStackSize++] = 0;
+    int nextFreeIdx = 0;
+    while (dfsStackSize > 0) {
+      final int entry = dfsStack[--dfsStackSize];
+      if (entry < 0) {
+        // all blocks dominated by this block are renamed
+        nameStacks.popBlock(~entry);
+        continue;
       }
-      visited.add(block);
-      blockStack.add(block);
-      if (blockToPhiStmts.containsKey(block)) {
-        blockToPhiStmts.put(block, newPhiStmts);
+      final int b = entry;
+      nameStacks.markBlock(b);
+
+      final int[] blockPhiLocals = phiLocals[b];
+      for (int k = 0; k < blockPhiLocals.length; k++) {
+        final int localIdx = blockPhiLocals[k];
+        final Local newDef = newVersion(locals.get(localIdx), nextFreeIdx++, newLocals);
+        renamedLocals.set(localIdx);
+        nameStacks.push(localIdx, newDef);
+        phiDefs[b][k] = newDef;
       }
 
-      // if successors has phiStmts, add corresponding args and this block into the phiStmts
-      List<BasicBlock<?>> succs = new ArrayList<>(block.getSuccessors());
-      succs.addAll(block.getExceptionalSuccessors().values());
-      for (BasicBlock<?> succ : succs) {
-        if (blockToPhiStmts.containsKey(succ)) {
-          Set<Stmt> phiStmts = blockToPhiStmts.get(succ);
-          newPhiStmts = new HashSet<>(phiStmts);
-          for (Stmt phiStmt : phiStmts) {
-            Local def = (Local) phiStmt.getDefs().get(0);
-            Local oriDef = getOriginalLocal(def, localToNameStack.keySet());
-            if (!localToNameStack.get(oriDef).isEmpty()) {
-              Local arg = localToNameStack.get(oriDef).peek();
-              Stmt newPhiStmt = addNewArgToPhi(phiStmt, arg, block);
-              newPhiStmts.remove(phiStmt);
-              newPhiStmts.add(newPhiStmt);
-              stmtGraph.replaceNode(phiStmt, newPhiStmt);
-            }
-          }
-          blockToPhiStmts.put(succ, newPhiStmts);
+      final Stmt[] stmts = blockStmts[b];
+      for (int i = 0; i < stmts.length; i++) {
+        final Stmt stmt = stmts[i];
+        Stmt newStmt = BodyUtils.withNewLocalUses(stmt, currentName);
+        final Integer localIdx = getLocalDefIdx(stmt, localToIdx);
+        if (localIdx != null) {
+          final Local newDef = newVersion(locals.get(localIdx), nextFreeIdx++, newLocals);
+          renamedLocals.set(localIdx);
+          nameStacks.push(localIdx, newDef);
+          newStmt = BodyUtils.withNewDef(newStmt, newDef);
+        }
+        if (newStmt != stmt) {
+          stmtGraph.replaceNode(stmt, newStmt);
+          stmts[i] = newStmt;
         }
       }
 
-      // if a block's children in dominance tree are visited, pop this block from block stack, and
-      // pop all defs in this block from the localToNameStack
-      BasicBlock<?> top = blockStack.get(blockStack.size() - 1);
-      List<BasicBlock<?>> children = tree.getChildren(top);
-      while (containsAllChildren(visited, children)) {
-        blockStack.remove(blockStack.size() - 1);
-        for (Stmt stmt : top.getStmts()) {
-          if (!stmt.getDefs().isEmpty() && stmt.getDefs().get(0) instanceof Local) {
-            Local def = (Local) stmt.getDefs().get(0);
-            Local oriDef = getOriginalLocal(def, localToNameStack.keySet());
-            if (!localToNameStack.get(oriDef).isEmpty()) {
-              localToNameStack.get(oriDef).pop();
-            }
-          }
+      // fill in the arguments of the phis in the successors which flow from this block
+      for (int succ : succs[b]) {
+        final int[] succPhiLocals = phiLocals[succ];
+        if (succPhiLocals.length == 0) {
+          continue;
         }
-        if (!blockStack.isEmpty()) {
-          top = blockStack.get(blockStack.size() - 1);
-          children = tree.getChildren(top);
-        } else {
-          break;
+        final int slot = indexOf(preds[succ], b);
+        for (int k = 0; k < succPhiLocals.length; k++) {
+          phiArgs[succ][k][slot] = nameStacks.peek(succPhiLocals[k]);
         }
       }
+
+      dfsStack[dfsStackSize++] = ~b;
+      final int[] children = domTreeChildren[b];
+      for (int i = children.length - 1; i >= 0; i--) {
+        dfsStack[dfsStackSize++] = children[i];
+      }
     }
-    builder.setLocals(newLocals);
+
+    insertPhiStmts(stmtGraph, blockStmts, preds, phiDefs, phiArgs);
+
+    final Set<Local> resultLocals = new LinkedHashSet<>();
+    for (int i = 0; i < locals.size(); i++) {
+      if (!renamedLocals.get(i) || remainingLocals.get(i)) {
+        resultLocals.add(locals.get(i));
+      }
+    }
+    resultLocals.addAll(newLocals);
+    builder.setLocals(resultLocals);
   }
 
   /**
-   * This method is used to decide which block should add phiStmts. Note: some phiStmts maybe
-   * contain just one argument, it should be not added into StmtGraph
-   *
-   * @param dominanceFinder an object of DomimanceFinder, it should be created by the given
-   *     blockGraph
-   * @param blockToDefs maps each block to the set of defs' local in itself
-   * @param localToBlocks maps each def local to the set of blocks where it is defined.
-   * @return a map, key: block, value: a set of phiStmts that are added in front of the
-   *     corresponding block
+   * inserts the phiStmts at the beginning of their blocks (behind the IdentityStmts). Inserting can
+   * replace the Blocks of the StmtGraph, so the phiStmts are inserted with a placeholder first and
+   * the Blocks referenced by the JPhiExprs are determined after all insertions are done.
    */
-  private Map<BasicBlock<?>, Set<Stmt>> decideBlockToPhiStmts(
-      Body.BodyBuilder builder,
-      DominanceFinder dominanceFinder,
-      Map<BasicBlock<?>, Set<Local>> blockToDefs,
-      Map<Local, Set<BasicBlock<?>>> localToBlocks) {
-    Map<BasicBlock<?>, Set<Stmt>> blockToPhiStmts = new HashMap<>();
-    Map<BasicBlock<?>, Set<Local>> blockToPhiLocals = new HashMap<>();
-    Map<Local, Set<BasicBlock<?>>> localToPhiBlocks = new HashMap<>();
-
-    for (Local local : builder.getLocals()) {
-      localToPhiBlocks.put(local, new HashSet<>());
-      Deque<BasicBlock<?>> blocks = new ArrayDeque<>(localToBlocks.get(local));
-      while (!blocks.isEmpty()) {
-        BasicBlock<?> block = blocks.removeFirst();
-        Set<BasicBlock<?>> dfs = dominanceFinder.getDominanceFrontiers(block);
-        // Only dominance frontiers of a block can add a phiStmt
-        for (BasicBlock<?> df : dfs) {
-          final Set<BasicBlock<?>> basicBlocks = localToPhiBlocks.get(local);
-          if (!basicBlocks.contains(df)) {
-            basicBlocks.add(df);
-
-            // create an empty phiStmt
-            JAssignStmt<?, ?> phiStmt = createEmptyPhiStmt(local);
-
-            // store phiStmt into map
-            if (blockToPhiStmts.containsKey(df)) {
-              blockToPhiStmts.get(df).add(phiStmt);
-              blockToPhiLocals.get(df).add(local);
-            } else {
-              Set<Stmt> phiStmts = new LinkedHashSet<>();
-              phiStmts.add(phiStmt);
-              blockToPhiStmts.put(df, phiStmts);
-              Set<Local> phiLocals = new HashSet<>();
-              phiLocals.add(local);
-              blockToPhiLocals.put(df, phiLocals);
-            }
-
-            // if the dominance frontier contains no such local, its dominance frontier should add a
-            // phiStmt, so add it into queue
-            if (!blockToDefs.get(df).contains(local)) {
-              blocks.add(df);
-            }
-          }
-        }
+  private void insertPhiStmts(
+      @Nonnull MutableStmtGraph stmtGraph,
+      @Nonnull Stmt[][] blockStmts,
+      @Nonnull int[][] preds,
+      @Nonnull Local[][] phiDefs,
+      @Nonnull Local[][][] phiArgs) {
+    final StmtPositionInfo noPositionInfo = StmtPositionInfo.createNoStmtPositionInfo();
+    final Stmt[][] placeholders = new Stmt[phiDefs.length][];
+    for (int b = 0; b < phiDefs.length; b++) {
+      final Local[] defs = phiDefs[b];
+      if (defs.length == 0 || defs[0] == null) {
+        // no phis or block is unreachable
+        continue;
+      }
+      final List<Stmt> phiStmts = new ArrayList<>(defs.length);
+      for (Local def : defs) {
+        phiStmts.add(
+            Jimple.newAssignStmt(
+                def,
+                Jimple.newPhiExpr(Collections.emptyList(), Collections.emptyList()),
+                noPositionInfo));
+      }
+      placeholders[b] = phiStmts.toArray(new Stmt[0]);
+
+      final Stmt[] stmts = blockStmts[b];
+      int identityStmtCount = 0;
+      while (identityStmtCount < stmts.length
+          && stmts[identityStmtCount] instanceof JIdentityStmt) {
+        identityStmtCount++;
+      }
+      if (identityStmtCount > 0) {
+        final Stmt anchor = stmts[identityStmtCount - 1];
+        stmtGraph.insertAfter(anchor, phiStmts, stmtGraph.exceptionalSuccessors(anchor));
+      } else {
+        final Stmt anchor = stmts[0];
+        stmtGraph.insertBefore(anchor, phiStmts, stmtGraph.exceptionalSuccessors(anchor));
       }
     }
 
-    // if a block has a phiStmt, the local of the phiStmt should be added into blockToDefs
-    for (BasicBlock<?> block : blockToPhiLocals.keySet()) {
-      blockToDefs.get(block).addAll(blockToPhiLocals.get(block));
+    for (int b = 0; b < placeholders.length; b++) {
+      if (placeholders[b] == null) {
+        continue;
+      }
+      for (int k = 0; k < placeholders[b].length; k++) {
+        final List<Local> args = new ArrayList<>(preds[b].length);
+        final List<BasicBlock<?>> argBlocks = new ArrayList<>(preds[b].length);
+        for (int slot = 0; slot < preds[b].length; slot++) {
+          final Local arg = phiArgs[b][k][slot];
+          if (arg != null) {
+            final Stmt[] predStmts = blockStmts[preds[b][slot]];
+            args.add(arg);
+            argBlocks.add(stmtGraph.getBlockOf(predStmts[predStmts.length - 1]));
+          }
+        }
+        stmtGraph.replaceNode(
+            placeholders[b][k],
+            Jimple.newAssignStmt(
+                phiDefs[b][k], Jimple.newPhiExpr(args, argBlocks), noPositionInfo));
+      }
     }
-    return blockToPhiStmts;
   }
 
   /**
-   * Delete the phiStmts which contain only one argument, and add other undeleted phiStmts into
-   * blockGraph
+   * computes for each Local the iterated dominance frontier of its definitions.
    *
-   * @param blockToPhiStmts a map, key: block, value: a set of phiStmts that are added in front of
-   *     the corresponding block
-   * @param blockGraph blockGraph where the phiStmt should be added
-   * @param blockToDefs maps each block to the set of defs' local in itself
+   * @return the indices of the Locals which need a phi at the beginning of the block
    */
-  private void addPhiStmts(
-      Map<BasicBlock<?>, Set<Stmt>> blockToPhiStmts,
-      MutableStmtGraph blockGraph,
-      Map<BasicBlock<?>, Set<Local>> blockToDefs) {
-
-    // key: phiStmt  value: size of phiStmt's arguments
-    Map<Stmt, Integer> phiToNum = new HashMap();
-
-    // determine the arguments' size of each phiStmt
-    for (BasicBlock<?> block : blockGraph.getBlocks()) {
-      List<BasicBlock<?>> succs = new ArrayList<>(block.getSuccessors());
-      succs.addAll(block.getExceptionalSuccessors().values());
-
-      for (BasicBlock<?> succ : succs) {
-        if (blockToPhiStmts.containsKey(succ)) {
-          for (Stmt phi : blockToPhiStmts.get(succ)) {
-            Local local = (Local) phi.getDefs().get(0);
-            if (blockToDefs.get(block).contains(local)) {
-              if (phiToNum.containsKey(phi)) {
-                int num = phiToNum.get(phi);
-                phiToNum.replace(phi, num + 1);
-              } else {
-                phiToNum.put(phi, 1);
-              }
-            }
+  @Nonnull
+  private int[][] placePhis(
+      int localCount,
+      @Nonnull int[] iDoms,
+      @Nonnull BitSet[] frontiers,
+      @Nonnull BitSet[] blockDefs,
+      BitSet[] liveIn,
+      @Nonnull BitSet nonLocalLocals) {
+    final int blockCount = iDoms.length;
+    final BitSet[] blockPhis = new BitSet[blockCount];
+    final int[] hasPhi = new int[blockCount];
+    final int[] wasQueued = new int[blockCount];
+    final int[] worklist = new int[blockCount];
+
+    for (int localIdx = 0; localIdx < localCount; localIdx++) {
+      if (phiPlacement == PhiPlacement.SEMI_PRUNED && !nonLocalLocals.get(localIdx)) {
+        // the Local is never live across a block border
+        continue;
+      }
+      final int stamp = localIdx + 1;
+      int worklistSize = 0;
+      for (int b = 0; b < blockCount; b++) {
+        if (iDoms[b] != -1 && blockDefs[b].get(localIdx)) {
+          wasQueued[b] = stamp;
+          worklist[worklistSize++] = b;
+        }
+      }
+      while (worklistSize > 0) {
+        final int b = worklist[--worklistSize];
+        final BitSet frontier = frontiers[b];
+        for (int df = frontier.nextSetBit(0); df >= 0; df = frontier.nextSetBit(df + 1)) {
+          if (hasPhi[df] == stamp) {
+            continue;
+          }
+          if (liveIn != null && !liveIn[df].get(localIdx)) {
+            // pruned: the Local is dead at the entry of df so the phi would be dead as well
+            continue;
+          }
+          hasPhi[df] = stamp;
+          if (blockPhis[df] == null) {
+            blockPhis[df] = new BitSet(localCount);
+          }
+          blockPhis[df].set(localIdx);
+          if (wasQueued[df] != stamp) {
+            wasQueued[df] = stamp;
+            worklist[worklistSize++] = df;
           }
         }
       }
     }
 
-    // if the arguments' size of a phiStmt is less than 2, delete it from blockToPhiStmts map
-    // add other phiStmts into corresponding block
-    for (BasicBlock<?> block : blockToPhiStmts.keySet()) {
-      Set<Stmt> phis = blockToPhiStmts.get(block);
-      Set<Stmt> checkedPhis = new HashSet<>(blockToPhiStmts.get(block));
-      for (Stmt cphi : checkedPhis) {
-        if (phiToNum.get(cphi) < 2) {
-          phis.remove(cphi);
+    final int[][] phiLocals = new int[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      phiLocals[b] = blockPhis[b] == null ? new int[0] : blockPhis[b].stream().toArray();
+    }
+    return phiLocals;
+  }
+
+  /** backwards data flow analysis which computes the Locals that are live at the block entries. */
+  @Nonnull
+  private static BitSet[] computeLiveIn(
+      @Nonnull int[][] succs,
+      @Nonnull BitSet[] blockDefs,
+      @Nonnull BitSet[] blockUpwardExposedUses) {
+    final int blockCount = succs.length;
+    final BitSet[] liveIn = new BitSet[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      liveIn[b] = (BitSet) blockUpwardExposedUses[b].clone();
+    }
+    boolean isChanged = true;
+    while (isChanged) {
+      isChanged = false;
+      // the blocks are numbered in reverse postorder -> iterate backwards for a fast convergence
+      for (int b = blockCount - 1; b >= 0; b--) {
+        final BitSet live = new BitSet();
+        for (int succ : succs[b]) {
+          live.or(liveIn[succ]);
+        }
+        live.andNot(blockDefs[b]);
+        live.or(blockUpwardExposedUses[b]);
+        if (!live.equals(liveIn[b])) {
+          liveIn[b] = live;
+          isChanged = true;
+        }
+      }
+    }
+    return liveIn;
+  }
+
+  /** collects the distinct (exceptional) successors and predecessors of each block as indices. */
+  private static void collectFlows(
+      @Nonnull List<BasicBlock<?>> blocks,
+      @Nonnull Map<BasicBlock<?>, Integer> blockToIdx,
+      @Nonnull int[][] succs,
+      @Nonnull int[][] preds) {
+    final int blockCount = blocks.size();
+    final int[] predCount = new int[blockCount];
+    final int[] seen = new int[blockCount];
+    Arrays.fill(seen, -1);
+    final int[] buffer = new int[blockCount];
+    for (int b = 0; b < blockCount; b++) {
+      final BasicBlock<?> block = blocks.get(b);
+      int size = 0;
+      for (BasicBlock<?> succ : block.getSuccessors()) {
+        final int succIdx = blockToIdx.get(succ);
+        if (seen[succIdx] != b) {
+          seen[succIdx] = b;
+          buffer[size++] = succIdx;
+        }
+      }
+      for (BasicBlock<?> succ : block.getExceptionalSuccessors().values()) {
+        final int succIdx = blockToIdx.get(succ);
+        if (seen[succIdx] != b) {
+          seen[succIdx] = b;
+          buffer[size++] = succIdx;
         }
       }
-      for (Stmt phi : phis) {
-        blockGraph.insertBefore(block.getHead(), phi);
+      succs[b] = Arrays.copyOf(buffer, size);
+      for (int i = 0; i < size; i++) {
+        predCount[buffer[i]]++;
+      }
+    }
+    for (int b = 0; b < blockCount; b++) {
+      preds[b] = new int[predCount[b]];
+      predCount[b] = 0;
+    }
+    for (int b = 0; b < blockCount; b++) {
+      for (int succ : succs[b]) {
+        preds[succ][predCount[succ]++] = b;
       }
     }
   }
 
-  private boolean containsAllChildren(Set<BasicBlock<?>> blockSet, List<BasicBlock<?>> children) {
-    for (BasicBlock<?> child : children) {
-      if (!blockSet.contains(child)) {
-        return false;
+  @Nonnull
+  private static int[][] buildDominatorTree(@Nonnull int[] iDoms) {
+    final int blockCount = iDoms.length;
+    final int[] childCount = new int[blockCount];
+    for (int b = 1; b < blockCount; b++) {
+      if (iDoms[b] != -1) {
+        childCount[iDoms[b]]++;
+      }
+    }
+    final int[][] children = new int[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      children[b] = new int[childCount[b]];
+      childCount[b] = 0;
+    }
+    for (int b = 1; b < blockCount; b++) {
+      if (iDoms[b] != -1) {
+        children[iDoms[b]][childCount[iDoms[b]]++] = b;
       }
     }
-    return true;
+    return children;
   }
 
-  private boolean constainsPhiExpr(Stmt stmt) {
-    if (stmt instanceof JAssignStmt && !stmt.getUses().isEmpty()) {
-      for (Value use : stmt.getUses()) {
-        if (use instanceof JPhiExpr) {
-          return true;
-        }
+  private static Integer getLocalDefIdx(
+      @Nonnull Stmt stmt, @Nonnull Map<Local, Integer> localToIdx) {
+    if (stmt instanceof JAssignStmt || stmt instanceof JIdentityStmt) {
+      final List<Value> defs = stmt.getDefs();
+      if (!defs.isEmpty() && defs.get(0) instanceof Local) {
+        return localToIdx.get(defs.get(0));
       }
     }
-    return false;
+    return null;
   }
 
-  private JAssignStmt<?, ?> createEmptyPhiStmt(Local local) {
-    JPhiExpr phi = new JPhiExpr(Collections.emptyList(), Collections.emptyMap());
-    return new JAssignStmt<>(local, phi, StmtPositionInfo.createNoStmtPositionInfo());
+  @Nonnull
+  private static Local newVersion(
+      @Nonnull Local local, int version, @Nonnull Set<Local> newLocals) {
+    final Local newLocal = local.withName(local.getName() + "#" + version);
+    newLocals.add(newLocal);
+    return newLocal;
   }
 
-  private Local getOriginalLocal(Local local, Set<Local> oriLocals) {
-    if (oriLocals.contains(local)) {
-      return local;
-    }
-    int hashPos = local.getName().indexOf('#');
-    String oriName = local.getName().substring(0, hashPos);
-    for (Local oriLocal : oriLocals) {
-      if (oriLocal.getName().equals(oriName)) {
-        return oriLocal;
+  private static int indexOf(@Nonnull int[] array, int value) {
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == value) {
+        return i;
       }
     }
-    throw new RuntimeException(local + " has no original local!");
+    throw new IllegalStateException("block " + value + " is not a predecessor.");
   }
 
-  private Stmt addNewArgToPhi(Stmt phiStmt, Local arg, BasicBlock<?> block) {
-
-    Stmt newPhiStmt = null;
-    for (Value use : phiStmt.getUses()) {
-      if (use instanceof JPhiExpr) {
-        JPhiExpr newPhiExpr = (JPhiExpr) use;
-        List<Local> args = ((JPhiExpr) use).getArgs();
-        Map<Local, BasicBlock<?>> argToBlock = ((JPhiExpr) use).getArgToBlockMap();
-        args.add(arg);
-        argToBlock.put(arg, block);
-        newPhiExpr = newPhiExpr.withArgs(args);
-        newPhiExpr = newPhiExpr.withArgToBlockMap(argToBlock);
-        newPhiStmt = ((JAssignStmt<?, ?>) phiStmt).withRValue(newPhiExpr);
-        break;
+  /**
+   * the current versions of each Local. The pushes are logged so that leaving a block in the
+   * dominator tree pops exactly the versions which were defined in it.
+   */
+  private static class NameStacks {
+    @Nonnull private final Local[][] stacks;
+    @Nonnull private final int[] stackSizes;
+    @Nonnull private final int[] blockMarks;
+    @Nonnull private int[] pushLog = new int[16];
+    private int pushLogSize = 0;
+
+    NameStacks(int localCount, int blockCount) {
+      stacks = new Local[localCount][];
+      stackSizes = new int[localCount];
+      blockMarks = new int[blockCount];
+    }
+
+    Local peek(int localIdx) {
+      final int size = stackSizes[localIdx];
+      return size == 0 ? null : stacks[localIdx][size - 1];
+    }
+
+    void push(int localIdx, @Nonnull Local local) {
+      Local[] stack = stacks[localIdx];
+      if (stack == null) {
+        stack = stacks[localIdx] = new Local[4];
+      } else if (stackSizes[localIdx] == stack.length) {
+        stack = stacks[localIdx] = Arrays.copyOf(stack, stack.length * 2);
+      }
+      stack[stackSizes[localIdx]++] = local;
+      if (pushLogSize == pushLog.length) {
+        pushLog = Arrays.copyOf(pushLog, pushLog.length * 2);
+      }
+      pushLog[pushLogSize++] = localIdx;
+    }
+
+    void markBlock(int blockIdx) {
+      blockMarks[blockIdx] = pushLogSize;
+    }
+
+    void popBlock(int blockIdx) {
+      final int mark = blockMarks[blockIdx];
+      while (pushLogSize > mark) {
+        stackSizes[pushLog[--pushLogSize]]--;
       }
     }
-    return newPhiStmt;
   }
 }
@@ -24,10 +24,10 @@ package sootup.java.bytecode.interceptors;
 
 import java.util.*;
 import javax.annotation.Nonnull;
-import sootup.core.graph.BasicBlock;
 import sootup.core.graph.MutableStmtGraph;
 import sootup.core.graph.StmtGraph;
-import sootup.core.jimple.basic.Trap;
+import sootup.core.graph.ThrowAnalysis;
+import sootup.core.graph.UnitThrowAnalysis;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.jimple.javabytecode.stmt.JEnterMonitorStmt;
 import sootup.core.jimple.javabytecode.stmt.JExitMonitorStmt;
@@ -49,42 +49,53 @@ import sootup.core.types.ClassType;
  */
 public class TrapTightener implements BodyInterceptor {
 
-  @Override
-  public void interceptBody(@Nonnull Body.BodyBuilder builder) {
+  @Nonnull private final ThrowAnalysis throwAnalysis;
 
-    // FIXME: [ms] ThrowAnalysis is missing and in result mightThrow (...) makes no sense. Issue
-    // #486
-    if (true) {
-      return;
-    }
-
-    MutableStmtGraph graph = builder.getStmtGraph();
-    List<Stmt> stmtsInPrintOrder = builder.getStmts();
-
-    // collect stmts
-    Set<Stmt> monitoredStmts = monitoredStmts(graph);
-    Map<Stmt, Collection<ClassType>> toRemove = new HashMap<>();
-    for (BasicBlock<?> block : graph.getBlocks()) {
-      for (Stmt stmt : block.getStmts()) {
-
-        Collection<ClassType> removeForStmt = new ArrayList<>();
-        for (Map.Entry<? extends ClassType, ?> exception :
-            block.getExceptionalSuccessors().entrySet()) {
+  public TrapTightener() {
+    this(UnitThrowAnalysis.getInstance());
+  }
 
-          // FIXME: check for java9 modules signature, too!
-          boolean isCatchAll =
-              exception.getKey().getFullyQualifiedName().equals("java.lang.Throwable");
+  public TrapTightener(@Nonnull ThrowAnalysis throwAnalysis) {
+    this.throwAnalysis = throwAnalysis;
+  }
 
-          if (
-          /* mightThrow(graph, stmt, trap) || */ (isCatchAll && monitoredStmts.contains(stmt))) {
-            // if it might throw or if trap is a catch-all block and the current stmt has an active
-            // monitor, we need to keep the block
-            removeForStmt.add(exception.getKey());
-            break;
+  @Override
+  public void interceptBody(@Nonnull Body.BodyBuilder builder) {
+    MutableStmtGraph graph = builder.getStmtGraph();
+    List<Stmt> stmtsInPrintOrder = graph.getStmts();
+
+    // collect the protected ranges i.e. maximal sequences of stmts in print order with the same
+    // handler for an exception type - and the stmts at their borders which can not throw
+    Set<Stmt> monitoredStmts = null;
+    Map<Stmt, Collection<ClassType>> toRemove = new LinkedHashMap<>();
+    Map<ClassType, Stmt> openHandlers = new HashMap<>();
+    Map<ClassType, Integer> rangeStarts = new HashMap<>();
+    for (int i = 0; i <= stmtsInPrintOrder.size(); i++) {
+      final Map<ClassType, Stmt> exceptionalSuccessors =
+          i < stmtsInPrintOrder.size()
+              ? graph.exceptionalSuccessors(stmtsInPrintOrder.get(i))
+              : Collections.emptyMap();
+
+      // close the ranges which do not continue with the current stmt
+      for (Iterator<Map.Entry<ClassType, Stmt>> it = openHandlers.entrySet().iterator();
+          it.hasNext(); ) {
+        final Map.Entry<ClassType, Stmt> openHandler = it.next();
+        final ClassType exceptionType = openHandler.getKey();
+        if (exceptionalSuccessors.get(exceptionType) != openHandler.getValue()) {
+          it.remove();
+          if (monitoredStmts == null) {
+            monitoredStmts = monitoredStmts(graph);
           }
+          tightenRange(
+              stmtsInPrintOrder.subList(rangeStarts.remove(exceptionType), i),
+              exceptionType,
+              monitoredStmts,
+              toRemove);
         }
-        if (!removeForStmt.isEmpty()) {
-          toRemove.put(stmt, removeForStmt);
+      }
+      for (Map.Entry<ClassType, Stmt> entry : exceptionalSuccessors.entrySet()) {
+        if (openHandlers.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+          rangeStarts.put(entry.getKey(), i);
         }
       }
     }
@@ -95,9 +106,48 @@ public class TrapTightener implements BodyInterceptor {
         graph.removeExceptionalEdge(entry.getKey(), classType);
       }
     }
+  }
 
-    // FIXME: check if there are traphandlers that have no predecessor
+  /**
+   * collects the exceptional edges of the stmts before the first and after the last stmt of the
+   * protected range which might throw an exception caught by the trap.
+   */
+  private void tightenRange(
+      @Nonnull List<Stmt> range,
+      @Nonnull ClassType exceptionType,
+      @Nonnull Set<Stmt> monitoredStmts,
+      @Nonnull Map<Stmt, Collection<ClassType>> toRemove) {
+    // FIXME: check for java9 modules signature, too!
+    final boolean isCatchAll = exceptionType.getFullyQualifiedName().equals("java.lang.Throwable");
+
+    int first = 0;
+    while (first < range.size()
+        && !mightThrow(range.get(first), exceptionType, isCatchAll, monitoredStmts)) {
+      first++;
+    }
+    int last = range.size() - 1;
+    while (last > first
+        && !mightThrow(range.get(last), exceptionType, isCatchAll, monitoredStmts)) {
+      last--;
+    }
+    for (int i = 0; i < range.size(); i++) {
+      if (i < first || i > last) {
+        toRemove.computeIfAbsent(range.get(i), stmt -> new ArrayList<>()).add(exceptionType);
+      }
+    }
+  }
 
+  /**
+   * @return whether the stmt might throw an exception caught by the trap or if the trap is a
+   *     catch-all block and the stmt has an active monitor, we need to keep the stmt in the trap
+   */
+  private boolean mightThrow(
+      @Nonnull Stmt stmt,
+      @Nonnull ClassType exceptionType,
+      boolean isCatchAll,
+      @Nonnull Set<Stmt> monitoredStmts) {
+    return throwAnalysis.mightThrow(stmt, exceptionType)
+        || (isCatchAll && monitoredStmts.contains(stmt));
   }
 
   /**
@@ -109,61 +159,41 @@ public class TrapTightener implements BodyInterceptor {
   private Set<Stmt> monitoredStmts(@Nonnull StmtGraph<?> graph) {
     Set<Stmt> monitoredStmts = new HashSet<>();
     Deque<Stmt> queue = new ArrayDeque<>();
-    queue.add(graph.getStartingStmt());
     Set<Stmt> visitedStmts = new HashSet<>();
+    if (graph.getStartingStmt() != null) {
+      queue.add(graph.getStartingStmt());
+      visitedStmts.add(graph.getStartingStmt());
+    }
 
     while (!queue.isEmpty()) {
       Stmt stmt = queue.removeFirst();
-      visitedStmts.add(stmt);
       // enter a monitored block
       if (stmt instanceof JEnterMonitorStmt) {
         Deque<Stmt> monitoredQueue = new ArrayDeque<>();
         monitoredQueue.add(stmt);
+        Set<Stmt> visitedMonitoredStmts = new HashSet<>();
+        visitedMonitoredStmts.add(stmt);
         while (!monitoredQueue.isEmpty()) {
           Stmt monitoredStmt = monitoredQueue.removeFirst();
           monitoredStmts.add(monitoredStmt);
-          visitedStmts.add(monitoredStmt);
-          if (monitoredStmt instanceof JExitMonitorStmt) {
-            queue.addAll(graph.getAllSuccessors(monitoredStmt));
-          } else {
-            for (Stmt succ : graph.getAllSuccessors(monitoredStmt)) {
-              if (!visitedStmts.contains(succ)) {
-                monitoredQueue.add(succ);
+          for (Stmt succ : graph.getAllSuccessors(monitoredStmt)) {
+            if (monitoredStmt instanceof JExitMonitorStmt) {
+              if (visitedStmts.add(succ)) {
+                queue.add(succ);
               }
+            } else if (visitedMonitoredStmts.add(succ)) {
+              monitoredQueue.add(succ);
             }
           }
         }
       } else {
-        queue.addAll(graph.getAllSuccessors(stmt));
+        for (Stmt succ : graph.getAllSuccessors(stmt)) {
+          if (visitedStmts.add(succ)) {
+            queue.add(succ);
+          }
+        }
       }
     }
     return monitoredStmts;
   }
-
-  /**
-   * Check whether trap-destinations of the given stmt contain the given trap.
-   *
-   * @param graph is a exceptional StmtGraph
-   * @param stmt is a stmt in the given graph
-   * @param trap is a given trap
-   * @return If trap-destinations of the given stmt contain the given trap, return true, otherwise
-   *     return false
-   */
-
-  // FIXME: [ms] makes no sense in that Implementation! StmtGraph is not the legacy
-  // ExceptionalUnitGraph
-  private boolean mightThrow(@Nonnull StmtGraph<?> graph, @Nonnull Stmt stmt, @Nonnull Trap trap) {
-    final BasicBlock<?> block = graph.getBlockOf(stmt);
-
-    for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> dest :
-        block.getExceptionalSuccessors().entrySet()) {
-      final ClassType exceptionType = dest.getKey();
-      final BasicBlock<?> traphandlerBlock = dest.getValue();
-      if (exceptionType.equals(trap.getExceptionType())
-          && traphandlerBlock.getHead().equals(trap.getHandlerStmt())) {
-        return true;
-      }
-    }
-    return false;
-  }
 }
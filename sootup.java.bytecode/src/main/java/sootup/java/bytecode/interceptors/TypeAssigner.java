@@ -21,24 +21,763 @@ package sootup.java.bytecode.interceptors;
  * #L%
  */
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.frontend.ResolveException;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.MutableStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.*;
+import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.ref.IdentityRef;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JFieldRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
+import sootup.core.model.BodyNumbering;
+import sootup.core.model.BodyUtils;
+import sootup.core.signatures.MethodSignature;
 import sootup.core.transform.BodyInterceptor;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.*;
+import sootup.java.core.JavaIdentifierFactory;
 
 // https://github.com/Sable/soot/blob/master/src/main/java/soot/jimple/toolkits/typing/TypeAssigner.java
 
 /**
  * This transformer assigns types to local variables.
  *
+ * <p>Each Local is a type variable which is the least common supertype of the types of all values
+ * assigned to it. The constraints are solved by a worklist: when the type of a Local grows, only
+ * the definitions which read that Local are evaluated again. The arguments and the definition of a
+ * phi are unified, as they are versions of the same variable. Least common supertypes of ClassTypes
+ * are computed via the superclass chains and the implemented interfaces of the given {@link
+ * TypeHierarchy} and are cached, so one TypeAssigner instance should be reused for all Bodies of a
+ * View. Without a TypeHierarchy different ClassTypes join to java.lang.Object and a warning is
+ * logged once.
+ *
+ * <p>The use sites of a Local - invocation arguments and bases, field stores and bases and returned
+ * values - bound its type from above. If the assigned values do not determine a type which fits all
+ * use sites, e.g. two classes which share several interfaces, the type is narrowed to the most
+ * specific use site type all assigned values fit into. Locals which only null is assigned to get
+ * the most specific use site type or java.lang.Object. Locals with conflicting primitive and
+ * reference assignments keep the UnknownType.
+ *
  * @author Etienne Gagnon
  * @author Ben Bellamy
  * @author Eric Bodden
  */
 public class TypeAssigner implements BodyInterceptor {
 
+  private static final @Nonnull Logger logger = LoggerFactory.getLogger(TypeAssigner.class);
+
+  @Nonnull
+  private static final ClassType objectType =
+      JavaIdentifierFactory.getInstance().getClassType("java.lang.Object");
+
+  @Nullable private final TypeHierarchy typeHierarchy;
+
+  /** least common supertypes of two ClassTypes */
+  @Nonnull
+  private final Map<ClassType, Map<ClassType, ClassType>> lcaCache = new ConcurrentHashMap<>();
+
+  /** superclass chains of ClassTypes starting with the ClassType itself */
+  @Nonnull
+  private final Map<ClassType, List<ClassType>> superClassChains = new ConcurrentHashMap<>();
+
+  /** interfaces implemented or extended by ClassTypes */
+  @Nonnull private final Map<ClassType, Set<ClassType>> interfaces = new ConcurrentHashMap<>();
+
+  private volatile boolean hasWarnedAboutMissingTypeHierarchy = false;
+
+  public TypeAssigner() {
+    this(null);
+  }
+
+  public TypeAssigner(@Nullable TypeHierarchy typeHierarchy) {
+    this.typeHierarchy = typeHierarchy;
+  }
+
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder) {
-    // TODO Implement
+    final MutableStmtGraph stmtGraph = builder.getStmtGraph();
+    final List<Stmt> stmts = stmtGraph.getStmts();
+    final List<Local> locals = new ArrayList<>(builder.getLocals());
+    // the Locals of the Body are numbered first - Locals which only occur in the Stmts are not
+    // typed
+    final BodyNumbering numbering = new BodyNumbering(stmtGraph, locals);
+    final TypeVariables typeVariables = new TypeVariables(numbering, locals.size());
+    // versions of a variable connected by phis get the same type
+    for (Stmt stmt : stmts) {
+      if (stmt instanceof JAssignStmt
+          && ((JAssignStmt<?, ?>) stmt).getRightOp() instanceof JPhiExpr) {
+        final int defIdx = typeVariables.idxOf((Value) ((JAssignStmt<?, ?>) stmt).getLeftOp());
+        if (defIdx >= 0) {
+          for (Local arg : ((JPhiExpr) ((JAssignStmt<?, ?>) stmt).getRightOp()).getArgs()) {
+            final int argIdx = typeVariables.idxOf(arg);
+            if (argIdx >= 0) {
+              typeVariables.union(defIdx, argIdx);
+            }
+          }
+        }
+      }
+    }
+
+    // collect the assignments to each type variable, which type variables depend on a Local and
+    // which types the use sites require of a Local: the first pass counts, the second one fills
+    final MethodSignature methodSignature = builder.getMethodSignature();
+    final Type returnType = methodSignature == null ? null : methodSignature.getType();
+    final Constraints constraints = new Constraints(locals.size());
+    collectConstraints(stmts, typeVariables, returnType, constraints);
+    constraints.allocate();
+    collectConstraints(stmts, typeVariables, returnType, constraints);
+
+    // solve the constraints
+    final IntQueue worklist = new IntQueue(locals.size());
+    for (int i = 0; i < locals.size(); i++) {
+      if (typeVariables.find(i) == i && constraints.valueStart[i] < constraints.valueStart[i + 1]) {
+        worklist.add(i);
+      }
+    }
+    while (!worklist.isEmpty()) {
+      final int variable = worklist.poll();
+      Type type = typeVariables.types[variable];
+      for (int i = constraints.valueStart[variable];
+          i < constraints.valueStart[variable + 1];
+          i++) {
+        type = join(type, typeOf(constraints.values[i], typeVariables));
+      }
+      if (!Objects.equals(type, typeVariables.types[variable])) {
+        typeVariables.types[variable] = type;
+        for (int i = constraints.dependentStart[variable];
+            i < constraints.dependentStart[variable + 1];
+            i++) {
+          worklist.add(constraints.dependents[i]);
+        }
+      }
+    }
+
+    // narrow the types to their use sites. Types only get more specific in this phase, so it
+    // terminates.
+    for (int i = 0; i < locals.size(); i++) {
+      if (typeVariables.find(i) == i && constraints.boundStart[i] < constraints.boundStart[i + 1]) {
+        worklist.add(i);
+      }
+    }
+    while (!worklist.isEmpty()) {
+      final int variable = worklist.poll();
+      final Type narrowed = narrowToUseSites(variable, typeVariables, constraints);
+      if (narrowed != null) {
+        typeVariables.types[variable] = narrowed;
+        for (int i = constraints.dependentStart[variable];
+            i < constraints.dependentStart[variable + 1];
+            i++) {
+          worklist.add(constraints.dependents[i]);
+        }
+      }
+    }
+
+    // replace the Locals by typed ones
+    final Local[] typedLocals = new Local[locals.size()];
+    boolean isChanged = false;
+    for (int i = 0; i < locals.size(); i++) {
+      final Local local = locals.get(i);
+      Type type = typeVariables.types[typeVariables.find(i)];
+      if (type instanceof NullType) {
+        // only null is assigned to this Local and no use site requires a type
+        type = objectType;
+      }
+      if (type == null || type.equals(local.getType())) {
+        typedLocals[i] = local;
+      } else {
+        typedLocals[i] = local.withType(type);
+        isChanged = true;
+      }
+    }
+    if (!isChanged) {
+      return;
+    }
+
+    for (Stmt stmt : stmts) {
+      Stmt newStmt =
+          BodyUtils.withNewLocalUses(
+              stmt,
+              local -> {
+                final int idx = typeVariables.idxOf(local);
+                return idx < 0 ? local : typedLocals[idx];
+              });
+      final List<Value> defs = stmt.getDefs();
+      if (!defs.isEmpty() && defs.get(0) instanceof Local) {
+        final int defIdx = typeVariables.idxOf(defs.get(0));
+        if (defIdx >= 0 && typedLocals[defIdx] != defs.get(0)) {
+          newStmt = BodyUtils.withNewDef(newStmt, typedLocals[defIdx]);
+        }
+      }
+      if (newStmt instanceof JAssignStmt
+          && ((JAssignStmt<?, ?>) newStmt).getRightOp() instanceof JPhiExpr) {
+        final JPhiExpr phi = (JPhiExpr) ((JAssignStmt<?, ?>) newStmt).getRightOp();
+        final List<Local> args = new ArrayList<>(phi.getArgsSize());
+        for (Local arg : phi.getArgs()) {
+          final int argIdx = typeVariables.idxOf(arg);
+          args.add(argIdx < 0 ? arg : typedLocals[argIdx]);
+        }
+        final List<BasicBlock<?>> blocks = phi.getBlocks();
+        newStmt = ((JAssignStmt<?, ?>) newStmt).withRValue(Jimple.newPhiExpr(args, blocks));
+      }
+      if (newStmt != stmt) {
+        stmtGraph.replaceNode(stmt, newStmt);
+      }
+    }
+    builder.setLocals(new LinkedHashSet<>(Arrays.asList(typedLocals)));
+  }
+
+  /**
+   * adds the assignments, dependencies and use site bounds of the Stmts to the constraints. The use
+   * sites are the arguments and bases of invocations, the values stored to and the bases of fields
+   * and the returned values. Stores to arrays are not considered, as the element type depends on
+   * the type of the array itself.
+   */
+  private static void collectConstraints(
+      @Nonnull List<Stmt> stmts,
+      @Nonnull TypeVariables typeVariables,
+      @Nullable Type returnType,
+      @Nonnull Constraints constraints) {
+    for (Stmt stmt : stmts) {
+      if (stmt instanceof AbstractDefinitionStmt) {
+        final AbstractDefinitionStmt<?, ?> defStmt = (AbstractDefinitionStmt<?, ?>) stmt;
+        final int defIdx = typeVariables.idxOf(defStmt.getLeftOp());
+        if (defIdx >= 0) {
+          final int defVariable = typeVariables.find(defIdx);
+          constraints.addValue(defVariable, defStmt.getRightOp());
+          stmt.forEachUse(
+              use -> {
+                final int useIdx = typeVariables.idxOf(use);
+                if (useIdx >= 0) {
+                  constraints.addDependent(typeVariables.find(useIdx), defVariable);
+                }
+              });
+        }
+      }
+
+      if (stmt.containsInvokeExpr()) {
+        final AbstractInvokeExpr invokeExpr = stmt.getInvokeExpr();
+        final MethodSignature signature = invokeExpr.getMethodSignature();
+        final List<Type> parameterTypes = signature.getParameterTypes();
+        for (int i = 0; i < invokeExpr.getArgCount() && i < parameterTypes.size(); i++) {
+          addBound(invokeExpr.getArg(i), parameterTypes.get(i), typeVariables, constraints);
+        }
+        if (invokeExpr instanceof AbstractInstanceInvokeExpr) {
+          addBound(
+              ((AbstractInstanceInvokeExpr) invokeExpr).getBase(),
+              signature.getDeclClassType(),
+              typeVariables,
+              constraints);
+        }
+      }
+      if (stmt.containsFieldRef()) {
+        final JFieldRef fieldRef = stmt.getFieldRef();
+        if (fieldRef instanceof JInstanceFieldRef) {
+          addBound(
+              ((JInstanceFieldRef) fieldRef).getBase(),
+              fieldRef.getFieldSignature().getDeclClassType(),
+              typeVariables,
+              constraints);
+        }
+        if (stmt instanceof JAssignStmt && ((JAssignStmt<?, ?>) stmt).getLeftOp() == fieldRef) {
+          addBound(
+              ((JAssignStmt<?, ?>) stmt).getRightOp(),
+              fieldRef.getFieldSignature().getType(),
+              typeVariables,
+              constraints);
+        }
+      }
+      if (stmt instanceof JReturnStmt && returnType != null) {
+        addBound(((JReturnStmt) stmt).getOp(), returnType, typeVariables, constraints);
+      }
+    }
+  }
+
+  private static void addBound(
+      @Nonnull Value value,
+      @Nonnull Type bound,
+      @Nonnull TypeVariables typeVariables,
+      @Nonnull Constraints constraints) {
+    if (!(bound instanceof ClassType) && !(bound instanceof ArrayType)) {
+      return;
+    }
+    final int idx = typeVariables.idxOf(value);
+    if (idx >= 0) {
+      constraints.addBound(typeVariables.find(idx), bound);
+    }
+  }
+
+  /**
+   * @return a more specific type for the variable if its assigned values do not fit one of its use
+   *     sites: the most specific use site type all assigned values fit into. A variable which only
+   *     null is assigned to gets the most specific use site type. Otherwise null.
+   */
+  @Nullable
+  private Type narrowToUseSites(
+      int variable, @Nonnull TypeVariables typeVariables, @Nonnull Constraints constraints) {
+    final Type current = typeVariables.types[variable];
+    if (!(current instanceof ReferenceType)) {
+      return null;
+    }
+    final int valueStart = constraints.valueStart[variable];
+    final int valueEnd = constraints.valueStart[variable + 1];
+    final Type[] valueTypes = new Type[valueEnd - valueStart];
+    Type joined = null;
+    for (int i = valueStart; i < valueEnd; i++) {
+      valueTypes[i - valueStart] = typeOf(constraints.values[i], typeVariables);
+      joined = join(joined, valueTypes[i - valueStart]);
+    }
+    if (!(joined instanceof ReferenceType)) {
+      return null;
+    }
+
+    boolean fitsAllBounds = !(joined instanceof NullType);
+    for (int i = constraints.boundStart[variable];
+        fitsAllBounds && i < constraints.boundStart[variable + 1];
+        i++) {
+      fitsAllBounds = isSubtypeOrEqual(constraints.bounds[i], joined);
+    }
+    Type narrowed = joined;
+    if (!fitsAllBounds) {
+      Type mostSpecific = null;
+      for (int i = constraints.boundStart[variable];
+          i < constraints.boundStart[variable + 1];
+          i++) {
+        final Type bound = constraints.bounds[i];
+        boolean fitsBound = true;
+        for (int j = 0; fitsBound && j < valueTypes.length; j++) {
+          fitsBound = valueTypes[j] == null || isSubtypeOrEqual(bound, valueTypes[j]);
+        }
+        if (fitsBound && (mostSpecific == null || isSubtypeOrEqual(mostSpecific, bound))) {
+          mostSpecific = bound;
+        }
+      }
+      if (mostSpecific != null) {
+        narrowed = mostSpecific;
+      }
+    }
+    if (narrowed.equals(current)) {
+      return null;
+    }
+    // only accept more specific types
+    return current instanceof NullType || isSubtypeOrEqual(current, narrowed) ? narrowed : null;
+  }
+
+  /** @return whether subtype is supertype or one of its subtypes */
+  private boolean isSubtypeOrEqual(@Nonnull Type supertype, @Nonnull Type subtype) {
+    if (supertype.equals(subtype) || subtype instanceof NullType) {
+      return true;
+    }
+    if (!(subtype instanceof ReferenceType) || !(supertype instanceof ReferenceType)) {
+      return false;
+    }
+    if (supertype.equals(objectType)) {
+      return true;
+    }
+    if (typeHierarchy == null) {
+      warnAboutMissingTypeHierarchy();
+      return false;
+    }
+    try {
+      return typeHierarchy.isSubtype(supertype, subtype);
+    } catch (ResolveException e) {
+      // the class is not in the View - its supertypes are unknown
+      return false;
+    }
+  }
+
+  /**
+   * @return the type of value with the current solution of the type variables or null if it depends
+   *     on a type variable which has no type yet.
+   */
+  @Nullable
+  private Type typeOf(@Nonnull Value value, @Nonnull TypeVariables typeVariables) {
+    if (value instanceof Local) {
+      final int idx = typeVariables.idxOf(value);
+      return idx < 0 ? value.getType() : typeVariables.types[typeVariables.find(idx)];
+    }
+    if (value instanceof Constant) {
+      if (value instanceof NullConstant) {
+        return NullType.getInstance();
+      }
+      return value.getType();
+    }
+    if (value instanceof JCastExpr
+        || value instanceof JNewExpr
+        || value instanceof JNewArrayExpr
+        || value instanceof JNewMultiArrayExpr
+        || value instanceof IdentityRef) {
+      return value.getType();
+    }
+    if (value instanceof AbstractInvokeExpr) {
+      return ((AbstractInvokeExpr) value).getMethodSignature().getType();
+    }
+    if (value instanceof JFieldRef) {
+      return ((JFieldRef) value).getFieldSignature().getType();
+    }
+    if (value instanceof JArrayRef) {
+      final Type baseType = typeOf(((JArrayRef) value).getBase(), typeVariables);
+      if (baseType instanceof ArrayType) {
+        final ArrayType arrayType = (ArrayType) baseType;
+        return arrayType.getDimension() == 1
+            ? arrayType.getBaseType()
+            : JavaIdentifierFactory.getInstance()
+                .getArrayType(arrayType.getBaseType(), arrayType.getDimension() - 1);
+      }
+      return baseType == null || baseType instanceof NullType ? null : UnknownType.getInstance();
+    }
+    if (value instanceof JInstanceOfExpr || value instanceof AbstractConditionExpr) {
+      return PrimitiveType.getBoolean();
+    }
+    if (value instanceof JLengthExpr
+        || value instanceof JCmpExpr
+        || value instanceof JCmpgExpr
+        || value instanceof JCmplExpr) {
+      return PrimitiveType.getInt();
+    }
+    if (value instanceof JNegExpr) {
+      return promote(typeOf(((JNegExpr) value).getOp(), typeVariables));
+    }
+    if (value instanceof JShlExpr || value instanceof JShrExpr || value instanceof JUshrExpr) {
+      return promote(typeOf(((AbstractBinopExpr) value).getOp1(), typeVariables));
+    }
+    if (value instanceof AbstractBinopExpr) {
+      final Type op1Type = typeOf(((AbstractBinopExpr) value).getOp1(), typeVariables);
+      final Type op2Type = typeOf(((AbstractBinopExpr) value).getOp2(), typeVariables);
+      if ((value instanceof JAndExpr || value instanceof JOrExpr || value instanceof JXorExpr)
+          && op1Type instanceof PrimitiveType.BooleanType
+          && op2Type instanceof PrimitiveType.BooleanType) {
+        return PrimitiveType.getBoolean();
+      }
+      return join(promote(op1Type), promote(op2Type));
+    }
+    if (value instanceof JPhiExpr) {
+      Type type = null;
+      for (Local arg : ((JPhiExpr) value).getArgs()) {
+        type = join(type, typeOf(arg, typeVariables));
+      }
+      return type;
+    }
+    return value.getType();
+  }
+
+  /** binary numeric promotion of the small integral types */
+  @Nullable
+  private static Type promote(@Nullable Type type) {
+    if (type instanceof PrimitiveType.BooleanType
+        || type instanceof PrimitiveType.ByteType
+        || type instanceof PrimitiveType.ShortType
+        || type instanceof PrimitiveType.CharType) {
+      return PrimitiveType.getInt();
+    }
+    return type;
+  }
+
+  /**
+   * the least upper bound of two types. null is the bottom element and UnknownType the top element
+   * of the lattice.
+   */
+  @Nullable
+  Type join(@Nullable Type a, @Nullable Type b) {
+    if (a == null || a.equals(b)) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    if (a instanceof UnknownType || b instanceof UnknownType) {
+      return UnknownType.getInstance();
+    }
+    if (a instanceof PrimitiveType || b instanceof PrimitiveType) {
+      if (PrimitiveType.isIntLikeType(a) && PrimitiveType.isIntLikeType(b)) {
+        return PrimitiveType.getInt();
+      }
+      return UnknownType.getInstance();
+    }
+    if (a instanceof NullType) {
+      return b;
+    }
+    if (b instanceof NullType) {
+      return a;
+    }
+    if (a instanceof ArrayType && b instanceof ArrayType) {
+      final ArrayType arrayA = (ArrayType) a;
+      final ArrayType arrayB = (ArrayType) b;
+      if (arrayA.getDimension() == arrayB.getDimension()
+          && arrayA.getBaseType() instanceof ClassType
+          && arrayB.getBaseType() instanceof ClassType) {
+        return JavaIdentifierFactory.getInstance()
+            .getArrayType(
+                leastCommonSupertype(
+                    (ClassType) arrayA.getBaseType(), (ClassType) arrayB.getBaseType()),
+                arrayA.getDimension());
+      }
+      return objectType;
+    }
+    if (a instanceof ClassType && b instanceof ClassType) {
+      return leastCommonSupertype((ClassType) a, (ClassType) b);
+    }
+    // an ArrayType and a ClassType
+    return objectType;
+  }
+
+  /**
+   * the least common supertype of two ClassTypes: one of them if it is a subtype of the other,
+   * otherwise their most specific common interface if it is unique and not implemented by their
+   * least common superclass, otherwise their least common superclass.
+   */
+  @Nonnull
+  private ClassType leastCommonSupertype(@Nonnull ClassType a, @Nonnull ClassType b) {
+    if (typeHierarchy == null) {
+      warnAboutMissingTypeHierarchy();
+      return objectType;
+    }
+    return lcaCache
+        .computeIfAbsent(a, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(b, k -> computeLeastCommonSupertype(a, b));
+  }
+
+  @Nonnull
+  private ClassType computeLeastCommonSupertype(@Nonnull ClassType a, @Nonnull ClassType b) {
+    if (isSubtypeOrEqual(a, b)) {
+      return a;
+    }
+    if (isSubtypeOrEqual(b, a)) {
+      return b;
+    }
+    ClassType superClass = objectType;
+    final List<ClassType> chainOfB = superClassChain(b);
+    for (ClassType candidate : superClassChain(a)) {
+      if (chainOfB.contains(candidate)) {
+        superClass = candidate;
+        break;
+      }
+    }
+
+    final Set<ClassType> commonInterfaces = new LinkedHashSet<>(interfacesOf(a));
+    commonInterfaces.retainAll(interfacesOf(b));
+    commonInterfaces.removeAll(interfacesOf(superClass));
+    ClassType mostSpecific = null;
+    for (ClassType candidate : commonInterfaces) {
+      boolean isMostSpecific = true;
+      for (ClassType other : commonInterfaces) {
+        if (other != candidate && isSubtypeOrEqual(candidate, other)) {
+          isMostSpecific = false;
+          break;
+        }
+      }
+      if (isMostSpecific) {
+        if (mostSpecific != null) {
+          // ambiguous - there is no least common supertype in the lattice
+          return superClass;
+        }
+        mostSpecific = candidate;
+      }
+    }
+    return mostSpecific == null ? superClass : mostSpecific;
+  }
+
+  @Nonnull
+  private List<ClassType> superClassChain(@Nonnull ClassType type) {
+    return superClassChains.computeIfAbsent(
+        type,
+        k -> {
+          final List<ClassType> chain = new ArrayList<>();
+          chain.add(type);
+          try {
+            chain.addAll(typeHierarchy.superClassesOf(type));
+          } catch (ResolveException e) {
+            // the class is not in the View - its superclasses are unknown
+          }
+          return chain;
+        });
+  }
+
+  /** the interfaces implemented by a class or extended by an interface */
+  @Nonnull
+  private Set<ClassType> interfacesOf(@Nonnull ClassType type) {
+    return interfaces.computeIfAbsent(
+        type,
+        k -> {
+          try {
+            return typeHierarchy.implementedInterfacesOf(type);
+          } catch (ResolveException e) {
+            // the class is not in the View - its interfaces are unknown
+            return Collections.emptySet();
+          }
+        });
+  }
+
+  private void warnAboutMissingTypeHierarchy() {
+    if (!hasWarnedAboutMissingTypeHierarchy) {
+      hasWarnedAboutMissingTypeHierarchy = true;
+      logger.warn(
+          "TypeAssigner without a TypeHierarchy: different ClassTypes are joined to java.lang.Object.");
+    }
+  }
+
+  /**
+   * the type variables of the Locals of a Body. Locals which are unified share the type of the
+   * representative of their set.
+   */
+  private static class TypeVariables {
+    @Nonnull private final BodyNumbering numbering;
+    private final int size;
+    @Nonnull private final int[] parents;
+    @Nonnull final Type[] types;
+
+    /** the first size Locals of the numbering are type variables */
+    TypeVariables(@Nonnull BodyNumbering numbering, int size) {
+      this.numbering = numbering;
+      this.size = size;
+      parents = new int[size];
+      for (int i = 0; i < size; i++) {
+        parents[i] = i;
+      }
+      types = new Type[size];
+    }
+
+    int idxOf(@Nonnull Value value) {
+      final int idx = numbering.getLocalNumber(value);
+      return idx < size ? idx : -1;
+    }
+
+    int find(int idx) {
+      while (parents[idx] != idx) {
+        parents[idx] = parents[parents[idx]];
+        idx = parents[idx];
+      }
+      return idx;
+    }
+
+    void union(int a, int b) {
+      final int rootA = find(a);
+      final int rootB = find(b);
+      if (rootA != rootB) {
+        parents[rootB] = rootA;
+      }
+    }
+  }
+
+  /**
+   * the constraints of the type variables in compressed sparse row form: the entries of variable v
+   * are at the indices from start[v] to start[v+1]-1 of the respective array. They are collected in
+   * two passes: the first one counts the entries of each variable, then the arrays are allocated
+   * and the second pass fills them.
+   */
+  private static class Constraints {
+    private final int size;
+    private boolean isCounting = true;
+
+    /** the values assigned to a variable */
+    @Nonnull final int[] valueStart;
+
+    @Nonnull Value[] values = new Value[0];
+    /** the variables whose assigned values use a variable */
+    @Nonnull final int[] dependentStart;
+
+    @Nonnull int[] dependents = new int[0];
+    /** the types which the use sites require of a variable */
+    @Nonnull final int[] boundStart;
+
+    @Nonnull Type[] bounds = new Type[0];
+
+    @Nonnull private int[] valueFill = new int[0];
+    @Nonnull private int[] dependentFill = new int[0];
+    @Nonnull private int[] boundFill = new int[0];
+
+    Constraints(int size) {
+      this.size = size;
+      valueStart = new int[size + 1];
+      dependentStart = new int[size + 1];
+      boundStart = new int[size + 1];
+    }
+
+    void addValue(int variable, @Nonnull Value value) {
+      if (isCounting) {
+        valueStart[variable + 1]++;
+      } else {
+        values[valueFill[variable]++] = value;
+      }
+    }
+
+    void addDependent(int variable, int dependent) {
+      if (isCounting) {
+        dependentStart[variable + 1]++;
+      } else {
+        dependents[dependentFill[variable]++] = dependent;
+      }
+    }
+
+    void addBound(int variable, @Nonnull Type bound) {
+      if (isCounting) {
+        boundStart[variable + 1]++;
+      } else {
+        bounds[boundFill[variable]++] = bound;
+      }
+    }
+
+    /** ends the counting pass */
+    void allocate() {
+      for (int i = 0; i < size; i++) {
+        valueStart[i + 1] += valueStart[i];
+        dependentStart[i + 1] += dependentStart[i];
+        boundStart[i + 1] += boundStart[i];
+      }
+      values = new Value[valueStart[size]];
+      dependents = new int[dependentStart[size]];
+      bounds = new Type[boundStart[size]];
+      valueFill = Arrays.copyOf(valueStart, size);
+      dependentFill = Arrays.copyOf(dependentStart, size);
+      boundFill = Arrays.copyOf(boundStart, size);
+      isCounting = false;
+    }
+  }
+
+  /** a FIFO queue of the type variables which contains each variable at most once */
+  private static class IntQueue {
+    @Nonnull private final int[] elements;
+    @Nonnull private final boolean[] isQueued;
+    private int head = 0;
+    private int count = 0;
+
+    IntQueue(int size) {
+      elements = new int[size];
+      isQueued = new boolean[size];
+    }
+
+    void add(int element) {
+      if (!isQueued[element]) {
+        isQueued[element] = true;
+        elements[(head + count) % elements.length] = element;
+        count++;
+      }
+    }
+
+    int poll() {
+      final int element = elements[head];
+      head = (head + 1) % elements.length;
+      count--;
+      isQueued[element] = false;
+      return element;
+    }
 
+    boolean isEmpty() {
+      return count == 0;
+    }
   }
 }
@@ -22,14 +22,17 @@ package sootup.java.bytecode.interceptors;
  */
 import java.util.*;
 import javax.annotation.Nonnull;
-import sootup.core.graph.StmtGraph;
-import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.MutableStmtGraph;
 import sootup.core.model.Body;
 import sootup.core.transform.BodyInterceptor;
 
 /**
  * A BodyInterceptor that removes all unreachable stmts from the given Body.
  *
+ * <p>Reachability is computed on the BasicBlocks of the StmtGraph (following normal and exceptional
+ * flows) and all unreachable blocks are removed in a single operation.
+ *
  * @author Zun Wang
  */
 public class UnreachableCodeEliminator implements BodyInterceptor {
@@ -37,33 +40,42 @@ public class UnreachableCodeEliminator implements BodyInterceptor {
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder) {
 
-    StmtGraph<?> graph = builder.getStmtGraph();
-
-    Deque<Stmt> queue = new ArrayDeque<>();
-    queue.add(graph.getStartingStmt());
+    MutableStmtGraph graph = builder.getStmtGraph();
+    if (graph.getStartingStmt() == null) {
+      return;
+    }
 
-    // calculate all reachable stmts
-    Set<Stmt> reachableStmts = new HashSet<>();
+    // calculate all reachable blocks
+    Deque<BasicBlock<?>> queue = new ArrayDeque<>();
+    Set<BasicBlock<?>> reachableBlocks = new HashSet<>();
+    BasicBlock<?> startingBlock = graph.getStartingStmtBlock();
+    queue.add(startingBlock);
+    reachableBlocks.add(startingBlock);
     while (!queue.isEmpty()) {
-      Stmt stmt = queue.removeFirst();
-      reachableStmts.add(stmt);
-      for (Stmt succ : graph.getAllSuccessors(stmt)) {
-        if (!reachableStmts.contains(succ)) {
+      BasicBlock<?> block = queue.removeFirst();
+      for (BasicBlock<?> succ : block.getSuccessors()) {
+        if (reachableBlocks.add(succ)) {
           queue.add(succ);
         }
       }
-    }
-
-    // remove unreachable stmts from StmtGraph
-    Queue<Stmt> removeQ = new ArrayDeque<>();
-    for (Stmt stmt : graph.nodes()) {
-      if (!reachableStmts.contains(stmt)) {
-        removeQ.add(stmt);
+      for (BasicBlock<?> succ : block.getExceptionalSuccessors().values()) {
+        if (reachableBlocks.add(succ)) {
+          queue.add(succ);
+        }
       }
     }
 
-    for (Stmt stmt : removeQ) {
-      builder.removeStmt(stmt);
+    // remove unreachable blocks from StmtGraph
+    Collection<? extends BasicBlock<?>> blocks = graph.getBlocks();
+    if (reachableBlocks.size() == blocks.size()) {
+      return;
+    }
+    List<BasicBlock<?>> unreachableBlocks = new ArrayList<>();
+    for (BasicBlock<?> block : blocks) {
+      if (!reachableBlocks.contains(block)) {
+        unreachableBlocks.add(block);
+      }
     }
+    graph.removeBlocks(unreachableBlocks);
   }
 }
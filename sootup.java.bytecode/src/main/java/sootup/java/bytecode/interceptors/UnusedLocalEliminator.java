@@ -25,7 +25,6 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Local;
-import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.transform.BodyInterceptor;
@@ -50,12 +49,12 @@ public class UnusedLocalEliminator implements BodyInterceptor {
 
     // Traverse statements copying all used uses and defs
     for (Stmt stmt : builder.getStmtGraph()) {
-      for (Value value : stmt.getUsesAndDefs()) {
-        if (value instanceof Local) {
-          Local local = (Local) value;
-          locals.add(local);
-        }
-      }
+      stmt.forEachUseAndDef(
+          value -> {
+            if (value instanceof Local) {
+              locals.add((Local) value);
+            }
+          });
     }
 
     builder.setLocals(locals);
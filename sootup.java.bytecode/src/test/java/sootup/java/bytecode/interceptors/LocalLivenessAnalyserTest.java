@@ -9,6 +9,7 @@ import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.jimple.basic.StmtPositionInfo;
 import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.model.Position;
@@ -82,6 +83,10 @@ public class LocalLivenessAnalyserTest {
     AssertUtils.assertSetsEquiv(ac, analyser.getLiveLocalsAfterStmt(ifalt9));
     AssertUtils.assertSetsEquiv(cSet, analyser.getLiveLocalsBeforeStmt(ret));
     AssertUtils.assertSetsEquiv(Collections.emptySet(), analyser.getLiveLocalsAfterStmt(ret));
+
+    // a copy of a stmt is looked up by equivalence
+    Stmt copy = ((JAssignStmt<?, ?>) ceqcplusb).withPositionInfo(noStmtPositionInfo);
+    AssertUtils.assertSetsEquiv(bc, analyser.getLiveLocalsBeforeStmt(copy));
   }
 
   private Body createBody() {
@@ -10,6 +10,7 @@ import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.NullConstant;
 import sootup.core.jimple.common.stmt.JNopStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
@@ -63,6 +64,52 @@ public class NopEliminatorTest {
     assertEquals(testBody.getStmtGraph().nodes(), processedBody.getStmtGraph().nodes());
   }
 
+  /**
+   * Tests the removal of nops which form whole blocks, i.e. the flows to them have to be
+   * redirected.
+   *
+   * <p>a = "str"; if a == null goto label1; nop; nop; label1: return a;
+   *
+   * <p>to
+   *
+   * <p>a = "str"; if a == null goto label1; label1: return a;
+   */
+  @Test
+  public void testJNopBlocks() {
+    StmtPositionInfo noPositionInfo = StmtPositionInfo.createNoStmtPositionInfo();
+    JavaClassType objectType = JavaIdentifierFactory.getInstance().getClassType("java.lang.Object");
+    Local a = JavaJimple.newLocal("a", objectType);
+
+    Stmt strToA =
+        JavaJimple.newAssignStmt(
+            a, JavaJimple.getInstance().newStringConstant("str"), noPositionInfo);
+    Stmt ifStmt =
+        JavaJimple.newIfStmt(JavaJimple.newEqExpr(a, NullConstant.getInstance()), noPositionInfo);
+    Stmt nop1 = new JNopStmt(noPositionInfo);
+    Stmt nop2 = new JNopStmt(noPositionInfo);
+    Stmt ret = JavaJimple.newReturnStmt(a, noPositionInfo);
+
+    Body.BodyBuilder builder = Body.builder();
+    builder.setStartingStmt(strToA);
+    builder.setMethodSignature(
+        JavaIdentifierFactory.getInstance()
+            .getMethodSignature("test", "ab.c", "void", Collections.emptyList()));
+    builder.addFlow(strToA, ifStmt);
+    builder.addFlow(ifStmt, nop1);
+    builder.addFlow(ifStmt, ret);
+    builder.addFlow(nop1, nop2);
+    builder.addFlow(nop2, ret);
+    builder.setLocals(ImmutableUtils.immutableSet(a));
+    builder.setPosition(NoPositionInformation.getInstance());
+
+    new NopEliminator().interceptBody(builder);
+    StmtGraph<?> graph = builder.build().getStmtGraph();
+
+    assertEquals(3, graph.nodes().size());
+    assertEquals(Arrays.asList(ret, ret), graph.successors(ifStmt));
+    assertEquals(Arrays.asList(ifStmt, ifStmt), graph.predecessors(ret));
+  }
+
   /**
    * Generates the correct test {@link Body} for the corresponding test case.
    *
@@ -0,0 +1,134 @@
+package sootup.java.bytecode.interceptors;
+
+import categories.Java8Test;
+import java.util.*;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JPhiExpr;
+import sootup.core.jimple.common.stmt.BranchingStmt;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.VoidType;
+import sootup.core.util.ImmutableUtils;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.language.JavaJimple;
+import sootup.java.core.types.JavaClassType;
+
+@Category(Java8Test.class)
+public class StaticSingleAssignmentDeconstructorTest {
+
+  JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  StmtPositionInfo noStmtPositionInfo = StmtPositionInfo.createNoStmtPositionInfo();
+
+  JavaClassType classType = factory.getClassType("Test");
+  MethodSignature methodSignature =
+      new MethodSignature(classType, "test", Collections.emptyList(), VoidType.getInstance());
+
+  Local l0 = JavaJimple.newLocal("l0", classType);
+  Local a0 = JavaJimple.newLocal("a#0", PrimitiveType.getInt());
+  Local a1 = JavaJimple.newLocal("a#1", PrimitiveType.getInt());
+  Local a2 = JavaJimple.newLocal("a#2", PrimitiveType.getInt());
+  Local a3 = JavaJimple.newLocal("a#3", PrimitiveType.getInt());
+
+  Stmt startingStmt =
+      JavaJimple.newIdentityStmt(l0, JavaJimple.newThisRef(classType), noStmtPositionInfo);
+  Stmt assignA0 = JavaJimple.newAssignStmt(a0, IntConstant.getInstance(1), noStmtPositionInfo);
+  Stmt assignA1 =
+      JavaJimple.newAssignStmt(
+          a1, JavaJimple.newAddExpr(a0, IntConstant.getInstance(1)), noStmtPositionInfo);
+  Stmt ifStmt =
+      JavaJimple.newIfStmt(
+          JavaJimple.newLtExpr(a0, IntConstant.getInstance(100)), noStmtPositionInfo);
+  Stmt assignA2 =
+      JavaJimple.newAssignStmt(
+          a2, JavaJimple.newAddExpr(a1, IntConstant.getInstance(1)), noStmtPositionInfo);
+  Stmt placeholderStmt =
+      JavaJimple.newAssignStmt(
+          a3,
+          Jimple.newPhiExpr(Collections.emptyList(), Collections.emptyList()),
+          noStmtPositionInfo);
+  Stmt returnStmt = JavaJimple.newReturnStmt(a3, noStmtPositionInfo);
+
+  /**
+   * a#0 is still live when a#1 is defined, so the versions of "a" can not be coalesced and the phi
+   * is replaced by copies.
+   *
+   * <pre>
+   *    l0 := @this: Test
+   *    a#0 = 1
+   *    a#1 = a#0 + 1
+   *    if a#0 < 100 goto label1
+   *    a#2 = a#1 + 1
+   * label1:
+   *    a#3 = phi(a#0, a#2)
+   *    return a#3
+   * </pre>
+   */
+  @Test
+  public void testInterferingVersions() {
+    Body.BodyBuilder builder = createBody();
+    new StaticSingleAssignmentDeconstructor().interceptBody(builder);
+
+    String expectedBodyString =
+        "{\n"
+            + "    Test l0;\n"
+            + "    int a#0, a#1, a#2, a#3, a#3#phi;\n"
+            + "\n"
+            + "\n"
+            + "    l0 := @this: Test;\n"
+            + "    a#0 = 1;\n"
+            + "    a#3#phi = a#0;\n"
+            + "    a#1 = a#0 + 1;\n"
+            + "\n"
+            + "    if a#0 < 100 goto label1;\n"
+            + "    a#2 = a#1 + 1;\n"
+            + "    a#3#phi = a#2;\n"
+            + "\n"
+            + "  label1:\n"
+            + "    a#3 = a#3#phi;\n"
+            + "\n"
+            + "    return a#3;\n"
+            + "}\n";
+
+    Body body = builder.build();
+    Assert.assertEquals(expectedBodyString, body.toString());
+    for (Stmt stmt : body.getStmts()) {
+      Assert.assertFalse(
+          stmt instanceof JAssignStmt
+              && ((JAssignStmt<?, ?>) stmt).getRightOp() instanceof JPhiExpr);
+    }
+  }
+
+  private Body.BodyBuilder createBody() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(methodSignature);
+    builder.setLocals(ImmutableUtils.immutableSet(l0, a0, a1, a2, a3));
+
+    Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
+    branchingMap.put((BranchingStmt) ifStmt, Collections.singletonList(placeholderStmt));
+    graph.initializeWith(
+        Arrays.asList(
+            startingStmt, assignA0, assignA1, ifStmt, assignA2, placeholderStmt, returnStmt),
+        branchingMap,
+        Collections.emptyList());
+
+    List<BasicBlock<?>> blocks =
+        Arrays.asList(graph.getBlockOf(ifStmt), graph.getBlockOf(assignA2));
+    graph.replaceNode(
+        placeholderStmt,
+        JavaJimple.newAssignStmt(
+            a3, Jimple.newPhiExpr(Arrays.asList(a0, a2), blocks), noStmtPositionInfo));
+    return builder;
+  }
+}
@@ -3,15 +3,17 @@ package sootup.java.bytecode.interceptors;
 import categories.Java8Test;
 import java.util.*;
 import org.junit.Assert;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.core.graph.MutableBlockStmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JPhiExpr;
 import sootup.core.jimple.common.ref.IdentityRef;
 import sootup.core.jimple.common.stmt.BranchingStmt;
+import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.signatures.MethodSignature;
@@ -24,7 +26,6 @@ import sootup.java.core.types.JavaClassType;
 
 /** @author Zun Wang */
 @Category(Java8Test.class)
-@Ignore("ms: FIX IT")
 public class StaticSingleAssignmentFormerTest {
 
   // Preparation
@@ -81,46 +82,52 @@ public class StaticSingleAssignmentFormerTest {
 
     String expectedBodyString =
         "{\n"
-            + "    int l0, l1, l2, l3, l0#0, l1#1, l2#2, l3#3, l3#4, l2#5, l2#6, l3#7, l2#8, l3#9, l3#10, l2#11;\n"
+            + "    int l0#0, l1#1, l2#2, l3#3, l2#4, l3#5, l2#6, l3#7, l2#8, l3#9, l2#10;\n"
             + "\n"
             + "\n"
             + "    l0#0 := @this: Test;\n"
-            + "\n"
             + "    l1#1 = 1;\n"
-            + "\n"
             + "    l2#2 = 1;\n"
-            + "\n"
             + "    l3#3 = 0;\n"
             + "\n"
             + "  label1:\n"
-            + "    l3#4 = phi(l3#3, l3#10);\n"
-            + "\n"
-            + "    l2#5 = phi(l2#2, l2#11);\n"
-            + "\n"
-            + "    if l3#4 < 100 goto label3;\n"
+            + "    l2#4 = phi(l2#2, l2#8);\n"
+            + "    l3#5 = phi(l3#3, l3#9);\n"
             + "\n"
-            + "    if l2#5 < 20 goto label2;\n"
+            + "    if l3#5 < 100 goto label3;\n"
             + "\n"
+            + "    if l2#4 < 20 goto label2;\n"
             + "    l2#8 = l1#1;\n"
-            + "\n"
-            + "    l3#9 = l3#4 + 1;\n"
-            + "\n"
-            + "    l3#10 = phi(l3#7, l3#9);\n"
-            + "\n"
-            + "    l2#11 = phi(l2#6, l2#8);\n"
+            + "    l3#9 = l3#5 + 1;\n"
             + "\n"
             + "    goto label1;\n"
             + "\n"
             + "  label2:\n"
-            + "    l2#6 = l3#4;\n"
-            + "\n"
-            + "    l3#7 = l3#4 + 2;\n"
+            + "    l2#6 = l3#5;\n"
+            + "    l3#7 = l3#5 + 2;\n"
             + "\n"
             + "  label3:\n"
-            + "    return l2#5;\n"
+            + "    l2#10 = phi(l2#4, l2#6);\n"
+            + "\n"
+            + "    return l2#10;\n"
             + "}\n";
 
-    Assert.assertEquals(expectedBodyString, builder.build().toString());
+    Body body = builder.build();
+    Assert.assertEquals(expectedBodyString, body.toString());
+    assertSingleAssignment(body);
+  }
+
+  @Test
+  public void testMinimalSSA() {
+    StaticSingleAssignmentFormer ssa =
+        new StaticSingleAssignmentFormer(StaticSingleAssignmentFormer.PhiPlacement.MINIMAL);
+    Body.BodyBuilder builder = createBody();
+    ssa.interceptBody(builder);
+
+    Body body = builder.build();
+    // in contrast to pruned SSA the dead phi for l3 at the return is placed, too
+    Assert.assertEquals(4, countPhiStmts(body));
+    assertSingleAssignment(body);
   }
 
   @Test
@@ -131,60 +138,91 @@ public class StaticSingleAssignmentFormerTest {
 
     String expectedBodyString =
         "{\n"
-            + "    int l0, l1, l2, l3, l0#0, l1#1, l2#2, l3#3, l3#4, l2#5, l2#6, l3#7, l2#8, l2#10, l2#11, l3#12, l3#13, l2#14;\n"
-            + "    ref stack4, stack4#9;\n"
+            + "    int l0#0, l1#1, l2#2, l3#3, l2#4, l3#5, l2#6, l3#7, l2#8, l2#10, l2#11, l3#12, l2#13;\n"
+            + "    ref stack4#9;\n"
             + "\n"
             + "\n"
             + "    l0#0 := @this: Test;\n"
-            + "\n"
             + "    l1#1 = 1;\n"
-            + "\n"
             + "    l2#2 = 1;\n"
-            + "\n"
             + "    l3#3 = 0;\n"
             + "\n"
             + "  label1:\n"
-            + "    l3#4 = phi(l3#3, l3#13);\n"
-            + "\n"
-            + "    l2#5 = phi(l2#2, l2#14);\n"
+            + "    l2#4 = phi(l2#2, l2#11);\n"
+            + "    l3#5 = phi(l3#3, l3#12);\n"
             + "\n"
-            + "    if l3#4 < 100 goto label6;\n"
+            + "    if l3#5 < 100 goto label6;\n"
             + "\n"
-            + "    if l2#5 < 20 goto label5;\n"
+            + "    if l2#4 < 20 goto label5;\n"
             + "\n"
             + "  label2:\n"
             + "    l2#8 = l1#1;\n"
             + "\n"
             + "  label3:\n"
             + "    l2#11 = phi(l2#8, l2#10);\n"
-            + "\n"
-            + "    l3#12 = l3#4 + 1;\n"
-            + "\n"
-            + "    l3#13 = phi(l3#7, l3#12);\n"
-            + "\n"
-            + "    l2#14 = phi(l2#6, l2#11);\n"
+            + "    l3#12 = l3#5 + 1;\n"
             + "\n"
             + "    goto label1;\n"
             + "\n"
             + "  label4:\n"
             + "    stack4#9 := @caughtexception;\n"
-            + "\n"
             + "    l2#10 = 0;\n"
             + "\n"
             + "    goto label3;\n"
             + "\n"
             + "  label5:\n"
-            + "    l2#6 = l3#4;\n"
-            + "\n"
-            + "    l3#7 = l3#4 + 2;\n"
+            + "    l2#6 = l3#5;\n"
+            + "    l3#7 = l3#5 + 2;\n"
             + "\n"
             + "  label6:\n"
-            + "    return l2#5;\n"
+            + "    l2#13 = phi(l2#4, l2#6);\n"
+            + "\n"
+            + "    return l2#13;\n"
             + "\n"
             + " catch Exception from label2 to label3 with label4;\n"
             + "}\n";
 
-    Assert.assertEquals(expectedBodyString, builder.build().toString());
+    Body body = builder.build();
+    Assert.assertEquals(expectedBodyString, body.toString());
+    assertSingleAssignment(body);
+  }
+
+  @Test
+  public void testOutOfSSA() {
+    for (StaticSingleAssignmentFormer.PhiPlacement phiPlacement :
+        StaticSingleAssignmentFormer.PhiPlacement.values()) {
+      Body.BodyBuilder builder = createTrapBody();
+      String originalBodyString = builder.build().toString();
+
+      new StaticSingleAssignmentFormer(phiPlacement).interceptBody(builder);
+      new StaticSingleAssignmentDeconstructor().interceptBody(builder);
+
+      Body body = builder.build();
+      Assert.assertEquals(0, countPhiStmts(body));
+      Assert.assertEquals(originalBodyString, body.toString());
+    }
+  }
+
+  private static int countPhiStmts(Body body) {
+    int count = 0;
+    for (Stmt stmt : body.getStmts()) {
+      if (stmt instanceof JAssignStmt
+          && ((JAssignStmt<?, ?>) stmt).getRightOp() instanceof JPhiExpr) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static void assertSingleAssignment(Body body) {
+    Set<Local> defs = new HashSet<>();
+    for (Stmt stmt : body.getStmts()) {
+      for (Value def : stmt.getDefs()) {
+        if (def instanceof Local) {
+          Assert.assertTrue(def + " is assigned more than once.", defs.add((Local) def));
+        }
+      }
+    }
   }
 
   /**
@@ -219,7 +257,8 @@ public class StaticSingleAssignmentFormerTest {
 
     Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
     branchingMap.put((BranchingStmt) ifStmt, Collections.singletonList(returnStmt));
-    branchingMap.put((BranchingStmt) ifStmt2, Collections.singletonList(assignl1tol2));
+    // the target of "if l2 < 20" is "l2 = l3" as documented, not the fall-through "l2 = l1"
+    branchingMap.put((BranchingStmt) ifStmt2, Collections.singletonList(assignl3tol2));
     branchingMap.put((BranchingStmt) gotoStmt, Collections.singletonList(ifStmt));
 
     graph.initializeWith(
@@ -281,7 +320,8 @@ public class StaticSingleAssignmentFormerTest {
     builder.setLocals(locals);
     Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
     branchingMap.put((BranchingStmt) ifStmt, Collections.singletonList(returnStmt));
-    branchingMap.put((BranchingStmt) ifStmt2, Collections.singletonList(assignl1tol2));
+    // the target of "if l2 < 20" is "l2 = l3" as documented, not the fall-through "l2 = l1"
+    branchingMap.put((BranchingStmt) ifStmt2, Collections.singletonList(assignl3tol2));
     branchingMap.put((BranchingStmt) gotoStmt, Collections.singletonList(ifStmt));
 
     graph.initializeWith(
@@ -26,7 +26,6 @@ import sootup.java.core.types.JavaClassType;
 
 /** @author Zun Wang */
 @Category(Java8Test.class)
-@Ignore("FIXME: needs .setTraps() adapted to MutableBlockStmtGraph")
 public class TrapTightenerTest {
   JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
   StmtPositionInfo noStmtPositionInfo = StmtPositionInfo.createNoStmtPositionInfo();
@@ -44,6 +43,7 @@ public class TrapTightenerTest {
   Local l3 = JavaJimple.newLocal("l3", intType);
 
   ClassType exception = factory.getClassType("java.lang.Throwable");
+  ClassType arithmeticException = factory.getClassType("java.lang.ArithmeticException");
   JavaJimple javaJimple = JavaJimple.getInstance();
   IdentityRef caughtExceptionRef = javaJimple.newCaughtExceptionRef();
   Stmt startingStmt = JavaJimple.newIdentityStmt(l0, identityRef, noStmtPositionInfo);
@@ -107,6 +107,7 @@ public class TrapTightenerTest {
    * </pre>
    */
   @Test
+  @Ignore("FIXME: needs .setTraps() adapted to MutableBlockStmtGraph")
   public void testSimpleBody() {
 
     Body body = createSimpleBody();
@@ -147,6 +148,7 @@ public class TrapTightenerTest {
    * </pre>
    */
   @Test
+  @Ignore("FIXME: needs .setTraps() adapted to MutableBlockStmtGraph")
   public void testMonitoredBody() {
 
     Body.BodyBuilder builder = Body.builder(creatBodyWithMonitor(), Collections.emptySet());
@@ -165,6 +167,49 @@ public class TrapTightenerTest {
     AssertUtils.assertTrapsEquiv(excepted, actual);
   }
 
+  /**
+   *
+   *
+   * <pre>
+   *    l0 := @this Test;
+   *  label1:
+   *    l1 = 1;
+   *    l2 = l1 / l2;
+   *    l2 = 3;
+   *    return;
+   *  label2:
+   *    l3 := @caughtexception;
+   *    l2 = 4;
+   *    throw l3;
+   *  catch java.lang.ArithmeticException from label1 to label2 with label2;
+   * </pre>
+   *
+   * after run trapTightener only the division is covered by the trap
+   */
+  @Test
+  public void testArithmeticTrap() {
+    Stmt division = JavaJimple.newAssignStmt(l2, JavaJimple.newDivExpr(l1, l2), noStmtPositionInfo);
+
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(methodSignature);
+    builder.setLocals(ImmutableUtils.immutableSet(l0, l1, l2, l3));
+    graph.addBlock(
+        Arrays.asList(stmt1, division, stmt10, ret),
+        Collections.singletonMap(arithmeticException, stmt6));
+    graph.putEdge(startingStmt, stmt1);
+    graph.putEdge(stmt6, stmt11);
+    graph.putEdge(stmt11, stmt9);
+    builder.setStartingStmt(startingStmt);
+    builder.setPosition(NoPositionInformation.getInstance());
+
+    new TrapTightener().interceptBody(builder);
+
+    List<Trap> expected =
+        Collections.singletonList(new Trap(arithmeticException, division, stmt10, stmt6));
+    AssertUtils.assertTrapsEquiv(expected, builder.getTraps());
+  }
+
   private Body createSimpleBody() {
     MutableStmtGraph graph = new MutableBlockStmtGraph();
     Body.BodyBuilder builder = Body.builder(graph);
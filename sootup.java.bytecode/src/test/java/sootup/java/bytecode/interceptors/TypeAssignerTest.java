@@ -0,0 +1,285 @@
+package sootup.java.bytecode.interceptors;
+
+import categories.Java8Test;
+import java.util.*;
+import javax.annotation.Nonnull;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.NullConstant;
+import sootup.core.jimple.common.stmt.BranchingStmt;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.*;
+import sootup.core.util.ImmutableUtils;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.language.JavaJimple;
+import sootup.java.core.types.JavaClassType;
+
+@Category(Java8Test.class)
+public class TypeAssignerTest {
+
+  JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+  StmtPositionInfo noStmtPositionInfo = StmtPositionInfo.createNoStmtPositionInfo();
+
+  JavaClassType classType = factory.getClassType("Test");
+  JavaClassType stringType = factory.getClassType("java.lang.String");
+  JavaClassType integerType = factory.getClassType("java.lang.Integer");
+  JavaClassType objectType = factory.getClassType("java.lang.Object");
+  MethodSignature methodSignature =
+      new MethodSignature(classType, "test", Collections.emptyList(), VoidType.getInstance());
+
+  Local l0 = JavaJimple.newLocal("l0", UnknownType.getInstance());
+  Local l1 = JavaJimple.newLocal("l1", UnknownType.getInstance());
+  Local l2 = JavaJimple.newLocal("l2", UnknownType.getInstance());
+  Local l3 = JavaJimple.newLocal("l3", UnknownType.getInstance());
+  Local l4 = JavaJimple.newLocal("l4", UnknownType.getInstance());
+
+  /**
+   *
+   *
+   * <pre>
+   *    l0 := @this: Test
+   *    l1 = 1
+   *    l2 = null
+   *    l4 = null
+   *    if l1 < 10 goto label1
+   *    l2 = new java.lang.String
+   * label1:
+   *    l3 = l1 + 1
+   *    return
+   * </pre>
+   */
+  @Test
+  public void testAssignTypes() {
+    Stmt startingStmt =
+        JavaJimple.newIdentityStmt(l0, JavaJimple.newThisRef(classType), noStmtPositionInfo);
+    Stmt assignL1 = JavaJimple.newAssignStmt(l1, IntConstant.getInstance(1), noStmtPositionInfo);
+    Stmt assignL2 = JavaJimple.newAssignStmt(l2, NullConstant.getInstance(), noStmtPositionInfo);
+    Stmt assignL4 = JavaJimple.newAssignStmt(l4, NullConstant.getInstance(), noStmtPositionInfo);
+    Stmt ifStmt =
+        JavaJimple.newIfStmt(
+            JavaJimple.newLtExpr(l1, IntConstant.getInstance(10)), noStmtPositionInfo);
+    Stmt newL2 =
+        JavaJimple.newAssignStmt(l2, JavaJimple.newNewExpr(stringType), noStmtPositionInfo);
+    Stmt assignL3 =
+        JavaJimple.newAssignStmt(
+            l3, JavaJimple.newAddExpr(l1, IntConstant.getInstance(1)), noStmtPositionInfo);
+    Stmt returnStmt = JavaJimple.newReturnVoidStmt(noStmtPositionInfo);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(methodSignature);
+    builder.setLocals(ImmutableUtils.immutableSet(l0, l1, l2, l3, l4));
+    Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
+    branchingMap.put((BranchingStmt) ifStmt, Collections.singletonList(assignL3));
+    graph.initializeWith(
+        Arrays.asList(
+            startingStmt, assignL1, assignL2, assignL4, ifStmt, newL2, assignL3, returnStmt),
+        branchingMap,
+        Collections.emptyList());
+
+    new TypeAssigner().interceptBody(builder);
+
+    Map<String, Type> types = new HashMap<>();
+    for (Local local : builder.getLocals()) {
+      types.put(local.getName(), local.getType());
+    }
+    Assert.assertEquals(classType, types.get("l0"));
+    Assert.assertEquals(PrimitiveType.getInt(), types.get("l1"));
+    Assert.assertEquals(stringType, types.get("l2"));
+    Assert.assertEquals(PrimitiveType.getInt(), types.get("l3"));
+    Assert.assertEquals(objectType, types.get("l4"));
+
+    // the Locals in the Stmts are replaced as well
+    for (Stmt stmt : builder.getStmtGraph().getStmts()) {
+      for (Value value : stmt.getUsesAndDefs()) {
+        if (value instanceof Local) {
+          Assert.assertEquals(types.get(((Local) value).getName()), value.getType());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testJoin() {
+    TypeAssigner typeAssigner = new TypeAssigner();
+    Assert.assertEquals(
+        PrimitiveType.getInt(),
+        typeAssigner.join(PrimitiveType.getBoolean(), PrimitiveType.getByte()));
+    Assert.assertEquals(
+        UnknownType.getInstance(), typeAssigner.join(PrimitiveType.getInt(), stringType));
+    Assert.assertEquals(
+        UnknownType.getInstance(),
+        typeAssigner.join(PrimitiveType.getInt(), PrimitiveType.getLong()));
+    Assert.assertEquals(stringType, typeAssigner.join(NullType.getInstance(), stringType));
+    Assert.assertEquals(stringType, typeAssigner.join(null, stringType));
+    Assert.assertEquals(objectType, typeAssigner.join(stringType, integerType));
+    Assert.assertEquals(
+        factory.getArrayType(objectType, 2),
+        typeAssigner.join(
+            factory.getArrayType(stringType, 2), factory.getArrayType(integerType, 2)));
+    Assert.assertEquals(
+        objectType,
+        typeAssigner.join(
+            factory.getArrayType(stringType, 1), factory.getArrayType(integerType, 2)));
+  }
+
+  JavaClassType aType = factory.getClassType("A");
+  JavaClassType bType = factory.getClassType("B");
+  JavaClassType iType = factory.getClassType("I");
+  JavaClassType jType = factory.getClassType("J");
+
+  /** A and B implement the given interfaces, which are unrelated. */
+  private TypeHierarchy createTypeHierarchy(Set<ClassType> interfacesOfAAndB) {
+    return new TypeHierarchy() {
+      @Nonnull
+      @Override
+      public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+        return type.equals(aType) || type.equals(bType)
+            ? interfacesOfAAndB
+            : Collections.emptySet();
+      }
+
+      @Override
+      public ClassType superClassOf(@Nonnull ClassType classType) {
+        return classType.equals(objectType) ? null : objectType;
+      }
+
+      @Nonnull
+      @Override
+      public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Nonnull
+      @Override
+      public Set<ClassType> subclassesOf(@Nonnull ClassType classType) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Nonnull
+      @Override
+      public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Nonnull
+      @Override
+      public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Assigns types to the Locals of
+   *
+   * <pre>
+   *    l1 = 1
+   *    if l1 < 10 goto label1
+   *    l0 = new A
+   *    goto label2
+   * label1:
+   *    l0 = new B
+   * label2:
+   *    useStmt
+   *    return
+   * </pre>
+   */
+  private Map<String, Type> assignTypesToBranches(TypeAssigner typeAssigner, Stmt useStmt) {
+    Stmt assignL1 = JavaJimple.newAssignStmt(l1, IntConstant.getInstance(1), noStmtPositionInfo);
+    Stmt ifStmt =
+        JavaJimple.newIfStmt(
+            JavaJimple.newLtExpr(l1, IntConstant.getInstance(10)), noStmtPositionInfo);
+    Stmt newA = JavaJimple.newAssignStmt(l0, JavaJimple.newNewExpr(aType), noStmtPositionInfo);
+    Stmt gotoStmt = JavaJimple.newGotoStmt(noStmtPositionInfo);
+    Stmt newB = JavaJimple.newAssignStmt(l0, JavaJimple.newNewExpr(bType), noStmtPositionInfo);
+    Stmt returnStmt = JavaJimple.newReturnVoidStmt(noStmtPositionInfo);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(methodSignature);
+    builder.setLocals(ImmutableUtils.immutableSet(l0, l1));
+    Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
+    branchingMap.put((BranchingStmt) ifStmt, Collections.singletonList(newB));
+    branchingMap.put((BranchingStmt) gotoStmt, Collections.singletonList(useStmt));
+    graph.initializeWith(
+        Arrays.asList(assignL1, ifStmt, newA, gotoStmt, newB, useStmt, returnStmt),
+        branchingMap,
+        Collections.emptyList());
+
+    typeAssigner.interceptBody(builder);
+
+    Map<String, Type> types = new HashMap<>();
+    for (Local local : builder.getLocals()) {
+      types.put(local.getName(), local.getType());
+    }
+    return types;
+  }
+
+  @Test
+  public void testJoinViaInterfaces() {
+    TypeAssigner typeAssigner = new TypeAssigner(createTypeHierarchy(Collections.singleton(iType)));
+    Assert.assertEquals(iType, typeAssigner.join(aType, bType));
+    Assert.assertEquals(iType, typeAssigner.join(iType, bType));
+    Assert.assertEquals(
+        factory.getArrayType(iType, 1),
+        typeAssigner.join(factory.getArrayType(aType, 1), factory.getArrayType(bType, 1)));
+    Assert.assertEquals(
+        iType,
+        assignTypesToBranches(typeAssigner, JavaJimple.newReturnVoidStmt(noStmtPositionInfo))
+            .get("l0"));
+
+    // A and B share the interfaces I and J - there is no single least common supertype
+    typeAssigner = new TypeAssigner(createTypeHierarchy(ImmutableUtils.immutableSet(iType, jType)));
+    Assert.assertEquals(objectType, typeAssigner.join(aType, bType));
+  }
+
+  @Test
+  public void testNarrowToUseSite() {
+    MethodSignature useJ =
+        new MethodSignature(
+            classType, "useJ", Collections.singletonList(jType), VoidType.getInstance());
+    Stmt useStmt =
+        JavaJimple.newInvokeStmt(JavaJimple.newStaticInvokeExpr(useJ, l0), noStmtPositionInfo);
+
+    Map<String, Type> types =
+        assignTypesToBranches(
+            new TypeAssigner(createTypeHierarchy(ImmutableUtils.immutableSet(iType, jType))),
+            useStmt);
+    Assert.assertEquals(jType, types.get("l0"));
+    Assert.assertEquals(PrimitiveType.getInt(), types.get("l1"));
+  }
+
+  @Test
+  public void testNullTakesUseSiteType() {
+    Stmt assignL0 = JavaJimple.newAssignStmt(l0, NullConstant.getInstance(), noStmtPositionInfo);
+    Stmt returnStmt = JavaJimple.newReturnStmt(l0, noStmtPositionInfo);
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    Body.BodyBuilder builder = Body.builder(graph);
+    builder.setMethodSignature(
+        new MethodSignature(classType, "getString", Collections.emptyList(), stringType));
+    builder.setLocals(ImmutableUtils.immutableSet(l0));
+    graph.initializeWith(
+        Arrays.asList(assignL0, returnStmt), Collections.emptyMap(), Collections.emptyList());
+
+    new TypeAssigner().interceptBody(builder);
+
+    Assert.assertEquals(stringType, builder.getLocals().iterator().next().getType());
+    for (Stmt stmt : builder.getStmtGraph().getStmts()) {
+      if (stmt instanceof JReturnStmt) {
+        Assert.assertEquals(stringType, ((JReturnStmt) stmt).getOp().getType());
+      }
+    }
+  }
+}
@@ -134,6 +134,12 @@ public class JavaSootClass extends SootClass<JavaSootClassSource> {
     return (Optional<JavaSootMethod>) super.getMethod(subSignature);
   }
 
+  @Nonnull
+  @Override
+  public Collection<? extends JavaSootMethod> getMethodsByName(@Nonnull String name) {
+    return (Collection<? extends JavaSootMethod>) super.getMethodsByName(name);
+  }
+
   @Nonnull
   @Override
   public JavaSootClassSource getClassSource() {
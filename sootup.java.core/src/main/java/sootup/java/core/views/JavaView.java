@@ -24,10 +24,10 @@ package sootup.java.core.views;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import sootup.core.Project;
@@ -52,7 +52,10 @@ import sootup.java.core.types.AnnotationType;
  */
 public class JavaView extends AbstractView<JavaSootClass> {
 
-  @Nonnull protected final Map<ClassType, JavaSootClass> cache = new HashMap<>();
+  @Nonnull protected final Map<ClassType, JavaSootClass> cache = new ConcurrentHashMap<>();
+
+  /** the locks of the classes that are currently built, so different classes build in parallel */
+  @Nonnull private final Map<ClassType, Object> buildLocks = new ConcurrentHashMap<>();
 
   protected volatile boolean isFullyResolved = false;
 
@@ -108,19 +111,34 @@ public class JavaView extends AbstractView<JavaSootClass> {
   /** Resolves the class matching the provided {@link ClassType ClassType}. */
   @Override
   @Nonnull
-  public synchronized Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+  public Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+    // classes are only added to the cache, so a hit needs no lock
     JavaSootClass cachedClass = cache.get(type);
     if (cachedClass != null) {
       return Optional.of(cachedClass);
     }
 
-    Optional<? extends AbstractClassSource<? extends JavaSootClass>> abstractClass =
-        getAbstractClass(type);
-    if (!abstractClass.isPresent()) {
-      return Optional.empty();
+    synchronized (buildLockOf(type)) {
+      cachedClass = cache.get(type);
+      if (cachedClass != null) {
+        return Optional.of(cachedClass);
+      }
+
+      Optional<? extends AbstractClassSource<? extends JavaSootClass>> abstractClass =
+          getAbstractClass(type);
+      if (!abstractClass.isPresent()) {
+        // do not keep a lock for every type that is not part of the view
+        buildLocks.remove(type);
+        return Optional.empty();
+      }
+
+      return buildClassFrom(abstractClass.get());
     }
+  }
 
-    return buildClassFrom(abstractClass.get());
+  @Nonnull
+  private Object buildLockOf(@Nonnull ClassType type) {
+    return buildLocks.computeIfAbsent(type, t -> new Object());
   }
 
   @Nonnull
@@ -137,15 +155,25 @@ public class JavaView extends AbstractView<JavaSootClass> {
   }
 
   @Nonnull
-  protected synchronized Optional<JavaSootClass> buildClassFrom(
+  protected Optional<JavaSootClass> buildClassFrom(
       AbstractClassSource<? extends JavaSootClass> classSource) {
-    JavaSootClass theClass =
-        cache.computeIfAbsent(
-            classSource.getClassType(),
-            type ->
-                classSource.buildClass(
-                    getProject().getSourceTypeSpecifier().sourceTypeFor(classSource)));
+    ClassType type = classSource.getClassType();
+    JavaSootClass theClass = cache.get(type);
+    if (theClass == null) {
+      // only the build of this class is locked, the lock is not needed anymore once it is cached
+      synchronized (buildLockOf(type)) {
+        theClass = cache.get(type);
+        if (theClass == null) {
+          theClass =
+              classSource.buildClass(
+                  getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
+          cache.put(type, theClass);
+          buildLocks.remove(type);
+        }
+      }
+    }
 
+    // outside of the lock, as resolving annotations can request other classes
     if (theClass.getType() instanceof AnnotationType) {
       JavaAnnotationSootClass jasc = (JavaAnnotationSootClass) theClass;
       jasc.getAnnotations(Optional.of(this)).forEach(AnnotationUsage::getValuesWithDefaults);
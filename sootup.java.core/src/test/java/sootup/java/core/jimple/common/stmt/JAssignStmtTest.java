@@ -23,7 +23,10 @@
 package sootup.java.core.jimple.common.stmt;
 
 import categories.Java8Test;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -32,6 +35,7 @@ import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.Immediate;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.constant.IntConstant;
 import sootup.core.jimple.common.constant.LongConstant;
 import sootup.core.jimple.common.expr.JAddExpr;
@@ -139,4 +143,31 @@ public class JAssignStmtTest {
         Jimple.newAssignStmt(someLocal, jArrayRef, StmtPositionInfo.createNoStmtPositionInfo());
     jAssignStmtArr.getArrayRef();
   }
+
+  @Test
+  public void testForEachUse() {
+    StmtPositionInfo nop = StmtPositionInfo.createNoStmtPositionInfo();
+    Local local = new Local("$i0", PrimitiveType.getInt());
+    Local index = new Local("$i1", PrimitiveType.getInt());
+    Local array =
+        new Local(
+            "r0", JavaIdentifierFactory.getInstance().getArrayType(PrimitiveType.getInt(), 1));
+
+    Stmt deepStmt =
+        new JAssignStmt(local, new JAddExpr(index, IntConstant.getInstance(33102)), nop);
+    Stmt arrayStoreStmt =
+        new JAssignStmt(JavaJimple.getInstance().newArrayRef(array, index), local, nop);
+    Stmt arrayLoadStmt =
+        new JAssignStmt(local, JavaJimple.getInstance().newArrayRef(array, index), nop);
+
+    for (Stmt stmt : Arrays.asList(deepStmt, arrayStoreStmt, arrayLoadStmt)) {
+      List<Value> uses = new ArrayList<>();
+      stmt.forEachUse(uses::add);
+      Assert.assertEquals(stmt.getUses(), uses);
+
+      List<Value> usesAndDefs = new ArrayList<>();
+      stmt.forEachUseAndDef(usesAndDefs::add);
+      Assert.assertEquals(stmt.getUsesAndDefs(), usesAndDefs);
+    }
+  }
 }
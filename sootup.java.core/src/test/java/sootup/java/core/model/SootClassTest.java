@@ -0,0 +1,124 @@
+package sootup.java.core.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.frontend.OverridingBodySource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.inputlocation.EagerInputLocation;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JReturnVoidStmt;
+import sootup.core.model.Body;
+import sootup.core.model.Modifier;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.PrimitiveType;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.OverridingJavaClassSource;
+
+@Category(Java8Test.class)
+public class SootClassTest {
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+  private final MethodSignature foo =
+      identifierFactory.getMethodSignature("foo", "Overloads", "void", Collections.emptyList());
+  private final MethodSignature fooInt =
+      identifierFactory.getMethodSignature(
+          "foo", "Overloads", "void", Collections.singletonList("int"));
+  private final MethodSignature bar =
+      identifierFactory.getMethodSignature("bar", "Overloads", "void", Collections.emptyList());
+
+  @Test
+  public void testMethodLookup() {
+    JavaSootClass clazz = createClass(Arrays.asList(foo, fooInt, bar));
+
+    assertEquals(foo, clazz.getMethod(foo.getSubSignature()).get().getSignature());
+    assertEquals(fooInt, clazz.getMethod(fooInt.getSubSignature()).get().getSignature());
+    assertFalse(
+        clazz
+            .getMethod(
+                identifierFactory.getMethodSubSignature(
+                    "foo", PrimitiveType.getInt(), Collections.emptyList()))
+            .isPresent());
+
+    assertEquals(
+        new HashSet<>(Arrays.asList(foo, fooInt)),
+        clazz.getMethodsByName("foo").stream()
+            .map(JavaSootMethod::getSignature)
+            .collect(Collectors.toSet()));
+    assertTrue(clazz.getMethodsByName("baz").isEmpty());
+
+    assertEquals(
+        fooInt,
+        clazz
+            .getMethod("foo", Collections.singletonList(PrimitiveType.getInt()))
+            .get()
+            .getSignature());
+    assertEquals(bar, clazz.getMethod("bar", Collections.emptyList()).get().getSignature());
+    assertFalse(
+        clazz.getMethod("bar", Collections.singletonList(PrimitiveType.getInt())).isPresent());
+  }
+
+  @Test(expected = ResolveException.class)
+  public void testAmbiguousMethodLookup() {
+    MethodSignature fooReturningInt =
+        identifierFactory.getMethodSignature("foo", "Overloads", "int", Collections.emptyList());
+    createClass(Arrays.asList(foo, fooReturningInt)).getMethod("foo", Collections.emptyList());
+  }
+
+  private JavaSootClass createClass(List<MethodSignature> signatures) {
+    LinkedHashSet<SootMethod> methods = new LinkedHashSet<>();
+    for (MethodSignature signature : signatures) {
+      JReturnVoidStmt returnVoidStmt =
+          new JReturnVoidStmt(StmtPositionInfo.createNoStmtPositionInfo());
+      Body body =
+          Body.builder()
+              .setStartingStmt(returnVoidStmt)
+              .setMethodSignature(signature)
+              .setLocals(Collections.emptySet())
+              .build();
+      methods.add(
+          new JavaSootMethod(
+              new OverridingBodySource(signature, body),
+              signature,
+              EnumSet.of(Modifier.PUBLIC),
+              Collections.emptyList(),
+              Collections.emptyList(),
+              NoPositionInformation.getInstance()));
+    }
+
+    return new JavaSootClass(
+        new OverridingJavaClassSource(
+            new EagerInputLocation(),
+            Paths.get("Overloads.class"),
+            identifierFactory.getClassType("Overloads"),
+            null,
+            Collections.emptySet(),
+            null,
+            Collections.emptySet(),
+            methods,
+            NoPositionInformation.getInstance(),
+            EnumSet.of(Modifier.PUBLIC),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList()),
+        SourceType.Application);
+  }
+}
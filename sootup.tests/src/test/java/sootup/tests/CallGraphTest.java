@@ -3,14 +3,24 @@ package sootup.tests;
 import static junit.framework.TestCase.*;
 
 import categories.Java8Test;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import sootup.callgraph.AbstractCallGraphAlgorithm;
 import sootup.callgraph.CallGraph;
+import sootup.callgraph.CallSite;
 import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
+import sootup.callgraph.OnDemandClassHierarchyAnalysisAlgorithm;
 import sootup.callgraph.RapidTypeAnalysisAlgorithm;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -111,4 +121,151 @@ public class CallGraphTest {
 
     assertTrue(cg.containsCall(mainMethodSignature, method));
   }
+
+  private JavaView createMiniAppView() {
+    JavaProject javaProject =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(
+                    "../shared-test-resources/java-miniapps/MiniApp.jar"))
+            .build();
+    return javaProject.createOnDemandView();
+  }
+
+  private MethodSignature miniAppMainMethod() {
+    return identifierFactory.getMethodSignature(
+        identifierFactory.getClassType("MiniApp"),
+        "main",
+        "void",
+        Collections.singletonList("java.lang.String[]"));
+  }
+
+  @Test
+  public void testParallelConstruction() {
+    JavaView view = createMiniAppView();
+    ViewTypeHierarchy typeHierarchy = new ViewTypeHierarchy(view);
+    List<MethodSignature> entryPoints = Collections.singletonList(miniAppMainMethod());
+
+    for (String name : new String[] {"CHA", "RTA"}) {
+      algorithmName = name;
+      CallGraph sequentialCg = createAlgorithm(view, typeHierarchy).initialize(entryPoints);
+
+      AbstractCallGraphAlgorithm parallelAlgorithm = createAlgorithm(view, typeHierarchy);
+      parallelAlgorithm.setParallelism(4);
+      CallGraph parallelCg = parallelAlgorithm.initialize(entryPoints);
+
+      assertTrue(parallelCg.containsMethod(entryPoints.get(0)));
+      assertEquals(sequentialCg.getMethodSignatures(), parallelCg.getMethodSignatures());
+      assertEquals(sequentialCg.callCount(), parallelCg.callCount());
+      for (MethodSignature method : sequentialCg.getMethodSignatures()) {
+        assertEquals(sequentialCg.callsFrom(method), parallelCg.callsFrom(method));
+      }
+
+      // the calls are added in the same order in every run
+      for (int run = 0; run < 3; run++) {
+        AbstractCallGraphAlgorithm repeatedAlgorithm = createAlgorithm(view, typeHierarchy);
+        repeatedAlgorithm.setParallelism(4);
+        CallGraph repeatedCg = repeatedAlgorithm.initialize(entryPoints);
+        assertEquals(parallelCg.getMethodSignatures(), repeatedCg.getMethodSignatures());
+        for (MethodSignature method : parallelCg.getMethodSignatures()) {
+          assertEquals(
+              new ArrayList<>(parallelCg.callsFrom(method)),
+              new ArrayList<>(repeatedCg.callsFrom(method)));
+          assertEquals(
+              new ArrayList<>(parallelCg.callsTo(method)),
+              new ArrayList<>(repeatedCg.callsTo(method)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOnDemandCHA() {
+    JavaView view = createMiniAppView();
+    ViewTypeHierarchy typeHierarchy = new ViewTypeHierarchy(view);
+    List<MethodSignature> entryPoints = Collections.singletonList(miniAppMainMethod());
+    CallGraph completeCg =
+        new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy).initialize(entryPoints);
+    CallGraph onDemandCg =
+        new OnDemandClassHierarchyAnalysisAlgorithm(view, typeHierarchy).initialize(entryPoints);
+
+    MethodSignature mainMethod = entryPoints.get(0);
+    assertTrue(onDemandCg.containsMethod(mainMethod));
+    assertEquals(0, onDemandCg.callCount());
+
+    Set<MethodSignature> callees = onDemandCg.callsFrom(mainMethod);
+    assertEquals(completeCg.callsFrom(mainMethod), callees);
+    // only the calls of the main method have been resolved
+    assertEquals(callees.size(), onDemandCg.callCount());
+    assertTrue(onDemandCg.getMethodSignatures().size() < completeCg.getMethodSignatures().size());
+
+    for (MethodSignature callee : callees) {
+      assertEquals(completeCg.callsFrom(callee), onDemandCg.callsFrom(callee));
+      assertTrue(onDemandCg.callsTo(callee).contains(mainMethod));
+    }
+  }
+
+  @Test
+  public void testOnDemandCHACallSites() {
+    JavaView view = createMiniAppView();
+    ViewTypeHierarchy typeHierarchy = new ViewTypeHierarchy(view);
+    List<MethodSignature> entryPoints = Collections.singletonList(miniAppMainMethod());
+    CallGraph completeCg =
+        new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy).initialize(entryPoints);
+    CallGraph onDemandCg =
+        new OnDemandClassHierarchyAnalysisAlgorithm(view, typeHierarchy).initialize(entryPoints);
+
+    MethodSignature mainMethod = entryPoints.get(0);
+    Stmt invokeStmt = firstInvokeStmt(view, mainMethod);
+    Set<MethodSignature> callees = onDemandCg.calleesOf(new CallSite(mainMethod, invokeStmt));
+    assertEquals(completeCg.calleesOf(invokeStmt), callees);
+    assertEquals(callees, onDemandCg.calleesOf(invokeStmt));
+
+    // without the containing method, the methods reachable from the entry points are resolved
+    MethodSignature callee =
+        completeCg.callsFrom(mainMethod).stream()
+            .filter(m -> !m.equals(mainMethod) && firstInvokeStmt(view, m) != null)
+            .findFirst()
+            .get();
+    Stmt calleeInvokeStmt = firstInvokeStmt(view, callee);
+    CallGraph freshCg =
+        new OnDemandClassHierarchyAnalysisAlgorithm(view, typeHierarchy).initialize(entryPoints);
+    assertEquals(completeCg.calleesOf(calleeInvokeStmt), freshCg.calleesOf(calleeInvokeStmt));
+  }
+
+  private Stmt firstInvokeStmt(JavaView view, MethodSignature method) {
+    return view.getMethod(method)
+        .filter(SootMethod::hasBody)
+        .flatMap(
+            m ->
+                m.getBody().getStmtGraph().nodes().stream()
+                    .filter(Stmt::containsInvokeExpr)
+                    .findFirst())
+        .orElse(null);
+  }
+
+  @Test
+  public void testOnDemandCHAConcurrentQueries() throws Exception {
+    JavaView view = createMiniAppView();
+    ViewTypeHierarchy typeHierarchy = new ViewTypeHierarchy(view);
+    List<MethodSignature> entryPoints = Collections.singletonList(miniAppMainMethod());
+    CallGraph completeCg =
+        new ClassHierarchyAnalysisAlgorithm(view, typeHierarchy).initialize(entryPoints);
+    CallGraph onDemandCg =
+        new OnDemandClassHierarchyAnalysisAlgorithm(view, typeHierarchy).initialize(entryPoints);
+
+    List<Callable<Boolean>> queries = new ArrayList<>();
+    for (MethodSignature method : completeCg.getMethodSignatures()) {
+      queries.add(() -> completeCg.callsFrom(method).equals(onDemandCg.callsFrom(method)));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (Future<Boolean> result : executor.invokeAll(queries)) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(completeCg.callCount(), onDemandCg.callCount());
+  }
 }
@@ -2,6 +2,7 @@ package sootup.tests.typehierarchy;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import categories.Java8Test;
@@ -110,6 +111,28 @@ public class MethodDispatchResolverTest {
             factory.parseMethodSignature("ds.AbstractDataStrcture#toString(): java.lang.String")));
   }
 
+  @Test
+  public void dispatchResultsAreCached() {
+    IdentifierFactory factory = view.getIdentifierFactory();
+    MethodSignature collectionSize =
+        factory.parseMethodSignature("java.util.Collection#size(): int");
+    Set<MethodSignature> candidates =
+        MethodDispatchResolver.resolveAbstractDispatch(view, collectionSize);
+    assertSame(candidates, MethodDispatchResolver.resolveAbstractDispatch(view, collectionSize));
+
+    MethodSignature objectHashCode =
+        factory.parseMethodSignature("java.lang.Object#hashCode(): int");
+    // the second lookup is answered from the dispatch table of the shared superclass
+    assertEquals(
+        objectHashCode,
+        MethodDispatchResolver.resolveConcreteDispatch(
+            view, factory.parseMethodSignature("ds.Employee#hashCode(): int")));
+    assertEquals(
+        objectHashCode,
+        MethodDispatchResolver.resolveConcreteDispatch(
+            view, factory.parseMethodSignature("ds.Department#hashCode(): int")));
+  }
+
   @Test
   public void resolveSpecialDispatch() {
     IdentifierFactory factory = view.getIdentifierFactory();
@@ -3,6 +3,7 @@ package sootup.tests.typehierarchy;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static sootup.core.util.ImmutableUtils.immutableList;
 import static sootup.core.util.ImmutableUtils.immutableSet;
@@ -19,6 +20,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,6 +30,7 @@ import sootup.core.IdentifierFactory;
 import sootup.core.model.Modifier;
 import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
+import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.types.ArrayType;
 import sootup.core.types.ClassType;
@@ -94,6 +98,7 @@ public class ViewTypeHierarchyTest {
     assertEquals(expectedSubclasses, subclasses);
     assertFalse(
         "A class should not be a subclass of itself", subclasses.contains(abstractNamespace));
+    assertSame("Results are cached", subclasses, typeHierarchy.subtypesOf(abstractNamespace));
     expectedSubclasses.forEach(
         expectedSubclass ->
             assertTrue(typeHierarchy.isSubtype(abstractNamespace, expectedSubclass)));
@@ -208,7 +213,13 @@ public class ViewTypeHierarchyTest {
             Collections.emptyList());
     SootClass sootClass = new SootClass(classSource, SourceType.Application);
 
+    ClassType abstractDataStructure = factory.getClassType("ds.AbstractDataStrcture");
+    assertTrue(typeHierarchy.isSubtype(abstractDataStructure, factory.getClassType("ds.Employee")));
+    assertFalse(typeHierarchy.subclassesOf(abstractDataStructure).contains(sootClass.getType()));
     typeHierarchy.addType(sootClass);
+    assertTrue(
+        "Newly added type must be detected as a subtype",
+        typeHierarchy.isSubtype(abstractDataStructure, sootClass.getType()));
 
     assertTrue(
         "Newly added type must be detected as a subtype",
@@ -217,6 +228,79 @@ public class ViewTypeHierarchyTest {
             .contains(sootClass.getType()));
   }
 
+  @Test
+  public void isSubtypeMatchesDefaultImplementation() {
+    IdentifierFactory factory = view.getIdentifierFactory();
+    // uses the unindexed default implementation of isSubtype
+    TypeHierarchy uncachedHierarchy =
+        new TypeHierarchy() {
+          @Nonnull
+          @Override
+          public Set<ClassType> implementersOf(@Nonnull ClassType interfaceType) {
+            return typeHierarchy.implementersOf(interfaceType);
+          }
+
+          @Nonnull
+          @Override
+          public Set<ClassType> subclassesOf(@Nonnull ClassType classType) {
+            return typeHierarchy.subclassesOf(classType);
+          }
+
+          @Nonnull
+          @Override
+          public Set<ClassType> implementedInterfacesOf(@Nonnull ClassType type) {
+            return typeHierarchy.implementedInterfacesOf(type);
+          }
+
+          @Nonnull
+          @Override
+          public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+            return typeHierarchy.subtypesOf(type);
+          }
+
+          @Nonnull
+          @Override
+          public Set<ClassType> directSubtypesOf(@Nonnull ClassType type) {
+            return typeHierarchy.directSubtypesOf(type);
+          }
+
+          @Nullable
+          @Override
+          public ClassType superClassOf(@Nonnull ClassType classType) {
+            return typeHierarchy.superClassOf(classType);
+          }
+        };
+
+    // all classes of the application jar and some library types
+    List<ClassType> types =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(MethodDispatchResolverTest.jarFile))
+            .build().createOnDemandView().getClasses().stream()
+            .map(SootClass::getType)
+            .collect(Collectors.toList());
+    Stream.of(
+            "java.lang.Object",
+            "java.lang.String",
+            "java.lang.Cloneable",
+            "java.io.Serializable",
+            "java.util.Collection",
+            "java.util.List",
+            "java.util.AbstractList",
+            "java.util.ArrayList")
+        .map(factory::getClassType)
+        .forEach(types::add);
+
+    for (ClassType supertype : types) {
+      for (ClassType subtype : types) {
+        assertEquals(
+            subtype + " <: " + supertype,
+            uncachedHierarchy.isSubtype(supertype, subtype),
+            typeHierarchy.isSubtype(supertype, subtype));
+      }
+    }
+  }
+
   @Test
   public void arraySubtyping() {
     IdentifierFactory factory = view.getIdentifierFactory();